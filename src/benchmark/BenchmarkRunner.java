@@ -0,0 +1,103 @@
+package benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small harness used by the benchmarks of this package. The build of this project has no JMH,
+ * so every benchmark is a class with a {@code main} method that uses this runner to warm up
+ * an operation and then measure it from a fixed number of threads during a fixed amount of time.
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * An operation measured by the runner. It can throw, so actions invoked through the
+	 * Controller can be measured directly.
+	 */
+	public interface Operation {
+		public void run() throws Exception;
+	}
+
+	private final long warmupMillis;
+	private final long measureMillis;
+
+	/**
+	 * Constructs a BenchmarkRunner.
+	 *
+	 * @param warmupMillis  The time in milliseconds each measure is warmed up before counting operations.
+	 * @param measureMillis The time in milliseconds each measure counts operations.
+	 */
+	public BenchmarkRunner(long warmupMillis, long measureMillis) {
+		this.warmupMillis = warmupMillis;
+		this.measureMillis = measureMillis;
+	}
+
+	/**
+	 * Runs the operation on the specified number of threads and returns the throughput obtained.
+	 *
+	 * @param threads   The number of threads calling the operation concurrently.
+	 * @param operation The operation to measure.
+	 * @return The number of operations completed per second by all the threads.
+	 * @throws InterruptedException If the calling thread is interrupted while waiting for the workers.
+	 */
+	public double throughput(int threads, Operation operation) throws InterruptedException {
+		LongAdder		operations = new LongAdder();
+		CountDownLatch	finished = new CountDownLatch(threads);
+		long			start = System.nanoTime();
+		long			measureStart = start + warmupMillis * 1_000_000L;
+		long			end = measureStart + measureMillis * 1_000_000L;
+
+		for (int i = 0; i < threads; i++) {
+			Thread worker = new Thread(() -> {
+				try {
+					long now = System.nanoTime();
+					while (now < end) {
+						operation.run();
+						now = System.nanoTime();
+						if (now >= measureStart && now < end)
+							operations.increment();
+					}
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+				finally {
+					finished.countDown();
+				}
+			});
+			worker.setDaemon(true);
+			worker.start();
+		}
+		finished.await();
+		return (operations.sum() * 1_000.0 / measureMillis);
+	}
+
+	/**
+	 * Measures the average time taken by an operation executed on the calling thread.
+	 *
+	 * @param iterations The number of measured executions, done after the same number of warmup executions.
+	 * @param operation  The operation to measure.
+	 * @return The average time of one execution in nanoseconds.
+	 * @throws Exception If the operation throws.
+	 */
+	public static double averageTime(int iterations, Operation operation) throws Exception {
+		for (int i = 0; i < iterations; i++)
+			operation.run();
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+			operation.run();
+		return ((double) (System.nanoTime() - start) / iterations);
+	}
+
+	/**
+	 * Prints a line of a result table.
+	 *
+	 * @param name  The name of the measure.
+	 * @param value The value measured.
+	 * @param unit  The unit of the value.
+	 */
+	public static void report(String name, double value, String unit) {
+		System.out.println(String.format("%-50s %15.2f %s", name, value, unit));
+	}
+
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import core.exceptions.NoResultAvailable;
+import decorator.Cache;
+import decorator.EvictionPolicy;
+
+/**
+ * Measures the throughput of concurrent lookups in the Cache, caching the result when the lookup misses, as the
+ * number of threads grows. The arguments follow a Zipf distribution over ten times more arguments than the
+ * capacity, like the popular arguments of a real action, so the hit rate of every eviction policy is reported too.
+ * A single LRU map behind one lock is measured as the reference of a cache without stripes.
+ */
+public class CacheBenchmark {
+
+	private static final int CAPACITY = 10_000;
+	private static final int ARGUMENTS = CAPACITY * 10;
+	private static final int SAMPLES = 1 << 20;
+
+	/**
+	 * Draws arguments from a Zipf distribution with exponent 1, so the argument of rank k is requested
+	 * proportionally to 1 / k.
+	 */
+	private static Integer[] zipfArguments() {
+		double[] cumulative = new double[ARGUMENTS];
+		Integer[] samples = new Integer[SAMPLES];
+		Random random = new Random(42);
+		double sum = 0;
+
+		for (int rank = 0; rank < ARGUMENTS; rank++) {
+			sum += 1.0 / (rank + 1);
+			cumulative[rank] = sum;
+		}
+		for (int i = 0; i < SAMPLES; i++) {
+			int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+			samples[i] = rank >= 0 ? rank : -rank - 1;
+		}
+		return (samples);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Cache cache = Cache.instantiate();
+		BenchmarkRunner runner = new BenchmarkRunner(1000, 3000);
+		Integer[] arguments = zipfArguments();
+		int maxThreads = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+		for (EvictionPolicy policy : EvictionPolicy.values()) {
+			for (int threads = 1; threads <= maxThreads; threads *= 2) {
+				String id = policy + "-" + threads;
+				cache.setCapacity(id, CAPACITY, policy);
+				double throughput = runner.throughput(threads, () -> {
+					Integer argument = arguments[ThreadLocalRandom.current().nextInt(SAMPLES)];
+					try {
+						cache.getCacheResult(id, argument);
+					}
+					catch (NoResultAvailable e) {
+						cache.cacheResult(id, argument, argument);
+					}
+				});
+				BenchmarkRunner.report(policy + ", threads=" + threads, throughput, "ops/s");
+				BenchmarkRunner.report(policy + ", threads=" + threads + ", hit rate", cache.getStats(id).getHitRate() * 100, "%");
+			}
+		}
+
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			Map<String, Object> single = Collections.synchronizedMap(new LinkedHashMap<String, Object>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+					return (size() > CAPACITY);
+				}
+			});
+			BenchmarkRunner.report("single lock LRU, threads=" + threads, runner.throughput(threads, () -> {
+				Integer argument = arguments[ThreadLocalRandom.current().nextInt(SAMPLES)];
+				String key = argument.toString();
+				if (single.get(key) == null)
+					single.put(key, argument);
+			}), "ops/s");
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import decorator.Cache;
+import decorator.KeyExtractor;
+
+/**
+ * Compares the cost of the keys of the {@link Cache} when looking up a cached result, with small arguments
+ * and with the large lists of word counts given to the AddMapAction. Every lookup is done with arguments equal
+ * to the cached ones, but not the same instance, like the ones of a new invocation. For each
+ * {@link KeyExtractor} it reports the time of a lookup and the bytes it allocates.
+ */
+public class CacheKeyBenchmark {
+
+	private static final int SMALL_ITERATIONS = 1_000_000;
+	private static final int LARGE_ITERATIONS = 2_000;
+
+	private static List<Map<String, Long>> wordCounts() {
+		List<Map<String, Long>> counts = new ArrayList<Map<String, Long>>();
+
+		for (int i = 0; i < 100; i++) {
+			Map<String, Long> words = new HashMap<String, Long>();
+			for (int j = 0; j < 50; j++)
+				words.put("word" + (i * 7 + j), (long) (i + j));
+			counts.add(words);
+		}
+		return (counts);
+	}
+
+	/**
+	 * The fingerprint a caller could give to the cache for the word counts. It mixes every count without building
+	 * anything, ignoring the order of the words of each map but not the order of the maps.
+	 */
+	@SuppressWarnings({"unchecked"})
+	private static long fingerprint(Object args) {
+		long fingerprint = 0xcbf29ce484222325L;
+
+		if (args instanceof Integer)
+			return (((Integer) args) * 0x9e3779b97f4a7c15L);
+		for (Map<String, Long> words : (List<Map<String, Long>>) args) {
+			long mix = 0;
+			for (Map.Entry<String, Long> entry : words.entrySet())
+				mix += (entry.getKey().hashCode() * 0x9e3779b97f4a7c15L) ^ entry.getValue();
+			fingerprint = (fingerprint ^ mix) * 0x100000001b3L;
+		}
+		return (fingerprint);
+	}
+
+	private static void measure(Cache cache, String name, KeyExtractor keys, Object cached, Object lookedUp,
+			int iterations) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		cache.setKeyExtractor(name, keys);
+		cache.cacheResult(name, cached, 0);
+		double time = BenchmarkRunner.averageTime(iterations, () -> cache.getCacheResult(name, lookedUp));
+		long allocated = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < iterations; i++)
+			cache.getCacheResult(name, lookedUp);
+		allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+
+		BenchmarkRunner.report(name, time, "ns/lookup");
+		BenchmarkRunner.report(name + ", allocated", (double) allocated / iterations, "bytes/lookup");
+	}
+
+	public static void main(String[] args) throws Exception {
+		Cache cache = Cache.instantiate();
+		KeyExtractor fingerprint = KeyExtractor.fingerprint(CacheKeyBenchmark::fingerprint);
+		Integer small = 123_456;
+		Integer smallCopy = Integer.valueOf(123_456);
+		List<Map<String, Long>> large = wordCounts();
+		List<Map<String, Long>> largeCopy = wordCounts();
+
+		measure(cache, "small, toString", KeyExtractor.TO_STRING, small, smallCopy, SMALL_ITERATIONS);
+		measure(cache, "small, equals", KeyExtractor.EQUALS, small, smallCopy, SMALL_ITERATIONS);
+		measure(cache, "small, fingerprint", fingerprint, small, smallCopy, SMALL_ITERATIONS);
+		measure(cache, "word counts, toString", KeyExtractor.TO_STRING, large, largeCopy, LARGE_ITERATIONS);
+		measure(cache, "word counts, equals", KeyExtractor.EQUALS, large, largeCopy, LARGE_ITERATIONS);
+		measure(cache, "word counts, fingerprint", fingerprint, large, largeCopy, LARGE_ITERATIONS);
+	}
+
+}
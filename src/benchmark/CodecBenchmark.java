@@ -0,0 +1,87 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import core.codec.Codec;
+import core.codec.CompactCodec;
+import core.codec.EncodedValue;
+import core.codec.JavaSerializationCodec;
+
+/**
+ * Compares the codecs of the arguments and results of remote invocations with the payloads of the word count
+ * services: the lines of a text, the words counted in it, and a list of numbers. For each codec it reports the
+ * bytes sent by RMI, which serializes the value held by an {@link EncodedValue}, and the time to encode and
+ * decode the value.
+ */
+public class CodecBenchmark {
+
+	private static final int ITERATIONS = 5_000;
+
+	private static List<String> lines() {
+		List<String> lines = new ArrayList<String>();
+
+		for (int i = 0; i < 1000; i++)
+			lines.add("line " + i + " of the text whose words are counted by the word count services");
+		return (lines);
+	}
+
+	private static Map<String, Long> wordCount() {
+		Map<String, Long> words = new HashMap<String, Long>();
+
+		for (int i = 0; i < 1000; i++)
+			words.put("word" + i, (long) (i * 37 % 500));
+		return (words);
+	}
+
+	private static List<Integer> numbers() {
+		List<Integer> numbers = new ArrayList<Integer>();
+
+		for (int i = 0; i < 1000; i++)
+			numbers.add(i * 3);
+		return (numbers);
+	}
+
+	private static byte[] serialize(Object object) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		return (bytes.toByteArray());
+	}
+
+	private static void measure(String payload, Object value, String codecName, Codec codec) throws Exception {
+		byte[] wire = serialize(new EncodedValue(codec, value));
+		byte[] encoded = codec.encode(value);
+
+		BenchmarkRunner.report(payload + ", " + codecName + ", bytes on the wire", wire.length, "bytes");
+		BenchmarkRunner.report(payload + ", " + codecName + ", encode", BenchmarkRunner.averageTime(ITERATIONS, () -> codec.encode(value)), "ns/op");
+		BenchmarkRunner.report(payload + ", " + codecName + ", decode", BenchmarkRunner.averageTime(ITERATIONS, () -> codec.decode(encoded)), "ns/op");
+		BenchmarkRunner.report(payload + ", " + codecName + ", RMI round trip", BenchmarkRunner.averageTime(ITERATIONS, () -> {
+			try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialize(new EncodedValue(codec, value))))) {
+				input.readObject();
+			}
+		}), "ns/op");
+	}
+
+	public static void main(String[] args) throws Exception {
+		Object[][] payloads = {
+			{ "List<String> lines", lines() },
+			{ "Map<String, Long> words", wordCount() },
+			{ "List<Integer> numbers", numbers() },
+		};
+
+		for (Object[] payload : payloads) {
+			measure((String) payload[0], payload[1], "java", new JavaSerializationCodec());
+			measure((String) payload[0], payload[1], "compact", new CompactCodec());
+		}
+	}
+
+}
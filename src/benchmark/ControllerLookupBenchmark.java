@@ -0,0 +1,58 @@
+package benchmark;
+
+import java.util.function.Function;
+
+import core.application.Controller;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+
+/**
+ * Measures the throughput of the lookups done by the Controller on the invocation path
+ * (retrieving the registered action and walking the registered invokers) as the number
+ * of threads grows, while another thread keeps registering and deleting invokers.
+ */
+public class ControllerLookupBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		Controller controller = Controller.instantiate();
+		BenchmarkRunner runner = new BenchmarkRunner(500, 2000);
+		Function<Integer, Integer> add = x -> x + 1;
+		int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+		controller.registerAction("Add", add, 1);
+		for (int i = 0; i < 16; i++)
+			controller.registerInvoker(Invoker.createInvoker(16, 1));
+
+		Thread churn = new Thread(() -> {
+			Invoker invoker = Invoker.createInvoker(16, 1);
+			while (!Thread.currentThread().isInterrupted()) {
+				try {
+					controller.registerInvoker(invoker);
+					controller.deleteInvoker(invoker);
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+		churn.setDaemon(true);
+		churn.start();
+
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			BenchmarkRunner.report("retrieveInvokable, threads=" + threads,
+				runner.throughput(threads, () -> controller.retrieveInvokable("Add")), "ops/s");
+		}
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			BenchmarkRunner.report("scan registered invokers, threads=" + threads,
+				runner.throughput(threads, () -> {
+					long ram = 0;
+					for (InvokerInterface invoker : controller.getRegisteredInvokers())
+						ram += invoker.getMaxRam();
+					if (ram == 0) throw new IllegalStateException("No invokers registered.");
+				}), "ops/s");
+		}
+		churn.interrupt();
+		controller.shutdownAllInvokers();
+	}
+
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import policymanager.GreedyGroup;
+
+/**
+ * Measures the time the GreedyGroup takes to select an invoker as the number of invokers grows.
+ * Each operation selects an invoker, reserves the RAM of the invocation and frees it again, so the
+ * available RAM of the invokers keeps changing as it does with real invocations.
+ * <p>
+ * The indexed selection is compared with the linear search, which the GreedyGroup still uses for
+ * invokers that do not notify their RAM changes. Wrapping the invokers in a proxy hides that they do.
+ */
+public class GreedyGroupBenchmark {
+
+	private static final int[] SIZES = { 10, 100, 1000, 10000 };
+	private static final int ITERATIONS = 20_000;
+
+	private static List<InvokerInterface> createInvokers(int num, boolean indexed) {
+		List<InvokerInterface> invokers = new ArrayList<InvokerInterface>();
+
+		for (int i = 0; i < num; i++) {
+			InvokerInterface invoker = Invoker.createInvoker(100 + i % 1000, 1);
+			if (!indexed)
+				invoker = hideNotifications(invoker);
+			invokers.add(invoker);
+		}
+		// the Controller gives the same immutable snapshot to every selection
+		return (List.copyOf(invokers));
+	}
+
+	private static InvokerInterface hideNotifications(InvokerInterface invoker) {
+		return ((InvokerInterface) Proxy.newProxyInstance(InvokerInterface.class.getClassLoader(),
+			new Class<?>[] { InvokerInterface.class }, (proxy, method, args) -> {
+				try {
+					return (method.invoke(invoker, args));
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}));
+	}
+
+	private static double selectionTime(int num, boolean indexed) throws Exception {
+		List<InvokerInterface> invokers = createInvokers(num, indexed);
+		GreedyGroup greedyGroup = new GreedyGroup();
+		double time;
+
+		time = BenchmarkRunner.averageTime(ITERATIONS, () -> {
+			long ram = ThreadLocalRandom.current().nextLong(1, 100);
+			InvokerInterface invoker = greedyGroup.getInvoker(invokers, ram);
+			invoker.reserveRam(ram);
+			invoker.reserveRam(-ram);
+		});
+		for (InvokerInterface invoker : invokers)
+			invoker.shutdownInvoker();
+		return (time);
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int num : SIZES) {
+			BenchmarkRunner.report("linear search, " + num + " invokers", selectionTime(num, false), "ns/op");
+			BenchmarkRunner.report("indexed, " + num + " invokers", selectionTime(num, true), "ns/op");
+		}
+	}
+
+}
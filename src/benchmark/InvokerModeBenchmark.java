@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import core.application.Invokable;
+import core.invoker.Invoker;
+import services.proxies.Timer;
+
+/**
+ * Compares the throughput of an Invoker backed by a fixed pool of threads with an Invoker
+ * that uses a virtual thread per invocation, for an action that sleeps and for an action
+ * that only uses the CPU. Both Invokers have the same RAM, so the RAM accounting is the
+ * only limit of the virtual thread mode.
+ */
+public class InvokerModeBenchmark {
+
+	private static final int INVOCATIONS = 2000;
+	private static final long RAM = 1000;
+
+	private static double invocationsPerSecond(Invoker invoker, Invokable<Integer, Object> invokable, int arg) throws Exception {
+		List<CompletableFuture<Object>> futures = new ArrayList<>(INVOCATIONS);
+		long start = System.nanoTime();
+
+		for (int i = 0; i < INVOCATIONS; i++)
+			futures.add(invoker.invokeAsync(invokable, arg, "Benchmark"));
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+		return (INVOCATIONS * 1e9 / (System.nanoTime() - start));
+	}
+
+	public static void main(String[] args) throws Exception {
+		Timer timer = new Timer();
+		Function<Integer, Object> sleep = time -> timer.waitSec(time);
+		Function<Integer, Object> cpu = iterations -> {
+			long sum = 0;
+			for (int i = 0; i < iterations; i++)
+				sum += (sum ^ i) % 7;
+			return sum;
+		};
+		Invokable<Integer, Object> sleepInvokable = new Invokable<>(sleep, 1);
+		Invokable<Integer, Object> cpuInvokable = new Invokable<>(cpu, 1);
+
+		Invoker pooled = Invoker.createInvoker(RAM, 4);
+		Invoker virtual = Invoker.createVirtualInvoker(RAM);
+
+		//warmup of both invokers
+		invocationsPerSecond(pooled, cpuInvokable, 10_000);
+		invocationsPerSecond(virtual, cpuInvokable, 10_000);
+
+		BenchmarkRunner.report("fixed pool, sleep 20ms", invocationsPerSecond(pooled, sleepInvokable, 20), "invocations/s");
+		BenchmarkRunner.report("virtual threads, sleep 20ms", invocationsPerSecond(virtual, sleepInvokable, 20), "invocations/s");
+		BenchmarkRunner.report("fixed pool, cpu bound", invocationsPerSecond(pooled, cpuInvokable, 100_000), "invocations/s");
+		BenchmarkRunner.report("virtual threads, cpu bound", invocationsPerSecond(virtual, cpuInvokable, 100_000), "invocations/s");
+
+		pooled.shutdownInvoker();
+		virtual.shutdownInvoker();
+	}
+
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import decorator.Cache;
+import decorator.EvictionPolicy;
+
+/**
+ * Compares the garbage collection of the Controller when the Cache keeps a thousand large word counts on the
+ * heap with the same results kept in an off-heap tier, with only the few hottest ones on the heap. For each case
+ * it reports the heap used, the time of a full collection, and the collections done while the results are
+ * looked up among allocations like the ones of the invocations of the Controller.
+ * <p>
+ * Run it with a fixed heap, for instance {@code -Xms1g -Xmx1g}, so both cases have the same heap.
+ */
+public class OffHeapCacheBenchmark {
+
+	private static final int RESULTS = 1000;
+	private static final int WORDS = 1000;
+	private static final int HOT = 50;
+
+	private static Map<String, Long> wordCount(int seed) {
+		Map<String, Long> words = new HashMap<String, Long>();
+
+		for (int i = 0; i < WORDS; i++)
+			words.put("word" + (seed * 31 + i), (long) i);
+		return (words);
+	}
+
+	private static long collections() {
+		long count = 0;
+
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+			count += collector.getCollectionCount();
+		return (count);
+	}
+
+	private static long collectionTime() {
+		long time = 0;
+
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans())
+			time += collector.getCollectionTime();
+		return (time);
+	}
+
+	private static void measure(Cache cache, String name, BenchmarkRunner runner) throws Exception {
+		for (int i = 0; i < RESULTS; i++)
+			cache.cacheResult(name, i, wordCount(i));
+
+		long start = System.nanoTime();
+		System.gc();
+		double fullCollection = (System.nanoTime() - start) / 1_000_000.0;
+		long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+		long collections = collections();
+		long collectionTime = collectionTime();
+
+		// nine lookups out of ten go to the hottest results, and every lookup comes with some garbage
+		double throughput = runner.throughput(1, () -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			int argument = random.nextInt(10) == 0 ? random.nextInt(RESULTS) : random.nextInt(HOT);
+			byte[][] garbage = new byte[16][];
+			for (int i = 0; i < garbage.length; i++)
+				garbage[i] = new byte[1024];
+			cache.getCacheResult(name, argument);
+		});
+		collections = collections() - collections;
+		collectionTime = collectionTime() - collectionTime;
+
+		BenchmarkRunner.report(name + ", heap used after full collection", heap / (1024.0 * 1024.0), "MB");
+		BenchmarkRunner.report(name + ", full collection", fullCollection, "ms");
+		BenchmarkRunner.report(name + ", lookups", throughput, "ops/s");
+		BenchmarkRunner.report(name + ", collections during lookups", collections, "collections");
+		BenchmarkRunner.report(name + ", average collection pause", collections == 0 ? 0 : (double) collectionTime / collections, "ms");
+		BenchmarkRunner.report(name + ", off-heap", cache.getStats(name).getOffHeapBytes() / (1024.0 * 1024.0), "MB");
+		cache.invalidate(name);
+		System.gc();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Cache cache = Cache.instantiate();
+		BenchmarkRunner runner = new BenchmarkRunner(2000, 5000);
+
+		cache.setCapacity("heap", RESULTS, EvictionPolicy.LRU);
+		measure(cache, "heap", runner);
+
+		cache.setCapacity("off-heap tier", HOT * 2, EvictionPolicy.LRU);
+		cache.setOffHeapTier("off-heap tier", 256 << 20);
+		measure(cache, "off-heap tier", runner);
+	}
+
+}
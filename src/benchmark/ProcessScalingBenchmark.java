@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import core.application.Controller;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import rmi.InvocationSet;
+import rmi.InvokerProcess;
+import rmi.Isolation;
+import rmi.SerializedFunction;
+import rmi.ServerHandler;
+
+/**
+ * Compares the throughput of the Controller as invokers are added when they share the JVM of the Controller and
+ * when each one runs in a JVM of its own. The action allocates and sums a list of numbers, so it uses both the
+ * processor and the garbage collector. The number of invokers goes up to twice the processors of the machine.
+ */
+public class ProcessScalingBenchmark {
+
+	private static final int FIRST_PORT = 27000;
+	private static final int THREADS_PER_INVOKER = 4;
+
+	private static Long sumOfSquares(Integer n) {
+		List<Long> squares = new ArrayList<Long>(n);
+		long sum = 0;
+
+		for (long i = 0; i < n; i++)
+			squares.add(i * i);
+		for (Long square : squares)
+			sum += square;
+		return (sum);
+	}
+
+	private static double measure(Controller controller, Isolation isolation, int invokers) throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner(2_000, 5_000);
+		InvocationSet controllerSet = new InvocationSet(new ArrayList<Long>(Collections.nCopies(invokers, 16L)), null, null);
+		double throughput;
+
+		ServerHandler.isolation = isolation;
+		ServerHandler.main(new String[] { InvocationSet.serializeToString(controllerSet) });
+		ServerHandler.portStart += invokers;
+		throughput = runner.throughput(invokers * THREADS_PER_INVOKER, () -> controller.invoke("SumOfSquares", 50_000));
+
+		controller.shutdownAllInvokers();
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		InvokerProcess.destroyAll();
+		return (throughput);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Controller controller = Controller.instantiate();
+		SerializedFunction<Integer, Long> action = ProcessScalingBenchmark::sumOfSquares;
+		int maxInvokers = Runtime.getRuntime().availableProcessors() * 2;
+
+		controller.setPolicyManager(new RoundRobin());
+		controller.registerAction("SumOfSquares", action, 1);
+		InvokerProcess.jvmOptions = List.of("-Xmx256m");
+		ServerHandler.portStart = FIRST_PORT;
+		for (int invokers = 1; invokers <= maxInvokers; invokers *= 2) {
+			BenchmarkRunner.report(invokers + " invokers, same process", measure(controller, Isolation.NONE, invokers), "invocations/s");
+			BenchmarkRunner.report(invokers + " invokers, one process each", measure(controller, Isolation.INVOKER, invokers), "invocations/s");
+		}
+		System.exit(0);
+	}
+
+}
@@ -0,0 +1,56 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import core.application.Controller;
+import core.invoker.InvokerInterface;
+import rmi.InvocationSet;
+import rmi.ServerHandler;
+
+/**
+ * Measures the time taken by {@link ServerHandler} to bring up topologies of 10, 100 and 500 invokers on the
+ * loopback interface, starting the servers one after another and concurrently. Every topology is made of
+ * composites with 9 invokers each, so it has one composite server for every 10 servers.
+ */
+public class StartupBenchmark {
+
+	private static final int FIRST_PORT = 26000;
+	private static final int THREADS = 16;
+
+	private static InvocationSet topology(int servers) {
+		List<InvocationSet> composites = new ArrayList<InvocationSet>();
+
+		for (int i = 0; i < servers / 10; i++)
+			composites.add(new InvocationSet(new ArrayList<Long>(Collections.nCopies(9, 4L)), null, 4L));
+		return (new InvocationSet(null, composites, null));
+	}
+
+	private static double bringUp(Controller controller, int servers, int threads) throws Exception {
+		String serializedControllerInformation = InvocationSet.serializeToString(topology(servers));
+		long start = System.nanoTime();
+
+		ServerHandler.startupThreads = threads;
+		ServerHandler.main(new String[] { serializedControllerInformation });
+		double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+		ServerHandler.portStart += servers;
+		controller.shutdownAllInvokers();
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		return (millis);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Controller controller = Controller.instantiate();
+
+		ServerHandler.portStart = FIRST_PORT;
+		for (int servers : new int[] { 10, 100, 500 }) {
+			BenchmarkRunner.report(servers + " invokers, sequential", bringUp(controller, servers, 1), "ms");
+			BenchmarkRunner.report(servers + " invokers, " + THREADS + " threads", bringUp(controller, servers, THREADS), "ms");
+		}
+		System.exit(0);
+	}
+
+}
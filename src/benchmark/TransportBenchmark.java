@@ -0,0 +1,70 @@
+package benchmark;
+
+import java.rmi.registry.LocateRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import core.application.Invokable;
+import core.invoker.InvokerInterface;
+import rmi.NioInvokerClient;
+import rmi.NioInvokerServer;
+import rmi.SerializedFunction;
+import rmi.ServerInvoker;
+
+/**
+ * Compares the invocations per second of an Invoker reached through the loopback interface with RMI and with
+ * the NIO transport. The action only increments its argument, so what is measured is the cost of the transport.
+ * Synchronous invocations are measured from several threads, and asynchronous ones from a single thread that
+ * keeps a window of invocations in flight.
+ */
+public class TransportBenchmark {
+
+	private static final int RMI_PORT = 25301;
+	private static final int NIO_PORT = 25302;
+	private static final long RAM = 1000;
+	private static final int WINDOW = 64;
+
+	private static void measure(String transport, InvokerInterface invoker, Invokable<Integer, Integer> invokable) throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner(1_000, 3_000);
+
+		for (int threads : new int[] { 1, 4, 16 })
+			BenchmarkRunner.report(transport + ", invoke, " + threads + " threads",
+					runner.throughput(threads, () -> invoker.invoke(invokable, 1, "Increment")), "invocations/s");
+	}
+
+	private static void measureAsync(String transport, InvokerInterface invoker, Invokable<Integer, Integer> invokable) throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner(1_000, 3_000);
+
+		BenchmarkRunner.report(transport + ", invokeAsync, window of " + WINDOW,
+				runner.throughput(1, () -> {
+					List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>(WINDOW);
+					for (int i = 0; i < WINDOW; i++)
+						futures.add(invoker.invokeAsync(invokable, i, "Increment"));
+					for (CompletableFuture<Integer> future : futures)
+						future.get();
+				}) * WINDOW, "invocations/s");
+	}
+
+	public static void main(String[] args) throws Exception {
+		SerializedFunction<Integer, Integer>	increment = x -> x + 1;
+		Invokable<Integer, Integer>				invokable = new Invokable<>(increment, 1);
+
+		ServerInvoker.main(new String[] { Integer.toString(RMI_PORT), Long.toString(RAM), "0" });
+		InvokerInterface rmi = (InvokerInterface) LocateRegistry.getRegistry("localhost", RMI_PORT).lookup("Invoker");
+		NioInvokerServer server = NioInvokerServer.start(NIO_PORT, RAM, 4, false);
+		InvokerInterface nio = NioInvokerClient.connect("localhost", NIO_PORT);
+
+		measure("RMI", rmi, invokable);
+		measure("NIO", nio, invokable);
+		measureAsync("RMI", rmi, invokable);
+		measureAsync("NIO", nio, invokable);
+
+		NioInvokerClient.disconnect("localhost", NIO_PORT);
+		server.getInvoker().shutdownInvoker();
+		server.close();
+		rmi.shutdownInvoker();
+		System.exit(0);
+	}
+
+}
@@ -1,55 +1,158 @@
 package core.application;
 
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 import java.util.logging.Logger;
 
 import core.exceptions.*;
+import core.health.HealthMonitor;
+import core.health.HealthState;
+import core.invoker.Invoker;
 import core.invoker.InvokerInterface;
+import core.invoker.OverflowPolicy;
 import policymanager.PolicyManager;
 
 public class Controller {
 
-	private List<InvokerInterface> invokers;
+	/**
+	 * The registered invokers. It is a copy-on-write list, so the invocation path iterates
+	 * over an immutable snapshot without locking while registrations replace the snapshot.
+	 */
+	private final CopyOnWriteArrayList<InvokerInterface> invokers;
+
+	/**
+	 * The invokers the PolicyManager selects from. It is an immutable snapshot of the registered invokers, without
+	 * the ones that are not healthy when there is a HealthMonitor, replaced every time an invoker is registered,
+	 * deleted or changes its health. As the same snapshot is given to every selection until it is replaced, the
+	 * PolicyManagers neither copy it nor compare it element by element.
+	 */
+	private volatile List<InvokerInterface> candidates;
+
+	/** The monitor of the health of the registered invokers, or null if their health is not monitored. */
+	private volatile HealthMonitor healthMonitor;
+
+	/** How the invocations whose invoker cannot be reached are tried again on other invokers. */
+	private volatile RetryPolicy retryPolicy;
+
+	/** When a duplicate of an asynchronous invocation that is taking too long is sent to another invoker. */
+	private volatile HedgePolicy hedgePolicy;
+
+	/** Thread that waits for the delay of the duplicates of the asynchronous invocations, without sending them. */
+	private final ScheduledExecutorService hedgeScheduler;
+
+	/**
+	 * Threads that send the duplicates of the asynchronous invocations, and send again the ones whose invoker
+	 * could not be reached anymore, as sending them may block.
+	 */
+	private final ExecutorService dispatcher;
 
 	/**
 	 * A map containing Invokable functions associated with an unique ID.
+	 * Lookups done when invoking an action never block.
 	 * @see {@link Invokable} class.
 	 */
-	private Map<String, Invokable<Object, Object>> invokables;
+	private final Map<String, Invokable<Object, Object>> invokables;
+
+	private volatile PolicyManager policyManager;
+
+	/**
+	 * Flag to check if the elements of a synchronous group invocation are executed concurrently
+	 * by the invokers selected, instead of one after another on the calling thread.
+	 */
+	private volatile boolean parallelGroupInvocation;
 
-	private PolicyManager policyManager;
+	/** Threads that execute, one per invoker selected, the elements of a parallel group invocation. */
+	private final ExecutorService groupExecutor;
+
+	/**
+	 * The capacity of the admission queue of every registered invoker, or 0 if the queues are unbounded,
+	 * and what happens to an asynchronous invocation that arrives when the queue is full.
+	 */
+	private volatile int admissionCapacity;
+	private volatile OverflowPolicy overflowPolicy;
 
 	/**
 	 * The instance used to limit the instantiation of Controller class,
 	 * following the Singleton design pattern.
 	 */
-	private static Controller uniqueInstance = null;
+	private static volatile Controller uniqueInstance = null;
+	private static Object mutex = new Object();
 
 	/**
 	 * Instantiates a single instance of the Controller class using the Singleton design pattern.
 	 * If the instance does not exist, a new Controller instance is created; otherwise, the existing instance is returned.
+	 * This method is thread-safe.
 	 *
 	 * @return The unique instance of the Controller class.
 	 */
 	public static Controller instantiate() {
-		if (uniqueInstance == null)
-			uniqueInstance = new Controller();
-		return (uniqueInstance);
+		Controller instance;
+
+		instance = uniqueInstance;
+		if (instance == null)
+		{
+			synchronized (mutex)
+			{
+				instance = uniqueInstance;
+				if (instance == null)
+					instance = uniqueInstance = new Controller();
+			}
+		}
+		return (instance);
 	}
 
 	/**
 	 * Constructs a new instance of Controller class, initializing its internal data structures.
 	 */
 	private Controller() {
-		invokers = new LinkedList<InvokerInterface>();
-		invokables = new HashMap<String, Invokable<Object, Object>>();
+		invokers = new CopyOnWriteArrayList<InvokerInterface>();
+		candidates = List.of();
+		healthMonitor = null;
+		retryPolicy = RetryPolicy.NONE;
+		hedgePolicy = HedgePolicy.NONE;
+		invokables = new ConcurrentHashMap<String, Invokable<Object, Object>>();
+		parallelGroupInvocation = false;
+		admissionCapacity = 0;
+		overflowPolicy = OverflowPolicy.BLOCK;
+		groupExecutor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "controller-group");
+			thread.setDaemon(true);
+			return (thread);
+		});
+		hedgeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "controller-hedge");
+			thread.setDaemon(true);
+			return (thread);
+		});
+		dispatcher = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "controller-dispatch");
+			thread.setDaemon(true);
+			return (thread);
+		});
 	}
 
 
@@ -76,6 +179,66 @@ public class Controller {
 		}
 	}
 
+	/**
+	 * Sets how the elements of a synchronous group invocation are executed. By default they are executed
+	 * one after another on the calling thread. When parallel group invocation is enabled, the elements are
+	 * still assigned to invokers by the PolicyManager in order, but every invoker selected executes its
+	 * share of the group concurrently with the others, so the group takes as long as the busiest invoker.
+	 *
+	 * @param parallelGroupInvocation {@code true} to execute the elements of a group concurrently among the invokers selected.
+	 */
+	public void setParallelGroupInvocation(boolean parallelGroupInvocation) {
+		this.parallelGroupInvocation = parallelGroupInvocation;
+	}
+
+	/**
+	 * Bounds the admission queue where asynchronous invocations wait for RAM in every registered invoker,
+	 * and in the ones registered later, so a burst of invocations keeps the memory used flat.
+	 * When a queue is full, the overflow policy decides if {@code invoke_async} blocks, throws an
+	 * {@link InvocationRejected} or drops the invocation that has waited the longest in that invoker.
+	 * A capacity of 0 makes the queues unbounded again, as they are by default.
+	 *
+	 * @param capacity       The maximum number of invocations waiting for RAM in each invoker, or 0 for no limit.
+	 * @param overflowPolicy What to do with an invocation that arrives when the queue is full.
+	 * @throws OperationNotValid If the capacity is negative or the policy is null.
+	 *
+	 * @see OverflowPolicy
+	 */
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid {
+		if (capacity < 0) throw new OperationNotValid("Capacity of the admission queue cannot be negative.");
+		if (overflowPolicy == null) throw new OperationNotValid("Overflow policy cannot be null.");
+		Logger logger = Logger.getLogger(Controller.class.getName());
+		this.overflowPolicy = overflowPolicy;
+		this.admissionCapacity = capacity;
+		for (InvokerInterface invoker : invokers) {
+			try {
+				invoker.setAdmissionPolicy(capacity, overflowPolicy);
+			} catch (RemoteException e) {
+				logger.warning("RemoteException: Admission policy couldn't be set to " + invoker.toString());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of asynchronous invocations waiting for RAM among all the registered invokers.
+	 * Invokers that cannot be reached are not counted.
+	 *
+	 * @return The total depth of the admission queues.
+	 */
+	public int getQueueDepth() {
+		Logger logger = Logger.getLogger(Controller.class.getName());
+		int depth = 0;
+
+		for (InvokerInterface invoker : invokers) {
+			try {
+				depth += invoker.getQueueDepth();
+			} catch (RemoteException e) {
+				logger.warning("RemoteException: Queue depth couldn't be read from " + invoker.toString());
+			}
+		}
+		return (depth);
+	}
+
 	/**
 	 * Adds an invoker to the Controllers list of registered invokers.
 	 * 
@@ -84,14 +247,24 @@ public class Controller {
 	 */
 	public void registerInvoker(InvokerInterface invoker) throws OperationNotValid {
 		if (invoker == null) throw new OperationNotValid("Invoker cannot be null.");
-		if (invokers.contains(invoker)) throw new OperationNotValid("Invoker is already registered.");
+		if (!invokers.addIfAbsent(invoker)) throw new OperationNotValid("Invoker is already registered.");
+		HealthMonitor monitor = healthMonitor;
+		if (monitor != null)
+			monitor.monitor(invoker);
+		updateCandidates();
 		Logger logger = Logger.getLogger(Controller.class.getName());
-		invokers.add(invoker);
 		try {
 			invoker.setPolicyManager(policyManager);
 		} catch (RemoteException e) {
 			logger.warning("RemoteException: PolicyManager couldn't be set to " + invoker.toString());
 		}
+		if (admissionCapacity > 0) {
+			try {
+				invoker.setAdmissionPolicy(admissionCapacity, overflowPolicy);
+			} catch (RemoteException e) {
+				logger.warning("RemoteException: Admission policy couldn't be set to " + invoker.toString());
+			}
+		}
 	}
 
 	/**
@@ -102,30 +275,143 @@ public class Controller {
 	 */
 	public void deleteInvoker(InvokerInterface invoker) throws OperationNotValid {
 		if (invoker == null) throw new OperationNotValid("Invoker to delete cannot be null.");
-		if (!invokers.contains(invoker)) throw new OperationNotValid("Invoker is not registered.");
-		invokers.remove(invoker);
+		if (!invokers.remove(invoker)) throw new OperationNotValid("Invoker is not registered.");
+		HealthMonitor monitor = healthMonitor;
+		if (monitor != null)
+			monitor.forget(invoker);
+		updateCandidates();
 	}
 
 	/**
-	 * Retrieves the list of registered invokers within the controller.
+	 * Monitors the health of the registered invokers, and of the ones registered later, with heartbeats.
+	 * The invokers that are not {@link HealthState#HEALTHY} are not given to the PolicyManager until they
+	 * answer a heartbeat again, so invocations are not sent to invokers that cannot be reached.
+	 * A previous monitor is replaced.
 	 *
-	 * @return The list of registered invokers.
+	 * @param interval  The milliseconds between heartbeats.
+	 * @param timeout   The milliseconds an invoker is given to answer a heartbeat.
+	 * @param deadAfter The number of consecutive heartbeats not answered to consider an invoker dead.
+	 * @throws OperationNotValid If the interval or the timeout are not positive, or deadAfter is less than 1.
+	 *
+	 * @see HealthMonitor
 	 */
-	public List<InvokerInterface> getRegisteredInvokers() {
-		return (invokers);
+	public void setHealthMonitor(long interval, long timeout, int deadAfter) throws OperationNotValid {
+		if (interval <= 0 || timeout <= 0) throw new OperationNotValid("Interval and timeout of the heartbeats must be positive.");
+		if (deadAfter < 1) throw new OperationNotValid("An invoker must miss at least one heartbeat to be dead.");
+		HealthMonitor monitor = new HealthMonitor(interval, timeout, deadAfter, (invoker, state) -> {
+			Logger.getLogger(Controller.class.getName()).warning("Invoker " + invoker.toString() + " is " + state + ".");
+			updateCandidates();
+		});
+		removeHealthMonitor();
+		// it is published before the registered invokers are monitored, so the ones registered meanwhile are too
+		healthMonitor = monitor;
+		for (InvokerInterface invoker : invokers) {
+			monitor.monitor(invoker);
+			// the invoker may have been deleted, and forgotten by the monitor, before it was monitored
+			if (!invokers.contains(invoker))
+				monitor.forget(invoker);
+		}
+		updateCandidates();
 	}
-	
+
+	/**
+	 * Stops monitoring the health of the invokers. Every registered invoker is given to the PolicyManager again.
+	 */
+	public void removeHealthMonitor() {
+		HealthMonitor monitor = healthMonitor;
+
+		if (monitor == null)
+			return ;
+		monitor.close();
+		healthMonitor = null;
+		updateCandidates();
+	}
+
+	/**
+	 * Retrieves the health of a registered invoker. Without a HealthMonitor every registered invoker is healthy.
+	 *
+	 * @param invoker The invoker.
+	 * @return The health of the invoker, or null if it is not registered.
+	 */
+	public HealthState getHealth(InvokerInterface invoker) {
+		HealthMonitor monitor = healthMonitor;
+
+		if (monitor != null)
+			return (monitor.getState(invoker));
+		if (invokers.contains(invoker))
+			return (HealthState.HEALTHY);
+		return (null);
+	}
+
 	/**
-	 * Checks whether an action with the specified unique identifier (ID) is already registered in the Controller.
+	 * Sets how the invocations that fail because their invoker cannot be reached are tried again. Every attempt
+	 * is sent to another invoker selected by the PolicyManager, and the chunks of a group invocation are tried
+	 * again on their own, so a single invoker failing does not fail the whole group. Asynchronous invocations are
+	 * also tried again when their future fails because the connection to their invoker is lost.
+	 * <p>
+	 * Only connection failures, like a {@link java.rmi.ConnectException} or a {@link NoSuchObjectException}, are
+	 * tried again. Other RemoteExceptions, like a {@link java.rmi.ServerException} or an
+	 * {@link java.rmi.UnmarshalException} of the result, may be raised once the invoker ran the invocation, so
+	 * they reach the caller instead of running it twice. By default every invocation is tried once.
+	 *
+	 * @param retryPolicy The policy to try invocations again.
+	 * @throws OperationNotValid If the policy is null.
 	 *
-	 * @param id The unique identifier to check for registration.
-	 * @return {@code true} if an action with the specified ID is already registered, {@code false} otherwise.
+	 * @see RetryPolicy
 	 */
-	private boolean	isAlreadyRegistered(String id) {
-		if (invokables.isEmpty()) return (false);
-		return (invokables.get(id) != null);
+	public void setRetryPolicy(RetryPolicy retryPolicy) throws OperationNotValid {
+		if (retryPolicy == null) throw new OperationNotValid("Retry policy cannot be null.");
+		this.retryPolicy = retryPolicy;
 	}
 
+	/**
+	 * Sets when a duplicate of a single asynchronous invocation is sent to another invoker, to cut the latency
+	 * added by an invoker that is occasionally slow. The invocation completes with the first of the two that
+	 * succeeds, and the other one is cancelled, so if it has not started yet its invoker releases its RAM.
+	 * Group invocations and synchronous invocations are never hedged. By default nothing is hedged.
+	 *
+	 * @param hedgePolicy The policy to send duplicates of the invocations.
+	 * @throws OperationNotValid If the policy is null.
+	 *
+	 * @see HedgePolicy
+	 */
+	public void setHedgePolicy(HedgePolicy hedgePolicy) throws OperationNotValid {
+		if (hedgePolicy == null) throw new OperationNotValid("Hedge policy cannot be null.");
+		this.hedgePolicy = hedgePolicy;
+	}
+
+	/**
+	 * Replaces the list of invokers given to the PolicyManager with an immutable snapshot of the healthy
+	 * registered invokers, keeping the order in which they were registered.
+	 */
+	private synchronized void updateCandidates() {
+		HealthMonitor monitor = healthMonitor;
+		List<InvokerInterface> healthy;
+
+		if (monitor == null) {
+			candidates = List.copyOf(invokers);
+			return ;
+		}
+		healthy = new ArrayList<InvokerInterface>(invokers.size());
+		for (InvokerInterface invoker : invokers) {
+			HealthState state = monitor.getState(invoker);
+			// an invoker being registered may not be monitored yet
+			if (state == null || state == HealthState.HEALTHY)
+				healthy.add(invoker);
+		}
+		candidates = List.copyOf(healthy);
+	}
+
+	/**
+	 * Retrieves the list of registered invokers within the controller.
+	 * Iterating over it is safe while other threads register or delete invokers.
+	 *
+	 * @return The list of registered invokers.
+	 */
+	public List<InvokerInterface> getRegisteredInvokers() {
+		return (invokers);
+	}
+	
 	/**
 	 * Registers an action with the Controller, associating it with a unique identifier (ID),
 	 * a function (invokable), and the amount of RAM required for the invocation.
@@ -144,8 +430,8 @@ public class Controller {
 	public <T, R> void registerAction(String id, Function<T, R> invokable, long ram) throws OperationNotValid {
 		if (invokable == null) throw new OperationNotValid("Action registered cannot be null.");
 		if (id == null)	throw new OperationNotValid("ID cannot be null.");
-		if (isAlreadyRegistered(id)) throw new OperationNotValid("Action already registered.");
-		invokables.put(id, (Invokable<Object, Object>) new Invokable<T, R>(invokable, ram));
+		if (invokables.putIfAbsent(id, (Invokable<Object, Object>) new Invokable<T, R>(invokable, ram)) != null)
+			throw new OperationNotValid("Action already registered.");
 	}
 
 	/**
@@ -156,8 +442,7 @@ public class Controller {
 	 */
 	public void deleteAction(String id) throws OperationNotValid {
 		if (id == null)	throw new OperationNotValid("Id cannot be null.");
-		if (!isAlreadyRegistered(id)) throw new OperationNotValid("There are no actions with the id" + id);
-		invokables.remove(id);
+		if (invokables.remove(id) == null) throw new OperationNotValid("There are no actions with the id" + id);
 	}
 
 	/**
@@ -170,8 +455,9 @@ public class Controller {
 	 */
 	public Object getAction(String id) throws OperationNotValid {
 		if (id == null)	throw new OperationNotValid("Id cannot be null.");
-		if (!isAlreadyRegistered(id)) throw new OperationNotValid("There are no actions with the id" + id);
-		return invokables.get(id).retrieveInvokable();
+		Invokable<Object, Object> invokable = invokables.get(id);
+		if (invokable == null) throw new OperationNotValid("There are no actions with the id" + id);
+		return invokable.retrieveInvokable();
 	}
 
 	/**
@@ -190,9 +476,12 @@ public class Controller {
 	@SuppressWarnings("unchecked")
 	public <T, R> Invokable<T,R> retrieveInvokable(String id) throws OperationNotValid, NoActionRegistered {
 		if (id == null) throw new OperationNotValid("Id cannot be null.");
-		if (invokables.isEmpty()) throw new NoActionRegistered("Map of actions is empty.");
-		if (!invokables.containsKey(id)) throw new NoActionRegistered("There is no action registered with that id.");
-		return ((Invokable<T, R>)invokables.get(id));
+		Invokable<Object, Object> invokable = invokables.get(id);
+		if (invokable == null) {
+			if (invokables.isEmpty()) throw new NoActionRegistered("Map of actions is empty.");
+			throw new NoActionRegistered("There is no action registered with that id.");
+		}
+		return ((Invokable<T, R>)invokable);
 	}
 
 	/**
@@ -210,7 +499,187 @@ public class Controller {
 	 */
 	private InvokerInterface selectInvoker(long ram) throws NoPolicyManagerRegistered, RemoteException, NoInvokerAvailable {
 		if (policyManager == null) throw new NoPolicyManagerRegistered("There isn't a policy manager registered.");
-		return (policyManager.getInvoker(invokers, ram));
+		return (policyManager.getInvoker(candidates, ram));
+	}
+
+	/**
+	 * Selects an invoker like {@link #selectInvoker(long)}, but among the invokers that have not failed yet.
+	 * If every invoker failed, it is selected among all of them again.
+	 *
+	 * @param ram    The amount of RAM required for the invocation.
+	 * @param failed The invokers that failed.
+	 * @return The selected InvokerInterface.
+	 * @throws NoPolicyManagerRegistered If there is no PolicyManager registered with the Controller.
+	 * @throws RemoteException If a remote communication-related exception occurs.
+	 * @throws NoInvokerAvailable If no suitable Invoker is available based on the PolicyManager's strategy.
+	 */
+	private InvokerInterface selectInvoker(long ram, List<InvokerInterface> failed) throws NoPolicyManagerRegistered, RemoteException, NoInvokerAvailable {
+		List<InvokerInterface> available = new ArrayList<InvokerInterface>(candidates);
+
+		if (policyManager == null) throw new NoPolicyManagerRegistered("There isn't a policy manager registered.");
+		available.removeAll(failed);
+		if (available.isEmpty())
+			return (selectInvoker(ram));
+		return (policyManager.getInvoker(available, ram));
+	}
+
+	/**
+	 * A call to the invoker selected for an invocation.
+	 *
+	 * @param <V> The type returned by the call.
+	 */
+	private interface SelectedCall<V> {
+		public V call(InvokerInterface invoker) throws Exception;
+	}
+
+	/**
+	 * Checks if an invocation failed because its invoker could not be reached, so it can be sent to another one.
+	 * The failures raised once the invoker may have run the invocation are not connection failures.
+	 *
+	 * @param failure The failure of the invocation, maybe wrapped by the future of an asynchronous invocation.
+	 * @return {@code true} if the failure is a connection failure.
+	 */
+	private static boolean isConnectionFailure(Throwable failure) {
+		while ((failure instanceof CompletionException || failure instanceof ExecutionException) && failure.getCause() != null)
+			failure = failure.getCause();
+		return (failure instanceof java.rmi.ConnectException || failure instanceof ConnectIOException
+				|| failure instanceof NoSuchObjectException || failure instanceof java.rmi.UnknownHostException);
+	}
+
+	/**
+	 * Calls the invoker selected for an invocation and, if it cannot be reached, calls other invokers as the
+	 * RetryPolicy allows. The invokers that failed are not selected again.
+	 *
+	 * @param <V>     The type returned by the call.
+	 * @param ram     The amount of RAM required for the invocation.
+	 * @param invoker The invoker selected for the first attempt.
+	 * @param call    The call to the invoker.
+	 * @return The value returned by the first call that reaches its invoker.
+	 * @throws Exception If the call throws anything but a connection failure, or the last attempt fails.
+	 */
+	private <V> V callWithFailover(long ram, InvokerInterface invoker, SelectedCall<V> call) throws Exception {
+		return (callWithFailover(ram, invoker, call, new ArrayList<InvokerInterface>(), 1));
+	}
+
+	/**
+	 * Calls the invoker selected like {@link #callWithFailover(long, InvokerInterface, SelectedCall)}, starting
+	 * at an attempt with the invokers that already failed.
+	 */
+	private <V> V callWithFailover(long ram, InvokerInterface invoker, SelectedCall<V> call, List<InvokerInterface> failed, int firstAttempt) throws Exception {
+		RetryPolicy retry = retryPolicy;
+
+		for (int attempt = firstAttempt; ; attempt++) {
+			try {
+				return (call.call(invoker));
+			}
+			catch (RemoteException e) {
+				if (!isConnectionFailure(e) || attempt >= retry.getMaxAttempts()) throw e;
+				Logger.getLogger(Controller.class.getName()).warning("RemoteException: Invocation failed in " + invoker.toString() + ", attempt " + attempt + ".");
+				failed.add(invoker);
+				Thread.sleep(retry.getBackoff(attempt));
+				invoker = selectInvoker(ram, failed);
+			}
+		}
+	}
+
+	/**
+	 * Sends an asynchronous invocation like {@link #callWithFailover(long, InvokerInterface, SelectedCall)}, and
+	 * sends it again to another invoker when its future fails with a connection failure, as the RetryPolicy
+	 * allows. Every attempt counts, whether it failed being sent or later. Cancelling the future returned
+	 * cancels the attempt running.
+	 *
+	 * @param <V>     The type of the result of the invocation.
+	 * @param ram     The amount of RAM required for the invocation.
+	 * @param invoker The invoker selected for the first attempt.
+	 * @param call    The call to the invoker, which sends the invocation.
+	 * @return The future completed with the result of the first attempt that does not fail with a connection failure.
+	 * @throws Exception If the invocation cannot be sent to any invoker.
+	 */
+	private <V> CompletableFuture<V> callAsyncWithFailover(long ram, InvokerInterface invoker, SelectedCall<CompletableFuture<V>> call) throws Exception {
+		CompletableFuture<V> result = new CompletableFuture<V>();
+
+		sendWithFailover(ram, invoker, call, result, new ArrayList<InvokerInterface>(), 1);
+		return (result);
+	}
+
+	private <V> void sendWithFailover(long ram, InvokerInterface invoker, SelectedCall<CompletableFuture<V>> call,
+			CompletableFuture<V> result, List<InvokerInterface> failed, int firstAttempt) throws Exception {
+		RetryPolicy retry = retryPolicy;
+		InvokerInterface[] selected = { invoker };
+		int failedBefore = failed.size();
+		// the attempt that sends the invocation, after the ones that could not send it
+		int[] attempt = { firstAttempt };
+		CompletableFuture<V> sent = callWithFailover(ram, invoker, selectedInvoker -> {
+			selected[0] = selectedInvoker;
+			attempt[0] = firstAttempt + failed.size() - failedBefore;
+			return (call.call(selectedInvoker));
+		}, failed, firstAttempt);
+
+		result.whenComplete((value, failure) -> {
+			if (result.isCancelled())
+				sent.cancel(false);
+		});
+		sent.whenComplete((value, failure) -> {
+			if (failure == null) {
+				result.complete(value);
+				return ;
+			}
+			if (result.isDone() || !isConnectionFailure(failure) || attempt[0] >= retry.getMaxAttempts()) {
+				result.completeExceptionally(failure);
+				return ;
+			}
+			Logger.getLogger(Controller.class.getName()).warning("RemoteException: Invocation failed in " + selected[0].toString() + ", attempt " + attempt[0] + ".");
+			failed.add(selected[0]);
+			// it is sent again on another thread, as sending it may block the thread completing the future
+			CompletableFuture.delayedExecutor(retry.getBackoff(attempt[0]), TimeUnit.MILLISECONDS, dispatcher).execute(() -> {
+				try {
+					sendWithFailover(ram, selectInvoker(ram, failed), call, result, failed, attempt[0] + 1);
+				}
+				catch (Exception e) {
+					result.completeExceptionally(e);
+				}
+			});
+		});
+	}
+
+	/**
+	 * A call to an invoker that receives the Invokable to be sent to it.
+	 *
+	 * @param <T> The type of the input parameter for the Invokable.
+	 * @param <R> The type of the result returned by the Invokable.
+	 * @param <V> The type returned by the call.
+	 */
+	private interface InvokerCall<T, R, V> {
+		public V call(Invokable<T, R> invokable) throws Exception;
+	}
+
+	/**
+	 * Calls an invoker sending a reference to the Invokable instead of its function when the invoker is remote.
+	 * If the action is not deployed in the invoker yet, or was deployed with another content, it is deployed
+	 * and the call is done again, so the function is sent once to every remote invoker.
+	 * <p>
+	 * Local invokers and functions that cannot be serialized always receive the whole Invokable.
+	 *
+	 * @param <T>       The type of the input parameter for the Invokable.
+	 * @param <R>       The type of the result returned by the Invokable.
+	 * @param <V>       The type returned by the call.
+	 * @param invoker   The invoker called.
+	 * @param id        The unique identifier associated with the action.
+	 * @param invokable The Invokable action to be invoked.
+	 * @param call      The call to the invoker.
+	 * @return The value returned by the call.
+	 * @throws Exception If an exception occurs during the deployment or the call.
+	 */
+	private <T, R, V> V callInvoker(InvokerInterface invoker, String id, Invokable<T, R> invokable, InvokerCall<T, R, V> call) throws Exception {
+		if (invokable.getHash() == null || invoker instanceof Invoker)
+			return (call.call(invokable));
+		try {
+			return (call.call(invokable.reference()));
+		}
+		catch (ActionNotDeployed e) {
+			invoker.deployAction(id, invokable);
+			return (call.call(invokable.reference()));
+		}
 	}
 
 	/**
@@ -225,8 +694,8 @@ public class Controller {
 	 * @throws Exception If an exception occurs during the invocation process.
 	 */
 	private <T, R> R getResult(Invokable<T, R> invokable, String id, T args) throws Exception {
-		InvokerInterface invoker = selectInvoker(invokable.getRam());
-		return (invoker.invoke(invokable, args, id));
+		return (callWithFailover(invokable.getRam(), selectInvoker(invokable.getRam()),
+			invoker -> callInvoker(invoker, id, invokable, sent -> invoker.invoke(sent, args, id))));
 	}
 
 	/**
@@ -237,12 +706,243 @@ public class Controller {
 	 * @param invokable The Invokable action to be asynchronously invoked.
 	 * @param id        The unique identifier associated with the action.
 	 * @param args      The input arguments for the Invokable action.
-	 * @return A Future representing the asynchronous result of invoking the specified Invokable action.
+	 * @return A CompletableFuture representing the asynchronous result of invoking the specified Invokable action.
 	 * @throws Exception If an exception occurs during the asynchronous invocation process.
 	 */
-	private <T, R> Future<R> getResult_async(Invokable<T, R> invokable, String id, T args) throws Exception {
-		InvokerInterface invoker = selectInvoker(invokable.getRam());
-		return (invoker.invokeAsync(invokable, args, id));
+	private <T, R> CompletableFuture<R> getResult_async(Invokable<T, R> invokable, String id, T args) throws Exception {
+		return (callAsyncWithFailover(invokable.getRam(), selectInvoker(invokable.getRam()),
+			invoker -> callInvoker(invoker, id, invokable, sent -> invoker.invokeAsync(sent, args, id))));
+	}
+
+	/**
+	 * Asynchronously invokes the specified Invokable action like {@link #getResult_async}, and sends a duplicate to
+	 * another invoker selected by the PolicyManager if the invocation has not finished after the delay. The future
+	 * returned completes with the first invocation that succeeds, or with the first failure when every invocation
+	 * sent has failed.
+	 * Once it completes, the invocation still running is cancelled. No duplicate is sent if there is no other
+	 * invoker to select.
+	 *
+	 * @param <T>       The type of the input parameter for the Invokable.
+	 * @param <R>       The type of the result returned by the Invokable.
+	 * @param invokable The Invokable action to be asynchronously invoked.
+	 * @param id        The unique identifier associated with the action.
+	 * @param args      The input arguments for the Invokable action.
+	 * @param delay     The nanoseconds to wait for the invocation before sending the duplicate.
+	 * @return A CompletableFuture completed with the result of the first invocation that succeeds.
+	 * @throws Exception If an exception occurs sending the first invocation.
+	 */
+	private <T, R> CompletableFuture<R> getHedgedResult_async(Invokable<T, R> invokable, String id, T args, long delay) throws Exception {
+		long ram = invokable.getRam();
+		// the invoker of the last attempt of the first invocation, set from the thread that sends it
+		AtomicReference<InvokerInterface> selected = new AtomicReference<InvokerInterface>();
+		CompletableFuture<R> result = new CompletableFuture<R>();
+		// invocations sent, or about to be sent, that have not failed yet
+		AtomicInteger pending = new AtomicInteger(1);
+		AtomicReference<Throwable> firstFailure = new AtomicReference<Throwable>();
+		Runnable abandon = () -> {
+			if (pending.decrementAndGet() == 0)
+				result.completeExceptionally(firstFailure.get());
+		};
+		BiConsumer<R, Throwable> settle = (value, failure) -> {
+			if (failure == null) {
+				result.complete(value);
+				return ;
+			}
+			firstFailure.compareAndSet(null, failure);
+			abandon.run();
+		};
+
+		CompletableFuture<R> first = callAsyncWithFailover(ram, selectInvoker(ram),
+			invoker -> {
+				selected.set(invoker);
+				return (callInvoker(invoker, id, invokable, sent -> invoker.invokeAsync(sent, args, id)));
+			});
+		first.whenComplete(settle);
+		// the scheduler is only the timer, the duplicate is sent from the dispatcher as sending it may block
+		ScheduledFuture<?> hedge = hedgeScheduler.schedule(() -> dispatcher.execute(() -> {
+			pending.incrementAndGet();
+			if (result.isDone())
+				return ;
+			try {
+				InvokerInterface busy = selected.get();
+				InvokerInterface other = selectInvoker(ram, List.of(busy));
+				if (other.equals(busy)) {
+					abandon.run();
+					return ;
+				}
+				CompletableFuture<R> second = callInvoker(other, id, invokable, sent -> other.invokeAsync(sent, args, id));
+				second.whenComplete(settle);
+				result.whenComplete((value, failure) -> second.cancel(false));
+			}
+			catch (Exception e) {
+				Logger.getLogger(Controller.class.getName()).warning("Duplicate of the invocation couldn't be sent: " + e.toString());
+				abandon.run();
+			}
+		}), delay, TimeUnit.NANOSECONDS);
+		result.whenComplete((value, failure) -> {
+			hedge.cancel(false);
+			first.cancel(false);
+		});
+		return (result);
+	}
+
+	/**
+	 * Receives the chunks of a group invocation, each one with the invoker selected for all its elements.
+	 *
+	 * @param <T> The type of the input parameter of the elements.
+	 */
+	private interface ChunkDispatcher<T> {
+		public void dispatch(InvokerInterface invoker, List<T> chunk) throws Exception;
+	}
+
+	/**
+	 * Selects an invoker for each element of a group, in the order of the list, and joins the consecutive elements
+	 * assigned to the same invoker in chunks of at most the group size planned by the PolicyManager. Every chunk is
+	 * dispatched as soon as it is complete or the next element is assigned to another invoker. A chunk of a single
+	 * element is invoked as a single invocation.
+	 * <p>
+	 * When the elements are executed asynchronously, each one used to reserve its RAM in the invoker before the next
+	 * one was selected, and the selection of the next invokers depends on it. So the RAM of the elements waiting in a
+	 * chunk is reserved in the invoker selected until the chunk is dispatched.
+	 *
+	 * @param <T>        The type of the input parameter for the Invokable.
+	 * @param <R>        The type of the result returned by the Invokable.
+	 * @param invokable  The Invokable action to be invoked.
+	 * @param args       The list of input arguments of the group.
+	 * @param reserve    {@code true} to reserve the RAM of the elements waiting in a chunk.
+	 * @param dispatcher The receiver of the chunks.
+	 * @throws Exception If an exception occurs during the selection of invokers or the dispatch of any chunk.
+	 */
+	private <T, R> void dispatchInChunks(Invokable<T, R> invokable, List<T> args, boolean reserve, ChunkDispatcher<T> dispatcher) throws Exception {
+		int chunkSize = policyManager.getGroupSize();
+		long ram = invokable.getRam();
+		InvokerInterface chunkInvoker = null;
+		List<T> chunk = new ArrayList<T>();
+		long reserved = 0;
+
+		reserve = reserve && chunkSize > 1;
+		try {
+			for (T element : args) {
+				InvokerInterface invoker = selectInvoker(ram);
+				if (chunkInvoker != null && !invoker.equals(chunkInvoker)) {
+					dispatchChunk(chunkInvoker, chunk, reserved, dispatcher);
+					reserved = 0;
+					chunk = new ArrayList<T>();
+				}
+				chunkInvoker = invoker;
+				chunk.add(element);
+				if (chunk.size() >= chunkSize) {
+					dispatchChunk(chunkInvoker, chunk, reserved, dispatcher);
+					reserved = 0;
+					chunk = new ArrayList<T>();
+					chunkInvoker = null;
+				}
+				else if (reserve) {
+					invoker.reserveRam(ram);
+					reserved += ram;
+				}
+			}
+			if (!chunk.isEmpty()) {
+				dispatchChunk(chunkInvoker, chunk, reserved, dispatcher);
+				reserved = 0;
+			}
+		}
+		finally {
+			// the elements waiting in the chunk are not going to be dispatched
+			if (reserved > 0)
+				chunkInvoker.reserveRam(-reserved);
+		}
+	}
+
+	/**
+	 * Frees the RAM reserved for the elements of a chunk and dispatches it, so the invoker reserves it again
+	 * while executing them.
+	 *
+	 * @param <T>        The type of the input parameter of the elements.
+	 * @param invoker    The invoker selected for the chunk.
+	 * @param chunk      The elements of the chunk.
+	 * @param reserved   The RAM reserved for the elements of the chunk.
+	 * @param dispatcher The receiver of the chunk.
+	 * @throws Exception If an exception occurs during the dispatch of the chunk.
+	 */
+	private <T> void dispatchChunk(InvokerInterface invoker, List<T> chunk, long reserved, ChunkDispatcher<T> dispatcher) throws Exception {
+		if (reserved > 0)
+			invoker.reserveRam(-reserved);
+		dispatcher.dispatch(invoker, chunk);
+	}
+
+	/**
+	 * Synchronously invokes the specified Invokable action for each element of a group, executing concurrently
+	 * the elements assigned to different invokers. Invokers are selected for every element in the order of the list
+	 * before anything is executed, then each invoker executes its elements in order on its own thread, receiving
+	 * them in chunks of the group size planned by the PolicyManager.
+	 * Results are returned in the same order as the input.
+	 * <p>
+	 * If the share of an invoker fails, the other invokers do not send their next chunks, and the failure is thrown
+	 * once all of them stopped, so nothing keeps running after this method returns. The failures of the other
+	 * invokers are added to the first one as suppressed.
+	 *
+	 * @param <T>       The type of the input parameter for the Invokable.
+	 * @param <R>       The type of the result returned by the Invokable.
+	 * @param invokable The Invokable action to be invoked.
+	 * @param id        The unique identifier associated with the action.
+	 * @param args      The list of input arguments of the group.
+	 * @return A list of results corresponding to the invocation of the action for each input element.
+	 * @throws Exception If an exception occurs during the selection of invokers or the invocation of any element.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T, R> List<R> getGroupResult_parallel(Invokable<T, R> invokable, String id, List<T> args) throws Exception {
+		List<T> elements = new ArrayList<T>(args);
+		Map<InvokerInterface, List<Integer>> assignments = new LinkedHashMap<InvokerInterface, List<Integer>>();
+
+		for (int i = 0; i < elements.size(); i++) {
+			InvokerInterface invoker = selectInvoker(invokable.getRam());
+			assignments.computeIfAbsent(invoker, k -> new ArrayList<Integer>()).add(i);
+		}
+
+		Object[] results = new Object[elements.size()];
+		int chunkSize = policyManager.getGroupSize();
+		List<Future<?>> pending = new ArrayList<Future<?>>(assignments.size());
+		AtomicBoolean failed = new AtomicBoolean(false);
+		for (Map.Entry<InvokerInterface, List<Integer>> assignment : assignments.entrySet()) {
+			InvokerInterface invoker = assignment.getKey();
+			List<Integer> positions = assignment.getValue();
+			pending.add(groupExecutor.submit(() -> {
+				for (int start = 0; start < positions.size() && !failed.get(); start += chunkSize) {
+					List<Integer> chunk = positions.subList(start, Math.min(start + chunkSize, positions.size()));
+					List<T> chunkArgs = new ArrayList<T>(chunk.size());
+					for (Integer position : chunk)
+						chunkArgs.add(elements.get(position));
+					try {
+						List<R> chunkResults = callWithFailover(invokable.getRam(), invoker,
+							selected -> callInvoker(selected, id, invokable, sent -> selected.invokeBatch(sent, chunkArgs, id)));
+						for (int i = 0; i < chunk.size(); i++)
+							results[chunk.get(i)] = chunkResults.get(i);
+					}
+					catch (Exception e) {
+						failed.set(true);
+						throw e;
+					}
+				}
+				return (null);
+			}));
+		}
+		Exception failure = null;
+		for (Future<?> future : pending) {
+			try {
+				future.get();
+			}
+			catch (ExecutionException e) {
+				Exception cause = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				if (failure == null)
+					failure = cause;
+				else
+					failure.addSuppressed(cause);
+			}
+		}
+		if (failure != null)
+			throw failure;
+		return (new LinkedList<R>((List<R>) Arrays.asList(results)));
 	}
 
 	/**
@@ -259,13 +959,13 @@ public class Controller {
 		if (policyManager == null) throw new NoPolicyManagerRegistered("No PolicyManager registered");
 		Invokable<T, R> invokable = retrieveInvokable(id);
 		long ram = invokable.getRam();
-		policyManager.prepareDistribution(invokers, 1, ram);
+		policyManager.prepareDistribution(candidates, 1, ram);
 		return (getResult(invokable, id, args));
 	}
 	
 	/**
 	* Synchronously invokes the action with the specified unique identifier (ID) using the Controller in a group invocation,
-	* passing a list of input arguments.
+	* passing a list of input arguments. Consecutive elements assigned to the same invoker are sent to it in a single call.
 	*
 	* @param <T>  The type of the input parameter for the action.
 	* @param <R>  The type of the result returned by the action.
@@ -282,29 +982,42 @@ public class Controller {
 
 		Invokable<T, R> invokable = retrieveInvokable(id);
 		long ram = invokable.getRam();
-		policyManager.prepareDistribution(invokers, args.size(), ram);
+		policyManager.prepareDistribution(candidates, args.size(), ram);
+
+		if (parallelGroupInvocation)
+			return (getGroupResult_parallel(invokable, id, args));
 
 		List<R> result = new LinkedList<R>();
-		for (T element : args)
-			result.add(getResult(invokable, id, element));
+		dispatchInChunks(invokable, args, false, (invoker, chunk) -> {
+			if (chunk.size() == 1)
+				result.add(callWithFailover(ram, invoker, selected -> callInvoker(selected, id, invokable, sent -> selected.invoke(sent, chunk.get(0), id))));
+			else
+				result.addAll(callWithFailover(ram, invoker, selected -> callInvoker(selected, id, invokable, sent -> selected.invokeBatch(sent, chunk, id))));
+		});
 		return (result);
 	}
 
 	/**
-	 * Prepares the policy manager and invokes asynchronously an Invokable.
+	 * Prepares the policy manager and invokes asynchronously an Invokable. If a {@link HedgePolicy} is set and the
+	 * invocation takes longer than its delay, a duplicate is sent to another invoker.
 	 *
 	 * @param <T>  The type of the input parameter for the action.
 	 * @param <R>  The type of the result returned by the action.
 	 * @param id   The unique identifier associated with the action.
 	 * @param args The input arguments for the action.
-	 * @return The result of invoking the action.
-	 * @throws Exception If an exception occurs during the invocation process.
+	 * @return A CompletableFuture completed with the result of invoking the action. It can be chained with
+	 *         other invocations using {@code thenCompose}, {@code thenCombine} or {@code allOf}.
+	 * @throws InvocationRejected If the admission queue of the invoker selected is full and its policy is to reject.
+	 * @throws Exception          If an exception occurs during the invocation process.
 	 */
-	public <T, R> Future<R> invoke_async(String id, T args) throws Exception {
+	public <T, R> CompletableFuture<R> invoke_async(String id, T args) throws Exception {
 		if (policyManager == null) throw new NoPolicyManagerRegistered("No PolicyManager registered");
 		Invokable<T, R> invokable = retrieveInvokable(id);
 		long ram = invokable.getRam();
-		policyManager.prepareDistribution(invokers, 1, ram);
+		policyManager.prepareDistribution(candidates, 1, ram);
+		long delay = hedgePolicy.getDelay(id);
+		if (delay >= 0)
+			return (getHedgedResult_async(invokable, id, args, delay));
 		return (getResult_async(invokable, id, args));
 	}
 
@@ -321,20 +1034,72 @@ public class Controller {
 	 * @throws Exception         If an exception occurs during the asynchronous invocation process.
 	 */
 	public <T, R> List<Future<R>> invoke_async(String id, List<T> args) throws Exception {
+		return (new LinkedList<Future<R>>(this.<T, R>getGroupResult_async(id, args)));
+	}
+
+	/**
+	 * Prepares the policy manager for a group invocation and invokes asynchronously every element of the group.
+	 * The elements are sent to the invokers in chunks, and the futures of the elements of a chunk complete
+	 * when the whole chunk has been executed.
+	 *
+	 * @param <T>  The type of the input parameter for the action.
+	 * @param <R>  The type of the result returned by the action.
+	 * @param id   The unique identifier associated with the action.
+	 * @param args The list of input arguments for the group invocation.
+	 * @return A list of CompletableFuture objects, one for each input element and in the same order.
+	 * @throws OperationNotValid If the provided list of input arguments is null or empty.
+	 * @throws Exception         If an exception occurs during the asynchronous invocation process.
+	 */
+	private <T, R> List<CompletableFuture<R>> getGroupResult_async(String id, List<T> args) throws Exception {
 		if (args == null) throw new OperationNotValid("List of input in a group invocation cannot be null.");
 		if (args.isEmpty()) throw new OperationNotValid("List of input in a group invocation cannot be empty.");
 		if (policyManager == null) throw new NoPolicyManagerRegistered("No PolicyManager registered");
 
 		Invokable<T, R> invokable = retrieveInvokable(id);
 		long ram = invokable.getRam();
-		policyManager.prepareDistribution(invokers, args.size(), ram);
+		policyManager.prepareDistribution(candidates, args.size(), ram);
 
-		List<Future<R>> result = new LinkedList<Future<R>>();
-		for (T element : args)
-			result.add(getResult_async(invokable, id, element));
+		List<CompletableFuture<R>> result = new ArrayList<CompletableFuture<R>>(args.size());
+		dispatchInChunks(invokable, args, true, (invoker, chunk) -> {
+			if (chunk.size() == 1) {
+				result.add(callAsyncWithFailover(ram, invoker, selected -> callInvoker(selected, id, invokable, sent -> selected.invokeAsync(sent, chunk.get(0), id))));
+				return ;
+			}
+			CompletableFuture<List<R>> batch = callAsyncWithFailover(ram, invoker,
+				selected -> callInvoker(selected, id, invokable, sent -> selected.invokeBatchAsync(sent, chunk, id)));
+			for (int i = 0; i < chunk.size(); i++) {
+				int position = i;
+				result.add(batch.thenApply(results -> results.get(position)));
+			}
+		});
 		return (result);
 	}
 
+	/**
+	 * Asynchronously invokes the action with the specified unique identifier (ID) in a group invocation, returning
+	 * a single CompletableFuture that completes when every element of the group has been invoked.
+	 *
+	 * @param <T>  The type of the input parameter for the action.
+	 * @param <R>  The type of the result returned by the action.
+	 * @param id   The unique identifier associated with the action.
+	 * @param args The list of input arguments for the group invocation.
+	 * @return A CompletableFuture completed with the list of results, in the same order as the input arguments,
+	 *         or completed exceptionally if any of the invocations fails.
+	 * @throws OperationNotValid If the provided list of input arguments is null or empty.
+	 * @throws Exception         If an exception occurs during the asynchronous invocation process.
+	 */
+	public <T, R> CompletableFuture<List<R>> invoke_async_all(String id, List<T> args) throws Exception {
+		List<CompletableFuture<R>> futures = getGroupResult_async(id, args);
+
+		return (CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+			.thenApply(done -> {
+				List<R> result = new LinkedList<R>();
+				for (CompletableFuture<R> future : futures)
+					result.add(future.join());
+				return (result);
+			}));
+	}
+
 	/**
 	 * Lists the available actions along with their allocated RAM.
 	*/
@@ -0,0 +1,101 @@
+package core.application;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import core.exceptions.OperationNotValid;
+import observer.TimerObserver;
+
+/**
+ * Defines when the {@link Controller} sends a duplicate of an asynchronous invocation that is taking too long.
+ * If an invocation has not finished after a percentile of the execution times measured by the
+ * {@link TimerObserver} for its action, a duplicate is sent to another invoker selected by the PolicyManager,
+ * and the invocation completes with whichever finishes first.
+ * <p>
+ * The delay of every action is calculated again at most once every refresh interval, which must be positive, so
+ * the times measured are not copied and sorted on every invocation. Actions with fewer executions measured than
+ * the minimum are not hedged, and nothing is hedged if the TimerObserver is not registered.
+ *
+ * @see Controller#setHedgePolicy(HedgePolicy)
+ */
+public class HedgePolicy {
+
+	/** The policy used by default, which never sends a duplicate. */
+	public static final HedgePolicy NONE = new HedgePolicy();
+
+	/** The delay calculated for an action and when it was calculated, in nanoseconds. */
+	private static final class Delay {
+		private final long	delay;
+		private final long	calculatedAt;
+
+		private Delay(long delay, long calculatedAt) {
+			this.delay = delay;
+			this.calculatedAt = calculatedAt;
+		}
+	}
+
+	private final double				percentile;
+	private final int					minSamples;
+	private final long					refresh;
+	private final TimerObserver			timer;
+	private final Map<String, Delay>	delays;
+
+	private HedgePolicy() {
+		this.percentile = 0;
+		this.minSamples = 0;
+		this.refresh = 0;
+		this.timer = null;
+		this.delays = null;
+	}
+
+	/**
+	 * Constructs a HedgePolicy.
+	 *
+	 * @param percentile The percentile of the execution times of an action after which a duplicate is sent, up to 100.
+	 * @param minSamples The minimum number of executions of an action measured to hedge its invocations.
+	 * @param refresh    The milliseconds the delay of an action is used before calculating it again.
+	 * @throws OperationNotValid If the percentile is not between 0 and 100, minSamples is less than 1 or refresh is not positive.
+	 */
+	public HedgePolicy(double percentile, int minSamples, long refresh) throws OperationNotValid {
+		if (percentile <= 0 || percentile > 100) throw new OperationNotValid("Percentile must be greater than 0 and up to 100.");
+		if (minSamples < 1) throw new OperationNotValid("At least one execution must be measured to hedge an action.");
+		if (refresh <= 0) throw new OperationNotValid("Refresh interval must be positive.");
+		this.percentile = percentile;
+		this.minSamples = minSamples;
+		this.refresh = refresh * 1_000_000L;
+		this.timer = new TimerObserver();
+		this.delays = new ConcurrentHashMap<String, Delay>();
+	}
+
+	/**
+	 * Retrieves the percentile of the execution times after which a duplicate is sent.
+	 *
+	 * @return The percentile, or 0 if nothing is hedged.
+	 */
+	public double getPercentile() {
+		return (percentile);
+	}
+
+	/**
+	 * Retrieves how long an invocation of an action runs before a duplicate is sent.
+	 *
+	 * @param id The unique identifier of the action.
+	 * @return The delay in nanoseconds, or -1 if the invocations of the action are not hedged.
+	 */
+	public long getDelay(String id) {
+		long now = System.nanoTime();
+		Delay delay;
+		Long time;
+
+		if (timer == null)
+			return (-1);
+		delay = delays.get(id);
+		if (delay != null && now - delay.calculatedAt < refresh)
+			return (delay.delay);
+		time = timer.calculatePercentileTime(id, percentile, minSamples);
+		delay = new Delay(time == null ? -1 : time, now);
+		delays.put(id, delay);
+		return (delay.delay);
+	}
+
+}
@@ -1,11 +1,20 @@
 package core.application;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.function.Function;
 
 /**
  * Represents an invokable function with the allocated RAM memory needed to execute
  * and the function itself.
+ * <p>
+ * If the function is serializable, the Invokable also keeps a hash of its serialized content, so it can be
+ * deployed once in a remote invoker and then invoked sending only a {@link #reference()} to it.
  *
  * @param <T> the type of the input to the invokable function
  * @param <R> the type of the result of the invokable function
@@ -16,6 +25,7 @@ public class Invokable<T, R> implements Serializable {
 
 	private Function<T, R> invokable;
 	private long ram;
+	private String hash;
 
 	/**
      * Constructs an Invokable instance with the specified invokable function and allocated RAM.
@@ -26,12 +36,46 @@ public class Invokable<T, R> implements Serializable {
 	public Invokable(Function<T, R> invokable, long ram) {
 		this.ram = ram;
 		this.invokable = invokable;
+		this.hash = contentHash(invokable);
+	}
+
+	/**
+     * Constructs a reference to an Invokable, without the function.
+     *
+     * @param ram the amount of RAM associated with the invokable function
+     * @param hash the hash of the content of the function referenced
+     */
+	private Invokable(long ram, String hash) {
+		this.ram = ram;
+		this.invokable = null;
+		this.hash = hash;
+	}
+
+	/**
+     * Computes the hash of the serialized content of a function.
+     *
+     * @param function the function
+     * @return the hash encoded in Base64, or null if the function cannot be serialized
+     */
+	private static String contentHash(Function<?, ?> function) {
+		if (!(function instanceof Serializable))
+			return (null);
+		try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(function);
+			output.flush();
+			return (Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray())));
+		}
+		catch (IOException | NoSuchAlgorithmException e) {
+			// the function captures something that cannot be serialized, it can only be invoked locally
+			return (null);
+		}
 	}
 
 	/**
      * Gets the invokable function.
      *
-     * @return the invokable function
+     * @return the invokable function, or null if this is a reference
      */
 	public Function<T, R> retrieveInvokable()
 	{
@@ -47,4 +91,35 @@ public class Invokable<T, R> implements Serializable {
 	{
 		return (this.ram);
 	}
+
+	/**
+     * Gets the hash of the serialized content of the function.
+     *
+     * @return the hash, or null if the function cannot be serialized and deployed
+     */
+	public String getHash()
+	{
+		return (this.hash);
+	}
+
+	/**
+     * Creates a reference to this Invokable, with the RAM and the hash but without the function, which is what
+     * is sent to the invokers where the Invokable is already deployed.
+     *
+     * @return the reference to this Invokable
+     */
+	public Invokable<T, R> reference()
+	{
+		return (new Invokable<T, R>(this.ram, this.hash));
+	}
+
+	/**
+     * Checks if this Invokable is a reference to a deployed one.
+     *
+     * @return {@code true} if it has no function
+     */
+	public boolean isReference()
+	{
+		return (this.invokable == null && this.hash != null);
+	}
 }
@@ -0,0 +1,72 @@
+package core.application;
+
+import core.exceptions.OperationNotValid;
+
+/**
+ * Defines how many times the {@link Controller} tries an invocation that fails because its invoker cannot be
+ * reached, and how long it waits between attempts. Every attempt after the first one is sent to an invoker
+ * selected again by the PolicyManager among the ones that have not failed yet.
+ * <p>
+ * The wait before the second attempt is the initial backoff, and every following wait is multiplied by the
+ * multiplier, up to the maximum backoff.
+ *
+ * @see Controller#setRetryPolicy(RetryPolicy)
+ */
+public class RetryPolicy {
+
+	/** The policy used by default, which tries every invocation once. */
+	public static final RetryPolicy NONE = new RetryPolicy();
+
+	private final int		maxAttempts;
+	private final long		initialBackoff;
+	private final double	multiplier;
+	private final long		maxBackoff;
+
+	private RetryPolicy() {
+		this.maxAttempts = 1;
+		this.initialBackoff = 0;
+		this.multiplier = 1;
+		this.maxBackoff = 0;
+	}
+
+	/**
+	 * Constructs a RetryPolicy.
+	 *
+	 * @param maxAttempts    The maximum number of attempts of an invocation, counting the first one.
+	 * @param initialBackoff The milliseconds waited before the second attempt.
+	 * @param multiplier     The factor applied to the wait before every following attempt.
+	 * @param maxBackoff     The maximum milliseconds waited before an attempt.
+	 * @throws OperationNotValid If there is not at least one attempt, a wait is negative or the multiplier is less than 1.
+	 */
+	public RetryPolicy(int maxAttempts, long initialBackoff, double multiplier, long maxBackoff) throws OperationNotValid {
+		if (maxAttempts < 1) throw new OperationNotValid("An invocation must be attempted at least once.");
+		if (initialBackoff < 0 || maxBackoff < 0) throw new OperationNotValid("Backoff cannot be negative.");
+		if (multiplier < 1) throw new OperationNotValid("Backoff multiplier cannot be less than 1.");
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.multiplier = multiplier;
+		this.maxBackoff = maxBackoff;
+	}
+
+	/**
+	 * Retrieves the maximum number of attempts of an invocation, counting the first one.
+	 *
+	 * @return The maximum number of attempts.
+	 */
+	public int getMaxAttempts() {
+		return (maxAttempts);
+	}
+
+	/**
+	 * Retrieves the milliseconds to wait after a failed attempt.
+	 *
+	 * @param attempt The number of the attempt that failed, starting at 1.
+	 * @return The milliseconds to wait before the next attempt.
+	 */
+	public long getBackoff(int attempt) {
+		double backoff = initialBackoff * Math.pow(multiplier, attempt - 1);
+
+		return ((long) Math.min(backoff, maxBackoff));
+	}
+
+}
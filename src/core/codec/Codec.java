@@ -0,0 +1,34 @@
+package core.codec;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Converts the arguments and results of invocations to bytes and back, defining how they are sent to remote
+ * invokers. Implementations must be stateless, as the codec used to encode a value is sent with it and
+ * instantiated again by the receiver.
+ *
+ * @see EncodedValue
+ * @see JavaSerializationCodec
+ * @see CompactCodec
+ */
+public interface Codec extends Serializable {
+
+	/**
+	 * Encodes a value.
+	 *
+	 * @param value The value to be encoded, which may be null.
+	 * @return The bytes of the value.
+	 * @throws IOException If the value cannot be encoded.
+	 */
+	public byte[] encode(Object value) throws IOException;
+
+	/**
+	 * Decodes a value encoded by this codec.
+	 *
+	 * @param bytes The bytes of the value.
+	 * @return The value decoded.
+	 * @throws IOException If the bytes are not a value encoded by this codec.
+	 */
+	public Object decode(byte[] bytes) throws IOException;
+}
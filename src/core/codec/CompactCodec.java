@@ -0,0 +1,277 @@
+package core.codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link Codec} interface with a compact binary format for the values the services move
+ * around: booleans, integers, longs, doubles, strings, {@link ArrayList}s and {@link HashMap}s. Every value is
+ * written as a tag byte followed by its content, integers use a variable length encoding, and lists of strings
+ * and maps from strings to longs, like the ones of the word count services, are written without a tag for each
+ * element.
+ * <p>
+ * Any other value is written with the Java serialization inside the compact format, so every value that can be
+ * sent through RMI can be encoded. That includes the other lists and maps, which are decoded with the same class,
+ * so a TreeMap or a LinkedHashMap keeps its order.
+ */
+public class CompactCodec implements Codec {
+
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte INT = 3;
+	private static final byte LONG = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte STRING = 6;
+	private static final byte LIST = 7;
+	private static final byte MAP = 8;
+	private static final byte STRING_LIST = 9;
+	private static final byte STRING_LONG_MAP = 10;
+	private static final byte SERIALIZED = 11;
+
+	/** Codec used for the values that have no compact format. */
+	private static final JavaSerializationCodec serialization = new JavaSerializationCodec();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] encode(Object value) throws IOException {
+		Writer output = new Writer();
+
+		write(output, value);
+		return (Arrays.copyOf(output.bytes, output.size));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object decode(byte[] bytes) throws IOException {
+		Reader reader = new Reader(bytes);
+		Object value = reader.readValue();
+
+		if (reader.position != bytes.length) throw new IOException("Unexpected bytes after the value decoded.");
+		return (value);
+	}
+
+	private static void write(Writer output, Object value) throws IOException {
+		if (value == null)
+			output.write(NULL);
+		else if (value instanceof Boolean)
+			output.write((Boolean) value ? TRUE : FALSE);
+		else if (value instanceof Integer) {
+			output.write(INT);
+			writeVarLong(output, (Integer) value);
+		}
+		else if (value instanceof Long) {
+			output.write(LONG);
+			writeVarLong(output, (Long) value);
+		}
+		else if (value instanceof Double) {
+			output.write(DOUBLE);
+			long bits = Double.doubleToRawLongBits((Double) value);
+			for (int shift = 56; shift >= 0; shift -= 8)
+				output.write((int) (bits >>> shift));
+		}
+		else if (value instanceof String) {
+			output.write(STRING);
+			writeString(output, (String) value);
+		}
+		// only the classes the compact format is decoded to, so the decoded value is of the same class
+		else if (value.getClass() == ArrayList.class)
+			writeList(output, (List<?>) value);
+		else if (value.getClass() == HashMap.class)
+			writeMap(output, (Map<?, ?>) value);
+		else {
+			output.write(SERIALIZED);
+			writeBytes(output, serialization.encode(value));
+		}
+	}
+
+	private static void writeList(Writer output, List<?> list) throws IOException {
+		boolean strings = true;
+
+		for (Object element : list)
+			strings = strings && element instanceof String;
+		output.write(strings ? STRING_LIST : LIST);
+		writeVarLong(output, list.size());
+		for (Object element : list) {
+			if (strings)
+				writeString(output, (String) element);
+			else
+				write(output, element);
+		}
+	}
+
+	private static void writeMap(Writer output, Map<?, ?> map) throws IOException {
+		boolean stringsToLongs = true;
+
+		for (Map.Entry<?, ?> entry : map.entrySet())
+			stringsToLongs = stringsToLongs && entry.getKey() instanceof String && entry.getValue() instanceof Long;
+		output.write(stringsToLongs ? STRING_LONG_MAP : MAP);
+		writeVarLong(output, map.size());
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (stringsToLongs) {
+				writeString(output, (String) entry.getKey());
+				writeVarLong(output, (Long) entry.getValue());
+			}
+			else {
+				write(output, entry.getKey());
+				write(output, entry.getValue());
+			}
+		}
+	}
+
+	private static void writeString(Writer output, String string) {
+		writeBytes(output, string.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void writeBytes(Writer output, byte[] bytes) {
+		writeVarLong(output, bytes.length);
+		output.write(bytes, 0, bytes.length);
+	}
+
+	/*
+	 * Zigzag encoding, so small negative numbers also take few bytes, and then 7 bits per byte
+	 * with the highest bit set in all the bytes but the last one.
+	 */
+	private static void writeVarLong(Writer output, long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+
+		while ((zigzag & ~0x7FL) != 0) {
+			output.write((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		output.write((int) zigzag);
+	}
+
+	/** Growable array of bytes where the values are written, without the locks of a ByteArrayOutputStream. */
+	private static final class Writer {
+		private byte[] bytes = new byte[256];
+		private int size = 0;
+
+		private void ensure(int length) {
+			if (size + length > bytes.length)
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+		}
+
+		private void write(int value) {
+			ensure(1);
+			bytes[size++] = (byte) value;
+		}
+
+		private void write(byte[] written, int offset, int length) {
+			ensure(length);
+			System.arraycopy(written, offset, bytes, size, length);
+			size += length;
+		}
+	}
+
+	/** Reads the values of an array of bytes keeping the position of the next byte. */
+	private static final class Reader {
+		private final byte[] bytes;
+		private int position;
+
+		private Reader(byte[] bytes) {
+			this.bytes = bytes;
+			this.position = 0;
+		}
+
+		private byte readByte() throws IOException {
+			if (position >= bytes.length) throw new IOException("Unexpected end of the value decoded.");
+			return (bytes[position++]);
+		}
+
+		private long readVarLong() throws IOException {
+			long zigzag = 0;
+			int shift = 0;
+			byte current;
+
+			do {
+				if (shift > 63) throw new IOException("Malformed variable length number.");
+				current = readByte();
+				zigzag |= (long) (current & 0x7F) << shift;
+				shift += 7;
+			} while ((current & 0x80) != 0);
+			return ((zigzag >>> 1) ^ -(zigzag & 1));
+		}
+
+		private int readLength() throws IOException {
+			long length = readVarLong();
+
+			if (length < 0 || length > bytes.length - position) throw new IOException("Malformed length " + length + ".");
+			return ((int) length);
+		}
+
+		private byte[] readBytes() throws IOException {
+			int length = readLength();
+			byte[] read = new byte[length];
+
+			System.arraycopy(bytes, position, read, 0, length);
+			position += length;
+			return (read);
+		}
+
+		private String readString() throws IOException {
+			int length = readLength();
+			String read = new String(bytes, position, length, StandardCharsets.UTF_8);
+
+			position += length;
+			return (read);
+		}
+
+		private Object readValue() throws IOException {
+			byte tag = readByte();
+			int size;
+
+			switch (tag) {
+				case NULL:
+					return (null);
+				case TRUE:
+					return (Boolean.TRUE);
+				case FALSE:
+					return (Boolean.FALSE);
+				case INT:
+					return ((int) readVarLong());
+				case LONG:
+					return (readVarLong());
+				case DOUBLE:
+					long bits = 0;
+					for (int i = 0; i < 8; i++)
+						bits = (bits << 8) | (readByte() & 0xFF);
+					return (Double.longBitsToDouble(bits));
+				case STRING:
+					return (readString());
+				case LIST:
+				case STRING_LIST:
+					size = readLength();
+					List<Object> list = new ArrayList<Object>(size);
+					for (int i = 0; i < size; i++)
+						list.add(tag == LIST ? readValue() : readString());
+					return (list);
+				case MAP:
+				case STRING_LONG_MAP:
+					size = readLength();
+					Map<Object, Object> map = new HashMap<Object, Object>(size * 4 / 3 + 1);
+					for (int i = 0; i < size; i++) {
+						if (tag == MAP)
+							map.put(readValue(), readValue());
+						else
+							map.put(readString(), readVarLong());
+					}
+					return (map);
+				case SERIALIZED:
+					return (serialization.decode(readBytes()));
+				default:
+					throw new IOException("Unknown tag " + tag + ".");
+			}
+		}
+	}
+
+}
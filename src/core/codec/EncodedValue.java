@@ -0,0 +1,108 @@
+package core.codec;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Holds an argument or a result of an invocation with the codec used to send it to a remote invoker. Locally
+ * it only keeps the value, and when it is serialized, as RMI does with the arguments and results of remote
+ * calls, the value is written with the codec instead of the Java serialization.
+ * <p>
+ * Invokers receiving an EncodedValue as the argument of an invocation execute the function with the value it
+ * holds, and return the result in an EncodedValue with the same codec.
+ *
+ * @see Codec
+ */
+public final class EncodedValue implements Externalizable {
+
+	private Codec	codec;
+	private Object	value;
+
+	/**
+	 * Constructs an empty EncodedValue. It is only used by the Java serialization before reading the value.
+	 */
+	public EncodedValue() {
+	}
+
+	/**
+	 * Constructs an EncodedValue.
+	 *
+	 * @param codec The codec used to write the value when it is serialized.
+	 * @param value The value.
+	 */
+	public EncodedValue(Codec codec, Object value) {
+		this.codec = codec;
+		this.value = value;
+	}
+
+	/**
+	 * Retrieves the codec used to write the value.
+	 *
+	 * @return The codec.
+	 */
+	public Codec getCodec() {
+		return (codec);
+	}
+
+	/**
+	 * Retrieves the value.
+	 *
+	 * @return The value, which may be null.
+	 */
+	public Object getValue() {
+		return (value);
+	}
+
+	/**
+	 * Wraps a value with a codec, unless the codec is null.
+	 *
+	 * @param codec The codec, or null to send the value with the Java serialization.
+	 * @param value The value.
+	 * @return The EncodedValue holding the value, or the value itself if there is no codec.
+	 */
+	public static Object wrap(Codec codec, Object value) {
+		if (codec == null)
+			return (value);
+		return (new EncodedValue(codec, value));
+	}
+
+	/**
+	 * Retrieves the value held by an EncodedValue.
+	 *
+	 * @param value An EncodedValue or any other value.
+	 * @return The value held if it is an EncodedValue, otherwise the value itself.
+	 */
+	public static Object unwrap(Object value) {
+		if (value instanceof EncodedValue)
+			return (((EncodedValue) value).value);
+		return (value);
+	}
+
+	/**
+	 * Writes the codec and the bytes of the value encoded with it.
+	 */
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		byte[] bytes = codec.encode(value);
+
+		out.writeObject(codec);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads the codec and decodes the value with it.
+	 */
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		byte[] bytes;
+
+		codec = (Codec) in.readObject();
+		bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		value = codec.decode(bytes);
+	}
+
+}
@@ -0,0 +1,41 @@
+package core.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Implementation of the {@link Codec} interface that uses the default Java serialization, so it can encode any
+ * {@link java.io.Serializable} value. It is what RMI does when no codec is used.
+ */
+public class JavaSerializationCodec implements Codec {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] encode(Object value) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(value);
+		}
+		return (bytes.toByteArray());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object decode(byte[] bytes) throws IOException {
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (input.readObject());
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException("Class of the value decoded not found.", e);
+		}
+	}
+
+}
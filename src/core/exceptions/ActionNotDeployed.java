@@ -0,0 +1,23 @@
+package core.exceptions;
+
+/**
+ * Checked exception indicating that an invoker received a reference to an action that is not deployed in it,
+ * or that was deployed with a different content, so the whole action must be deployed before invoking it.
+ * <p>
+ * This exception extends the standard Java {@link Exception} class.
+ *
+ * @see core.invoker.InvokerInterface#deployAction
+ * @see Exception
+ */
+public class ActionNotDeployed extends Exception {
+
+	/**
+	 * Constructs an ActionNotDeployed with the specified detail message.
+	 *
+	 * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+	 */
+	public ActionNotDeployed(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,23 @@
+package core.exceptions;
+
+/**
+ * Checked exception indicating that an asynchronous invocation was not admitted by an invoker because
+ * its admission queue was full, or that it was dropped from the queue to make room for a newer one.
+ * <p>
+ * This exception extends the standard Java {@link Exception} class.
+ *
+ * @see core.invoker.OverflowPolicy
+ * @see Exception
+ */
+public class InvocationRejected extends Exception {
+
+	/**
+	 * Constructs an InvocationRejected with the specified detail message.
+	 *
+	 * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+	 */
+	public InvocationRejected(String message) {
+		super(message);
+	}
+
+}
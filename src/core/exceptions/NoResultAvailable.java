@@ -23,4 +23,16 @@ public class NoResultAvailable extends Exception {
 		super(message);
 	}
 
+	/**
+	 * Constructs a NoResultAvailable with the specified detail message, optionally without stack trace.
+	 * Filling the stack trace is the most expensive part of throwing an exception, and it gives nothing when
+	 * the exception only reports an expected miss, like the ones of the Cache.
+	 *
+	 * @param message            the detail message
+	 * @param writableStackTrace {@code false} to not fill the stack trace
+	 */
+	public NoResultAvailable(String message, boolean writableStackTrace) {
+		super(message, null, false, writableStackTrace);
+	}
+
 }
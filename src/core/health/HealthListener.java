@@ -0,0 +1,18 @@
+package core.health;
+
+import core.invoker.InvokerInterface;
+
+/**
+ * Interface of the objects notified by a {@link HealthMonitor} when the health of an invoker changes.
+ */
+public interface HealthListener {
+
+	/**
+	 * Called when the health of an invoker changes.
+	 *
+	 * @param invoker The invoker whose health changed.
+	 * @param state   The new health of the invoker.
+	 */
+	public void healthChanged(InvokerInterface invoker, HealthState state);
+
+}
@@ -0,0 +1,181 @@
+package core.health;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import core.invoker.InvokerInterface;
+
+/**
+ * Sends a heartbeat to every invoker monitored every interval, and keeps the health of each one. An invoker that
+ * does not answer within the timeout becomes {@link HealthState#SUSPECT}, and after a number of consecutive
+ * heartbeats not answered it becomes {@link HealthState#DEAD}. The heartbeats are still sent to the invokers
+ * that are not healthy, and a single heartbeat answered makes them {@link HealthState#HEALTHY} again.
+ * <p>
+ * The heartbeats of a round are sent concurrently, so a round takes at most the timeout however many invokers
+ * do not answer. A heartbeat blocked in a remote call cannot be interrupted, so no other heartbeat is sent to
+ * the same invoker until it returns, and the rounds meanwhile count as missed unless it is answered in time.
+ * Every change of health is notified to the {@link HealthListener}.
+ */
+public class HealthMonitor {
+
+	/** Thread shared by all the monitors to start their rounds of heartbeats. */
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "health-monitor");
+		thread.setDaemon(true);
+		return (thread);
+	});
+
+	/** Threads sending the heartbeats, which may block until the timeout. */
+	private static final ExecutorService probes = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "health-probe");
+		thread.setDaemon(true);
+		return (thread);
+	});
+
+	/** The health of an invoker, the heartbeats it did not answer in a row and the last heartbeat sent. */
+	private static final class Health {
+		private volatile HealthState	state = HealthState.HEALTHY;
+		private int						missed = 0;
+		private Future<?>				probe = null;
+	}
+
+	private final Map<InvokerInterface, Health>	monitored;
+	private final long							timeout;
+	private final int							deadAfter;
+	private final HealthListener				listener;
+	private final ScheduledFuture<?>			task;
+
+	/**
+	 * Constructs a HealthMonitor and starts sending heartbeats.
+	 *
+	 * @param interval  The milliseconds between rounds of heartbeats.
+	 * @param timeout   The milliseconds an invoker is given to answer a heartbeat.
+	 * @param deadAfter The number of consecutive heartbeats not answered to consider an invoker dead.
+	 * @param listener  The listener notified when the health of an invoker changes.
+	 */
+	public HealthMonitor(long interval, long timeout, int deadAfter, HealthListener listener) {
+		this.monitored = new ConcurrentHashMap<InvokerInterface, Health>();
+		this.timeout = timeout;
+		this.deadAfter = deadAfter;
+		this.listener = listener;
+		this.task = scheduler.scheduleWithFixedDelay(this::beat, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Starts monitoring an invoker, which is considered healthy until it misses a heartbeat.
+	 *
+	 * @param invoker The invoker to monitor.
+	 */
+	public void monitor(InvokerInterface invoker) {
+		monitored.putIfAbsent(invoker, new Health());
+	}
+
+	/**
+	 * Stops monitoring an invoker.
+	 *
+	 * @param invoker The invoker to stop monitoring.
+	 */
+	public void forget(InvokerInterface invoker) {
+		monitored.remove(invoker);
+	}
+
+	/**
+	 * Retrieves the health of an invoker.
+	 *
+	 * @param invoker The invoker.
+	 * @return The health of the invoker, or null if it is not monitored.
+	 */
+	public HealthState getState(InvokerInterface invoker) {
+		Health health = monitored.get(invoker);
+
+		if (health == null)
+			return (null);
+		return (health.state);
+	}
+
+	/**
+	 * Retrieves the health of every invoker monitored.
+	 *
+	 * @return A copy of the health of every invoker monitored.
+	 */
+	public Map<InvokerInterface, HealthState> getStates() {
+		Map<InvokerInterface, HealthState> states = new HashMap<InvokerInterface, HealthState>();
+
+		for (Map.Entry<InvokerInterface, Health> entry : monitored.entrySet())
+			states.put(entry.getKey(), entry.getValue().state);
+		return (states);
+	}
+
+	/**
+	 * Sends a heartbeat to every invoker monitored and waits for the answers, at most until the timeout.
+	 * It is called every interval, and can also be called to check the invokers immediately.
+	 */
+	public synchronized void beat() {
+		Map<InvokerInterface, Future<?>> heartbeats = new HashMap<InvokerInterface, Future<?>>();
+		long deadline = System.nanoTime() + timeout * 1_000_000L;
+
+		for (Map.Entry<InvokerInterface, Health> entry : monitored.entrySet()) {
+			InvokerInterface invoker = entry.getKey();
+			Health health = entry.getValue();
+
+			if (health.probe == null || health.probe.isDone())
+				health.probe = probes.submit(() -> { invoker.heartbeat(); return (null); });
+			heartbeats.put(invoker, health.probe);
+		}
+		for (Map.Entry<InvokerInterface, Future<?>> heartbeat : heartbeats.entrySet()) {
+			boolean answered;
+
+			try {
+				heartbeat.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				answered = true;
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return ;
+			}
+			catch (Exception e) {
+				// it is not cancelled, so it keeps being the heartbeat of the invoker while it is blocked
+				answered = false;
+			}
+			update(heartbeat.getKey(), answered);
+		}
+	}
+
+	private void update(InvokerInterface invoker, boolean answered) {
+		Health		health = monitored.get(invoker);
+		HealthState	state;
+
+		// the invoker may have stopped being monitored during the round
+		if (health == null)
+			return ;
+		if (answered)
+			health.missed = 0;
+		else
+			health.missed++;
+		if (health.missed == 0)
+			state = HealthState.HEALTHY;
+		else if (health.missed < deadAfter)
+			state = HealthState.SUSPECT;
+		else
+			state = HealthState.DEAD;
+		if (state != health.state) {
+			health.state = state;
+			listener.healthChanged(invoker, state);
+		}
+	}
+
+	/**
+	 * Stops sending heartbeats.
+	 */
+	public void close() {
+		task.cancel(false);
+	}
+
+}
@@ -0,0 +1,16 @@
+package core.health;
+
+/**
+ * The health of an invoker as seen by a {@link HealthMonitor}.
+ */
+public enum HealthState {
+
+	/** The last heartbeat of the invoker was answered. */
+	HEALTHY,
+
+	/** The last heartbeats of the invoker were not answered, but fewer than needed to consider it dead. */
+	SUSPECT,
+
+	/** The invoker has not answered enough consecutive heartbeats to consider it dead. */
+	DEAD
+}
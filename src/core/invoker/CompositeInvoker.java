@@ -1,8 +1,8 @@
 package core.invoker;
 
 import java.rmi.RemoteException;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import core.exceptions.NoInvokerAvailable;
 import core.exceptions.NoPolicyManagerRegistered;
@@ -16,12 +16,24 @@ import policymanager.PolicyManager;
  */
 public class CompositeInvoker extends Invoker {
 
-	/** The list of child Invokers managed by this CompositeInvoker. */
-	private List<InvokerInterface>	invokers;
+	/**
+	 * The list of child Invokers managed by this CompositeInvoker. It is a copy-on-write list, so it can be
+	 * iterated while other threads register or delete Invokers.
+	 */
+	private final CopyOnWriteArrayList<InvokerInterface>	invokers;
+
+	/** The immutable snapshot of the child Invokers given to the PolicyManager, replaced when they change. */
+	private volatile List<InvokerInterface>	snapshot;
 
 	/** The PolicyManager responsible for defining the distribution policy for function execution. */
 	private	PolicyManager			policyManager;
 
+	/** The capacity of the admission queue given to the child Invokers, or 0 if their queues are unbounded. */
+	private int						capacity;
+
+	/** The overflow policy given to the child Invokers. */
+	private OverflowPolicy			overflowPolicy;
+
 	/**
      * Private constructor for CompositeInvoker.
      *
@@ -30,7 +42,8 @@ public class CompositeInvoker extends Invoker {
      */
 	private CompositeInvoker(long ram, int threads) {
 		super(ram, threads);
-		invokers = new LinkedList<InvokerInterface>();
+		invokers = new CopyOnWriteArrayList<InvokerInterface>();
+		snapshot = List.of();
 	}
 
 	/**
@@ -64,7 +77,7 @@ public class CompositeInvoker extends Invoker {
 		if (policyManager == null) throw new NoPolicyManagerRegistered("There isn't a policy manager registered.");
 
 		try {
-			invoker = policyManager.getInvoker(invokers, ram);
+			invoker = policyManager.getInvoker(snapshot, ram);
 		} catch (NoInvokerAvailable e) {
 			if (this.getMaxRam() < ram) throw new NoInvokerAvailable("");
 			return this;
@@ -101,7 +114,55 @@ public class CompositeInvoker extends Invoker {
      */
 	@Override
 	public void setDistributionPolicyManager(int size, long ram) throws RemoteException, NoInvokerAvailable {
-		policyManager.prepareDistribution(invokers, size, ram);
+		policyManager.prepareDistribution(snapshot, size, ram);
+	}
+
+	/**
+     * Bounds the admission queue of the CompositeInvoker and of every child Invoker, as invocations
+     * can be executed by any of them. A capacity of 0 makes all of them unbounded again.
+     *
+     * @param capacity       The maximum number of invocations waiting for RAM in each Invoker, or 0 for no limit.
+     * @param overflowPolicy What to do with an invocation that arrives when a queue is full.
+     * @throws OperationNotValid If the capacity is negative or the policy is null.
+     * @throws RemoteException   If an RMI-related exception occurs.
+     */
+	@Override
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid, RemoteException {
+		super.setAdmissionPolicy(capacity, overflowPolicy);
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		for (InvokerInterface invoker : invokers)
+			invoker.setAdmissionPolicy(capacity, overflowPolicy);
+	}
+
+	/**
+     * Returns the number of invocations waiting for RAM in the CompositeInvoker and in all its child Invokers.
+     *
+     * @return The number of invocations waiting to be executed.
+     * @throws RemoteException If an RMI-related exception occurs.
+     */
+	@Override
+	public int getQueueDepth() throws RemoteException {
+		int depth = super.getQueueDepth();
+
+		for (InvokerInterface invoker : invokers)
+			depth += invoker.getQueueDepth();
+		return (depth);
+	}
+
+	/**
+     * Returns the state of the CompositeInvoker itself, marked as composite so it is known it can select
+     * one of its child Invokers.
+     *
+     * @return The snapshot of the CompositeInvoker.
+     * @throws RemoteException If an RMI-related exception occurs.
+     */
+	@Override
+	public InvokerSnapshot getSnapshot() throws RemoteException {
+		InvokerSnapshot own = super.getSnapshot();
+
+		return (new InvokerSnapshot(own.getId(), own.getMaxRam(), own.getUsedRam(), own.getAvailableRam(),
+			own.getInFlight(), own.getQueueDepth(), true));
 	}
 
 	/**
@@ -114,9 +175,11 @@ public class CompositeInvoker extends Invoker {
 	@Override
 	public void registerInvoker(InvokerInterface invoker) throws OperationNotValid, RemoteException {
 		if (invoker == null) throw new OperationNotValid("Invoker to register cannot be null.");
-		if (invokers.contains(invoker)) throw new OperationNotValid("Invoker is already registered.");
-		invokers.add(invoker);
+		if (!invokers.addIfAbsent(invoker)) throw new OperationNotValid("Invoker is already registered.");
+		updateSnapshot();
 		invoker.setPolicyManager(policyManager);
+		if (capacity > 0)
+			invoker.setAdmissionPolicy(capacity, overflowPolicy);
 	}
 
 	/**
@@ -129,8 +192,15 @@ public class CompositeInvoker extends Invoker {
 	@Override
 	public void deleteInvoker(InvokerInterface invoker) throws OperationNotValid, RemoteException {
 		if (invoker == null) throw new OperationNotValid("Invoker to delete cannot be null.");
-		if (!invokers.contains(invoker)) throw new OperationNotValid("Invoker is not registered.");
-		invokers.remove(invoker);
+		if (!invokers.remove(invoker)) throw new OperationNotValid("Invoker is not registered.");
+		updateSnapshot();
+	}
+
+	/**
+     * Replaces the snapshot of the child Invokers given to the PolicyManager.
+     */
+	private synchronized void updateSnapshot() {
+		snapshot = List.copyOf(invokers);
 	}
 
 }
@@ -1,13 +1,26 @@
 package core.invoker;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import core.application.Invokable;
+import core.codec.Codec;
+import core.codec.EncodedValue;
+import core.exceptions.ActionNotDeployed;
+import core.exceptions.InvocationRejected;
 import core.exceptions.NoInvokerAvailable;
 import core.exceptions.NoPolicyManagerRegistered;
 import core.exceptions.OperationNotValid;
@@ -19,19 +32,20 @@ import policymanager.PolicyManager;
  * It implements the {@link InvokerInterface} interface and provides functionality for synchronous and asynchronous function invocation.
  * Each instance of the Invoker class is associated with a unique identifier, maximum RAM capacity, and usage statistics.
  *
- * <p><strong>Note:</strong> The constructor is protected to ensure instances are created using the {@link #createInvoker(long, int)} method.</p>
+ * <p><strong>Note:</strong> The constructor is protected to ensure instances are created using the {@link #createInvoker(long, int)}
+ * or the {@link #createVirtualInvoker(long)} methods.</p>
  *
  * @see Invokable
  * @see MetricRecollector
  * @see PolicyManager
  */
-public class Invoker implements InvokerInterface, Serializable {
+public class Invoker implements InvokerInterface, RamNotifier, Serializable {
 
 	/** The ExecutorService responsible for managing the threads used by the Invoker for asynchronous function execution. */
 	private final transient ExecutorService executor;
 
 	/** A counter to keep track of the total number of Invoker instances created. */
-	private static long numInvokers = 0;
+	private static final AtomicLong numInvokers = new AtomicLong(0);
 
 	/** The unique identifier for the Invoker instance. */
 	private final String id;
@@ -42,11 +56,26 @@ public class Invoker implements InvokerInterface, Serializable {
 	 */
 	private final long maxRam;
 
-	/** The amount of RAM in use the invoker has to outside classes. */
-	private long reservedRam;
+	/**
+	 * The amount of RAM in use the invoker has to outside classes. Every invocation reserves its RAM here as soon
+	 * as it is assigned to the Invoker, waiting or not, so policy managers see the real load of the Invoker.
+	 */
+	private final AtomicLong reservedRam;
+
+	/** The number of invocations assigned to the Invoker that have not finished, waiting or being executed. */
+	private final AtomicInteger inFlight;
 
-	/** The current amount of RAM actively in use by the Invoker. */
-	private long usedRam;
+	/** The listeners notified when the reserved RAM changes, like the indexes of the policy managers. */
+	private final transient CopyOnWriteArrayList<RamListener> ramListeners;
+
+	/**
+	 * The RAM actively in use by the Invoker. Invocations commit the RAM they reserved on it before being
+	 * executed; asynchronous ones wait in its queue, without taking any thread, while there is not enough RAM.
+	 */
+	private final transient RamSemaphore ramSemaphore;
+
+	/** The actions deployed in the Invoker by their id, so invocations only have to send a reference to them. */
+	private final Map<String, Invokable<?, ?>> deployedActions;
 
 	/**
 	 * Constructs a new instance of the Invoker.
@@ -63,11 +92,60 @@ public class Invoker implements InvokerInterface, Serializable {
 			executor = Executors.newFixedThreadPool(threads);
 
 		this.maxRam = ram;
-		usedRam = 0;
-		reservedRam = 0;
+		ramSemaphore = new RamSemaphore(ram, false);
+		reservedRam = new AtomicLong(0);
+		inFlight = new AtomicInteger(0);
+		ramListeners = new CopyOnWriteArrayList<RamListener>();
+		deployedActions = new ConcurrentHashMap<String, Invokable<?, ?>>();
+
+		id = Long.toString(numInvokers.getAndIncrement());
+	}
+
+	/**
+	 * Constructs a new instance of the Invoker that executes every asynchronous invocation on its own thread.
+	 * Virtual threads are used when the Java runtime supports them, otherwise a new platform thread is
+	 * created for each invocation. The number of concurrent invocations is only limited by the RAM of the Invoker.
+	 *
+	 * @param ram The maximum RAM capacity of the Invoker.
+	 */
+	protected Invoker(long ram) {
+		executor = newThreadPerTaskExecutor();
+
+		this.maxRam = ram;
+		ramSemaphore = new RamSemaphore(ram, false);
+		reservedRam = new AtomicLong(0);
+		inFlight = new AtomicInteger(0);
+		ramListeners = new CopyOnWriteArrayList<RamListener>();
+		deployedActions = new ConcurrentHashMap<String, Invokable<?, ?>>();
+
+		id = Long.toString(numInvokers.getAndIncrement());
+	}
+
+	/**
+	 * Creates an executor that starts a thread for each task. Virtual threads are only available since Java 21,
+	 * so they are looked up by reflection and a cached pool of platform threads is used when they are not found.
+	 *
+	 * @return The executor to be used by an Invoker in virtual thread mode.
+	 */
+	private static ExecutorService newThreadPerTaskExecutor() {
+		try {
+			Method virtualExecutor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return ((ExecutorService) virtualExecutor.invoke(null));
+		}
+		catch (ReflectiveOperationException e) {
+			return (Executors.newCachedThreadPool());
+		}
+	}
 
-		id = ((Long)numInvokers).toString();
-		numInvokers++;
+	/**
+	 * Reserves a range of ids so that no Invoker created afterwards in this process receives them. It is used
+	 * when Invokers are created in other processes, so the ids are the same as if they were created here.
+	 *
+	 * @param count The number of ids to reserve.
+	 * @return The first id reserved.
+	 */
+	public static long reserveIds(long count) {
+		return (numInvokers.getAndAdd(count));
 	}
 
 	/**
@@ -83,6 +161,21 @@ public class Invoker implements InvokerInterface, Serializable {
 		else
 			return new Invoker(ram, threads);
 	}
+
+	/**
+	 * Creates an Invoker with the specified RAM capacity that executes each asynchronous invocation on its own
+	 * virtual thread instead of a fixed pool of threads. It is suited for actions that spend most of their time
+	 * sleeping or waiting for I/O, because they do not hold any pool thread while they wait.
+	 *
+	 * @param ram The maximum RAM capacity of the Invoker.
+	 * @return The created Invoker instance, or null if the RAM is less than or equal to zero.
+	 */
+	public static Invoker createVirtualInvoker(long ram) {
+		if (ram <= 0)
+			return (null);
+		else
+			return new Invoker(ram);
+	}
 	
 	/**
 	 * Returns the unique identifier of the Invoker.
@@ -102,33 +195,93 @@ public class Invoker implements InvokerInterface, Serializable {
 	@Override
 	public long	getUsedRam()
 	{
-		return usedRam;
+		return ramSemaphore.getUsedRam();
 	}
 
 	/**
 	 * Returns the available RAM that can be reserved for function execution. This method is accessed by the policy manager
 	 * to distribute the invocation load. It represents the difference between the maximum RAM allowed (maxRam) and the
 	 * currently reserved RAM (reservedRam). To get actual ram being used by the Invoker, refeer to {@link Invoker#getUsedRam()}.
+	 * The value is read atomically, so it is never torn, and it is never negative even if more RAM is reserved than the maximum.
 	 *
 	 * @return The available RAM that can be reserved for execution.
 	 */
 	@Override
 	public long getAvailableRam()
 	{
-		return maxRam - reservedRam;
+		return Math.max(0, maxRam - reservedRam.get());
 	}
 
 	/**
-	 * Reserves a specified amount of RAM for execution.
+	 * Reserves a specified amount of RAM for execution, or frees it if the amount is negative.
+	 * The reservation is kept exact even when it goes over the maximum RAM, so freeing it later always
+	 * leaves the counter where it was; it only refuses to go below zero.
 	 *
 	 * @param ram The amount of RAM to reserve.
 	 */
 	@Override
 	public void reserveRam(long ram)
 	{
-		if (reservedRam + ram > maxRam) reservedRam = maxRam;
-		else if (reservedRam + ram < 0) reservedRam = 0;
-		else reservedRam += ram;
+		reservedRam.accumulateAndGet(ram, (reserved, delta) -> Math.max(0, reserved + delta));
+		if (ramListeners != null)
+			for (RamListener listener : ramListeners)
+				listener.ramChanged(this);
+	}
+
+	/**
+	 * Registers a listener notified every time the RAM reserved, and so the available RAM, changes.
+	 *
+	 * @param listener The listener to register.
+	 */
+	@Override
+	public void addRamListener(RamListener listener)
+	{
+		ramListeners.addIfAbsent(listener);
+	}
+
+	/**
+	 * Removes a listener registered with {@link #addRamListener(RamListener)}.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	@Override
+	public void removeRamListener(RamListener listener)
+	{
+		ramListeners.remove(listener);
+	}
+
+	/**
+	 * Reserves the RAM of an invocation assigned to the Invoker and counts it as in flight.
+	 *
+	 * @param ram The amount of RAM the invocation needs.
+	 */
+	private void reserveInvocation(long ram)
+	{
+		this.reserveRam(ram);
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * Frees the reservation of an invocation that finished or will never be executed.
+	 *
+	 * @param ram The amount of RAM the invocation reserved.
+	 */
+	private void unreserveInvocation(long ram)
+	{
+		this.reserveRam(-ram);
+		inFlight.decrementAndGet();
+	}
+
+	/**
+	 * Frees the RAM of a finished invocation: first the RAM committed on the semaphore, which may admit waiting
+	 * invocations, and then the reservation seen by the policy managers.
+	 *
+	 * @param ram The amount of RAM the invocation reserved and committed.
+	 */
+	private void releaseRam(long ram)
+	{
+		ramSemaphore.release(ram);
+		this.unreserveInvocation(ram);
 	}
 
 	/**
@@ -147,7 +300,85 @@ public class Invoker implements InvokerInterface, Serializable {
 	 * @return The unused RAM.
 	 */
 	public long getUnusedRam() {
-		return maxRam - usedRam;
+		return maxRam - ramSemaphore.getUsedRam();
+	}
+
+	/**
+	 * Sets how asynchronous invocations waiting for RAM are admitted. When fair, they are admitted strictly in
+	 * the order they arrived. Otherwise, which is the default, any waiting invocation that fits in the RAM freed
+	 * is admitted, even if an older one needs more RAM.
+	 *
+	 * @param fair {@code true} to admit invocations waiting for RAM in arrival order.
+	 */
+	public void setFairRamAdmission(boolean fair) {
+		ramSemaphore.setFair(fair);
+	}
+
+	/**
+	 * Bounds the admission queue where asynchronous invocations wait for RAM, so a burst of invocations
+	 * cannot queue without limit. By default the queue is unbounded, and a capacity of 0 makes it unbounded again.
+	 *
+	 * @param capacity       The maximum number of invocations waiting for RAM, or 0 for no limit.
+	 * @param overflowPolicy What to do with an invocation that arrives when the queue is full.
+	 * @throws OperationNotValid If the capacity is negative or the policy is null.
+	 * @throws RemoteException   If a remote communication-related exception occurs.
+	 */
+	@Override
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid, RemoteException {
+		if (capacity < 0) throw new OperationNotValid("Capacity of the admission queue cannot be negative.");
+		if (overflowPolicy == null) throw new OperationNotValid("Overflow policy cannot be null.");
+		ramSemaphore.setAdmissionPolicy(capacity == 0 ? Integer.MAX_VALUE : capacity, overflowPolicy);
+	}
+
+	/**
+	 * Returns the number of asynchronous invocations waiting for RAM to be executed.
+	 *
+	 * @return The number of invocations waiting for RAM.
+	 * @throws RemoteException If a remote communication-related exception occurs.
+	 */
+	@Override
+	public int getQueueDepth() throws RemoteException {
+		return ramSemaphore.getQueueLength();
+	}
+
+	/**
+	 * Returns the average time asynchronous invocations have waited for RAM before being executed.
+	 *
+	 * @return The average waiting time in nanoseconds.
+	 */
+	public long getAverageRamWaitTime() {
+		return ramSemaphore.getAverageWaitTime();
+	}
+
+	/**
+	 * Returns the maximum time an asynchronous invocation has waited for RAM before being executed.
+	 *
+	 * @return The maximum waiting time in nanoseconds.
+	 */
+	public long getMaxRamWaitTime() {
+		return ramSemaphore.getMaxWaitTime();
+	}
+
+	/**
+	 * Returns the number of invocations assigned to the Invoker that have not finished yet, including the
+	 * asynchronous ones waiting for RAM.
+	 *
+	 * @return The number of invocations in flight.
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * Returns a copy of the current state of the Invoker. Each value is read atomically, but they are not
+	 * read all at the same instant, so they can be slightly inconsistent among them while invocations run.
+	 *
+	 * @return The snapshot of the Invoker.
+	 * @throws RemoteException If a remote communication-related exception occurs.
+	 */
+	@Override
+	public InvokerSnapshot getSnapshot() throws RemoteException {
+		return new InvokerSnapshot(id, maxRam, getUsedRam(), getAvailableRam(), inFlight.get(), ramSemaphore.getQueueLength(), false);
 	}
 
 	/**
@@ -165,6 +396,56 @@ public class Invoker implements InvokerInterface, Serializable {
 		return this;
 	}
 
+	/**
+	 * Deploys an action in the Invoker, replacing the one deployed with the same id.
+	 *
+	 * @param id        The identifier of the action.
+	 * @param invokable The action to be deployed, with its function.
+	 * @throws OperationNotValid If the id is null or the Invokable is a reference or cannot be deployed.
+	 */
+	@Override
+	public void deployAction(String id, Invokable<?, ?> invokable) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (invokable == null || invokable.getHash() == null || invokable.isReference())
+			throw new OperationNotValid("Action deployed must be a serializable function.");
+		deployedActions.put(id, invokable);
+	}
+
+	/**
+	 * Retrieves the Invokable to be executed for an invocation, which is the one deployed if a reference was received.
+	 *
+	 * @param invokable The Invokable received, or a reference to it.
+	 * @param id        The identifier of the action.
+	 * @return The Invokable with the function to be executed.
+	 * @throws ActionNotDeployed If the Invokable is a reference and the action is not deployed with the same content.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T, R> Invokable<T, R> resolve(Invokable<T, R> invokable, String id) throws ActionNotDeployed {
+		if (!invokable.isReference())
+			return (invokable);
+		Invokable<?, ?> deployed = deployedActions.get(id);
+		if (deployed == null || !deployed.getHash().equals(invokable.getHash()))
+			throw new ActionNotDeployed("Action " + id + " is not deployed in invoker " + getId() + ".");
+		return ((Invokable<T, R>) deployed);
+	}
+
+	/**
+	 * Adapts a function to the argument received. If it is an {@link EncodedValue}, the function is applied to
+	 * the value it holds and the result is returned in an EncodedValue with the same codec, so it is sent back
+	 * to a remote caller with the codec it chose.
+	 *
+	 * @param function The function of the Invokable.
+	 * @param args     The argument received.
+	 * @return The function to be applied to the argument received.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T, R> Function<T, R> withCodec(Function<T, R> function, T args) {
+		if (!(args instanceof EncodedValue))
+			return (function);
+		Codec codec = ((EncodedValue) args).getCodec();
+		return (arg -> (R) EncodedValue.wrap(codec, function.apply((T) EncodedValue.unwrap(arg))));
+	}
+
 	/**
 	 * Executes a synchronous function passed by reference, applying observers and decorators.
 	 *
@@ -174,21 +455,26 @@ public class Invoker implements InvokerInterface, Serializable {
 	 * @param <T>       The type of input argument.
 	 * @param <R>       The type of the result.
 	 * @return The result of the function invocation.
-	 * @throws Exception If an exception occurs during execution.
+	 * @throws ActionNotDeployed If a reference to an action that is not deployed is received.
+	 * @throws Exception         If an exception occurs during execution.
 	 */
 	public <T, R> R invoke(Invokable<T,R> invokable, T args, String id) throws Exception {
+		invokable = resolve(invokable, id);
 		MetricRecollector metricsRecollector = new MetricRecollector(id, this);
 		metricsRecollector.initializeObservers();
 
-		this.reserveRam(invokable.getRam());
-		usedRam += invokable.getRam();
+		this.reserveInvocation(invokable.getRam());
+		ramSemaphore.acquireNow(invokable.getRam());
 
 		metricsRecollector.executeObservers();
 
-		R result = ((Function<T, R>)invokable.retrieveInvokable()).apply(args);
-
-		usedRam -= invokable.getRam();
-		this.reserveRam(-invokable.getRam());
+		R result;
+		try {
+			result = withCodec((Function<T, R>)invokable.retrieveInvokable(), args).apply(args);
+		}
+		finally {
+			this.releaseRam(invokable.getRam());
+		}
 		
 		metricsRecollector.notifyObservers();
 
@@ -197,53 +483,136 @@ public class Invoker implements InvokerInterface, Serializable {
 
 	/**
 	 * Attempts to execute a function asynchronously.
-	 * If there is no available RAM, it will wait until it gets a notification that it can be executed.
-	 * If the pool of threads is full, it will also wait.
+	 * If there is no available RAM, the invocation waits in a queue, without taking any thread, until
+	 * enough RAM is released. Once admitted, if the pool of threads is full, it will also wait.
+	 * If the queue is full, the overflow policy set with {@link #setAdmissionPolicy(int, OverflowPolicy)} decides
+	 * if the call blocks, is rejected or drops the invocation that has waited the longest.
+	 * <p>
+	 * Cancelling the future before the function starts removes the invocation from the queue, or from the
+	 * threads, and releases its RAM. A function already running is not interrupted.
 	 *
 	 * @param invokable The Invokable function to be executed asynchronously along with its RAM requirement.
 	 * @param args      The arguments needed by the function.
 	 * @param id        The identifier of the function.
 	 * @param <T>       The type of input argument.
 	 * @param <R>       The type of the result.
-	 * @return A Future representing the asynchronous result of the function invocation.
-	 * @throws Exception If an exception occurs during execution.
+	 * @return A CompletableFuture that completes with the result of the function invocation, allowing to chain
+	 *         further invocations without blocking. If the invocation is dropped from the queue, it completes
+	 *         exceptionally with an {@link InvocationRejected}.
+	 * @throws InvocationRejected If the admission queue is full and the overflow policy is to reject.
+	 * @throws Exception          If an exception occurs during execution.
 	 */
-	public <T, R> Future<R> invokeAsync(Invokable<T,R> invokable, T args, String id) throws Exception {
+	public <T, R> CompletableFuture<R> invokeAsync(Invokable<T,R> invokable, T args, String id) throws Exception {
+		invokable = resolve(invokable, id);
 		MetricRecollector metricsRecollector = new MetricRecollector(id, this);
 		metricsRecollector.initializeObservers();
-		Function<T, R> function = (Function<T, R>)invokable.retrieveInvokable();
-
-		this.reserveRam(invokable.getRam());
-
-		Future<R> futureResult = executor.submit( 
-			() -> {
-				R result;
-
-				synchronized (this) {
-					while (getUnusedRam() - invokable.getRam() < 0)
-					{
-						try {
-							wait();
-						} catch (InterruptedException e) {
-							Thread.currentThread().interrupt();
-						}
+		Function<T, R> function = withCodec((Function<T, R>)invokable.retrieveInvokable(), args);
+		long ram = invokable.getRam();
+		CompletableFuture<R> futureResult = new CompletableFuture<R>();
+
+		this.reserveInvocation(ram);
+
+		Runnable shed = () -> {
+			this.unreserveInvocation(ram);
+			futureResult.completeExceptionally(new InvocationRejected("Invocation dropped from the admission queue of invoker " + getId() + "."));
+		};
+		Runnable admit = () -> {
+			try {
+				executor.execute(() -> {
+					R result = null;
+					Throwable failure = null;
+
+					// cancelled while waiting for a thread
+					if (futureResult.isCancelled()) {
+						this.releaseRam(ram);
+						return ;
 					}
-					usedRam += invokable.getRam();
 					metricsRecollector.executeObservers();
-				}
-				result = function.apply(args);
-				synchronized (this) {
-					usedRam -= invokable.getRam();
-					this.reserveRam(-invokable.getRam());
+					try {
+						result = function.apply(args);
+					}
+					catch (Throwable e) {
+						failure = e;
+					}
+					this.releaseRam(ram);
 					metricsRecollector.notifyObservers();
-					notify();
-				}
-				return result;
+
+					if (failure == null)
+						futureResult.complete(result);
+					else
+						futureResult.completeExceptionally(failure);
+				});
+			}
+			catch (RejectedExecutionException e) {
+				this.releaseRam(ram);
+				futureResult.completeExceptionally(e);
 			}
-		);
+		};
+		try {
+			ramSemaphore.acquire(ram, admit, shed);
+		}
+		catch (InvocationRejected | InterruptedException e) {
+			this.unreserveInvocation(ram);
+			throw e;
+		}
+		// cancelled while waiting for RAM
+		futureResult.whenComplete((result, failure) -> {
+			if (futureResult.isCancelled() && ramSemaphore.cancel(admit))
+				this.unreserveInvocation(ram);
+		});
 		return futureResult;
 	}
 
+	/**
+	 * Executes synchronously a function for every element of a chunk, one after another on the calling thread.
+	 *
+	 * @param invokable The Invokable function to be executed along with the RAM each element requires.
+	 * @param args      The arguments of the elements of the chunk.
+	 * @param id        The identifier of the function.
+	 * @param <T>       The type of input argument.
+	 * @param <R>       The type of the result.
+	 * @return The results of the elements, in the same order as the arguments.
+	 * @throws Exception If an exception occurs during the execution of any element.
+	 */
+	@Override
+	public <T, R> List<R> invokeBatch(Invokable<T,R> invokable, List<T> args, String id) throws Exception {
+		List<R> results = new ArrayList<R>(args.size());
+
+		invokable = resolve(invokable, id);
+		for (T element : args)
+			results.add(this.invoke(invokable, element, id));
+		return results;
+	}
+
+	/**
+	 * Attempts to execute asynchronously a function for every element of a chunk. Every element is admitted
+	 * independently, waiting for RAM in the admission queue as {@link #invokeAsync} does.
+	 *
+	 * @param invokable The Invokable function to be executed asynchronously along with the RAM each element requires.
+	 * @param args      The arguments of the elements of the chunk.
+	 * @param id        The identifier of the function.
+	 * @param <T>       The type of input argument.
+	 * @param <R>       The type of the result.
+	 * @return A CompletableFuture that completes with the results of the elements once all of them finish.
+	 * @throws InvocationRejected If the admission queue is full and the overflow policy is to reject.
+	 * @throws Exception          If an exception occurs during execution.
+	 */
+	@Override
+	public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T,R> invokable, List<T> args, String id) throws Exception {
+		List<CompletableFuture<R>> futures = new ArrayList<CompletableFuture<R>>(args.size());
+
+		invokable = resolve(invokable, id);
+		for (T element : args)
+			futures.add(this.invokeAsync(invokable, element, id));
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+			.thenApply(done -> {
+				List<R> results = new ArrayList<R>(futures.size());
+				for (CompletableFuture<R> future : futures)
+					results.add(future.join());
+				return results;
+			});
+	}
+
 	/**
 	 * Shuts down the executor of the Invoker. Must be called when the application finishes.
 	 */
@@ -2,7 +2,8 @@ package core.invoker;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
-import java.util.concurrent.Future;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import core.application.Invokable;
 import core.exceptions.NoInvokerAvailable;
@@ -58,6 +59,22 @@ public interface InvokerInterface extends Remote {
 	 */
 	public long	getMaxRam() throws RemoteException;
 
+	/**
+	 * Checks that the Invoker can be reached. It does nothing, so for a remote Invoker it only costs a round trip.
+	 *
+	 * @throws RemoteException If the Invoker cannot be reached.
+	 */
+	public default void heartbeat() throws RemoteException {
+	}
+
+	/**
+	 * Retrieves a copy of the state of the Invoker with a single call, which for a remote Invoker is a single round trip.
+	 *
+	 * @return The snapshot of the Invoker.
+	 * @throws RemoteException If a remote communication-related exception occurs.
+	 */
+	public InvokerSnapshot getSnapshot() throws RemoteException;
+
 	/**
 	 * Selects an Invoker that has enough RAM to execute an Invokable consuming the specified RAM.
 	 *
@@ -69,6 +86,18 @@ public interface InvokerInterface extends Remote {
 	 */
 	public InvokerInterface selectInvoker(long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException;
 
+	/**
+	 * Deploys an action in the Invoker, so the following invocations only send a reference to it
+	 * ({@link Invokable#reference()}) instead of the whole function. If an action with the same id was
+	 * deployed, it is replaced.
+	 *
+	 * @param id        The identifier of the action.
+	 * @param invokable The action to be deployed, with its function.
+	 * @throws OperationNotValid If the id is null or the Invokable is a reference or cannot be deployed.
+	 * @throws RemoteException   If a remote communication-related exception occurs.
+	 */
+	public void deployAction(String id, Invokable<?, ?> invokable) throws OperationNotValid, RemoteException;
+
 	/**
 	 * Executes a synchronous function passed by reference, applying observers and decorators.
 	 *
@@ -78,7 +107,8 @@ public interface InvokerInterface extends Remote {
 	 * @param args      The arguments needed by the function, of type T.
 	 * @param id        The identifier of the function, needed by observers and decorators to store data correctly.
 	 * @return The result of the function invoked, of type R.
-	 * @throws Exception If an exception occurs during the invocation process.
+	 * @throws core.exceptions.ActionNotDeployed If the Invokable is a reference and the action is not deployed.
+	 * @throws Exception                          If an exception occurs during the invocation process.
 	 */
 	public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception;
 
@@ -91,10 +121,59 @@ public interface InvokerInterface extends Remote {
 	 * @param invokable The function to be executed asynchronously and the RAM it consumes.
 	 * @param args      The arguments needed by the function, of type T.
 	 * @param id        The identifier of the function, needed by observers and decorators to store data correctly.
-	 * @return A Future representing the asynchronous result of invoking the function.
+	 * @return A CompletableFuture completed with the result of invoking the function, which can be composed
+	 *         with other invocations without blocking.
 	 * @throws Exception If an exception occurs during the asynchronous invocation process.
 	 */
-	public <T, R> Future<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception;
+	public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception;
+
+	/**
+	 * Executes synchronously a function for every element of a chunk of a group invocation, with a single call,
+	 * which for a remote Invoker is a single round trip. Each element is executed as {@link #invoke} does.
+	 *
+	 * @param <T>       The type of the input parameter for the Invokable.
+	 * @param <R>       The type of the result returned by the Invokable.
+	 * @param invokable The function to be executed and the RAM each element consumes.
+	 * @param args      The arguments of the elements of the chunk, of type T.
+	 * @param id        The identifier of the function, needed by observers and decorators to store data correctly.
+	 * @return The results of the elements, in the same order as the arguments.
+	 * @throws Exception If an exception occurs during the invocation of any element.
+	 */
+	public <T, R> List<R> invokeBatch(Invokable<T, R> invokable, List<T> args, String id) throws Exception;
+
+	/**
+	 * Executes asynchronously a function for every element of a chunk of a group invocation, with a single call,
+	 * which for a remote Invoker is a single round trip. Each element is admitted as {@link #invokeAsync} does.
+	 *
+	 * @param <T>       The type of the input parameter for the Invokable.
+	 * @param <R>       The type of the result returned by the Invokable.
+	 * @param invokable The function to be executed asynchronously and the RAM each element consumes.
+	 * @param args      The arguments of the elements of the chunk, of type T.
+	 * @param id        The identifier of the function, needed by observers and decorators to store data correctly.
+	 * @return A CompletableFuture completed with the results of the elements, in the same order as the arguments,
+	 *         or completed exceptionally if any of them fails.
+	 * @throws Exception If an exception occurs during the asynchronous invocation process.
+	 */
+	public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T, R> invokable, List<T> args, String id) throws Exception;
+
+	/**
+	 * Bounds the admission queue where asynchronous invocations wait for RAM, and sets what happens to
+	 * an invocation that arrives when it is full. A capacity of 0 makes the queue unbounded again.
+	 *
+	 * @param capacity       The maximum number of invocations waiting for RAM, or 0 for no limit.
+	 * @param overflowPolicy What to do with an invocation that arrives when the queue is full.
+	 * @throws OperationNotValid If the capacity is negative or the policy is null.
+	 * @throws RemoteException   If a remote communication-related exception occurs.
+	 */
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid, RemoteException;
+
+	/**
+	 * Retrieves the number of asynchronous invocations waiting for RAM in the Invoker.
+	 *
+	 * @return The number of invocations waiting to be executed.
+	 * @throws RemoteException If a remote communication-related exception occurs.
+	 */
+	public int getQueueDepth() throws RemoteException;
 
 	/**
 	 * Shuts down the executor of the Invoker. Must be called when the application finishes.
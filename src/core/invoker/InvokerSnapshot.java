@@ -0,0 +1,107 @@
+package core.invoker;
+
+import java.io.Serializable;
+
+/**
+ * An immutable copy of the state of an Invoker at a given moment: its RAM and the invocations it has in flight.
+ * It is retrieved with a single call to {@link InvokerInterface#getSnapshot()}, so a remote Invoker can be
+ * inspected with one round trip instead of one for each value, and the copy can be kept locally to take
+ * decisions from memory.
+ *
+ * @see rmi.RemoteInvoker
+ */
+public class InvokerSnapshot implements Serializable {
+
+	private final String	id;
+	private final long		maxRam;
+	private final long		usedRam;
+	private final long		availableRam;
+	private final int		inFlight;
+	private final int		queueDepth;
+	private final boolean	composite;
+
+	/**
+	 * Constructs an InvokerSnapshot with the state of an Invoker.
+	 *
+	 * @param id           The identifier of the Invoker.
+	 * @param maxRam       The maximum RAM of the Invoker.
+	 * @param usedRam      The RAM in use by the invocations being executed.
+	 * @param availableRam The RAM not reserved by any invocation.
+	 * @param inFlight     The number of invocations assigned to the Invoker and not finished yet.
+	 * @param queueDepth   The number of asynchronous invocations waiting for RAM.
+	 * @param composite    {@code true} if the Invoker is a CompositeInvoker, so it can select another Invoker.
+	 */
+	public InvokerSnapshot(String id, long maxRam, long usedRam, long availableRam, int inFlight, int queueDepth, boolean composite) {
+		this.id = id;
+		this.maxRam = maxRam;
+		this.usedRam = usedRam;
+		this.availableRam = availableRam;
+		this.inFlight = inFlight;
+		this.queueDepth = queueDepth;
+		this.composite = composite;
+	}
+
+	/**
+	 * Gets the identifier of the Invoker.
+	 *
+	 * @return The identifier of the Invoker.
+	 */
+	public String getId() {
+		return (id);
+	}
+
+	/**
+	 * Gets the maximum RAM of the Invoker.
+	 *
+	 * @return The maximum RAM in megabytes.
+	 */
+	public long getMaxRam() {
+		return (maxRam);
+	}
+
+	/**
+	 * Gets the RAM that was in use by the invocations being executed.
+	 *
+	 * @return The used RAM in megabytes.
+	 */
+	public long getUsedRam() {
+		return (usedRam);
+	}
+
+	/**
+	 * Gets the RAM that was not reserved by any invocation.
+	 *
+	 * @return The available RAM in megabytes.
+	 */
+	public long getAvailableRam() {
+		return (availableRam);
+	}
+
+	/**
+	 * Gets the number of invocations that were assigned to the Invoker and had not finished.
+	 *
+	 * @return The number of invocations in flight.
+	 */
+	public int getInFlight() {
+		return (inFlight);
+	}
+
+	/**
+	 * Gets the number of asynchronous invocations that were waiting for RAM.
+	 *
+	 * @return The depth of the admission queue.
+	 */
+	public int getQueueDepth() {
+		return (queueDepth);
+	}
+
+	/**
+	 * Checks if the Invoker is a CompositeInvoker.
+	 *
+	 * @return {@code true} if the Invoker can select one of its child Invokers.
+	 */
+	public boolean isComposite() {
+		return (composite);
+	}
+
+}
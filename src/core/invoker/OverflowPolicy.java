@@ -0,0 +1,23 @@
+package core.invoker;
+
+/**
+ * Defines what an {@link Invoker} does with an asynchronous invocation that arrives when its admission
+ * queue, where invocations wait for RAM, is full.
+ *
+ * @see Invoker#setAdmissionPolicy(int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+
+	/** The calling thread blocks until there is room in the queue. */
+	BLOCK,
+
+	/** The invocation is refused with an {@link core.exceptions.InvocationRejected} exception. */
+	REJECT,
+
+	/**
+	 * The invocation that has waited the longest is dropped to make room, and its future is completed
+	 * exceptionally with an {@link core.exceptions.InvocationRejected} exception.
+	 */
+	SHED_OLDEST
+
+}
@@ -0,0 +1,19 @@
+package core.invoker;
+
+/**
+ * Listener notified every time the RAM reserved in an invoker changes, so structures ordered by the
+ * available RAM of the invokers can be kept up to date without asking every invoker for it.
+ *
+ * @see RamNotifier
+ */
+public interface RamListener {
+
+	/**
+	 * Called after the available RAM of the invoker has changed. It is called by the thread that changed
+	 * the RAM, so it must be short and must not block.
+	 *
+	 * @param invoker The invoker whose available RAM changed.
+	 */
+	public void ramChanged(InvokerInterface invoker);
+
+}
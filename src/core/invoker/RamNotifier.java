@@ -0,0 +1,24 @@
+package core.invoker;
+
+/**
+ * An invoker that notifies locally the changes of its available RAM to the listeners registered.
+ *
+ * @see RamListener
+ */
+public interface RamNotifier {
+
+	/**
+	 * Registers a listener to be notified every time the available RAM changes.
+	 *
+	 * @param listener The listener to register.
+	 */
+	public void addRamListener(RamListener listener);
+
+	/**
+	 * Removes a listener registered before.
+	 *
+	 * @param listener The listener to remove.
+	 */
+	public void removeRamListener(RamListener listener);
+
+}
@@ -0,0 +1,353 @@
+package core.invoker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import core.exceptions.InvocationRejected;
+
+/**
+ * A weighted semaphore whose permits are the megabytes of RAM of an {@link Invoker}. It is used to admit
+ * asynchronous invocations: a task is only handed to the threads of the Invoker once its RAM has been acquired,
+ * so no thread sits waiting for memory. Tasks that cannot be admitted are queued and get released in bulk
+ * every time RAM is freed.
+ * <p>
+ * In fair mode tasks are admitted strictly in arrival order, so a task that needs a lot of RAM cannot be
+ * overtaken forever by smaller ones. In non fair mode any queued task that fits in the free RAM is admitted,
+ * which keeps the Invoker busier at the cost of possibly delaying big tasks.
+ * <p>
+ * The RAM available is an atomic counter: while no task is queued, acquiring and releasing RAM are a single
+ * compare-and-set and never take the lock, which only guards the queue.
+ * <p>
+ * The queue can be bounded, so a burst of invocations cannot pile up without limit. What happens to a task that
+ * arrives with the queue full is decided by its {@link OverflowPolicy}.
+ */
+public class RamSemaphore {
+
+	/** A task waiting for its RAM to be available. */
+	private static class Waiter {
+		private final long		ram;
+		private final Runnable	task;
+		private final Runnable	shed;
+		private final long		enqueuedAt;
+
+		private Waiter(long ram, Runnable task, Runnable shed) {
+			this.ram = ram;
+			this.task = task;
+			this.shed = shed;
+			this.enqueuedAt = System.nanoTime();
+		}
+	}
+
+	private final long			maxRam;
+	private final AtomicLong	availableRam;
+	private volatile boolean	fair;
+	private final Deque<Waiter>	queue;
+	/** Number of tasks in the queue, readable without taking the lock. */
+	private final AtomicInteger	waiting;
+	/** Maximum number of tasks in the queue. */
+	private int					capacity;
+	/** What to do with a task that arrives when the queue is full. */
+	private OverflowPolicy		overflowPolicy;
+	/**
+	 * A lower bound of the RAM needed by the smallest task in the queue, so releases that cannot admit any task
+	 * do not walk the queue. Guarded by the lock.
+	 */
+	private long				smallestQueued;
+
+	/** Total time in nanoseconds spent in the queue by the tasks that had to wait. */
+	private final LongAdder totalWaitTime;
+	/** Number of tasks that were admitted, including the ones that did not wait. */
+	private final LongAdder admissions;
+	/** Maximum time in nanoseconds a task has spent in the queue. */
+	private final LongAccumulator maxWaitTime;
+
+	/**
+	 * Constructs a RamSemaphore with all its RAM available.
+	 *
+	 * @param maxRam The amount of RAM that can be acquired at the same time.
+	 * @param fair   {@code true} to admit queued tasks strictly in arrival order.
+	 */
+	public RamSemaphore(long maxRam, boolean fair) {
+		this.maxRam = maxRam;
+		this.availableRam = new AtomicLong(maxRam);
+		this.fair = fair;
+		this.queue = new ArrayDeque<Waiter>();
+		this.waiting = new AtomicInteger(0);
+		this.capacity = Integer.MAX_VALUE;
+		this.overflowPolicy = OverflowPolicy.BLOCK;
+		this.smallestQueued = Long.MAX_VALUE;
+		this.totalWaitTime = new LongAdder();
+		this.admissions = new LongAdder();
+		this.maxWaitTime = new LongAccumulator(Math::max, 0);
+	}
+
+	/**
+	 * Tries to take the specified RAM with a compare-and-set. A request bigger than the whole RAM would never fit,
+	 * so it is admitted when nothing else is using the RAM.
+	 *
+	 * @param ram The amount of RAM to take.
+	 * @return {@code true} if the RAM was taken.
+	 */
+	private boolean tryTake(long ram) {
+		long needed = Math.min(ram, maxRam);
+		long current = availableRam.get();
+
+		while (current >= needed) {
+			if (availableRam.compareAndSet(current, current - ram)) {
+				admissions.increment();
+				return (true);
+			}
+			current = availableRam.get();
+		}
+		return (false);
+	}
+
+	/**
+	 * Admits every queued task that can take its RAM. Must be called holding the lock.
+	 *
+	 * @param admitted The list where the tasks admitted are added, to be run once the lock is released.
+	 */
+	private void drain(List<Runnable> admitted) {
+		long now;
+		Iterator<Waiter> iterator;
+		int queued = queue.size();
+		long smallest = Long.MAX_VALUE;
+		boolean complete = true;
+
+		// no task in the queue fits in the RAM available
+		if (availableRam.get() < smallestQueued)
+			return ;
+		now = System.nanoTime();
+		iterator = queue.iterator();
+		while (iterator.hasNext()) {
+			Waiter waiter = iterator.next();
+			if (tryTake(waiter.ram)) {
+				iterator.remove();
+				waiting.decrementAndGet();
+				totalWaitTime.add(now - waiter.enqueuedAt);
+				maxWaitTime.accumulate(now - waiter.enqueuedAt);
+				admitted.add(waiter.task);
+				continue ;
+			}
+			smallest = Math.min(smallest, Math.min(waiter.ram, maxRam));
+			// in fair mode no task overtakes the first one that does not fit, and no other task fits in less RAM
+			if (fair || availableRam.get() < smallestQueued) {
+				complete = !iterator.hasNext();
+				break ;
+			}
+		}
+		smallestQueued = complete ? smallest : Math.min(smallest, smallestQueued);
+		// wake up the tasks blocked because the queue was full
+		if (queue.size() < queued)
+			notifyAll();
+	}
+
+	/**
+	 * Makes room in the queue for a new task following the overflow policy. Must be called holding the lock.
+	 *
+	 * @param shed The list where the tasks dropped from the queue are added, to be notified once the lock is released.
+	 * @throws InvocationRejected  If the policy is to reject the new task.
+	 * @throws InterruptedException If the thread is interrupted while blocked waiting for room in the queue.
+	 */
+	private void makeRoom(List<Runnable> shed) throws InvocationRejected, InterruptedException {
+		while (queue.size() >= capacity) {
+			switch (overflowPolicy) {
+				case REJECT:
+					throw new InvocationRejected("Admission queue is full (" + capacity + " invocations waiting).");
+				case SHED_OLDEST:
+					Waiter oldest = queue.pollFirst();
+					waiting.decrementAndGet();
+					if (oldest.shed != null)
+						shed.add(oldest.shed);
+					break ;
+				default:
+					wait();
+			}
+		}
+	}
+
+	/**
+	 * Acquires the specified RAM and runs the task. If the RAM is not available the task is queued and this method
+	 * returns immediately; the task will be run by the thread that releases enough RAM.
+	 * The task should only schedule the work, as it may run while other tasks are being released.
+	 * <p>
+	 * If the queue is full, depending on the overflow policy, the calling thread blocks until there is room, the task
+	 * is rejected, or the oldest task in the queue is dropped and its shed callback is run.
+	 *
+	 * @param ram  The amount of RAM to acquire.
+	 * @param task The task to run once the RAM is acquired.
+	 * @param shed The task to run if this one is dropped from the queue, or null.
+	 * @throws InvocationRejected  If the queue is full and the overflow policy is {@link OverflowPolicy#REJECT}.
+	 * @throws InterruptedException If the thread is interrupted while blocked waiting for room in the queue.
+	 */
+	public void acquire(long ram, Runnable task, Runnable shed) throws InvocationRejected, InterruptedException {
+		List<Runnable> admitted;
+		List<Runnable> dropped;
+
+		if ((!fair || waiting.get() == 0) && tryTake(ram)) {
+			task.run();
+			return ;
+		}
+		admitted = new ArrayList<Runnable>();
+		dropped = new ArrayList<Runnable>();
+		synchronized (this) {
+			try {
+				makeRoom(dropped);
+				queue.addLast(new Waiter(ram, task, shed));
+				waiting.incrementAndGet();
+				smallestQueued = Math.min(smallestQueued, Math.min(ram, maxRam));
+			}
+			finally {
+				// RAM may have been released after the failed attempt and before queueing
+				drain(admitted);
+			}
+		}
+		for (Runnable droppedTask : dropped)
+			droppedTask.run();
+		for (Runnable admittedTask : admitted)
+			admittedTask.run();
+	}
+
+	/**
+	 * Acquires the specified RAM and runs the task, without any callback if the task is dropped from the queue.
+	 *
+	 * @param ram  The amount of RAM to acquire.
+	 * @param task The task to run once the RAM is acquired.
+	 * @throws InvocationRejected  If the queue is full and the overflow policy is {@link OverflowPolicy#REJECT}.
+	 * @throws InterruptedException If the thread is interrupted while blocked waiting for room in the queue.
+	 * @see #acquire(long, Runnable, Runnable)
+	 */
+	public void acquire(long ram, Runnable task) throws InvocationRejected, InterruptedException {
+		acquire(ram, task, null);
+	}
+
+	/**
+	 * Removes a task from the queue before it is admitted, so it is never run and its RAM is never acquired.
+	 * In fair mode the tasks queued behind it may be admitted now.
+	 *
+	 * @param task The task queued with {@link #acquire(long, Runnable, Runnable)}.
+	 * @return {@code true} if the task was in the queue, {@code false} if it was already admitted or dropped.
+	 */
+	public boolean cancel(Runnable task) {
+		List<Runnable> admitted = new ArrayList<Runnable>();
+		boolean removed = false;
+
+		synchronized (this) {
+			Iterator<Waiter> iterator = queue.iterator();
+			while (iterator.hasNext()) {
+				if (iterator.next().task == task) {
+					iterator.remove();
+					waiting.decrementAndGet();
+					removed = true;
+					break ;
+				}
+			}
+			if (removed) {
+				notifyAll();
+				drain(admitted);
+			}
+		}
+		for (Runnable admittedTask : admitted)
+			admittedTask.run();
+		return (removed);
+	}
+
+	/**
+	 * Acquires the specified RAM without waiting, even if it leaves the available RAM below zero.
+	 * Used by synchronous invocations, which are executed by the calling thread.
+	 *
+	 * @param ram The amount of RAM to acquire.
+	 */
+	public void acquireNow(long ram) {
+		availableRam.addAndGet(-ram);
+		admissions.increment();
+	}
+
+	/**
+	 * Releases the specified RAM and runs every queued task that can be admitted with the RAM available.
+	 *
+	 * @param ram The amount of RAM to release.
+	 */
+	public void release(long ram) {
+		List<Runnable> admitted;
+
+		availableRam.addAndGet(ram);
+		if (waiting.get() == 0)
+			return ;
+		admitted = new ArrayList<Runnable>();
+		synchronized (this) {
+			drain(admitted);
+		}
+		for (Runnable task : admitted)
+			task.run();
+	}
+
+	/**
+	 * Sets if queued tasks are admitted strictly in arrival order.
+	 *
+	 * @param fair {@code true} to admit queued tasks in arrival order.
+	 */
+	public void setFair(boolean fair) {
+		this.fair = fair;
+	}
+
+	/**
+	 * Bounds the queue of tasks waiting for RAM. Tasks already queued over the new capacity are kept.
+	 *
+	 * @param capacity       The maximum number of tasks waiting for RAM.
+	 * @param overflowPolicy What to do with a task that arrives when the queue is full.
+	 */
+	public synchronized void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) {
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		notifyAll();
+	}
+
+	/**
+	 * Returns the amount of RAM acquired and not released yet.
+	 *
+	 * @return The RAM in use.
+	 */
+	public long getUsedRam() {
+		return (maxRam - availableRam.get());
+	}
+
+	/**
+	 * Returns the number of tasks waiting for RAM.
+	 *
+	 * @return The length of the queue.
+	 */
+	public int getQueueLength() {
+		return (waiting.get());
+	}
+
+	/**
+	 * Returns the average time tasks have waited in the queue, counting the tasks admitted without waiting.
+	 *
+	 * @return The average waiting time in nanoseconds, or 0 if no task has been admitted.
+	 */
+	public long getAverageWaitTime() {
+		long admitted = admissions.sum();
+
+		if (admitted == 0)
+			return (0);
+		return (totalWaitTime.sum() / admitted);
+	}
+
+	/**
+	 * Returns the maximum time a task has waited in the queue.
+	 *
+	 * @return The maximum waiting time in nanoseconds.
+	 */
+	public long getMaxWaitTime() {
+		return (maxWaitTime.get());
+	}
+
+}
@@ -77,7 +77,7 @@ public class MetricCollection {
 	}
 
 	@SuppressWarnings("unchecked")
-	public <T> List<T> getList(String metricId, String functionId) throws NoResultAvailable
+	public synchronized <T> List<T> getList(String metricId, String functionId) throws NoResultAvailable
 	{
 		Map<String, List<Metric<Object>>> metricMap;
 		List<Metric<Object>> nonCastedMetrics;
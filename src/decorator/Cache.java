@@ -1,25 +1,56 @@
 package decorator;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import core.exceptions.NoResultAvailable;
+import core.exceptions.OperationNotValid;
 
 /**
  * A class that acts as the cache itself of the cache decorator.
+ * <p>
+ * The results of every action are kept in a region of their own, bounded by a capacity and an
+ * {@link EvictionPolicy}. By default an action keeps up to 10000 results and evicts the least recently used one,
+ * but each action can be given its own capacity, policy and {@link Weigher}. Results are looked up by the key
+ * of their arguments, which by default are compared with their {@code equals}, and each action can be given
+ * its own {@link KeyExtractor}.
+ * <p>
+ * Results are kept until they are evicted, unless their action is given a time to live. Results of an action,
+ * or all of them, can also be invalidated, for instance when the files an action reads change. An action
+ * with a time to live can refresh ahead the results requested close to their expiration, calculating them again in
+ * the background, so the results requested often do not expire while they are being used.
+ * <p>
+ * An action can also be given an off-heap tier, where the results evicted from the heap are kept serialized,
+ * so large results do not fill the heap nor slow down the garbage collector. Lookups and insertions can be done
+ * concurrently from the threads of any invoker, and every region counts its hits, misses and evictions.
  */
 public class Cache {
 
-	private Map<String, Map<String, Object>> cacheDecorator;
+	/** The capacity of the actions that were not given one. */
+	public static final long DEFAULT_CAPACITY = 10_000;
+
+	private final Map<String, CacheRegion> regions;
+
+	private volatile long			defaultCapacity;
+	private volatile EvictionPolicy	defaultPolicy;
+
+	/** The executor refreshing the results of the actions that were not given one. */
+	private final ExecutorService	refresher;
 
 	private static Object mutex = new Object();
-	private static Cache	uniqueInstance = null;
+	private static volatile Cache	uniqueInstance = null;
 
 	/**
 	 * Checks if the Cache is instanciated, creates one if it isn't.
 	 * This method is thread safe.
-	* 
-	* @return The Singleton instance of Cache. 
+	*
+	* @return The Singleton instance of Cache.
 	*/
 	public static Cache instantiate() {
 		Cache instance;
@@ -41,28 +72,232 @@ public class Cache {
 	 * Constructs a new instance of Cache and instantiates all the structs it uses.
 	 */
 	private Cache() {
-		cacheDecorator = new HashMap<>();
+		regions = new ConcurrentHashMap<String, CacheRegion>();
+		defaultCapacity = DEFAULT_CAPACITY;
+		defaultPolicy = EvictionPolicy.LRU;
+		refresher = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+			Thread thread = new Thread(runnable, "cache-refresh");
+			thread.setDaemon(true);
+			return (thread);
+		});
+	}
+
+	/**
+	 * Sets the capacity and the eviction policy of the actions that are not given their own, used the first time
+	 * a result of each one is cached.
+	 *
+	 * @param capacity The maximum number of results cached for each action.
+	 * @param policy   The policy deciding which results are evicted.
+	 * @throws OperationNotValid If the capacity is not positive or the policy is null.
+	 */
+	public void setDefaultCapacity(long capacity, EvictionPolicy policy) throws OperationNotValid {
+		if (capacity <= 0) throw new OperationNotValid("Capacity of the cache must be positive.");
+		if (policy == null) throw new OperationNotValid("Eviction policy cannot be null.");
+		this.defaultPolicy = policy;
+		this.defaultCapacity = capacity;
+	}
+
+	/**
+	 * Bounds the number of results cached for an action. The results already cached for it are discarded.
+	 *
+	 * @param id       The identifier for the function.
+	 * @param capacity The maximum number of results cached.
+	 * @param policy   The policy deciding which results are evicted.
+	 * @throws OperationNotValid If the id is null, the capacity is not positive or the policy is null.
+	 */
+	public void setCapacity(String id, long capacity, EvictionPolicy policy) throws OperationNotValid {
+		setCapacity(id, capacity, policy, Weigher.SINGLETON);
+	}
+
+	/**
+	 * Bounds the total weight of the results cached for an action, as calculated by the weigher.
+	 * The results already cached for it are discarded.
+	 *
+	 * @param id       The identifier for the function.
+	 * @param capacity The maximum total weight of the results cached.
+	 * @param policy   The policy deciding which results are evicted.
+	 * @param weigher  The weigher of the results.
+	 * @throws OperationNotValid If the id or the weigher are null, the capacity is not positive or the policy is null.
+	 */
+	public void setCapacity(String id, long capacity, EvictionPolicy policy, Weigher weigher) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (capacity <= 0) throw new OperationNotValid("Capacity of the cache must be positive.");
+		if (policy == null) throw new OperationNotValid("Eviction policy cannot be null.");
+		if (weigher == null) throw new OperationNotValid("Weigher cannot be null.");
+		regions.compute(id, (k, region) -> region == null
+			? new CacheRegion(capacity, policy, weigher, KeyExtractor.EQUALS, CacheRegion.Expiration.NEVER)
+			: region.replace(capacity, policy, weigher, region.getKeys()));
+	}
+
+	/**
+	 * Sets how the arguments of an action are compared to look up their results.
+	 * The results already cached for it are discarded.
+	 *
+	 * @param id   The identifier for the function.
+	 * @param keys The key extractor of the arguments.
+	 * @throws OperationNotValid If the id or the key extractor are null.
+	 */
+	public void setKeyExtractor(String id, KeyExtractor keys) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (keys == null) throw new OperationNotValid("Key extractor cannot be null.");
+		regions.compute(id, (k, region) -> region == null
+			? new CacheRegion(defaultCapacity, defaultPolicy, Weigher.SINGLETON, keys, CacheRegion.Expiration.NEVER)
+			: region.replace(region.getCapacity(), region.getPolicy(), region.getWeigher(), keys));
+	}
+
+	/**
+	 * Moves the results evicted from the heap for an action to a direct buffer outside of it, instead of
+	 * discarding them. The results in the buffer are serialized with the {@link core.codec.CompactCodec}, so
+	 * the ones read from it are copies of the same class. The results read a few times are moved back to the
+	 * heap. When the buffer is full, the results stored the longest time ago are discarded.
+	 *
+	 * @param id     The identifier for the function.
+	 * @param budget The bytes of the buffer.
+	 * @throws OperationNotValid If the id is null or the budget is not positive or larger than 2 GB.
+	 */
+	public void setOffHeapTier(String id, long budget) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (budget <= 0 || budget > Integer.MAX_VALUE) throw new OperationNotValid("Budget of the off-heap tier must be positive and up to 2 GB.");
+		region(id).setOffHeapTier(OffHeapTier.direct((int) budget));
+	}
+
+	/**
+	 * Moves the results evicted from the heap for an action to a file mapped in memory, like
+	 * {@link #setOffHeapTier(String, long)} does to a direct buffer, so the operating system can page out the
+	 * results that are not used.
+	 *
+	 * @param id     The identifier for the function.
+	 * @param budget The bytes of the file mapped.
+	 * @param file   The file, created if it does not exist.
+	 * @throws OperationNotValid If the id or the file are null, the budget is not positive or larger than 2 GB,
+	 *                           or the file cannot be mapped.
+	 */
+	public void setOffHeapTier(String id, long budget, Path file) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (file == null) throw new OperationNotValid("File cannot be null.");
+		if (budget <= 0 || budget > Integer.MAX_VALUE) throw new OperationNotValid("Budget of the off-heap tier must be positive and up to 2 GB.");
+		try {
+			region(id).setOffHeapTier(OffHeapTier.mapped((int) budget, file));
+		}
+		catch (IOException e) {
+			throw new OperationNotValid("File of the off-heap tier couldn't be mapped: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Discards the results evicted from the heap for an action again, and the ones in its off-heap tier.
+	 *
+	 * @param id The identifier for the function.
+	 */
+	public void removeOffHeapTier(String id) {
+		CacheRegion region = regions.get(id);
+
+		if (region != null)
+			region.setOffHeapTier(null);
+	}
+
+	/**
+	 * Expires the results of an action some time after they are cached, including the ones already cached.
+	 * Expired results are not returned, so the action is invoked again.
+	 *
+	 * @param id         The identifier for the function.
+	 * @param timeToLive The milliseconds a result is kept after it is cached.
+	 * @throws OperationNotValid If the id is null or the time to live is not positive.
+	 */
+	public void setTimeToLive(String id, long timeToLive) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (timeToLive <= 0) throw new OperationNotValid("Time to live must be positive.");
+		CacheRegion region = region(id);
+		CacheRegion.Expiration expiration = region.getExpiration();
+		region.setExpiration(new CacheRegion.Expiration(timeToLive * 1_000_000L, expiration.refreshAhead, expiration.refresher));
+	}
+
+	/**
+	 * Refreshes the results of an action with a time to live when they are requested after a fraction of it.
+	 * The cached result is returned, and the action is invoked again in the background, by a pool of the
+	 * Cache, to replace it. Results that are not requested again simply expire.
+	 *
+	 * @param id       The identifier for the function.
+	 * @param fraction The fraction of the time to live after which a result requested is refreshed.
+	 * @throws OperationNotValid If the id is null or the fraction is not between 0 and 1.
+	 */
+	public void setRefreshAhead(String id, double fraction) throws OperationNotValid {
+		setRefreshAhead(id, fraction, refresher);
+	}
+
+	/**
+	 * Refreshes the results of an action with a time to live when they are requested after a fraction of it,
+	 * invoking the action again on the executor given.
+	 *
+	 * @param id       The identifier for the function.
+	 * @param fraction The fraction of the time to live after which a result requested is refreshed.
+	 * @param executor The executor invoking the action to refresh its results.
+	 * @throws OperationNotValid If the id or the executor are null, or the fraction is not between 0 and 1.
+	 */
+	public void setRefreshAhead(String id, double fraction, Executor executor) throws OperationNotValid {
+		if (id == null) throw new OperationNotValid("Id cannot be null.");
+		if (!(fraction > 0 && fraction < 1)) throw new OperationNotValid("Refresh ahead must be between 0 and 1.");
+		if (executor == null) throw new OperationNotValid("Executor cannot be null.");
+		CacheRegion region = region(id);
+		region.setExpiration(new CacheRegion.Expiration(region.getExpiration().timeToLive, fraction, executor));
+	}
+
+	/**
+	 * Removes the result cached for some arguments of an action. If the action is being invoked with them, its
+	 * result is not cached.
+	 *
+	 * @param id   The identifier for the function.
+	 * @param args The arguments used in the function call.
+	 * @param <T>  The type of the arguments.
+	 */
+	public <T> void invalidate(String id, T args) {
+		CacheRegion region = regions.get(id);
+
+		if (region != null)
+			region.invalidate(region.keyOf(args));
+	}
+
+	/**
+	 * Removes every result cached for an action, keeping its capacity, key extractor and time to live.
+	 *
+	 * @param id The identifier for the function.
+	 */
+	public void invalidate(String id) {
+		CacheRegion region = regions.get(id);
+
+		if (region != null)
+			region.invalidateAll();
+	}
+
+	/**
+	 * Retrieves the region of an action, creating it with the default capacity if it has none.
+	 */
+	private CacheRegion region(String id) {
+		CacheRegion region = regions.get(id);
+
+		if (region != null)
+			return (region);
+		return (regions.computeIfAbsent(id, k -> new CacheRegion(defaultCapacity, defaultPolicy, Weigher.SINGLETON, KeyExtractor.EQUALS,
+			CacheRegion.Expiration.NEVER)));
 	}
 
 	/**
 	 * Prints the contents of the cache decorator. If the cache is empty, a corresponding message is displayed.
 	 */
 	public void printCache() {
-		if (cacheDecorator.isEmpty()) {
+		if (regions.isEmpty()) {
 			System.out.println("Cache is empty.");
 			return;
 		}
-		for (String id : cacheDecorator.keySet()) {
-			System.out.println("Function: " + id);
-			Map<String, Object> innerMap = cacheDecorator.get(id);
-			for (Map.Entry<String, Object> entry : innerMap.entrySet()) {
-				System.out.println("Args: " + entry.getKey() + ". Ret: " + entry.getValue());
-			}
+		for (Map.Entry<String, CacheRegion> region : regions.entrySet()) {
+			System.out.println("Function: " + region.getKey());
+			region.getValue().forEach((key, value) -> System.out.println("Args: " + key + ". Ret: " + value));
 		}
 	}
 
 	/**
 	 * Caches the result of a function call based on the provided id, arguments, and result.
+	 * If the action reached its capacity, other results are evicted following its policy.
 	 *
 	 * @param id     The identifier for the function.
 	 * @param args   The arguments used in the function call.
@@ -71,11 +306,9 @@ public class Cache {
 	 * @param <R>    The type of the result.
 	 */
 	public <T, R> void cacheResult(String id, T args, R result) {
-		String key = args.toString();
-		Map<String, Object> innerMap = cacheDecorator.computeIfAbsent(id, k -> new HashMap<>());
-		if (!innerMap.containsKey(key)) {
-			innerMap.put(key, result);
-		}
+		CacheRegion region = region(id);
+
+		region.put(region.keyOf(args), args, result);
 	}
 
 	/**
@@ -90,12 +323,60 @@ public class Cache {
 	 */
 	@SuppressWarnings({"unchecked"})
 	public <T, R> R getCacheResult(String id, T args) throws NoResultAvailable {
-		String key = args.toString();
-		Map<String, Object> innerMap = cacheDecorator.get(id);
-		if (innerMap == null || !innerMap.containsKey(key)) {
-			throw new NoResultAvailable("No matching arguments have been found");
+		CacheRegion region = region(id);
+		CacheRegion.Entry entry = region.get(region.keyOf(args));
+
+		if (entry == null) {
+			throw new NoResultAvailable("No matching arguments have been found", false);
 		}
-		return (R) innerMap.get(key);
+		return (R) entry.value;
+	}
+
+	/**
+	 * Retrieves the cached result of a function call or, if it is not cached, calls the function and caches its
+	 * result. The threads that miss the same arguments of an action while the result is being calculated wait for
+	 * it instead of calling the function again, so a burst of identical invocations calls it once.
+	 * If the function throws, every thread waiting for it receives the exception and nothing is cached.
+	 *
+	 * @param id       The identifier for the function.
+	 * @param args     The arguments used in the function call.
+	 * @param function The function called if the result is not cached.
+	 * @param <T>      The type of the arguments.
+	 * @param <R>      The type of the result.
+	 * @return The cached result, or the result of the function.
+	 */
+	@SuppressWarnings({"unchecked"})
+	public <T, R> R getOrCompute(String id, T args, Function<T, R> function) {
+		CacheRegion region = region(id);
+
+		return (R) region.getOrCompute(region.keyOf(args), args, (Function<Object, Object>) function);
+	}
+
+	/**
+	 * Retrieves the counters of the results cached for an action.
+	 *
+	 * @param id The identifier for the function.
+	 * @return A snapshot of the hits, misses, evictions and size of the action.
+	 */
+	public CacheStats getStats(String id) {
+		CacheRegion region = regions.get(id);
+
+		if (region == null)
+			return (new CacheStats(0, 0, 0, 0, 0, 0, 0, 0));
+		return (region.getStats());
+	}
+
+	/**
+	 * Retrieves the counters of the results cached for all the actions.
+	 *
+	 * @return A snapshot of the hits, misses, evictions and size of all the actions added up.
+	 */
+	public CacheStats getStats() {
+		CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0, 0, 0);
+
+		for (CacheRegion region : regions.values())
+			stats = stats.plus(region.getStats());
+		return (stats);
 	}
 
 }
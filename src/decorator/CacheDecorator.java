@@ -2,8 +2,6 @@ package decorator;
 
 import java.util.function.Function;
 
-import core.exceptions.NoResultAvailable;
-
 /**
  * A decorator that adds caching functionality to a given function.
  * <p>
@@ -29,26 +27,15 @@ public class CacheDecorator<T, R> extends Decorator<T, R>{
 
 	/**
 	 * Applies caching to the decorated function. If the result is not found in the cache, the function is invoked,
-	 * and the result is stored in the cache for future use.
+	 * and the result is stored in the cache for future use. Invocations with the same input that miss while the
+	 * function is running wait for its result instead of invoking it again.
 	 *
 	 * @param t The input to the function.
 	 * @return The result from the cache or from the invocation.
 	 */
 	@Override
 	public R apply(T t){
-		R	result;
-
-		Cache cache = Cache.instantiate();
-		try {
-			// Attempt to retrieve result from cache
-			result = cache.getCacheResult(id, t);
-		}
-		catch (NoResultAvailable e) {
-			// If result is not found in cache, invoke the function and cache the result
-			result = function.apply(t);
-			cache.cacheResult(id, t, result);
-		}
-		return (result);
+		return (Cache.instantiate().getOrCompute(id, t, function));
 	}
 
 }
@@ -0,0 +1,847 @@
+package decorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * The results cached for one action, bounded by the total weight of the results. The results are split by the
+ * hash of their key among up to 16 stripes, each one with its own lock and a share of the capacity, so threads
+ * looking up different keys rarely wait for each other. Every stripe evicts its results following the
+ * {@link EvictionPolicy} of the region.
+ * <p>
+ * Small regions use a single stripe, so the eviction policy is applied exactly over all the results. Regions
+ * with a weigher other than {@link Weigher#SINGLETON} use a single stripe too, as a share of the capacity could
+ * not hold the heavy results that fit in the whole region.
+ * <p>
+ * A region with an {@link OffHeapTier} moves the results evicted from the heap to it, and looks up there the
+ * results missing on the heap, moving the hot ones back.
+ */
+final class CacheRegion {
+
+	private static final int	MAX_STRIPES = 16;
+	/** The smallest capacity of a stripe when the region is split. */
+	private static final long	MIN_STRIPE_CAPACITY = 64;
+
+	/** A result cached with its key, weight and the time it was cached. */
+	static final class Entry {
+		final Object	key;
+		final Object	value;
+		final long		weight;
+		/** The {@link System#nanoTime()} when the result was cached. */
+		final long		created;
+		/** Times used and last use, only kept by the LFU stripes. */
+		long			frequency;
+		long			tick;
+
+		private Entry(Object key, Object value, long weight, long created) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.created = created;
+		}
+	}
+
+	/** When the results of a region expire, and when and where the ones still requested are calculated again. */
+	static final class Expiration {
+		/** Results that never expire. */
+		static final Expiration NEVER = new Expiration(0, 0, null);
+
+		/** The nanoseconds a result is kept after it is cached, or 0 to keep it until it is evicted. */
+		final long		timeToLive;
+		/** The fraction of the time to live after which a result requested is refreshed, or 0 to never refresh. */
+		final double	refreshAhead;
+		/** The executor calculating the results refreshed. */
+		final Executor	refresher;
+		/** The nanoseconds after which a result requested is refreshed, or 0 to never refresh. */
+		final long		refreshAfter;
+
+		Expiration(long timeToLive, double refreshAhead, Executor refresher) {
+			this.timeToLive = timeToLive;
+			this.refreshAhead = refreshAhead;
+			this.refresher = refresher;
+			this.refreshAfter = refresher == null ? 0 : (long) (timeToLive * refreshAhead);
+		}
+
+		boolean isExpired(long created, long now) {
+			return (timeToLive > 0 && now - created >= timeToLive);
+		}
+
+		boolean needsRefresh(Entry entry, long now) {
+			return (refreshAfter > 0 && now - entry.created >= refreshAfter);
+		}
+	}
+
+	/** A part of the region guarded by its own lock. Every method must be called holding the lock of the stripe. */
+	private abstract static class Stripe {
+		protected final long	capacity;
+		protected long			weight;
+
+		protected Stripe(long capacity) {
+			this.capacity = capacity;
+			this.weight = 0;
+		}
+
+		/** Looks up a key and records the use of its result. */
+		abstract Entry get(Object key);
+
+		/**
+		 * Adds or replaces a result, evicting others if needed, and returns the number of results evicted.
+		 * If the list of victims is not null, the results evicted are added to it.
+		 */
+		abstract int put(Entry entry, List<Entry> victims);
+
+		/** Evicts a result, adding it to the victims if they are collected. */
+		protected static int evict(Entry entry, List<Entry> victims) {
+			if (victims != null)
+				victims.add(entry);
+			return (1);
+		}
+
+		/** Removes the result of a key, if it is cached. */
+		abstract void remove(Object key);
+
+		/** Removes every result. */
+		abstract void clear();
+
+		abstract int size();
+
+		/** Retrieves the total weight of the results of the stripe. */
+		long weight() {
+			return (weight);
+		}
+
+		abstract void forEach(BiConsumer<Object, Object> action);
+	}
+
+	/** Evicts the result used the longest time ago. */
+	private static final class LruStripe extends Stripe {
+		private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+
+		private LruStripe(long capacity) {
+			super(capacity);
+		}
+
+		@Override
+		Entry get(Object key) {
+			return (entries.get(key));
+		}
+
+		@Override
+		int put(Entry entry, List<Entry> victims) {
+			Entry old = entries.remove(entry.key);
+			int evicted = 0;
+
+			if (old != null)
+				weight -= old.weight;
+			if (entry.weight > capacity)
+				return (evict(entry, victims));
+			Iterator<Entry> eldest = entries.values().iterator();
+			while (weight + entry.weight > capacity) {
+				Entry victim = eldest.next();
+				eldest.remove();
+				weight -= victim.weight;
+				evicted += evict(victim, victims);
+			}
+			entries.put(entry.key, entry);
+			weight += entry.weight;
+			return (evicted);
+		}
+
+		@Override
+		void remove(Object key) {
+			Entry old = entries.remove(key);
+
+			if (old != null)
+				weight -= old.weight;
+		}
+
+		@Override
+		void clear() {
+			entries.clear();
+			weight = 0;
+		}
+
+		@Override
+		int size() {
+			return (entries.size());
+		}
+
+		@Override
+		void forEach(BiConsumer<Object, Object> action) {
+			for (Entry entry : entries.values())
+				action.accept(entry.key, entry.value);
+		}
+	}
+
+	/** Evicts the result used the fewest times, and among them the one used the longest time ago. */
+	private static final class LfuStripe extends Stripe {
+		private final HashMap<Object, Entry>	entries = new HashMap<Object, Entry>();
+		private final TreeSet<Entry>			order = new TreeSet<Entry>(
+			Comparator.comparingLong((Entry entry) -> entry.frequency).thenComparingLong(entry -> entry.tick));
+		private long							ticks = 0;
+
+		private LfuStripe(long capacity) {
+			super(capacity);
+		}
+
+		@Override
+		Entry get(Object key) {
+			Entry entry = entries.get(key);
+
+			if (entry != null) {
+				order.remove(entry);
+				entry.frequency++;
+				entry.tick = ++ticks;
+				order.add(entry);
+			}
+			return (entry);
+		}
+
+		@Override
+		int put(Entry entry, List<Entry> victims) {
+			Entry old = entries.remove(entry.key);
+			int evicted = 0;
+
+			if (old != null) {
+				order.remove(old);
+				weight -= old.weight;
+			}
+			if (entry.weight > capacity)
+				return (evict(entry, victims));
+			while (weight + entry.weight > capacity) {
+				Entry victim = order.pollFirst();
+				entries.remove(victim.key);
+				weight -= victim.weight;
+				evicted += evict(victim, victims);
+			}
+			entry.frequency = old != null ? old.frequency : 1;
+			entry.tick = ++ticks;
+			entries.put(entry.key, entry);
+			order.add(entry);
+			weight += entry.weight;
+			return (evicted);
+		}
+
+		@Override
+		void remove(Object key) {
+			Entry old = entries.remove(key);
+
+			if (old != null) {
+				order.remove(old);
+				weight -= old.weight;
+			}
+		}
+
+		@Override
+		void clear() {
+			entries.clear();
+			order.clear();
+			weight = 0;
+		}
+
+		@Override
+		int size() {
+			return (entries.size());
+		}
+
+		@Override
+		void forEach(BiConsumer<Object, Object> action) {
+			for (Entry entry : entries.values())
+				action.accept(entry.key, entry.value);
+		}
+	}
+
+	/**
+	 * Keeps new results in a window of 1% of the capacity. The oldest result of the window replaces the oldest
+	 * result of the rest of the stripe only if the sketch estimates that it has been requested more times.
+	 */
+	private static final class TinyLfuStripe extends Stripe {
+		private final LinkedHashMap<Object, Entry>	window = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+		private final LinkedHashMap<Object, Entry>	main = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+		private final FrequencySketch				sketch;
+		private final long							windowCapacity;
+		private long								windowWeight = 0;
+
+		/** True if the sketch grows with the results cached, as their number is not known from the capacity. */
+		private final boolean						weighted;
+
+		private TinyLfuStripe(long capacity, boolean weighted) {
+			super(capacity);
+			this.windowCapacity = Math.max(1, capacity / 100);
+			this.weighted = weighted;
+			this.sketch = new FrequencySketch(weighted ? 0 : capacity);
+		}
+
+		@Override
+		Entry get(Object key) {
+			Entry entry;
+
+			sketch.increment(key);
+			entry = window.get(key);
+			if (entry == null)
+				entry = main.get(key);
+			return (entry);
+		}
+
+		@Override
+		int put(Entry entry, List<Entry> victims) {
+			Entry old = window.remove(entry.key);
+			int evicted = 0;
+
+			if (old != null)
+				windowWeight -= old.weight;
+			else if ((old = main.remove(entry.key)) != null)
+				weight -= old.weight;
+			if (entry.weight > capacity)
+				return (evict(entry, victims));
+			window.put(entry.key, entry);
+			windowWeight += entry.weight;
+			if (weighted)
+				sketch.ensureCapacity(size());
+			Iterator<Entry> eldest = window.values().iterator();
+			while (windowWeight > windowCapacity) {
+				Entry candidate = eldest.next();
+				eldest.remove();
+				windowWeight -= candidate.weight;
+				evicted += admit(candidate, victims);
+			}
+			return (evicted);
+		}
+
+		/**
+		 * Moves a result that leaves the window to the rest of the stripe if it is requested more than the
+		 * result it would replace.
+		 *
+		 * @return The number of results evicted, which is 1 if the candidate is not admitted.
+		 */
+		private int admit(Entry candidate, List<Entry> victims) {
+			long mainCapacity = capacity - windowCapacity;
+			int evicted = 0;
+
+			if (candidate.weight > mainCapacity)
+				return (evict(candidate, victims));
+			Iterator<Entry> eldest = main.values().iterator();
+			if (weight + candidate.weight > mainCapacity) {
+				Entry victim = eldest.next();
+				if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key))
+					return (evict(candidate, victims));
+				eldest.remove();
+				weight -= victim.weight;
+				evicted += evict(victim, victims);
+				while (weight + candidate.weight > mainCapacity) {
+					victim = eldest.next();
+					eldest.remove();
+					weight -= victim.weight;
+					evicted += evict(victim, victims);
+				}
+			}
+			main.put(candidate.key, candidate);
+			weight += candidate.weight;
+			return (evicted);
+		}
+
+		@Override
+		void remove(Object key) {
+			Entry old = window.remove(key);
+
+			if (old != null)
+				windowWeight -= old.weight;
+			else if ((old = main.remove(key)) != null)
+				weight -= old.weight;
+		}
+
+		@Override
+		void clear() {
+			window.clear();
+			main.clear();
+			windowWeight = 0;
+			weight = 0;
+		}
+
+		@Override
+		int size() {
+			return (window.size() + main.size());
+		}
+
+		@Override
+		long weight() {
+			return (weight + windowWeight);
+		}
+
+		@Override
+		void forEach(BiConsumer<Object, Object> action) {
+			for (Entry entry : window.values())
+				action.accept(entry.key, entry.value);
+			for (Entry entry : main.values())
+				action.accept(entry.key, entry.value);
+		}
+	}
+
+	private final Stripe[]			stripes;
+	private final long				capacity;
+	private final EvictionPolicy	policy;
+	private final Weigher			weigher;
+	private final KeyExtractor		keys;
+	private final LongAdder	hits;
+	private final LongAdder	misses;
+	private final LongAdder	evictions;
+	private final LongAdder	coalesced;
+
+	/** The results being calculated after a miss, so other threads missing the same key wait for them. */
+	private final Map<Object, CompletableFuture<Object>> inFlight;
+
+	/**
+	 * Incremented on every invalidation, so a result calculated before it is not cached after it.
+	 * It is incremented and compared holding the lock of the stripe of the result.
+	 */
+	private final AtomicLong	generation;
+	private volatile Expiration	expiration;
+	/** The tier the results evicted from the heap are moved to, or null if they are discarded. */
+	private volatile OffHeapTier	tier;
+
+	/**
+	 * Constructs an empty CacheRegion.
+	 *
+	 * @param capacity   The maximum total weight of the results.
+	 * @param policy     The policy deciding which results are evicted.
+	 * @param weigher    The weigher of the results.
+	 * @param keys       The key extractor of the arguments.
+	 * @param expiration When the results expire and are refreshed.
+	 */
+	CacheRegion(long capacity, EvictionPolicy policy, Weigher weigher, KeyExtractor keys, Expiration expiration) {
+		boolean weighted = weigher != Weigher.SINGLETON;
+		int count = 1;
+
+		while (!weighted && count < MAX_STRIPES && capacity / (count * 2) >= MIN_STRIPE_CAPACITY)
+			count *= 2;
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			long stripeCapacity = capacity / count + (i < capacity % count ? 1 : 0);
+			switch (policy) {
+				case LFU:
+					stripes[i] = new LfuStripe(stripeCapacity);
+					break ;
+				case TINY_LFU:
+					stripes[i] = new TinyLfuStripe(stripeCapacity, weighted);
+					break ;
+				default:
+					stripes[i] = new LruStripe(stripeCapacity);
+			}
+		}
+		this.capacity = capacity;
+		this.policy = policy;
+		this.weigher = weigher;
+		this.keys = keys;
+		this.hits = new LongAdder();
+		this.misses = new LongAdder();
+		this.evictions = new LongAdder();
+		this.coalesced = new LongAdder();
+		this.inFlight = new ConcurrentHashMap<Object, CompletableFuture<Object>>();
+		this.generation = new AtomicLong(0);
+		this.expiration = expiration;
+	}
+
+	long getCapacity() {
+		return (capacity);
+	}
+
+	EvictionPolicy getPolicy() {
+		return (policy);
+	}
+
+	Weigher getWeigher() {
+		return (weigher);
+	}
+
+	KeyExtractor getKeys() {
+		return (keys);
+	}
+
+	Expiration getExpiration() {
+		return (expiration);
+	}
+
+	OffHeapTier getOffHeapTier() {
+		return (tier);
+	}
+
+	/**
+	 * Changes the tier the results evicted from the heap are moved to. The results in the previous tier are
+	 * discarded.
+	 *
+	 * @param tier The off-heap tier, or null to discard the results evicted.
+	 */
+	void setOffHeapTier(OffHeapTier tier) {
+		this.tier = tier;
+	}
+
+	/**
+	 * Creates an empty region with other capacity, policy, weigher or key extractor, keeping the expiration and
+	 * the off-heap tier of this one. The results of this one are discarded, including the ones off the heap.
+	 *
+	 * @param capacity The maximum total weight of the results.
+	 * @param policy   The policy deciding which results are evicted.
+	 * @param weigher  The weigher of the results.
+	 * @param keys     The key extractor of the arguments.
+	 * @return The new region.
+	 */
+	CacheRegion replace(long capacity, EvictionPolicy policy, Weigher weigher, KeyExtractor keys) {
+		CacheRegion region = new CacheRegion(capacity, policy, weigher, keys, expiration);
+		OffHeapTier tier = this.tier;
+
+		if (tier != null) {
+			tier.clear();
+			region.tier = tier;
+		}
+		return (region);
+	}
+
+	/**
+	 * Changes when the results expire and are refreshed, including the ones already cached.
+	 *
+	 * @param expiration When the results expire and are refreshed.
+	 */
+	void setExpiration(Expiration expiration) {
+		this.expiration = expiration;
+	}
+
+	/**
+	 * Calculates the key the results of some arguments are cached with.
+	 *
+	 * @param args The arguments.
+	 * @return The key of the arguments.
+	 */
+	Object keyOf(Object args) {
+		return (keys.keyOf(args));
+	}
+
+	private Stripe stripeFor(Object key) {
+		int hash = key.hashCode();
+
+		return (stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)]);
+	}
+
+	/**
+	 * Looks up a key in its stripe, removing its result if it expired. Must be called holding the lock of the stripe.
+	 */
+	private Entry lookup(Stripe stripe, Object key) {
+		Entry entry = stripe.get(key);
+
+		if (entry != null && expiration.isExpired(entry.created, System.nanoTime())) {
+			stripe.remove(key);
+			return (null);
+		}
+		return (entry);
+	}
+
+	/**
+	 * Looks up a key in the off-heap tier, promoting its result back to the heap if it is hot.
+	 */
+	private Entry lookupOffHeap(OffHeapTier tier, Object key) {
+		long current = generation.get();
+		OffHeapTier.Hit hit = tier.get(key);
+		Entry entry;
+
+		if (hit == null)
+			return (null);
+		if (expiration.isExpired(hit.created, System.nanoTime())) {
+			tier.remove(key);
+			return (null);
+		}
+		try {
+			entry = new Entry(key, OffHeapTier.decode(hit.bytes), hit.weight, hit.created);
+		}
+		catch (IOException e) {
+			tier.remove(key);
+			return (null);
+		}
+		if (hit.hot)
+			store(entry, current);
+		return (entry);
+	}
+
+	/**
+	 * Looks up the result cached for a key, on the heap or in the off-heap tier. Expired results are not found.
+	 *
+	 * @param key The key of the arguments.
+	 * @return The entry of the result, or null if it is not cached.
+	 */
+	Entry get(Object key) {
+		Stripe stripe = stripeFor(key);
+		OffHeapTier tier = this.tier;
+		Entry entry;
+
+		synchronized (stripe) {
+			entry = lookup(stripe, key);
+		}
+		if (entry == null && tier != null)
+			entry = lookupOffHeap(tier, key);
+		if (entry == null)
+			misses.increment();
+		else
+			hits.increment();
+		return (entry);
+	}
+
+	/**
+	 * Looks up the result cached for a key, or calculates it once however many threads miss it at the same time.
+	 * The first thread missing the key registers the calculation, and the others wait for it. A result found after
+	 * the refresh point of its expiration is returned, but calculated again in the background, so the results
+	 * requested often are replaced before they expire.
+	 *
+	 * @param key      The key of the arguments.
+	 * @param args     The arguments, given to the function.
+	 * @param function The function calculating the result.
+	 * @return The result cached or calculated.
+	 */
+	Object getOrCompute(Object key, Object args, Function<Object, Object> function) {
+		CompletableFuture<Object> calculation;
+		CompletableFuture<Object> running;
+		Entry entry;
+
+		entry = get(key);
+		if (entry != null) {
+			Expiration expiration = this.expiration;
+			if (expiration.needsRefresh(entry, System.nanoTime()))
+				refresh(key, args, function, expiration.refresher, entry.value);
+			return (entry.value);
+		}
+		calculation = new CompletableFuture<Object>();
+		running = inFlight.putIfAbsent(key, calculation);
+		if (running != null) {
+			coalesced.increment();
+			return (await(running));
+		}
+		try {
+			Object result;
+			Stripe stripe = stripeFor(key);
+			long calculated = generation.get();
+			// the result may have been cached after the lookup, by a calculation that already finished
+			synchronized (stripe) {
+				entry = lookup(stripe, key);
+			}
+			if (entry != null)
+				result = entry.value;
+			else {
+				result = function.apply(args);
+				put(key, args, result, calculated);
+			}
+			calculation.complete(result);
+			return (result);
+		}
+		catch (Throwable e) {
+			calculation.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlight.remove(key, calculation);
+		}
+	}
+
+	/**
+	 * Calculates the result of a key again on the refresher, unless it is already being calculated. The threads
+	 * missing the key while it is refreshed wait for the new result.
+	 *
+	 * @param current The result cached now, given to the threads waiting if the refresher rejects the calculation.
+	 */
+	private void refresh(Object key, Object args, Function<Object, Object> function, Executor refresher, Object current) {
+		CompletableFuture<Object> calculation = new CompletableFuture<Object>();
+		long calculated;
+
+		if (inFlight.putIfAbsent(key, calculation) != null)
+			return;
+		calculated = generation.get();
+		try {
+			refresher.execute(() -> {
+				try {
+					Object result = function.apply(args);
+					put(key, args, result, calculated);
+					calculation.complete(result);
+				}
+				catch (Throwable e) {
+					Logger.getLogger(CacheRegion.class.getName()).warning("Cached result couldn't be refreshed: " + e);
+					calculation.completeExceptionally(e);
+				}
+				finally {
+					inFlight.remove(key, calculation);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			inFlight.remove(key, calculation);
+			calculation.complete(current);
+		}
+	}
+
+	/**
+	 * Waits for the calculation of another thread, throwing the same exception if it failed.
+	 */
+	private static Object await(CompletableFuture<Object> calculation) {
+		try {
+			return (calculation.join());
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw e;
+		}
+	}
+
+	/**
+	 * Caches a result, replacing the one cached for the same key.
+	 *
+	 * @param key    The key of the arguments.
+	 * @param args   The arguments, given to the weigher.
+	 * @param result The result.
+	 */
+	void put(Object key, Object args, Object result) {
+		put(key, args, result, generation.get());
+	}
+
+	/**
+	 * Caches a result unless the region was invalidated after it started being calculated.
+	 *
+	 * @param calculated The generation of the region when the calculation started.
+	 */
+	private void put(Object key, Object args, Object result, long calculated) {
+		store(new Entry(key, result, Math.max(1, weigher.weigh(args, result)), System.nanoTime()), calculated);
+	}
+
+	/**
+	 * Caches a result on the heap unless the region was invalidated after it started being calculated.
+	 * The results evicted from the heap are moved to the off-heap tier, if there is one.
+	 *
+	 * @param calculated The generation of the region when the calculation started.
+	 */
+	private void store(Entry entry, long calculated) {
+		Stripe stripe = stripeFor(entry.key);
+		OffHeapTier tier = this.tier;
+		List<Entry> victims = tier == null ? null : new ArrayList<Entry>();
+		long current;
+		int evicted;
+
+		synchronized (stripe) {
+			current = generation.get();
+			if (current != calculated)
+				return;
+			evicted = stripe.put(entry, victims);
+		}
+		if (tier != null) {
+			tier.remove(entry.key);
+			evicted -= victims.size();
+			for (Entry victim : victims)
+				evicted += demote(tier, victim, current);
+		}
+		if (evicted > 0)
+			evictions.add(evicted);
+	}
+
+	/**
+	 * Moves a result evicted from the heap to the off-heap tier, unless the region was invalidated after it was
+	 * evicted.
+	 *
+	 * @param current The generation of the region when the result was evicted.
+	 * @return The number of results evicted, which is 1 if the result cannot be stored in the tier.
+	 */
+	private int demote(OffHeapTier tier, Entry entry, long current) {
+		if (expiration.isExpired(entry.created, System.nanoTime()))
+			return (1);
+		try {
+			return (tier.put(entry.key, OffHeapTier.encode(entry.value), entry.weight, entry.created,
+				() -> generation.get() == current));
+		}
+		catch (IOException e) {
+			return (1);
+		}
+	}
+
+	/**
+	 * Removes the result of a key. A calculation of it already running is still returned to the threads waiting
+	 * for it, but not cached.
+	 *
+	 * @param key The key of the arguments.
+	 */
+	void invalidate(Object key) {
+		Stripe stripe = stripeFor(key);
+
+		OffHeapTier tier = this.tier;
+
+		synchronized (stripe) {
+			generation.incrementAndGet();
+			stripe.remove(key);
+		}
+		if (tier != null)
+			tier.remove(key);
+		inFlight.remove(key);
+	}
+
+	/**
+	 * Removes every result. The calculations already running are still returned to the threads waiting for
+	 * them, but not cached.
+	 */
+	void invalidateAll() {
+		OffHeapTier tier = this.tier;
+
+		generation.incrementAndGet();
+		if (tier != null)
+			tier.clear();
+		inFlight.clear();
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.clear();
+			}
+		}
+	}
+
+	/**
+	 * Calls an action for every result cached, one stripe at a time.
+	 *
+	 * @param action The action receiving the key and the result.
+	 */
+	void forEach(BiConsumer<Object, Object> action) {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.forEach(action);
+			}
+		}
+	}
+
+	/**
+	 * Retrieves the counters of the region.
+	 *
+	 * @return A snapshot of the counters.
+	 */
+	CacheStats getStats() {
+		long size = 0;
+		long weight = 0;
+
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+				weight += stripe.weight();
+			}
+		}
+		OffHeapTier tier = this.tier;
+
+		return (new CacheStats(hits.sum(), misses.sum(), evictions.sum(), coalesced.sum(), size, weight,
+			tier == null ? 0 : tier.size(), tier == null ? 0 : tier.bytes()));
+	}
+
+}
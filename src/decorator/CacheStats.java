@@ -0,0 +1,104 @@
+package decorator;
+
+/**
+ * A snapshot of the counters of the results cached for an action, or for all of them.
+ */
+public final class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long coalesced;
+	private final long size;
+	private final long weight;
+	private final long offHeapSize;
+	private final long offHeapBytes;
+
+	/**
+	 * Constructs a CacheStats.
+	 *
+	 * @param hits      The number of lookups that found a result.
+	 * @param misses    The number of lookups that did not find a result.
+	 * @param evictions The number of results removed, or not admitted, to keep the capacity.
+	 * @param coalesced The number of misses that waited for the same result being calculated by another thread.
+	 * @param size      The number of results cached on the heap.
+	 * @param weight    The total weight of the results cached on the heap.
+	 * @param offHeapSize  The number of results cached in the off-heap tier.
+	 * @param offHeapBytes The bytes used by the results cached in the off-heap tier.
+	 */
+	public CacheStats(long hits, long misses, long evictions, long coalesced, long size, long weight, long offHeapSize,
+			long offHeapBytes) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.coalesced = coalesced;
+		this.size = size;
+		this.weight = weight;
+		this.offHeapSize = offHeapSize;
+		this.offHeapBytes = offHeapBytes;
+	}
+
+	/**
+	 * Adds the counters of another snapshot to these ones.
+	 *
+	 * @param other The other snapshot.
+	 * @return A new snapshot with the counters of both.
+	 */
+	public CacheStats plus(CacheStats other) {
+		return (new CacheStats(hits + other.hits, misses + other.misses, evictions + other.evictions,
+			coalesced + other.coalesced, size + other.size, weight + other.weight, offHeapSize + other.offHeapSize,
+			offHeapBytes + other.offHeapBytes));
+	}
+
+	public long getHits() {
+		return (hits);
+	}
+
+	public long getMisses() {
+		return (misses);
+	}
+
+	public long getEvictions() {
+		return (evictions);
+	}
+
+	public long getCoalesced() {
+		return (coalesced);
+	}
+
+	public long getSize() {
+		return (size);
+	}
+
+	public long getWeight() {
+		return (weight);
+	}
+
+	public long getOffHeapSize() {
+		return (offHeapSize);
+	}
+
+	public long getOffHeapBytes() {
+		return (offHeapBytes);
+	}
+
+	/**
+	 * Retrieves the fraction of lookups that found a result.
+	 *
+	 * @return The hit rate, or 0 if there were no lookups.
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+
+		if (lookups == 0)
+			return (0);
+		return ((double) hits / lookups);
+	}
+
+	@Override
+	public String toString() {
+		return ("hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", coalesced=" + coalesced + ", size=" + size + ", weight=" + weight
+			+ ", offHeapSize=" + offHeapSize + ", offHeapBytes=" + offHeapBytes);
+	}
+
+}
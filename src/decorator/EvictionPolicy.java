@@ -0,0 +1,21 @@
+package decorator;
+
+/**
+ * Decides which results of an action leave the {@link Cache} when the action reaches its capacity.
+ */
+public enum EvictionPolicy {
+
+	/** The result that was used the longest time ago leaves the cache. */
+	LRU,
+
+	/** The result used the fewest times leaves the cache, and among them the one used the longest time ago. */
+	LFU,
+
+	/**
+	 * New results enter a small LRU window. When the window is full, its oldest result only enters the rest of
+	 * the cache if it has been requested more often than the result it would replace, as estimated by a sketch of
+	 * the recent requests. Results requested once, like a scan over many arguments, do not push out popular ones.
+	 */
+	TINY_LFU
+
+}
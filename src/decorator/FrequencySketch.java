@@ -0,0 +1,125 @@
+package decorator;
+
+/**
+ * A count-min sketch estimating how many times every key has been requested recently, with little memory and
+ * without keeping the keys. Each key increments one counter in each of four rows, and its frequency is the
+ * smallest of them, so collisions can only make the estimate bigger. Counters saturate at 15, and all of them
+ * are halved once the sketch has counted ten times the number of keys cached, so old popularity fades away.
+ * <p>
+ * The rows are sized by the number of keys cached, never by the weight of their results, up to a hard cap
+ * of 1 MB per sketch. When the number of keys is not known in advance, the sketch starts small and grows with
+ * {@link #ensureCapacity(long)} as keys are cached.
+ * <p>
+ * It is not thread-safe: it is used by the {@link EvictionPolicy#TINY_LFU} stripes of a {@link CacheRegion}
+ * while holding their lock.
+ */
+final class FrequencySketch {
+
+	private static final int	DEPTH = 4;
+	private static final int	MAX_COUNT = 15;
+	/** The most keys a sketch is sized for, so its four rows take 1 MB at most. */
+	private static final int	MAX_KEYS = 1 << 16;
+	private static final long[]	SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+
+	private byte[][]	table;
+	private int			keys;
+	private int			mask;
+	private int			sampleSize;
+	private int			additions;
+
+	/**
+	 * Constructs a FrequencySketch.
+	 *
+	 * @param expectedKeys The number of keys the cache holds, used to size the rows.
+	 */
+	FrequencySketch(long expectedKeys) {
+		allocate(keysFor(expectedKeys));
+	}
+
+	/** Rounds the number of keys to a power of two, between 16 and the cap. */
+	private static int keysFor(long expectedKeys) {
+		return (Integer.highestOneBit((int) Math.max(16, Math.min(expectedKeys, MAX_KEYS)) - 1) << 1);
+	}
+
+	private void allocate(int keys) {
+		// rows four times wider than the keys, so the keys requested once rarely share all their counters
+		int width = keys * 4;
+
+		this.table = new byte[DEPTH][width];
+		this.keys = keys;
+		this.mask = width - 1;
+		this.sampleSize = keys * 10;
+		this.additions = 0;
+	}
+
+	/**
+	 * Grows the rows if the cache holds more keys than the sketch was sized for. The counts are lost when it
+	 * grows, which happens a few times at most as the rows double every time.
+	 *
+	 * @param expectedKeys The number of keys the cache holds.
+	 */
+	void ensureCapacity(long expectedKeys) {
+		int needed = keysFor(expectedKeys);
+
+		if (needed > keys)
+			allocate(needed);
+	}
+
+	/** Mixes the bits of a hash code, so keys that only differ in their high bits do not collide. */
+	private static int spread(int hash) {
+		hash = (hash ^ (hash >>> 16)) * 0x85ebca6b;
+		hash = (hash ^ (hash >>> 13)) * 0xc2b2ae35;
+		return (hash ^ (hash >>> 16));
+	}
+
+	private int index(int hash, int row) {
+		long h = (hash + SEEDS[row]) * SEEDS[row];
+
+		h += h >>> 32;
+		return ((int) h & mask);
+	}
+
+	/**
+	 * Counts a request of a key.
+	 *
+	 * @param key The key requested.
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		boolean added = false;
+
+		for (int row = 0; row < DEPTH; row++) {
+			int i = index(hash, row);
+			if (table[row][i] < MAX_COUNT) {
+				table[row][i]++;
+				added = true;
+			}
+		}
+		if (added && ++additions >= sampleSize)
+			reset();
+	}
+
+	/**
+	 * Estimates how many times a key has been requested recently.
+	 *
+	 * @param key The key.
+	 * @return The estimated number of requests, up to 15.
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int frequency = MAX_COUNT;
+
+		for (int row = 0; row < DEPTH; row++)
+			frequency = Math.min(frequency, table[row][index(hash, row)]);
+		return (frequency);
+	}
+
+	/** Halves every counter, so the requests counted before weigh half as much as the new ones. */
+	private void reset() {
+		for (byte[] row : table)
+			for (int i = 0; i < row.length; i++)
+				row[i] = (byte) (row[i] >>> 1);
+		additions /= 2;
+	}
+
+}
@@ -0,0 +1,47 @@
+package decorator;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Calculates the key the {@link Cache} looks up the result of some arguments with. Two invocations of an action
+ * share a result when the keys of their arguments are equal, so the key must be equal for arguments giving the
+ * same result and different for arguments giving different ones.
+ */
+@FunctionalInterface
+public interface KeyExtractor {
+
+	/**
+	 * The key extractor used by default, which compares the arguments themselves with their {@code equals} and
+	 * {@code hashCode}. The hash code is calculated once per lookup, so large arguments are not traversed again
+	 * by every structure of the cache. The arguments are kept as the key of their result, so they must not be
+	 * modified after the invocation.
+	 */
+	public static final KeyExtractor EQUALS = StructuralKey::new;
+
+	/**
+	 * A key extractor comparing the text of the arguments. It builds a string on every lookup and makes
+	 * arguments with the same text share a result, but it keeps a copy of the arguments that can be modified.
+	 */
+	public static final KeyExtractor TO_STRING = String::valueOf;
+
+	/**
+	 * Creates a key extractor comparing a 64 bit fingerprint of the arguments calculated by the caller. The
+	 * arguments are not kept, but arguments whose fingerprints collide share a result, so the fingerprint
+	 * must mix all the arguments well.
+	 *
+	 * @param fingerprint The function calculating the fingerprint of the arguments.
+	 * @return The key extractor.
+	 */
+	public static KeyExtractor fingerprint(ToLongFunction<Object> fingerprint) {
+		return (args -> fingerprint.applyAsLong(args));
+	}
+
+	/**
+	 * Calculates the key of some arguments.
+	 *
+	 * @param args The arguments of the invocation.
+	 * @return The key of the arguments, which must implement {@code equals} and {@code hashCode}.
+	 */
+	public Object keyOf(Object args);
+
+}
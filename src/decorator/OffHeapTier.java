@@ -0,0 +1,218 @@
+package decorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import core.codec.Codec;
+import core.codec.CompactCodec;
+
+/**
+ * The second tier of a {@link CacheRegion}, which keeps the results evicted from the heap serialized in a buffer
+ * outside of it, so they take little memory and the garbage collector does not traverse them. Only the keys and
+ * the position of every result are kept on the heap.
+ * <p>
+ * The buffer is used as a ring: results are written one after the other and, when the end is reached, writing
+ * starts again at the beginning, evicting the results written the longest time ago. A result read a few times
+ * is considered hot, so the region promotes it back to the heap.
+ * <p>
+ * Every method is thread-safe. The results are encoded and decoded without holding the lock of the tier.
+ */
+final class OffHeapTier {
+
+	/** The times a result is read from the tier before it is promoted back to the heap. */
+	static final int PROMOTE_AFTER = 2;
+
+	/** The position of a result in the buffer. */
+	private static final class Slot {
+		final Object	key;
+		final int		offset;
+		final int		length;
+		final long		weight;
+		final long		created;
+		int				reads;
+		/** False once the result is removed, while the slot still marks the bytes it used. */
+		boolean			live;
+
+		private Slot(Object key, int offset, int length, long weight, long created) {
+			this.key = key;
+			this.offset = offset;
+			this.length = length;
+			this.weight = weight;
+			this.created = created;
+			this.reads = 0;
+			this.live = true;
+		}
+	}
+
+	/** A result read from the tier, still serialized. */
+	static final class Hit {
+		final byte[]	bytes;
+		final long		weight;
+		final long		created;
+		/** True if the result has been read enough times to be promoted to the heap. */
+		final boolean	hot;
+
+		private Hit(byte[] bytes, long weight, long created, boolean hot) {
+			this.bytes = bytes;
+			this.weight = weight;
+			this.created = created;
+			this.hot = hot;
+		}
+	}
+
+	private static final Codec codec = new CompactCodec();
+
+	private final ByteBuffer		buffer;
+	private final Map<Object, Slot>	index;
+	/** The slots in the order they were written, which is the order they are evicted. */
+	private final ArrayDeque<Slot>	order;
+	private int						tail;
+	private long					used;
+
+	private OffHeapTier(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.index = new HashMap<Object, Slot>();
+		this.order = new ArrayDeque<Slot>();
+		this.tail = 0;
+		this.used = 0;
+	}
+
+	/**
+	 * Creates a tier in a direct buffer.
+	 *
+	 * @param budget The bytes of the buffer.
+	 * @return The tier.
+	 */
+	static OffHeapTier direct(int budget) {
+		return (new OffHeapTier(ByteBuffer.allocateDirect(budget)));
+	}
+
+	/**
+	 * Creates a tier in a file mapped in memory, so the operating system can write to the file the results
+	 * that are not used.
+	 *
+	 * @param budget The bytes of the file mapped.
+	 * @param file   The file, created if it does not exist.
+	 * @return The tier.
+	 * @throws IOException If the file cannot be mapped.
+	 */
+	static OffHeapTier mapped(int budget, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return (new OffHeapTier(channel.map(FileChannel.MapMode.READ_WRITE, 0, budget)));
+		}
+	}
+
+	static byte[] encode(Object value) throws IOException {
+		return (codec.encode(value));
+	}
+
+	static Object decode(byte[] bytes) throws IOException {
+		return (codec.decode(bytes));
+	}
+
+	/**
+	 * Stores a serialized result, replacing the one stored for the same key and evicting the oldest results
+	 * until it fits.
+	 *
+	 * @param key     The key of the result.
+	 * @param bytes   The serialized result.
+	 * @param weight  The weight of the result in the heap, kept for when it is promoted.
+	 * @param created The time the result was cached.
+	 * @param current Checked holding the lock of the tier, the result is not stored if it returns false.
+	 * @return The number of results evicted, which is 1 if the result is larger than the buffer.
+	 */
+	synchronized int put(Object key, byte[] bytes, long weight, long created, BooleanSupplier current) {
+		int length = bytes.length;
+		int evicted = 0;
+		int start;
+
+		if (!current.getAsBoolean())
+			return (0);
+		remove(key);
+		if (length > buffer.capacity())
+			return (1);
+		start = tail + length > buffer.capacity() ? 0 : tail;
+		while (!order.isEmpty() && consumes(order.peekFirst(), start, length)) {
+			Slot oldest = order.pollFirst();
+			if (oldest.live) {
+				index.remove(oldest.key);
+				used -= oldest.length;
+				evicted++;
+			}
+		}
+		buffer.put(start, bytes);
+		Slot slot = new Slot(key, start, length, weight, created);
+		index.put(key, slot);
+		order.addLast(slot);
+		tail = start + length;
+		used += length;
+		return (evicted);
+	}
+
+	/**
+	 * Checks if writing at a position overwrites the oldest slot. When the write starts again at the beginning,
+	 * the end of the buffer after the tail is given up too.
+	 */
+	private boolean consumes(Slot oldest, int start, int length) {
+		if (start == tail)
+			return (oldest.offset >= tail && oldest.offset < tail + length);
+		return (oldest.offset >= tail || oldest.offset < length);
+	}
+
+	/**
+	 * Reads the result stored for a key, counting the read.
+	 *
+	 * @param key The key of the result.
+	 * @return The result still serialized, or null if it is not stored.
+	 */
+	synchronized Hit get(Object key) {
+		Slot slot = index.get(key);
+		byte[] bytes;
+
+		if (slot == null)
+			return (null);
+		bytes = new byte[slot.length];
+		buffer.get(slot.offset, bytes);
+		return (new Hit(bytes, slot.weight, slot.created, ++slot.reads >= PROMOTE_AFTER));
+	}
+
+	/**
+	 * Removes the result stored for a key, if there is one. Its bytes are reused when the ring reaches them.
+	 *
+	 * @param key The key of the result.
+	 */
+	synchronized void remove(Object key) {
+		Slot slot = index.remove(key);
+
+		if (slot != null) {
+			slot.live = false;
+			used -= slot.length;
+		}
+	}
+
+	/** Removes every result. */
+	synchronized void clear() {
+		index.clear();
+		order.clear();
+		tail = 0;
+		used = 0;
+	}
+
+	synchronized int size() {
+		return (index.size());
+	}
+
+	/** Retrieves the bytes used by the results stored. */
+	synchronized long bytes() {
+		return (used);
+	}
+
+}
@@ -0,0 +1,40 @@
+package decorator;
+
+import java.util.Objects;
+
+/**
+ * The key of {@link KeyExtractor#EQUALS}, comparing the arguments with their {@code equals} and keeping their
+ * hash code, so it is calculated once however many times the stripes, maps and sketches of a
+ * {@link CacheRegion} need it.
+ */
+final class StructuralKey {
+
+	private final Object	args;
+	private final int		hash;
+
+	StructuralKey(Object args) {
+		this.args = args;
+		this.hash = Objects.hashCode(args);
+	}
+
+	@Override
+	public int hashCode() {
+		return (hash);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return (true);
+		if (!(other instanceof StructuralKey))
+			return (false);
+		StructuralKey key = (StructuralKey) other;
+		return (hash == key.hash && Objects.equals(args, key.args));
+	}
+
+	@Override
+	public String toString() {
+		return (String.valueOf(args));
+	}
+
+}
@@ -0,0 +1,22 @@
+package decorator;
+
+/**
+ * Calculates how much of the capacity of an action in the {@link Cache} a result takes, so results of very
+ * different sizes can be bounded by the memory they use instead of by their number.
+ */
+@FunctionalInterface
+public interface Weigher {
+
+	/** The weigher used by default, which counts every result as 1. */
+	public static final Weigher SINGLETON = (args, result) -> 1;
+
+	/**
+	 * Calculates the weight of a result.
+	 *
+	 * @param args   The arguments of the invocation.
+	 * @param result The result of the invocation.
+	 * @return The weight of the result, at least 1.
+	 */
+	public long weigh(Object args, Object result);
+
+}
@@ -106,6 +106,28 @@ public class TimerObserver extends Observer {
 		}
 	}
 
+	/**
+	 * Calculates a percentile of the execution time of the observed function, using the nearest rank.
+	 *
+	 * @param functionId The identifier of the observed function.
+	 * @param percentile The percentile, greater than 0 and up to 100.
+	 * @param minSamples The minimum number of executions measured to calculate it.
+	 * @return The execution time at that percentile, or null if fewer executions were measured.
+	 */
+	public Long calculatePercentileTime(String functionId, double percentile, int minSamples) {
+		try {
+			List<Long> list = MetricCollection.instantiate().getList(metricId, functionId);
+			if (list.isEmpty() || list.size() < minSamples)
+				return null;
+			long[] times = list.stream().mapToLong(value -> value).sorted().toArray();
+			int rank = (int) Math.ceil(percentile / 100 * times.length);
+			return times[Math.max(0, Math.min(rank, times.length) - 1)];
+		}
+		catch (NoResultAvailable e) {
+			return null;
+		}
+	}
+
 	/**
 	 * Calculates the total execution time of the observed function.
 	 *
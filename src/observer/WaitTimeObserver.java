@@ -0,0 +1,89 @@
+package observer;
+
+import java.util.Comparator;
+import java.util.List;
+
+import core.exceptions.NoResultAvailable;
+import core.invoker.InvokerInterface;
+import core.metrics.Metric;
+import core.metrics.MetricCollection;
+
+/**
+ * Observer implementation for monitoring the time invocations wait in an invoker before being executed,
+ * from the moment the invoker gets selected until it has the RAM and a thread to execute the function.
+ * <p>
+ * This observer extends the {@link observer.Observer} class.
+ */
+public class WaitTimeObserver extends Observer {
+
+	private final String metricId = "WaitTimeObserver";
+	private long startTime;
+
+	public WaitTimeObserver() {
+	}
+
+	private WaitTimeObserver(String id, InvokerInterface invoker) {
+		super(id, invoker);
+	}
+
+	/**
+	 * Creates a copy of the WaitTimeObserver.
+	 *
+	 * @param functionId The unique identifier for the WaitTimeObserver.
+	 * @param invoker 	 The invoker to be observed.
+	 * @return A new WaitTimeObserver instance.
+	 */
+	@Override
+	public WaitTimeObserver copy(String id, InvokerInterface invoker) {
+		return new WaitTimeObserver(id, invoker);
+	}
+
+	/**
+	 * Captures the time the invoker gets selected to execute the function.
+	 */
+	@Override
+	public void initialize() {
+		startTime = System.nanoTime();
+	}
+
+	/**
+	 * Stores in the metric collection the time waited until the execution of the observed function.
+	 */
+	@Override
+	public void execute() {
+		MetricCollection.instantiate().addMetric(metricId, new Metric<Long>(functionId, System.nanoTime() - startTime));
+	}
+
+	/**
+	 * Calculates the maximum time waited by the observed function.
+	 *
+	 * @param functionId The identifier of the observed function.
+	 * @return The maximum waiting time, or null if no metrics are available.
+	 */
+	public Long calculateMaxWaitTime(String functionId) {
+		try {
+			List<Long> list = MetricCollection.instantiate().getList(metricId, functionId);
+			return calculateMaxMetric(list, Comparator.comparingLong(value -> value));
+		}
+		catch (NoResultAvailable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Calculates the average time waited by the observed function.
+	 *
+	 * @param functionId The identifier of the observed function.
+	 * @return The average waiting time, or null if no metrics are available.
+	 */
+	public Long calculateAverageWaitTime(String functionId) {
+		try {
+			List<Long> list = MetricCollection.instantiate().getList(metricId, functionId);
+			return (long) calculateAverageMetric(list, (var) -> var);
+		}
+		catch (NoResultAvailable e) {
+			return null;
+		}
+	}
+
+}
@@ -3,6 +3,7 @@ package policymanager;
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 import core.exceptions.NoInvokerAvailable;
@@ -17,22 +18,17 @@ import core.invoker.InvokerInterface;
  */
 public class BigGroup implements PolicyManager, Serializable {
 
-	private long groupSize;
-	private long invocationsDistributed;
-
-	/** Index of last invoker selected from the list */
-	private int	lastInvokerAssigned;
-	/** Flag to check if a invoker that is full should be ignored when selecting invokers to assgin */
-	private boolean ignoreFull;
+	/**
+	 * The plan of the distribution and the position of the invoker receiving invocations. It is immutable and
+	 * replaced with a compare-and-set, so the policy manager can be used by many threads without locks.
+	 */
+	private final AtomicReference<GroupDistribution> distribution;
 
 	/**
 	 * Initializes a new instance of the BigGroup class.
 	 */
 	public BigGroup() {
-		lastInvokerAssigned = 0;
-		ignoreFull = false;
-		groupSize = 1;
-		invocationsDistributed = 0;
+		distribution = new AtomicReference<GroupDistribution>(new GroupDistribution(1, false, 0, 0));
 	}
 
 	/**
@@ -40,9 +36,10 @@ public class BigGroup implements PolicyManager, Serializable {
 	 * 
 	 * @param invokers	The list of invokers.
 	 * @param ram		The amount of required RAM for the invocation.
+	 * @return The size of the groups, which is 1.
 	 * @throws NoInvokerAvailable If no invoker has enough max ram to execute the function or there are no Invokers in the list.
 	 */
-	private void setSingleValues(List<InvokerInterface> invokers, long ram) throws NoInvokerAvailable {
+	private long setSingleValues(List<InvokerInterface> invokers, long ram) throws NoInvokerAvailable {
 		// Calculate the number of invokers with sufficient max RAM
 		long invokersMaxRamUsable = invokers.stream()
 				.filter(value -> {
@@ -57,9 +54,8 @@ public class BigGroup implements PolicyManager, Serializable {
 		if (invokersMaxRamUsable == 0)
 			throw new NoInvokerAvailable("No Invoker Avaiable with at least " + ram + " RAM.");
 
-		ignoreFull = false;
-		groupSize = 1;
-		invocationsDistributed = 0;
+		distribution.updateAndGet(current -> current.withPlan(1, false));
+		return (1);
 	}
 
 	/**
@@ -68,9 +64,10 @@ public class BigGroup implements PolicyManager, Serializable {
 	 * @param invokers The list of invokers to consider.
 	 * @param numInvocations The number of invocations to be distributed.
 	 * @param ram The amount of required RAM for each invocation.
+	 * @return The size of the groups planned.
 	 * @throws NoInvokerAvailable If no invoker has enough max RAM to execute the function or if there are no invokers in the list.
 	 */
-	private void setGroupValues(List<InvokerInterface> invokers, int numInvocations, long ram)
+	private long setGroupValues(List<InvokerInterface> invokers, int numInvocations, long ram)
 			throws NoInvokerAvailable {
 		// Calculate the number of invokers with sufficient max RAM
 		long invokersMaxRamUsable = invokers.stream()
@@ -127,6 +124,8 @@ public class BigGroup implements PolicyManager, Serializable {
 		
 		// Determine whether to ignore full invokers if charge can be distributed
 		// between the available invokers and their ram
+		boolean ignoreFull;
+		long groupSize;
 		if (totalRamAvailable < numInvocations * ram) {
 			//if there is not enough ram we separate the charge in an uniform way
 			ignoreFull = false;
@@ -135,15 +134,8 @@ public class BigGroup implements PolicyManager, Serializable {
 			ignoreFull = true;
 			groupSize = lessAvailableRam / ram;
 		}
-		invocationsDistributed = 0;
-	}
-
-	private int updatePos(int pos, int len)
-	{
-		if (pos < len)
-			return (pos + 1);
-		else
-			return (0);
+		distribution.updateAndGet(current -> current.withPlan(groupSize, ignoreFull));
+		return (groupSize);
 	}
 
 	/**
@@ -169,13 +161,15 @@ public class BigGroup implements PolicyManager, Serializable {
 	public void	prepareDistribution(List<InvokerInterface> invokers, int size, long ram)
 			throws NoInvokerAvailable, RemoteException
 	{
+		long groupSize;
+
 		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
 		if (size == 1) {
-			setSingleValues(invokers, ram);
+			groupSize = setSingleValues(invokers, ram);
 		} else if (!(size == 1)) {
-			setGroupValues(invokers, size, ram);
+			groupSize = setGroupValues(invokers, size, ram);
 		} else {   //in case we try to execute a function that cannot be executed
-			setSingleValues(invokers, ram);
+			groupSize = setSingleValues(invokers, ram);
 		}
 
 		Logger logger = Logger.getLogger(PolicyManager.class.getName());
@@ -189,6 +183,16 @@ public class BigGroup implements PolicyManager, Serializable {
 		}
 	}
 
+	/**
+	 * Retrieves the size of the groups planned by {@link BigGroup#prepareDistribution}.
+	 *
+	 * @return The number of consecutive invocations assigned to the same invoker.
+	 */
+	@Override
+	public int getGroupSize() {
+		return ((int) Math.min(Integer.MAX_VALUE, Math.max(1, distribution.get().groupSize)));
+	}
+
 	/**
 	 * Retrieves an invoker from the provided list based on the specified RAM requirement
 	 * using the GroupSize set by {@link BigGroup#prepareDistribution}.
@@ -204,38 +208,38 @@ public class BigGroup implements PolicyManager, Serializable {
 	public InvokerInterface getInvoker(List<InvokerInterface> invokers, long ram)
 			throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
 	{
-		InvokerInterface invoker;
-		boolean found;
-
-		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
-
-		//if the first time we select an invoker the pointer is pointing to one that cannot invoke
-		if (invocationsDistributed == groupSize || invokers.get(lastInvokerAssigned).getMaxRam() < ram)
-		{
-			//do we need to assign another invoker or this has space for another group?
-			if ( Math.ceil((double)invokers.get(lastInvokerAssigned).getAvailableRam() / ram ) >= groupSize)
-				invocationsDistributed = 0;
-			else
+		List<InvokerInterface> snapshot = List.copyOf(invokers);
+		GroupDistribution current;
+		GroupDistribution next;
+		int position;
+
+		// the selection is done on a snapshot, so invokers deleted meanwhile do not disturb it,
+		// which is the list itself when it is already immutable
+		if (snapshot.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
+		while (true) {
+			current = distribution.get();
+			position = current.lastInvokerAssigned;
+			//if the first time we select an invoker the pointer is pointing to one that cannot invoke
+			//or the invoker was deleted from the list
+			if (position >= snapshot.size() || current.invocationsDistributed == current.groupSize
+					|| snapshot.get(position).getMaxRam() < ram)
 			{
-				//here we find next invoker selected
-				found = false;
-				while (!found)
+				//do we need to assign another invoker or this has space for another group?
+				if (position < snapshot.size()
+						&& Math.ceil((double)snapshot.get(position).getAvailableRam() / ram) >= current.groupSize)
+					next = current.assign(position, true);
+				else
 				{
-					lastInvokerAssigned = updatePos(lastInvokerAssigned, invokers.size() - 1);
-					if (invokers.get(lastInvokerAssigned).getMaxRam() >= ram)
-					{
-						if (!ignoreFull)
-							found = true;
-						else if (invokers.get(lastInvokerAssigned).getAvailableRam() >= ram)
-							found = true;
-					}
+					//here we find next invoker selected
+					position = GroupDistribution.nextInvoker(snapshot, Math.min(position, snapshot.size() - 1), ram, current.ignoreFull);
+					next = current.assign(position, true);
 				}
-				invocationsDistributed = 0;
 			}
+			else
+				next = current.assign(position, false);
+			if (distribution.compareAndSet(current, next))
+				return (snapshot.get(position).selectInvoker(ram));
 		}
-		invoker = invokers.get(lastInvokerAssigned).selectInvoker(ram);
-		invocationsDistributed++;
-		return (invoker);
 	}
 
 }
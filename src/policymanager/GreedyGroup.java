@@ -1,53 +1,146 @@
 package policymanager;
 
 import java.rmi.RemoteException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import core.exceptions.NoInvokerAvailable;
 import core.exceptions.NoPolicyManagerRegistered;
 import core.invoker.InvokerInterface;
 
+/**
+ * Implementation of the {@link PolicyManager} interface that selects the invoker with the least available RAM
+ * that can still execute the invocation, filling invokers before using new ones. When all of them are full,
+ * they are selected in a circular order.
+ * <p>
+ * When every invoker notifies its RAM changes, the invokers are kept in a {@link RamIndex} ordered by available
+ * RAM and the selection is O(log n). Otherwise every invoker is asked for its available RAM. The index is kept
+ * for the immutable snapshot of the invokers it was built from, which is the list the Controller gives to every
+ * selection until its invokers change, so checking it is O(1). Lists made from the indexed one for a single
+ * selection, as the ones without the invokers that failed, are selected from the same index, without building
+ * another one.
+ */
 public class GreedyGroup implements PolicyManager{
 
-	int	lastInvokerAssigned;
+	/** The turn of the next selection when all the invokers are full, the position is the turn modulo the size of the list. */
+	private final AtomicLong	nextTurn;
+
+	/** The index of the invokers, or null if they could not be indexed. */
+	private volatile RamIndex	index;
+
+	/** The last invokers that could not be indexed, so they are not checked again while they do not change. */
+	private volatile List<InvokerInterface>	unindexable;
 
 	public GreedyGroup () {
-		lastInvokerAssigned = 0;
+		nextTurn = new AtomicLong(1);
 	}
 
-	private int updatePos(int pos, int len)
+	/**
+	 * Selects the invokers in a circular order, when all of them are full. The selection is done on a snapshot
+	 * of the list, so invokers deleted meanwhile do not disturb it, and every invoker is asked once at most.
+	 */
+	private	InvokerInterface getNextInvokerList(List<InvokerInterface> invokers, long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
 	{
-		if (pos < len)
-			return (pos + 1);
-		else
-			return (0);
-	}
+		List<InvokerInterface> snapshot = List.copyOf(invokers);
+		long	turn;
+		int		len;
 
-	private	InvokerInterface getNextInvokerList(List<InvokerInterface> invokers, long ram) throws NoPolicyManagerRegistered, RemoteException
-	{
-		InvokerInterface invokerSelected;
-		InvokerInterface currInvoker;
-		boolean	found;
-
-		found = false;
-		lastInvokerAssigned = updatePos(lastInvokerAssigned, invokers.size() - 1);
-		currInvoker = invokers.get(lastInvokerAssigned);
-		invokerSelected = null;
-		while (!found) {
+		len = snapshot.size();
+		if (len == 0) throw new NoInvokerAvailable("No Invokers in list.");
+		turn = nextTurn.getAndIncrement();
+		for (long checked = turn; checked < turn + len; checked++) {
 			try {
-				invokerSelected = currInvoker.selectInvoker(ram);
-				found = true;
+				InvokerInterface invokerSelected = snapshot.get((int) Math.floorMod(checked, (long) len)).selectInvoker(ram);
+				nextTurn.accumulateAndGet(checked + 1, Math::max);
+				return (invokerSelected);
 			}
 			catch (NoInvokerAvailable e) {
-				lastInvokerAssigned = updatePos(lastInvokerAssigned, invokers.size() - 1);
-				currInvoker = invokers.get(lastInvokerAssigned);
 			}
 		}
-		return (invokerSelected);
+		throw new NoInvokerAvailable("No Invoker Avaiable with at least " + ram + " RAM.");
+	}
+
+	/**
+	 * Returns the index of the list of invokers, building it again if it was built for another list. The index
+	 * is built from a snapshot of the list, which is the list itself when it is already immutable, and only
+	 * replaces the previous one once it is built, so the previous one is kept if the build fails.
+	 *
+	 * @param invokers The list of invokers.
+	 * @return The index of the list, or null if the list cannot be indexed.
+	 * @throws RemoteException If a remote exception occurs.
+	 */
+	private RamIndex indexOf(List<InvokerInterface> invokers) throws RemoteException
+	{
+		RamIndex current = index;
+		List<InvokerInterface> skipped = unindexable;
+		List<InvokerInterface> snapshot;
+		RamIndex built;
+
+		if (current != null && current.matches(invokers))
+			return (current);
+		if (skipped != null && skipped == invokers)
+			return (null);
+		synchronized (this) {
+			current = index;
+			if (current != null && current.matches(invokers))
+				return (current);
+			snapshot = List.copyOf(invokers);
+			built = RamIndex.build(snapshot);
+			if (built == null) {
+				unindexable = snapshot;
+				return (null);
+			}
+			index = built;
+			unindexable = null;
+			if (current != null)
+				current.close();
+			return (built);
+		}
 	}
 
 	@Override
 	public InvokerInterface getInvoker(List<InvokerInterface> invokers, long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
+	{
+		List<InvokerInterface> snapshot;
+		InvokerInterface invokerSelected;
+		Set<InvokerInterface> allowed;
+		RamIndex current;
+
+		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
+		current = index;
+		allowed = null;
+		if (current == null || !current.matches(invokers)) {
+			// an immutable list is a snapshot given to every selection until its invokers change, so it is
+			// indexed again, while a list made for a single selection, as the one without the invokers that
+			// failed, is selected from the index of the list it was made from instead of replacing it
+			snapshot = List.copyOf(invokers);
+			if (current != null && snapshot != invokers && current.containsAll(invokers))
+				allowed = new HashSet<InvokerInterface>(invokers);
+			else
+				current = indexOf(snapshot);
+		}
+		if (current == null)
+			return (scanInvokers(List.copyOf(invokers), ram));
+		invokerSelected = current.bestFit(ram, allowed);
+		//all invokers are full, distribute the invokers as a round robin
+		if (invokerSelected == null)
+			return (getNextInvokerList(invokers, ram));
+		return (invokerSelected);
+	}
+
+	/**
+	 * Selects the invoker with the least available RAM asking every invoker of the list for it.
+	 *
+	 * @param invokers The list of invokers.
+	 * @param ram      The amount of required RAM for the invocation.
+	 * @return The selected invoker.
+	 * @throws NoPolicyManagerRegistered If the invoker selected is a composite and his policy manager is not properly registered.
+	 * @throws NoInvokerAvailable        If no invoker has enough max ram to execute the function.
+	 * @throws RemoteException           If a remote exception occurs.
+	 */
+	private InvokerInterface scanInvokers(List<InvokerInterface> invokers, long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
 	{
 		InvokerInterface invokerSelected;
 		InvokerInterface lastInvokerSelected;
@@ -55,7 +148,6 @@ public class GreedyGroup implements PolicyManager{
 		long	invokerRam;
 		long	lessRam;
 
-		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
 		//here we store the invoker with less ram available that can execute the function
 		lastInvokerSelected = null;
 		//if there is an invoker that can execute the function
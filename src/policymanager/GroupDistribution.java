@@ -0,0 +1,93 @@
+package policymanager;
+
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.List;
+
+import core.exceptions.NoInvokerAvailable;
+import core.invoker.InvokerInterface;
+
+/**
+ * Immutable state of a policy manager that distributes invocations in groups: the plan prepared for the
+ * invocations, which is the size of the groups and if full invokers are skipped, and the position of the
+ * invoker receiving the current group with the invocations it already got.
+ * <p>
+ * Policy managers keep it in an {@link java.util.concurrent.atomic.AtomicReference} and replace it with a
+ * compare-and-set, so every invocation sees a consistent plan and position even when many threads select
+ * invokers at the same time.
+ *
+ * @see UniformGroup
+ * @see BigGroup
+ */
+final class GroupDistribution implements Serializable {
+
+	/** The number of invocations assigned to an invoker before moving to the next one. */
+	final long		groupSize;
+	/** Flag to check if a invoker that is full should be ignored when selecting invokers to assign. */
+	final boolean	ignoreFull;
+	/** Index of last invoker selected from the list. */
+	final int		lastInvokerAssigned;
+	/** The invocations of the current group assigned to the last invoker selected. */
+	final long		invocationsDistributed;
+
+	GroupDistribution(long groupSize, boolean ignoreFull, int lastInvokerAssigned, long invocationsDistributed) {
+		this.groupSize = groupSize;
+		this.ignoreFull = ignoreFull;
+		this.lastInvokerAssigned = lastInvokerAssigned;
+		this.invocationsDistributed = invocationsDistributed;
+	}
+
+	/**
+	 * Returns a distribution with a new plan that starts from the same invoker.
+	 *
+	 * @param groupSize  The number of invocations assigned to an invoker before moving to the next one.
+	 * @param ignoreFull If full invokers are skipped.
+	 * @return The new distribution.
+	 */
+	GroupDistribution withPlan(long groupSize, boolean ignoreFull) {
+		return (new GroupDistribution(groupSize, ignoreFull, lastInvokerAssigned, 0));
+	}
+
+	/**
+	 * Returns the distribution after assigning one more invocation to the invoker in the specified position.
+	 *
+	 * @param position The position of the invoker assigned.
+	 * @param newGroup If the invocation is the first of a new group.
+	 * @return The new distribution.
+	 */
+	GroupDistribution assign(int position, boolean newGroup) {
+		return (new GroupDistribution(groupSize, ignoreFull, position, newGroup ? 1 : invocationsDistributed + 1));
+	}
+
+	/**
+	 * Finds the next invoker after the specified position that can execute an invocation of the specified RAM,
+	 * going back to the start of the list after the last one. If full invokers are ignored and all of them are
+	 * full, the first one with enough max RAM is returned.
+	 *
+	 * @param invokers   The list of invokers.
+	 * @param position   The position to start searching after.
+	 * @param ram        The amount of required RAM for the invocation.
+	 * @param ignoreFull If full invokers are skipped.
+	 * @return The position of the invoker found.
+	 * @throws NoInvokerAvailable If no invoker has enough max RAM to execute the invocation.
+	 * @throws RemoteException    If a remote exception occurs.
+	 */
+	static int nextInvoker(List<InvokerInterface> invokers, int position, long ram, boolean ignoreFull)
+			throws NoInvokerAvailable, RemoteException {
+		int len = invokers.size() - 1;
+		int firstUsable = -1;
+
+		for (int checked = 0; checked <= len; checked++) {
+			position = (position < len) ? position + 1 : 0;
+			if (invokers.get(position).getMaxRam() >= ram) {
+				if (!ignoreFull || invokers.get(position).getAvailableRam() >= ram)
+					return (position);
+				if (firstUsable < 0)
+					firstUsable = position;
+			}
+		}
+		if (firstUsable < 0) throw new NoInvokerAvailable("No Invoker Avaiable with at least " + ram + " RAM.");
+		return (firstUsable);
+	}
+
+}
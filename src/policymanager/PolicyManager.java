@@ -14,6 +14,10 @@ public interface PolicyManager {
 
 	/**
 	 * Retrieves an invoker based on the policy.
+	 * <p>
+	 * The selection is done on a snapshot of the list, taken with {@link List#copyOf}. Callers that select many
+	 * times from the same invokers should pass the same immutable list every time, as the Controller does, so
+	 * taking the snapshot does not copy it.
 	 *
 	 * @param invokers The list of invokers.
 	 * @param ram      The amount of required RAM for the invocation.
@@ -44,4 +48,15 @@ public interface PolicyManager {
 	 */
 	public void	prepareDistribution(List<InvokerInterface> invokers, int size, long ram)
 			throws NoInvokerAvailable, RemoteException;
+
+	/**
+	 * Retrieves the number of consecutive invocations of a group that the policy assigns to the same invoker,
+	 * as planned by the last call to {@link #prepareDistribution}. Group invocations send up to this number of
+	 * elements to an invoker in a single call.
+	 *
+	 * @return The size of the groups, which is 1 if the policy does not assign invocations in groups.
+	 */
+	public default int getGroupSize() {
+		return (1);
+	}
 }
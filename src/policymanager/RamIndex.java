@@ -0,0 +1,212 @@
+package policymanager;
+
+import java.lang.ref.WeakReference;
+import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import core.exceptions.NoInvokerAvailable;
+import core.exceptions.NoPolicyManagerRegistered;
+import core.invoker.InvokerInterface;
+import core.invoker.RamListener;
+import core.invoker.RamNotifier;
+
+/**
+ * Index of a list of invokers ordered by their available RAM, used by {@link GreedyGroup} to find the invoker
+ * with the least available RAM that fits an invocation in O(log n) instead of asking every invoker.
+ * <p>
+ * The index listens to the RAM changes of the invokers, so it is only built for lists where every invoker is a
+ * {@link RamNotifier}. The available RAM of an invoker is only read when it changes, and each update replaces
+ * the entry of the invoker in a concurrent skip list, so selections never block.
+ * <p>
+ * The index is built from a snapshot of the list, which is never modified. The invokers only hold a weak
+ * reference to the index, so the index of a policy manager that is no longer used stops listening to them the
+ * next time their RAM changes, even if it was never closed.
+ */
+final class RamIndex {
+
+	/** The position of an invoker in the index, with the available RAM it had when it was indexed. */
+	private static final class Key implements Comparable<Key> {
+		private final long				availableRam;
+		private final int				position;
+		private final InvokerInterface	invoker;
+
+		private Key(long availableRam, int position, InvokerInterface invoker) {
+			this.availableRam = availableRam;
+			this.position = position;
+			this.invoker = invoker;
+		}
+
+		/*
+		 * Invokers with the same available RAM are ordered by their position in the list, so the first one
+		 * in the list is selected, as the linear search does.
+		 */
+		@Override
+		public int compareTo(Key other) {
+			int compare = Long.compare(availableRam, other.availableRam);
+
+			if (compare != 0)
+				return (compare);
+			return (Integer.compare(position, other.position));
+		}
+	}
+
+	/** The current key of an invoker, replaced holding its lock. */
+	private static final class Slot {
+		private Key key;
+	}
+
+	/** The listener registered in the invokers, which removes itself once the index is no longer used. */
+	private static final class Listener implements RamListener {
+		private final WeakReference<RamIndex> index;
+
+		private Listener(RamIndex index) {
+			this.index = new WeakReference<RamIndex>(index);
+		}
+
+		@Override
+		public void ramChanged(InvokerInterface invoker) {
+			RamIndex current = index.get();
+
+			if (current == null)
+				((RamNotifier) invoker).removeRamListener(this);
+			else
+				current.ramChanged(invoker);
+		}
+	}
+
+	private final List<InvokerInterface>		invokers;
+	private final ConcurrentSkipListSet<Key>	byAvailableRam;
+	private final Map<InvokerInterface, Slot>	slots;
+	private final Listener						listener;
+
+	/**
+	 * Builds the index of the invokers and starts listening to their RAM changes.
+	 *
+	 * @param invokers The snapshot of the list of invokers, all of them {@link RamNotifier}s.
+	 * @throws RemoteException If the available RAM of an invoker cannot be read.
+	 */
+	private RamIndex(List<InvokerInterface> invokers) throws RemoteException {
+		this.invokers = invokers;
+		this.byAvailableRam = new ConcurrentSkipListSet<Key>();
+		this.slots = new HashMap<InvokerInterface, Slot>();
+		this.listener = new Listener(this);
+		for (int i = 0; i < invokers.size(); i++) {
+			InvokerInterface invoker = invokers.get(i);
+			Slot slot = new Slot();
+			slot.key = new Key(invoker.getAvailableRam(), i, invoker);
+			slots.put(invoker, slot);
+			byAvailableRam.add(slot.key);
+		}
+		for (InvokerInterface invoker : slots.keySet())
+			((RamNotifier) invoker).addRamListener(listener);
+	}
+
+	/**
+	 * Builds the index of a snapshot of a list of invokers.
+	 *
+	 * @param invokers The snapshot of the list of invokers, which must not be modified.
+	 * @return The index, or null if some invoker does not notify its RAM changes and cannot be indexed.
+	 * @throws RemoteException If the available RAM of an invoker cannot be read.
+	 */
+	static RamIndex build(List<InvokerInterface> invokers) throws RemoteException {
+		for (InvokerInterface invoker : invokers)
+			if (!(invoker instanceof RamNotifier))
+				return (null);
+		return (new RamIndex(invokers));
+	}
+
+	/**
+	 * Retrieves the snapshot of the list of invokers indexed.
+	 *
+	 * @return The invokers indexed, in the order of the list.
+	 */
+	List<InvokerInterface> invokers() {
+		return (invokers);
+	}
+
+	/**
+	 * Checks if the index was built for the list. The list is the snapshot indexed when it is the immutable
+	 * snapshot given by the Controller, which is replaced by another one when its invokers change, so the check
+	 * is done by identity in O(1).
+	 *
+	 * @param list The list of invokers.
+	 * @return {@code true} if the index can be used for the list.
+	 */
+	boolean matches(List<InvokerInterface> list) {
+		return (invokers == list);
+	}
+
+	/**
+	 * Checks if every invoker of a list is indexed, so the index can select among them.
+	 *
+	 * @param list The list of invokers.
+	 * @return {@code true} if every invoker of the list is indexed.
+	 */
+	boolean containsAll(List<InvokerInterface> list) {
+		return (slots.keySet().containsAll(list));
+	}
+
+	/**
+	 * Stops listening to the RAM changes of the invokers.
+	 */
+	void close() {
+		for (InvokerInterface invoker : slots.keySet())
+			((RamNotifier) invoker).removeRamListener(listener);
+	}
+
+	/**
+	 * Updates the entry of the invoker with its current available RAM. The new entry is added before the old
+	 * one is removed, so a concurrent selection always finds the invoker.
+	 *
+	 * @param invoker The invoker whose available RAM changed.
+	 */
+	private void ramChanged(InvokerInterface invoker) {
+		Slot slot = slots.get(invoker);
+
+		if (slot == null)
+			return ;
+		synchronized (slot) {
+			try {
+				long availableRam = invoker.getAvailableRam();
+				if (availableRam == slot.key.availableRam)
+					return ;
+				Key old = slot.key;
+				slot.key = new Key(availableRam, old.position, invoker);
+				byAvailableRam.add(slot.key);
+				byAvailableRam.remove(old);
+			}
+			catch (RemoteException e) {
+				// the last value known is kept until the next change
+			}
+		}
+	}
+
+	/**
+	 * Selects the invoker with the least available RAM that fits the invocation, skipping the ones that cannot
+	 * select an invoker to execute it.
+	 *
+	 * @param ram     The amount of required RAM for the invocation.
+	 * @param allowed The invokers that can be selected, or null to select among all the invokers indexed.
+	 * @return The invoker selected, or null if no invoker has enough available RAM.
+	 * @throws NoPolicyManagerRegistered If an invoker is a composite and his policy manager is not properly registered.
+	 * @throws RemoteException           If a remote exception occurs.
+	 */
+	InvokerInterface bestFit(long ram, Set<InvokerInterface> allowed) throws NoPolicyManagerRegistered, RemoteException {
+		for (Key key : byAvailableRam.tailSet(new Key(ram, -1, null))) {
+			if (allowed != null && !allowed.contains(key.invoker))
+				continue ;
+			try {
+				return (key.invoker.selectInvoker(ram));
+			}
+			catch (NoInvokerAvailable e) {
+				// this invoker cannot select any invoker for the invocation, the next one is tried
+			}
+		}
+		return (null);
+	}
+
+}
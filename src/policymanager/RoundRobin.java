@@ -3,6 +3,7 @@ package policymanager;
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import core.exceptions.NoInvokerAvailable;
 import core.exceptions.NoPolicyManagerRegistered;
@@ -12,26 +13,24 @@ import core.invoker.InvokerInterface;
  * A simple implementation of the Round Robin policy for selecting invokers from a list.
  * This policy selects invokers in a circular order, distributing invocations among them.
  * <p>
+ * It can be used by many threads at the same time without locks: every selection takes the next turn with an
+ * atomic increment, so two concurrent invocations never start from the same invoker, and selects from a snapshot
+ * of the list taken when it starts, so invokers deleted meanwhile do not disturb it. The snapshot is the list
+ * itself when it is already immutable, as the one given by the Controller. Every invoker is asked once at most
+ * per selection.
+ * <p>
  * This policy manager implements the {@link policymanager.PolicyManager} interface and Java {@link Serializable} interface.
  */
 public class RoundRobin implements PolicyManager, Serializable {
 
-	/** Index of last invoker selected from the list */
-	private int	lastInvokerAssigned;
+	/** The turn of the next selection, whose position in the list is the turn modulo the size of the list. */
+	private final AtomicLong	nextTurn;
 
 	/**
 	 * Constructs a RoundRobin instance with initial state.
 	 */
 	public RoundRobin () {
-		lastInvokerAssigned = 0;
-	}
-
-	private int updatePos(int pos, int len)
-	{
-		if (pos < len)
-			return (pos + 1);
-		else
-			return (0);
+		nextTurn = new AtomicLong(1);
 	}
 
 	/**
@@ -49,53 +48,55 @@ public class RoundRobin implements PolicyManager, Serializable {
 	@Override
 	public InvokerInterface getInvoker(List<InvokerInterface> invokers, long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
 	{
+		List<InvokerInterface> snapshot = List.copyOf(invokers);
 		InvokerInterface invoker;
 		InvokerInterface invokerExecutable;
-		int	invokerExecutablePos = 0;
-		int	lastInvokerChecked;
-		int	len;
+		NoInvokerAvailable unavailable;
+		long	invokerExecutableTurn;
+		long	turn;
+		int		len;
 
-		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
-		lastInvokerChecked = lastInvokerAssigned;
-		len = invokers.size() - 1;
-		lastInvokerChecked = updatePos(lastInvokerChecked, len);
-		invoker = null;
+		len = snapshot.size();
+		if (len == 0) throw new NoInvokerAvailable("No Invokers in list.");
+		turn = nextTurn.getAndIncrement();
 		invokerExecutable = null;
-		while (lastInvokerAssigned != lastInvokerChecked) {
+		invokerExecutableTurn = turn;
+		unavailable = null;
+		for (long checked = turn; checked < turn + len; checked++) {
 			// we select a invoker from the list and check if it can execute the function
 			// or, in case it is a composite invoker, any invoker from his list can invoke it.
 			try {
-				invoker = invokers.get(lastInvokerChecked).selectInvoker(ram);
-				if (invokerExecutable == null)
-				{
-					invokerExecutable = invoker;
-					invokerExecutablePos = lastInvokerChecked;
-				}
-				// if the invoker selected has enough ram we end the loop
-				if (invoker.getAvailableRam() - ram >= 0)
-					break ;
-				lastInvokerChecked = updatePos(lastInvokerChecked, len);
+				invoker = snapshot.get((int) Math.floorMod(checked, (long) len)).selectInvoker(ram);
 			}
 			catch (NoInvokerAvailable e) {
-				lastInvokerChecked = updatePos(lastInvokerChecked, len);
+				unavailable = e;
+				continue ;
 			}
-		}
-		// if a invoker with enough ram was found
-		if (lastInvokerAssigned != lastInvokerChecked)
-			lastInvokerAssigned = lastInvokerChecked;
-		// if at least one invoker can execute the function but it is full
-		else if (lastInvokerAssigned == lastInvokerChecked && invokerExecutable != null)
-		{
-			invoker = invokers.get(lastInvokerChecked).selectInvoker(ram);
-			if (invoker.getAvailableRam() - ram >= 0)
+			// if the invoker selected has enough ram it is the one selected
+			if (invoker.getAvailableRam() - ram >= 0) {
+				skipTo(checked + 1);
 				return (invoker);
-			lastInvokerAssigned = invokerExecutablePos;
-			return (invokerExecutable);
+			}
+			if (invokerExecutable == null) {
+				invokerExecutable = invoker;
+				invokerExecutableTurn = checked;
+			}
 		}
-		// this will throw NoInvokerAvailable exception.
-		else
-			invoker = invokers.get(lastInvokerChecked).selectInvoker(ram);
-		return (invoker);
+		// no invoker can execute the function
+		if (invokerExecutable == null)
+			throw unavailable;
+		// at least one invoker can execute the function but all of them are full
+		skipTo(invokerExecutableTurn + 1);
+		return (invokerExecutable);
+	}
+
+	/**
+	 * Moves the next turn after the invoker selected, if no other selection moved it further.
+	 *
+	 * @param turn The turn after the one of the invoker selected.
+	 */
+	private void skipTo(long turn) {
+		nextTurn.accumulateAndGet(turn, Math::max);
 	}
 
 	/**
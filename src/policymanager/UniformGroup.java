@@ -3,6 +3,7 @@ package policymanager;
 import java.io.Serializable;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 import core.exceptions.NoInvokerAvailable;
@@ -16,22 +17,17 @@ import core.invoker.InvokerInterface;
  */
 public class UniformGroup implements PolicyManager, Serializable {
 
-	private long groupSize;
-	private long invocationsDistributed;
-
-	/** Index of last invoker selected from the list */
-	private int	lastInvokerAssigned;
-	/** Flag to check if a invoker that is full should be ignored when selecting invokers to assgin */
-	private boolean ignoreFull;
+	/**
+	 * The plan of the distribution and the position of the invoker receiving invocations. It is immutable and
+	 * replaced with a compare-and-set, so the policy manager can be used by many threads without locks.
+	 */
+	private final AtomicReference<GroupDistribution> distribution;
 
 	/**
 	 * Initializes a new instance of the UniformGroup class.
 	 */
 	public UniformGroup() {
-		lastInvokerAssigned = 0;
-		ignoreFull = false;
-		groupSize = 1;
-		invocationsDistributed = 0;
+		distribution = new AtomicReference<GroupDistribution>(new GroupDistribution(1, false, 0, 0));
 	}
 
 	/**
@@ -39,9 +35,10 @@ public class UniformGroup implements PolicyManager, Serializable {
 	 * 
 	 * @param invokers	The list of invokers.
 	 * @param ram		The amount of required RAM for the invocation.
+	 * @return The size of the groups, which is 1.
 	 * @throws NoInvokerAvailable If no invoker has enough max ram to execute the function or there are no Invokers in the list.
 	 */
-	private void setSingleUniformValues(List<InvokerInterface> invokers, long ram) throws NoInvokerAvailable {
+	private long setSingleUniformValues(List<InvokerInterface> invokers, long ram) throws NoInvokerAvailable {
 		// Calculate the number of invokers with sufficient max RAM
 		long invokersMaxRamUsable = invokers.stream()
 				.filter(value -> {
@@ -56,9 +53,8 @@ public class UniformGroup implements PolicyManager, Serializable {
 		if (invokersMaxRamUsable == 0)
 			throw new NoInvokerAvailable("No Invoker Avaiable with at least " + ram + " RAM.");
 
-		ignoreFull = false;
-		groupSize = 1;
-		invocationsDistributed = 0;
+		distribution.updateAndGet(current -> current.withPlan(1, false));
+		return (1);
 	}
 
 	/**
@@ -67,9 +63,10 @@ public class UniformGroup implements PolicyManager, Serializable {
 	 * @param invokers The list of invokers to consider.
 	 * @param numInvocations The number of invocations to be distributed.
 	 * @param ram The amount of required RAM for each invocation.
+	 * @return The size of the groups planned.
 	 * @throws NoInvokerAvailable If no invoker has enough max RAM to execute the function or if there are no invokers in the list.
 	 */
-	private void setGroupUniformValues(List<InvokerInterface> invokers, int numInvocations, long ram)
+	private long setGroupUniformValues(List<InvokerInterface> invokers, int numInvocations, long ram)
 			throws NoInvokerAvailable {
 		// Calculate the number of invokers with sufficient max RAM
 		long invokersMaxRamUsable = invokers.stream()
@@ -117,6 +114,8 @@ public class UniformGroup implements PolicyManager, Serializable {
 		
 		// Determine whether to ignore full invokers if charge can be distributed
 		// between the available invokers and their ram
+		boolean ignoreFull;
+		long groupSize;
 		if (averageRamAvailable * invokersRamAvailable >= numInvocations * ram) {
 			//if there is not enough ram we separate the charge in an uniform way
 			ignoreFull = true;
@@ -126,16 +125,8 @@ public class UniformGroup implements PolicyManager, Serializable {
 			groupSize =  (long) Math.ceil((double) numInvocations / invokersMaxRamUsable);
 		}
 		//we do Math.ceil because at least group must be of one invocation**
-		invocationsDistributed = 0;
-	}
-
-	private int updatePos(int pos, int len)
-	{
-		if (pos < len) {
-			return (pos + 1);
-		} else {
-			return (0);
-		}
+		distribution.updateAndGet(current -> current.withPlan(groupSize, ignoreFull));
+		return (groupSize);
 	}
 
 	/**
@@ -160,13 +151,15 @@ public class UniformGroup implements PolicyManager, Serializable {
 	public void	prepareDistribution(List<InvokerInterface> invokers, int size, long ram)
 			throws NoInvokerAvailable, RemoteException
 	{
+		long groupSize;
+
 		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
 		if (size == 1) {
-			setSingleUniformValues(invokers, ram);
+			groupSize = setSingleUniformValues(invokers, ram);
 		} else if (!(size == 1)) {
-			setGroupUniformValues(invokers, size, ram);
+			groupSize = setGroupUniformValues(invokers, size, ram);
 		} else { //in case we try to execute a function that cannot be executed
-			setSingleUniformValues(invokers, ram);
+			groupSize = setSingleUniformValues(invokers, ram);
 		}
 		
 		Logger logger = Logger.getLogger(PolicyManager.class.getName());
@@ -180,6 +173,16 @@ public class UniformGroup implements PolicyManager, Serializable {
 		}
 	}
 
+	/**
+	 * Retrieves the size of the groups planned by {@link UniformGroup#prepareDistribution}.
+	 *
+	 * @return The number of consecutive invocations assigned to the same invoker.
+	 */
+	@Override
+	public int getGroupSize() {
+		return ((int) Math.min(Integer.MAX_VALUE, Math.max(1, distribution.get().groupSize)));
+	}
+
 	/**
 	 * Retrieves an invoker from the provided list based on the specified RAM requirement
 	 * using the GroupSize set by {@link UniformGroup#prepareDistribution}.
@@ -195,33 +198,30 @@ public class UniformGroup implements PolicyManager, Serializable {
 	public InvokerInterface getInvoker(List<InvokerInterface> invokers, long ram)
 			throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException
 	{
-		InvokerInterface invoker;
-		boolean found;
-
-		if (invokers.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
-		
-		// if the first time we select an invoker the pointer is pointing to one that cannot invoke
-		// or we have reached the end of this group size
-		if (invocationsDistributed == groupSize || invokers.get(lastInvokerAssigned).getMaxRam() < ram)
-		{
-			found = false;
-			while (!found)
+		List<InvokerInterface> snapshot = List.copyOf(invokers);
+		GroupDistribution current;
+		GroupDistribution next;
+		int position;
+
+		// the selection is done on a snapshot, so invokers deleted meanwhile do not disturb it,
+		// which is the list itself when it is already immutable
+		if (snapshot.isEmpty()) throw new NoInvokerAvailable("No Invokers in list.");
+		while (true) {
+			current = distribution.get();
+			position = current.lastInvokerAssigned;
+			// if the first time we select an invoker the pointer is pointing to one that cannot invoke,
+			// we have reached the end of this group size or the invoker was deleted from the list
+			if (position >= snapshot.size() || current.invocationsDistributed == current.groupSize
+					|| snapshot.get(position).getMaxRam() < ram)
 			{
-				lastInvokerAssigned = updatePos(lastInvokerAssigned, invokers.size() - 1);
-				if (invokers.get(lastInvokerAssigned).getMaxRam() >= ram) {
-					if (!ignoreFull) {
-						found = true;
-					} else if (invokers.get(lastInvokerAssigned).getAvailableRam() >= ram) {
-						found = true;
-					}
-				}
+				position = GroupDistribution.nextInvoker(snapshot, Math.min(position, snapshot.size() - 1), ram, current.ignoreFull);
+				next = current.assign(position, true);
 			}
-			invocationsDistributed = 0;
+			else
+				next = current.assign(position, false);
+			if (distribution.compareAndSet(current, next))
+				return (snapshot.get(position).selectInvoker(ram));
 		}
-		
-		invoker = invokers.get(lastInvokerAssigned).selectInvoker(ram);
-		invocationsDistributed++;
-		return (invoker);
 	}
 
 }
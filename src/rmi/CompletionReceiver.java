@@ -0,0 +1,176 @@
+package rmi;
+
+import java.rmi.ConnectIOException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Receives the results of the asynchronous invocations made by this process to {@link ServerInvoker}s. There is
+ * a single receiver per process, exported the first time an asynchronous invocation returns, and every
+ * invocation waiting for its result is identified in it by its own correlation id, so any number of them can be
+ * in flight with any number of servers.
+ * <p>
+ * The servers of the invocations waiting are checked periodically. If a server cannot be reached, or it no
+ * longer knows an invocation whose result was not received, the future of the invocation fails with a
+ * {@link RemoteException} instead of waiting forever for a result that will never be sent.
+ */
+final class CompletionReceiver extends UnicastRemoteObject implements InvocationCallback {
+
+	private static final long serialVersionUID = 1L;
+
+	private static CompletionReceiver instance = null;
+
+	/** Threads sending to the servers the cancellations of the invocations, so cancelling a future never blocks. */
+	private static final ExecutorService canceller = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "completion-cancel");
+		thread.setDaemon(true);
+		return (thread);
+	});
+
+	/** Milliseconds between the checks of the servers of the invocations waiting for their results. */
+	static final long CHECK_INTERVAL = 2000;
+
+	/** Thread checking the servers of the invocations waiting for their results. */
+	private static final ScheduledExecutorService checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "completion-check");
+		thread.setDaemon(true);
+		return (thread);
+	});
+
+	/** An invocation waiting for its result. */
+	private static final class Waiting {
+		private final CompletableFuture<Object>	future;
+		private final CompletionSource			source;
+		private final long						correlationId;
+
+		private Waiting(CompletableFuture<Object> future, CompletionSource source, long correlationId) {
+			this.future = future;
+			this.source = source;
+			this.correlationId = correlationId;
+		}
+	}
+
+	private final AtomicLong			ids;
+	private final Map<Long, Waiting>	waiting;
+
+	private CompletionReceiver() throws RemoteException {
+		super();
+		this.ids = new AtomicLong(0);
+		this.waiting = new ConcurrentHashMap<Long, Waiting>();
+		checker.scheduleWithFixedDelay(this::check, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Retrieves the receiver of this process, exporting it if it was not exported yet.
+	 *
+	 * @return The receiver.
+	 * @throws RemoteException If the receiver cannot be exported.
+	 */
+	static synchronized CompletionReceiver instance() throws RemoteException {
+		if (instance == null)
+			instance = new CompletionReceiver();
+		return (instance);
+	}
+
+	/**
+	 * Subscribes to the result of an invocation of a server. Cancelling the future returned cancels the
+	 * invocation in the server.
+	 *
+	 * @param source        The server executing the invocation.
+	 * @param correlationId The id of the invocation in the server.
+	 * @return The future completed when the server sends the result.
+	 * @throws RemoteException If the server cannot be reached or the invocation is unknown to it.
+	 */
+	CompletableFuture<Object> await(CompletionSource source, long correlationId) throws RemoteException {
+		long id = ids.incrementAndGet();
+		CompletableFuture<Object> future = new CompletableFuture<Object>();
+
+		waiting.put(id, new Waiting(future, source, correlationId));
+		try {
+			source.subscribe(correlationId, this, id);
+		}
+		catch (RemoteException e) {
+			waiting.remove(id);
+			throw e;
+		}
+		future.whenComplete((value, failure) -> {
+			if (!future.isCancelled() || waiting.remove(id) == null)
+				return ;
+			canceller.execute(() -> {
+				try {
+					source.cancel(correlationId);
+				}
+				catch (RemoteException e) {
+					Logger.getLogger(CompletionReceiver.class.getName()).warning("RemoteException: Invocation couldn't be cancelled in " + source.toString());
+				}
+			});
+		});
+		return (future);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void complete(long correlationId, Object value, Throwable failure) {
+		Waiting invocation = waiting.remove(correlationId);
+
+		if (invocation == null)
+			return ;
+		if (failure != null)
+			invocation.future.completeExceptionally(failure);
+		else
+			invocation.future.complete(value);
+	}
+
+	/**
+	 * Asks every server with invocations waiting which of them it still knows, with a single call per server.
+	 * The invocations of a server that cannot be reached, and the ones it does not know anymore, fail. A server
+	 * only forgets an invocation once its callback returned, so when it is not known its result was either
+	 * already received or lost.
+	 */
+	private void check() {
+		Map<CompletionSource, List<Map.Entry<Long, Waiting>>> bySource = new HashMap<CompletionSource, List<Map.Entry<Long, Waiting>>>();
+
+		for (Map.Entry<Long, Waiting> entry : waiting.entrySet())
+			bySource.computeIfAbsent(entry.getValue().source, source -> new ArrayList<Map.Entry<Long, Waiting>>()).add(entry);
+		for (Map.Entry<CompletionSource, List<Map.Entry<Long, Waiting>>> server : bySource.entrySet()) {
+			List<Map.Entry<Long, Waiting>> invocations = server.getValue();
+			long[] correlationIds = new long[invocations.size()];
+			boolean[] pending;
+
+			for (int i = 0; i < correlationIds.length; i++)
+				correlationIds[i] = invocations.get(i).getValue().correlationId;
+			try {
+				pending = server.getKey().pending(correlationIds);
+			}
+			catch (RemoteException e) {
+				for (Map.Entry<Long, Waiting> invocation : invocations)
+					fail(invocation, new ConnectIOException("The server of the invocation cannot be reached.", e));
+				continue ;
+			}
+			for (int i = 0; i < correlationIds.length; i++) {
+				if (!pending[i])
+					fail(invocations.get(i), new RemoteException("The result of the invocation was lost by the server."));
+			}
+		}
+	}
+
+	private void fail(Map.Entry<Long, Waiting> invocation, RemoteException failure) {
+		if (waiting.remove(invocation.getKey(), invocation.getValue()))
+			invocation.getValue().future.completeExceptionally(failure);
+	}
+
+}
@@ -0,0 +1,45 @@
+package rmi;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Remote interface of the servers whose asynchronous invocations are completed through an
+ * {@link InvocationCallback}. The future of an invocation reaches the caller as a correlation id, and the caller
+ * subscribes to its result with it.
+ */
+public interface CompletionSource extends Remote {
+
+	/**
+	 * Subscribes to the result of an asynchronous invocation. If it already finished, the callback is called
+	 * immediately.
+	 *
+	 * @param correlationId The id of the invocation in this server.
+	 * @param callback      The callback that receives the result.
+	 * @param callbackId    The id of the invocation in the caller, sent back with the result.
+	 * @throws RemoteException If there is no invocation with that id waiting for a subscription, or a
+	 *                         communication-related exception occurs.
+	 */
+	public void subscribe(long correlationId, InvocationCallback callback, long callbackId) throws RemoteException;
+
+	/**
+	 * Cancels an asynchronous invocation whose result is not needed any more. If it has not started yet, it is
+	 * not executed and its RAM is released. An invocation that already finished is not affected.
+	 *
+	 * @param correlationId The id of the invocation in this server.
+	 * @throws RemoteException If a communication-related exception occurs.
+	 */
+	public void cancel(long correlationId) throws RemoteException;
+
+	/**
+	 * Checks which asynchronous invocations are still known to this server, either waiting for a subscription,
+	 * running or sending their result. Once an invocation is not known anymore, its result was either received
+	 * by the callback or lost.
+	 *
+	 * @param correlationIds The ids of the invocations in this server.
+	 * @return For each invocation, {@code true} if it is still known to this server.
+	 * @throws RemoteException If a communication-related exception occurs.
+	 */
+	public boolean[] pending(long[] correlationIds) throws RemoteException;
+
+}
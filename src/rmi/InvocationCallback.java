@@ -0,0 +1,24 @@
+package rmi;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Remote interface through which a {@link ServerInvoker} sends the results of asynchronous invocations to the
+ * process that made them, as soon as each one finishes.
+ *
+ * @see CompletionSource
+ */
+public interface InvocationCallback extends Remote {
+
+	/**
+	 * Completes an asynchronous invocation.
+	 *
+	 * @param correlationId The id given by the caller when it subscribed to the result.
+	 * @param value         The result of the invocation, or null if it failed.
+	 * @param failure       The exception thrown by the invocation, or null if it succeeded.
+	 * @throws RemoteException If a communication-related exception occurs.
+	 */
+	public void complete(long correlationId, Object value, Throwable failure) throws RemoteException;
+
+}
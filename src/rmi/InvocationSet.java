@@ -1,7 +1,9 @@
 package rmi;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Base64;
@@ -69,6 +71,25 @@ public class InvocationSet implements Serializable{
 		return (invokers);
 	}
 
+	/**
+     * Counts the servers needed by the invokers and composites of this InvocationSet and by every
+     * InvocationSet under it. The server of this InvocationSet itself is not counted.
+     *
+     * @return The number of servers.
+     */
+	public int countServers()
+	{
+		int servers = 0;
+
+		if (invokers != null)
+			servers += invokers.size();
+		if (compositeInvokers == null)
+			return (servers);
+		for (InvocationSet composite : compositeInvokers)
+			servers += 1 + composite.countServers();
+		return (servers);
+	}
+
 	public static String serializeToString(Object obj) {
 		try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
 			ObjectOutputStream oos = new ObjectOutputStream(bos)) {
@@ -82,4 +103,15 @@ public class InvocationSet implements Serializable{
 			return null;
 		}
 	}
+
+	public static InvocationSet deserializeFromString(String str) {
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(str)))) {
+
+			return (InvocationSet) ois.readObject();
+
+		} catch (IOException | ClassNotFoundException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
 }
@@ -0,0 +1,149 @@
+package rmi;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+
+/**
+ * Starts invokers in JVMs of their own, so they do not share the heap, the garbage collector or the threads of
+ * the Controller. Each process hosts the servers of an {@link InvocationSet} like the {@link ServerHandler}
+ * would, and tells the parent that they are ready through its standard output. The process exits when the
+ * parent closes its standard input, so it does not outlive the process that started it.
+ *
+ * @see Isolation
+ */
+public class InvokerProcess {
+
+	/** Line written by a process when all its servers are started and wired. */
+	private static final String READY = "Invoker process ready.";
+
+	/** Options of the JVMs started, such as their heap settings. */
+	public static List<String> jvmOptions = new ArrayList<String>();
+
+	/** Class path of the JVMs started. It must contain the classes of the actions invoked. */
+	public static String classPath = System.getProperty("java.class.path");
+
+	/** Milliseconds a process is given to start its servers before it is destroyed. */
+	public static long readinessTimeout = 30_000;
+
+	private static final Queue<Process> processes = new ConcurrentLinkedQueue<Process>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(InvokerProcess::destroyAll));
+	}
+
+	private static List<String> command(InvocationSet hosted, int port, long firstId)
+	{
+		List<String> command = new ArrayList<String>();
+
+		command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+		command.addAll(jvmOptions);
+		command.add("-cp");
+		command.add(classPath);
+		command.add(InvokerProcess.class.getName());
+		command.add(ServerHandler.transport.name());
+		command.add(Integer.toString(port));
+		command.add(Long.toString(firstId));
+		command.add(InvocationSet.serializeToString(hosted));
+		return (command);
+	}
+
+	/**
+	 * Forwards the output of a process to the output of this one on a daemon thread.
+	 */
+	private static void forward(BufferedReader output)
+	{
+		Thread forwarder = new Thread(() -> {
+			try {
+				String line;
+				while ((line = output.readLine()) != null)
+					System.out.println(line);
+			}
+			catch (IOException e) {
+				// the process exited
+			}
+		});
+		forwarder.setDaemon(true);
+		forwarder.start();
+	}
+
+	/**
+	 * Starts a process hosting the servers of the invokers and composites of an InvocationSet, and waits until
+	 * they are ready. The ids of the invokers hosted must have been reserved with {@link Invoker#reserveIds(long)},
+	 * so they are the same as if the invokers were created in this process.
+	 *
+	 * @param hosted  The InvocationSet whose invokers and composites are hosted by the process.
+	 * @param port    The port of the first server, the next ones are given the following ports.
+	 * @param firstId The id of the first invoker hosted.
+	 * @return The stub, or proxy, of the first invoker or composite of the InvocationSet.
+	 * @throws Exception If the process cannot be started, exits, or is not ready in time.
+	 */
+	public static InvokerInterface start(InvocationSet hosted, int port, long firstId) throws Exception
+	{
+		Process			process = new ProcessBuilder(command(hosted, port, firstId))
+							.redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		BufferedReader	output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+		Thread			timeout;
+		String			line;
+
+		processes.add(process);
+		timeout = new Thread(() -> {
+			try {
+				if (!process.waitFor(readinessTimeout, TimeUnit.MILLISECONDS))
+					process.destroy();
+			}
+			catch (InterruptedException e) {
+				// the process is ready
+			}
+		});
+		timeout.setDaemon(true);
+		timeout.start();
+		while ((line = output.readLine()) != null && !line.equals(READY))
+			System.out.println(line);
+		timeout.interrupt();
+		if (line == null) {
+			processes.remove(process);
+			throw new IOException("Invoker process for port " + port + " exited, or timed out, before it was ready.");
+		}
+		forward(output);
+		return (ServerHandler.connect(port));
+	}
+
+	/**
+	 * Destroys every process started, and the invokers they host.
+	 */
+	public static void destroyAll()
+	{
+		Process process;
+
+		while ((process = processes.poll()) != null)
+			process.destroy();
+	}
+
+	/**
+	 * Main method of the processes started. It hosts the servers of the invokers and composites of an
+	 * InvocationSet, and exits when its standard input is closed.
+	 *
+	 * @param args The transport, the port of the first server, the id of the first invoker and the serialized
+	 *             InvocationSet.
+	 */
+	public static void main(String[] args) throws Exception {
+		ServerHandler.transport = Transport.valueOf(args[0]);
+		Invoker.reserveIds(Long.parseLong(args[2]));
+		ServerHandler.startServers(InvocationSet.deserializeFromString(args[3]), Integer.parseInt(args[1]));
+		System.out.println(READY);
+		while (System.in.read() != -1)
+			;
+		System.exit(0);
+	}
+
+}
@@ -0,0 +1,19 @@
+package rmi;
+
+/**
+ * The processes where the {@link ServerHandler} starts the invokers of a topology.
+ */
+public enum Isolation {
+
+	/** Every invoker is started inside the process of the Controller. */
+	NONE,
+
+	/** Every invoker, and every composite, is started in its own JVM with its own heap. */
+	INVOKER,
+
+	/**
+	 * Every invoker of the Controller is started in its own JVM, and every composite of the Controller is started
+	 * in its own JVM together with the whole tree of invokers under it.
+	 */
+	GROUP
+}
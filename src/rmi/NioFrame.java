@@ -0,0 +1,96 @@
+package rmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * The messages exchanged by a {@link NioInvokerClient} and a {@link NioInvokerServer}. Every message is a frame
+ * with its length, the id of the request it belongs to and the message written with the Java serialization, so
+ * many requests can share a connection and their responses can arrive in any order.
+ */
+final class NioFrame {
+
+	/** Bytes of the header of a frame: the length of the rest of the frame and the id of the request. */
+	static final int HEADER = Integer.BYTES + Long.BYTES;
+
+	/** A call to a method of the InvokerInterface. */
+	static final class Request implements Serializable {
+		final String	method;
+		final Object[]	args;
+
+		Request(String method, Object[] args) {
+			this.method = method;
+			this.args = args;
+		}
+	}
+
+	/**
+	 * The response to a request. Methods returning a CompletableFuture get two responses: the first one, marked
+	 * as accepted, when the call returns, and the second one when the future completes.
+	 */
+	static final class Response implements Serializable {
+		final Object	value;
+		final Throwable	failure;
+		final boolean	accepted;
+		final boolean	self;
+
+		Response(Object value, Throwable failure, boolean accepted, boolean self) {
+			this.value = value;
+			this.failure = failure;
+			this.accepted = accepted;
+			this.self = self;
+		}
+	}
+
+	private NioFrame() {
+	}
+
+	/**
+	 * Writes a message in a frame.
+	 *
+	 * @param id      The id of the request.
+	 * @param message The message.
+	 * @return The frame, ready to be written to a channel.
+	 * @throws IOException If the message cannot be serialized.
+	 */
+	static ByteBuffer encode(long id, Object message) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ByteBuffer frame;
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(message);
+		}
+		frame = ByteBuffer.allocate(HEADER + bytes.size());
+		frame.putInt(Long.BYTES + bytes.size());
+		frame.putLong(id);
+		frame.put(bytes.toByteArray());
+		frame.flip();
+		return (frame);
+	}
+
+	/**
+	 * Reads the message of a frame.
+	 *
+	 * @param buffer The buffer positioned at the message, after the header.
+	 * @param length The bytes of the message.
+	 * @return The message.
+	 * @throws IOException If the message cannot be read.
+	 */
+	static Object decode(ByteBuffer buffer, int length) throws IOException {
+		byte[] bytes = new byte[length];
+
+		buffer.get(bytes);
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (input.readObject());
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException("Class of the message not found.", e);
+		}
+	}
+
+}
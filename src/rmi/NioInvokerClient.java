@@ -0,0 +1,284 @@
+package rmi;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import core.invoker.InvokerInterface;
+
+/**
+ * The NioInvokerClient class reaches an Invoker hosted by a {@link NioInvokerServer} through a single socket
+ * channel, shared by all the threads calling it.
+ * <p>
+ * Every call is sent as a frame with its own id without waiting for the responses of the previous ones, and a
+ * reader thread hands each response to the call it belongs to, in the order the server finishes them. Methods
+ * returning a CompletableFuture return as soon as the server accepts the call, so the exceptions thrown when
+ * calling them are the same as with RMI, and the future completes when the result arrives.
+ * <p>
+ * The proxies returned by {@link #connect(String, int)} are serializable: they are written as the address of the
+ * server, so they can be registered into remote composites, which connect to the server when they read them.
+ */
+public final class NioInvokerClient implements InvocationHandler, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The open connections by address, so every server is reached through a single one. */
+	private static final Map<String, NioInvokerClient> connections = new ConcurrentHashMap<String, NioInvokerClient>();
+
+	/** A call waiting for its responses. */
+	private static final class Call {
+		private final CompletableFuture<NioFrame.Response>	response = new CompletableFuture<NioFrame.Response>();
+		private final CompletableFuture<Object>				result;
+
+		private Call(boolean async) {
+			this.result = async ? new CompletableFuture<Object>() : null;
+		}
+	}
+
+	private final String	host;
+	private final int		port;
+
+	private transient SocketChannel				channel;
+	private transient Object					writeLock;
+	private transient Map<Long, Call>			calls;
+	private transient AtomicLong				ids;
+	private transient InvokerInterface			proxy;
+	private transient volatile boolean			closed;
+
+	private NioInvokerClient(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+
+	/**
+	 * Retrieves an InvokerInterface reaching the Invoker hosted by a {@link NioInvokerServer}, opening the
+	 * connection to it if it is not open yet.
+	 *
+	 * @param host The host of the server.
+	 * @param port The port of the server.
+	 * @return The proxy of the remote Invoker.
+	 * @throws RemoteException If the server cannot be reached.
+	 */
+	public static InvokerInterface connect(String host, int port) throws RemoteException {
+		return (connection(host, port).proxy);
+	}
+
+	/**
+	 * Closes the connection to a server, if it is open. The calls waiting for a response fail.
+	 *
+	 * @param host The host of the server.
+	 * @param port The port of the server.
+	 */
+	public static void disconnect(String host, int port) {
+		NioInvokerClient client = connections.get(host + ":" + port);
+
+		if (client != null)
+			client.close(new ConnectIOException("Connection to " + host + ":" + port + " closed."));
+	}
+
+	private static NioInvokerClient connection(String host, int port) throws RemoteException {
+		String address = host + ":" + port;
+		NioInvokerClient client = connections.get(address);
+
+		if (client != null)
+			return (client);
+		synchronized (connections) {
+			client = connections.get(address);
+			if (client == null) {
+				client = new NioInvokerClient(host, port);
+				client.open();
+				connections.put(address, client);
+			}
+		}
+		return (client);
+	}
+
+	private void open() throws RemoteException {
+		try {
+			channel = SocketChannel.open(new InetSocketAddress(host, port));
+			channel.socket().setTcpNoDelay(true);
+		}
+		catch (IOException e) {
+			throw new ConnectException("Server " + host + ":" + port + " cannot be reached.", e);
+		}
+		writeLock = new Object();
+		calls = new ConcurrentHashMap<Long, Call>();
+		ids = new AtomicLong(0);
+		proxy = (InvokerInterface) Proxy.newProxyInstance(InvokerInterface.class.getClassLoader(),
+				new Class<?>[] { InvokerInterface.class }, this);
+		Thread reader = new Thread(this::read, "nio-invoker-reader-" + host + ":" + port);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/*
+	 * Fails every call waiting for a response and forgets the connection, so the next connect opens a new one.
+	 */
+	private void close(RemoteException cause) {
+		closed = true;
+		connections.remove(host + ":" + port, this);
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			// the connection is discarded anyway
+		}
+		for (Long id : calls.keySet()) {
+			Call call = calls.remove(id);
+			if (call == null)
+				continue ;
+			call.response.completeExceptionally(cause);
+			if (call.result != null)
+				call.result.completeExceptionally(cause);
+		}
+	}
+
+	private void readFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining())
+			if (channel.read(buffer) < 0)
+				throw new IOException("Connection closed by the server.");
+		buffer.flip();
+	}
+
+	/*
+	 * Reads the responses and completes the calls they belong to. The response marking a call to an
+	 * asynchronous method as accepted keeps it waiting for the one with the result.
+	 */
+	private void read() {
+		ByteBuffer header = ByteBuffer.allocate(NioFrame.HEADER);
+
+		try {
+			while (!closed) {
+				header.clear();
+				readFully(header);
+				int length = header.getInt();
+				long id = header.getLong();
+				ByteBuffer body = ByteBuffer.allocate(length - Long.BYTES);
+				readFully(body);
+				NioFrame.Response response = (NioFrame.Response) NioFrame.decode(body, body.remaining());
+				if (response.accepted) {
+					Call call = calls.get(id);
+					if (call != null)
+						call.response.complete(response);
+					continue ;
+				}
+				Call call = calls.remove(id);
+				if (call == null)
+					continue ;
+				if (call.result != null && call.response.isDone()) {
+					if (response.failure != null)
+						call.result.completeExceptionally(response.failure);
+					else
+						call.result.complete(response.value);
+				}
+				else
+					call.response.complete(response);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			if (!closed)
+				close(new ConnectIOException("Connection to " + host + ":" + port + " lost.", e));
+		}
+	}
+
+	/**
+	 * Sends the call of a method of the InvokerInterface and waits for its response. The methods of Object are
+	 * answered locally: two proxies are equal if they share the connection.
+	 */
+	@Override
+	public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class)
+			return (invokeLocally(target, method, args));
+		if (closed) throw new ConnectIOException("Connection to " + host + ":" + port + " closed.");
+
+		Call call = new Call(CompletableFuture.class.isAssignableFrom(method.getReturnType()));
+		long id = ids.incrementAndGet();
+		ByteBuffer frame = NioFrame.encode(id, new NioFrame.Request(method.getName(), args));
+		NioFrame.Response response;
+
+		calls.put(id, call);
+		try {
+			synchronized (writeLock) {
+				while (frame.hasRemaining())
+					channel.write(frame);
+			}
+		}
+		catch (IOException e) {
+			calls.remove(id);
+			throw new ConnectIOException("Call to " + host + ":" + port + " couldn't be sent.", e);
+		}
+
+		try {
+			response = call.response.get();
+		}
+		catch (ExecutionException e) {
+			throw e.getCause();
+		}
+		catch (InterruptedException e) {
+			calls.remove(id);
+			Thread.currentThread().interrupt();
+			throw new RemoteException("Interrupted waiting for " + host + ":" + port + ".", e);
+		}
+		if (response.failure != null)
+			throw declared(method, response.failure);
+		if (response.self)
+			return (proxy);
+		if (call.result != null)
+			return (call.result);
+		return (response.value);
+	}
+
+	/*
+	 * Exceptions not declared by the method are thrown inside a RemoteException, as RMI does with the
+	 * exceptions the server cannot send.
+	 */
+	private static Throwable declared(Method method, Throwable failure) {
+		if (failure instanceof RuntimeException || failure instanceof Error)
+			return (failure);
+		for (Class<?> type : method.getExceptionTypes())
+			if (type.isInstance(failure))
+				return (failure);
+		return (new RemoteException(failure.toString(), failure));
+	}
+
+	private Object invokeLocally(Object target, Method method, Object[] args) {
+		switch (method.getName()) {
+			case "equals":
+				return (args[0] instanceof Proxy && Proxy.getInvocationHandler(args[0]) == this);
+			case "hashCode":
+				return (System.identityHashCode(this));
+			default:
+				return ("NioInvoker[" + host + ":" + port + "]");
+		}
+	}
+
+	/*
+	 * A proxy read from a stream uses the connection open to the same server, or opens it.
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		try {
+			return (connection(host, port));
+		}
+		catch (RemoteException e) {
+			InvalidObjectException failure = new InvalidObjectException(e.getMessage());
+			failure.initCause(e);
+			throw failure;
+		}
+	}
+
+}
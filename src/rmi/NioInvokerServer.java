@@ -0,0 +1,313 @@
+package rmi;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+import core.invoker.CompositeInvoker;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+
+/**
+ * The NioInvokerServer class hosts an Invoker reached through non-blocking socket channels, as an alternative
+ * to exporting a {@link ServerInvoker} with RMI.
+ * <p>
+ * A single thread accepts the connections, reads the frames of the requests and writes the frames of the
+ * responses of all the connections, without blocking on any of them. The requests are executed by a pool of
+ * workers, so a client can send many requests through the same connection without waiting for the responses,
+ * which are sent back as soon as each one finishes.
+ *
+ * @see NioInvokerClient
+ * @see NioFrame
+ */
+public class NioInvokerServer implements Closeable {
+
+	/** The size of the buffer where the requests of a connection are read, grown if a frame does not fit. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** The methods of the InvokerInterface by name. None of them is overloaded. */
+	private static final Map<String, Method> methods = new HashMap<String, Method>();
+
+	static {
+		for (Method method : InvokerInterface.class.getMethods())
+			methods.put(method.getName(), method);
+	}
+
+	/**
+	 * The state of a connection: the requests read partially and the responses waiting to be written, which
+	 * are written holding the lock of the connection.
+	 */
+	private static final class Connection {
+		private final SocketChannel						channel;
+		private final ConcurrentLinkedQueue<ByteBuffer>	responses;
+		private ByteBuffer								requests;
+		private SelectionKey							key;
+
+		private Connection(SocketChannel channel) {
+			this.channel = channel;
+			this.responses = new ConcurrentLinkedQueue<ByteBuffer>();
+			this.requests = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+	}
+
+	private final Invoker				invoker;
+	private final ServerSocketChannel	server;
+	private final Selector				selector;
+	private final ExecutorService		workers;
+	private final Thread				selectorThread;
+	private volatile boolean			running;
+
+	/**
+	 * Constructs a NioInvokerServer listening on the specified port.
+	 *
+	 * @param port    The port where connections are accepted.
+	 * @param invoker The Invoker hosted.
+	 * @throws IOException If the port cannot be bound.
+	 */
+	private NioInvokerServer(int port, Invoker invoker) throws IOException {
+		this.invoker = invoker;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		server.bind(new InetSocketAddress("localhost", port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+		this.workers = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "nio-invoker-worker-" + port);
+			thread.setDaemon(true);
+			return (thread);
+		});
+		this.running = true;
+		this.selectorThread = new Thread(this::run, "nio-invoker-selector-" + port);
+		selectorThread.setDaemon(true);
+		selectorThread.start();
+	}
+
+	/**
+	 * Creates an Invoker, or a CompositeInvoker, and starts serving it on the specified port.
+	 *
+	 * @param port        The port where connections are accepted.
+	 * @param ram         The maximum RAM of the Invoker.
+	 * @param threads     The number of threads of the Invoker.
+	 * @param isComposite Indicates whether the Invoker is a CompositeInvoker.
+	 * @return The server started.
+	 * @throws IOException If the port cannot be bound.
+	 */
+	public static NioInvokerServer start(int port, long ram, int threads, boolean isComposite) throws IOException {
+		Invoker invoker;
+
+		if (isComposite)
+			invoker = CompositeInvoker.createInvoker(ram, threads);
+		else
+			invoker = Invoker.createInvoker(ram, threads);
+		return (start(port, invoker));
+	}
+
+	/**
+	 * Starts serving an Invoker already created on the specified port.
+	 *
+	 * @param port    The port where connections are accepted.
+	 * @param invoker The Invoker, or CompositeInvoker, to serve.
+	 * @return The server started.
+	 * @throws IOException If the port cannot be bound.
+	 */
+	public static NioInvokerServer start(int port, Invoker invoker) throws IOException {
+		return (new NioInvokerServer(port, invoker));
+	}
+
+	/**
+	 * Retrieves the Invoker hosted.
+	 *
+	 * @return The Invoker.
+	 */
+	public Invoker getInvoker() {
+		return (invoker);
+	}
+
+	/**
+	 * Stops accepting connections and closes the ones open. The Invoker hosted is not shut down.
+	 */
+	@Override
+	public void close() throws IOException {
+		running = false;
+		selector.wakeup();
+		try {
+			selectorThread.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (SelectionKey key : selector.keys())
+			key.channel().close();
+		selector.close();
+		workers.shutdown();
+	}
+
+	private void run() {
+		while (running) {
+			try {
+				selector.select();
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					try {
+						if (key.isAcceptable())
+							accept();
+						else {
+							if (key.isReadable())
+								read((Connection) key.attachment());
+							if (key.isValid() && key.isWritable())
+								write((Connection) key.attachment());
+						}
+					}
+					catch (IOException | java.nio.channels.CancelledKeyException e) {
+						// the client closed the connection, its pending responses are discarded
+						key.cancel();
+						key.channel().close();
+					}
+				}
+			}
+			catch (IOException e) {
+				Logger.getLogger(NioInvokerServer.class.getName()).warning("IOException: " + e.getMessage());
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+
+		if (channel == null)
+			return ;
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+	}
+
+	/*
+	 * Reads everything available and hands every complete frame to a worker. A frame that does not fit in the
+	 * buffer makes it grow, and the bytes of an incomplete frame are kept for the next read.
+	 */
+	private void read(Connection connection) throws IOException {
+		ByteBuffer buffer = connection.requests;
+
+		if (connection.channel.read(buffer) < 0)
+			throw new IOException("Connection closed.");
+		buffer.flip();
+		while (buffer.remaining() >= NioFrame.HEADER) {
+			int length = buffer.getInt(buffer.position());
+			if (buffer.remaining() < Integer.BYTES + length) {
+				if (Integer.BYTES + length > buffer.capacity()) {
+					ByteBuffer grown = ByteBuffer.allocate(Integer.BYTES + length);
+					grown.put(buffer);
+					grown.flip();
+					buffer = grown;
+				}
+				break;
+			}
+			buffer.getInt();
+			long id = buffer.getLong();
+			Object message = NioFrame.decode(buffer, length - Long.BYTES);
+			workers.execute(() -> execute(connection, id, (NioFrame.Request) message));
+		}
+		buffer.compact();
+		connection.requests = buffer;
+	}
+
+	/*
+	 * Writes the responses queued until the channel cannot take more. The interest in writing is removed when
+	 * the queue is empty.
+	 */
+	private void write(Connection connection) throws IOException {
+		ByteBuffer response;
+
+		synchronized (connection) {
+			while ((response = connection.responses.peek()) != null) {
+				connection.channel.write(response);
+				if (response.hasRemaining())
+					return ;
+				connection.responses.poll();
+			}
+			connection.key.interestOps(SelectionKey.OP_READ);
+		}
+	}
+
+	/*
+	 * The worker writes the response itself when nothing is waiting to be written before it, so the selector is
+	 * only woken up when the channel cannot take the whole response.
+	 */
+	private void respond(Connection connection, long id, NioFrame.Response response) {
+		ByteBuffer frame;
+
+		try {
+			frame = NioFrame.encode(id, response);
+		}
+		catch (IOException e) {
+			respond(connection, id, new NioFrame.Response(null, e, response.accepted, false));
+			return ;
+		}
+		try {
+			synchronized (connection) {
+				if (connection.responses.isEmpty()) {
+					connection.channel.write(frame);
+					if (!frame.hasRemaining())
+						return ;
+				}
+				connection.responses.add(frame);
+				connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+			selector.wakeup();
+		}
+		catch (IOException | java.nio.channels.CancelledKeyException e) {
+			// the connection was closed, there is nobody to respond to
+		}
+	}
+
+	/*
+	 * Calls the method of the Invoker. When the Invoker selects itself the client is told to use the connection
+	 * it already has, and when the method returns a future, the result is sent in a second response.
+	 */
+	private void execute(Connection connection, long id, NioFrame.Request request) {
+		Method method = methods.get(request.method);
+		Object result;
+
+		try {
+			if (method == null) throw new NoSuchMethodException(request.method);
+			result = method.invoke(invoker, request.args);
+		}
+		catch (InvocationTargetException e) {
+			respond(connection, id, new NioFrame.Response(null, e.getCause(), false, false));
+			return ;
+		}
+		catch (ReflectiveOperationException | IllegalArgumentException e) {
+			respond(connection, id, new NioFrame.Response(null, e, false, false));
+			return ;
+		}
+
+		if (result instanceof CompletableFuture) {
+			respond(connection, id, new NioFrame.Response(null, null, true, false));
+			((CompletableFuture<?>) result).whenComplete((value, failure) ->
+				respond(connection, id, new NioFrame.Response(value, failure, false, false)));
+		}
+		else if (result == invoker)
+			respond(connection, id, new NioFrame.Response(null, null, false, true));
+		else
+			respond(connection, id, new NioFrame.Response(result, null, false, false));
+	}
+
+}
@@ -0,0 +1,76 @@
+package rmi;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The future of an asynchronous invocation returned by a {@link ServerInvoker}. Locally it completes with the
+ * future of the hosted Invoker. When RMI sends it to the caller, it is written as the stub of the server and a
+ * correlation id, and the caller reads it as a local CompletableFuture that the server completes through the
+ * {@link CompletionReceiver} of the caller, so the caller does not wait for the invocation to finish.
+ *
+ * @param <T> The type of the result.
+ */
+final class RemoteFuture<T> extends CompletableFuture<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The serialized form: the server holding the result and the id of the invocation in it. */
+	private static final class Handle implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final CompletionSource	source;
+		private final long				correlationId;
+
+		private Handle(CompletionSource source, long correlationId) {
+			this.source = source;
+			this.correlationId = correlationId;
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			try {
+				return (CompletionReceiver.instance().await(source, correlationId));
+			}
+			catch (RemoteException e) {
+				InvalidObjectException failure = new InvalidObjectException("Result of the invocation couldn't be subscribed.");
+				failure.initCause(e);
+				throw failure;
+			}
+		}
+	}
+
+	private final transient ServerInvoker			server;
+	private final transient CompletableFuture<T>	result;
+
+	/**
+	 * Constructs a RemoteFuture completed with the result of an invocation.
+	 *
+	 * @param server The server executing the invocation.
+	 * @param result The future of the invocation in the hosted Invoker.
+	 */
+	RemoteFuture(ServerInvoker server, CompletableFuture<T> result) {
+		this.server = server;
+		this.result = result;
+		result.whenComplete((value, failure) -> {
+			if (failure != null)
+				completeExceptionally(failure);
+			else
+				complete(value);
+		});
+		whenComplete((value, failure) -> {
+			if (isCancelled())
+				result.cancel(false);
+		});
+	}
+
+	/*
+	 * The result only waits for a subscription in the server when the future is sent to another process.
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		return (new Handle(server, server.park(result)));
+	}
+
+}
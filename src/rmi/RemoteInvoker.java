@@ -0,0 +1,409 @@
+package rmi;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import core.application.Invokable;
+import core.codec.Codec;
+import core.codec.EncodedValue;
+import core.exceptions.NoInvokerAvailable;
+import core.exceptions.NoPolicyManagerRegistered;
+import core.exceptions.OperationNotValid;
+import core.invoker.InvokerInterface;
+import core.invoker.InvokerSnapshot;
+import core.invoker.OverflowPolicy;
+import core.invoker.RamListener;
+import core.invoker.RamNotifier;
+import policymanager.PolicyManager;
+
+/**
+ * The RemoteInvoker class wraps the stub of a remote Invoker and keeps a local copy of its state, so policy
+ * managers select invokers reading local memory and only the invocations cross the network.
+ * <p>
+ * The copy is an {@link InvokerSnapshot} refreshed with a single remote call every interval. Between refreshes,
+ * the RAM of the invocations sent through this RemoteInvoker is subtracted from the available RAM of the copy,
+ * so consecutive selections see the load they add. A refresh replaces those local estimations by the real state.
+ * <p>
+ * If the remote Invoker is a CompositeInvoker, the selection of one of its children is still done remotely.
+ * <p>
+ * The changes of the available RAM, either estimated locally or retrieved in a refresh, are notified to the
+ * {@link RamListener}s registered, so policy managers can index remote invokers like local ones.
+ * <p>
+ * If a {@link Codec} is given, the arguments and results of the invocations are sent in {@link EncodedValue}s,
+ * written with the codec instead of the Java serialization.
+ *
+ * @see ServerHandler#refreshInterval
+ */
+public class RemoteInvoker implements InvokerInterface, RamNotifier {
+
+	/** Threads shared by all the RemoteInvokers to refresh their snapshots. */
+	private static final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "remote-invoker-refresh");
+		thread.setDaemon(true);
+		return (thread);
+	});
+
+	/** The stub of the remote Invoker. */
+	private final InvokerInterface remote;
+
+	/** The last state retrieved from the remote Invoker. */
+	private volatile InvokerSnapshot snapshot;
+
+	/** The RAM reserved by invocations sent through this RemoteInvoker since the snapshot was retrieved. */
+	private final AtomicLong pendingRam;
+
+	/** The periodic refresh of the snapshot, or null if it is only refreshed on demand. */
+	private final ScheduledFuture<?> refreshTask;
+
+	/** The listeners notified when the available RAM changes. */
+	private final CopyOnWriteArrayList<RamListener> ramListeners;
+
+	/** The codec used to send the arguments and results of the invocations, or null to use the Java serialization. */
+	private final Codec codec;
+
+	/**
+	 * Constructs a RemoteInvoker retrieving the current state of the remote Invoker.
+	 *
+	 * @param remote          The stub of the remote Invoker.
+	 * @param refreshInterval The milliseconds between refreshes of the state, or 0 to only refresh it with {@link #refresh()}.
+	 * @throws RemoteException If the state of the remote Invoker cannot be retrieved.
+	 */
+	public RemoteInvoker(InvokerInterface remote, long refreshInterval) throws RemoteException {
+		this(remote, refreshInterval, null);
+	}
+
+	/**
+	 * Constructs a RemoteInvoker retrieving the current state of the remote Invoker, which sends the arguments
+	 * and results of the invocations with the specified codec.
+	 *
+	 * @param remote          The stub of the remote Invoker.
+	 * @param refreshInterval The milliseconds between refreshes of the state, or 0 to only refresh it with {@link #refresh()}.
+	 * @param codec           The codec of the arguments and results, or null to use the Java serialization.
+	 * @throws RemoteException If the state of the remote Invoker cannot be retrieved.
+	 */
+	public RemoteInvoker(InvokerInterface remote, long refreshInterval, Codec codec) throws RemoteException {
+		this.remote = remote;
+		this.codec = codec;
+		this.pendingRam = new AtomicLong(0);
+		this.ramListeners = new CopyOnWriteArrayList<RamListener>();
+		this.snapshot = remote.getSnapshot();
+		if (refreshInterval > 0)
+			refreshTask = refresher.scheduleWithFixedDelay(this::refresh, refreshInterval, refreshInterval, TimeUnit.MILLISECONDS);
+		else
+			refreshTask = null;
+	}
+
+	/**
+	 * Retrieves the state of the remote Invoker. If it cannot be reached, the last state is kept.
+	 */
+	public void refresh() {
+		long pending = pendingRam.get();
+
+		try {
+			snapshot = remote.getSnapshot();
+			// what was reserved while retrieving the state may not be in it, so it is kept
+			addPendingRam(-pending);
+		} catch (RemoteException e) {
+			Logger.getLogger(RemoteInvoker.class.getName()).warning("RemoteException: State couldn't be refreshed from " + remote.toString());
+		}
+	}
+
+	/**
+	 * Adds RAM to the estimation of the RAM reserved since the last refresh and notifies the listeners.
+	 *
+	 * @param ram The RAM reserved, or freed if it is negative.
+	 */
+	private void addPendingRam(long ram) {
+		pendingRam.addAndGet(ram);
+		for (RamListener listener : ramListeners)
+			listener.ramChanged(this);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void addRamListener(RamListener listener) {
+		ramListeners.addIfAbsent(listener);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void removeRamListener(RamListener listener) {
+		ramListeners.remove(listener);
+	}
+
+	/**
+	 * Returns the stub of the remote Invoker.
+	 *
+	 * @return The wrapped stub.
+	 */
+	public InvokerInterface getRemote() {
+		return (remote);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public String getId() {
+		return (snapshot.getId());
+	}
+
+	/**
+     * Returns the RAM in use by the remote Invoker when the state was last refreshed.
+     */
+	@Override
+	public long getUsedRam() {
+		return (snapshot.getUsedRam());
+	}
+
+	/**
+     * Returns the available RAM of the remote Invoker when the state was last refreshed, minus the RAM of the
+     * invocations sent since then.
+     */
+	@Override
+	public long getAvailableRam() {
+		return (Math.max(0, snapshot.getAvailableRam() - pendingRam.get()));
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void reserveRam(long ram) throws RemoteException {
+		remote.reserveRam(ram);
+		addPendingRam(ram);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public long getMaxRam() {
+		return (snapshot.getMaxRam());
+	}
+
+	/**
+     * Checks that the remote Invoker can be reached, with a remote call.
+     */
+	@Override
+	public void heartbeat() throws RemoteException {
+		remote.heartbeat();
+	}
+
+	/**
+     * Returns the state of the remote Invoker when it was last refreshed.
+     */
+	@Override
+	public InvokerSnapshot getSnapshot() {
+		return (snapshot);
+	}
+
+	/**
+     * Selects this RemoteInvoker without any remote call if the remote Invoker is not a composite.
+     * Otherwise the remote CompositeInvoker selects one of its children.
+     */
+	@Override
+	public InvokerInterface selectInvoker(long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException {
+		if (snapshot.isComposite())
+			return (remote.selectInvoker(ram));
+		if (snapshot.getMaxRam() < ram) throw new NoInvokerAvailable("Not enough ram to assign this invoker.");
+		return (this);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void deployAction(String id, Invokable<?, ?> invokable) throws OperationNotValid, RemoteException {
+		remote.deployAction(id, invokable);
+	}
+
+	/**
+	 * Wraps every argument of a batch with the codec.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> List<T> encodeAll(List<T> args) {
+		List<T> encoded;
+
+		if (codec == null)
+			return (args);
+		encoded = new ArrayList<T>(args.size());
+		for (T element : args)
+			encoded.add((T) EncodedValue.wrap(codec, element));
+		return (encoded);
+	}
+
+	/**
+	 * Makes the cancellation of the decoded future of an asynchronous invocation reach the future of the remote
+	 * Invoker, so the invocation is cancelled in it.
+	 */
+	private static <T, R> CompletableFuture<R> cancelling(CompletableFuture<T> remoteFuture, CompletableFuture<R> decoded) {
+		decoded.whenComplete((result, failure) -> {
+			if (decoded.isCancelled())
+				remoteFuture.cancel(false);
+		});
+		return (decoded);
+	}
+
+	/**
+	 * Retrieves the values of the results of a batch sent with the codec.
+	 */
+	@SuppressWarnings("unchecked")
+	private <R> List<R> decodeAll(List<R> results) {
+		List<R> decoded;
+
+		if (codec == null)
+			return (results);
+		decoded = new ArrayList<R>(results.size());
+		for (R result : results)
+			decoded.add((R) EncodedValue.unwrap(result));
+		return (decoded);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception {
+		addPendingRam(invokable.getRam());
+		try {
+			return ((R) EncodedValue.unwrap(remote.invoke(invokable, (T) EncodedValue.wrap(codec, args), id)));
+		}
+		finally {
+			addPendingRam(-invokable.getRam());
+		}
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
+		CompletableFuture<R> future;
+
+		addPendingRam(invokable.getRam());
+		try {
+			future = remote.invokeAsync(invokable, (T) EncodedValue.wrap(codec, args), id);
+		}
+		catch (Exception e) {
+			addPendingRam(-invokable.getRam());
+			throw e;
+		}
+		future.whenComplete((result, failure) -> addPendingRam(-invokable.getRam()));
+		if (codec == null)
+			return (future);
+		return (cancelling(future, future.thenApply(result -> (R) EncodedValue.unwrap(result))));
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public <T, R> List<R> invokeBatch(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		long ram = invokable.getRam() * args.size();
+
+		addPendingRam(ram);
+		try {
+			return (decodeAll(remote.invokeBatch(invokable, encodeAll(args), id)));
+		}
+		finally {
+			addPendingRam(-ram);
+		}
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		long ram = invokable.getRam() * args.size();
+		CompletableFuture<List<R>> future;
+
+		addPendingRam(ram);
+		try {
+			future = remote.invokeBatchAsync(invokable, encodeAll(args), id);
+		}
+		catch (Exception e) {
+			addPendingRam(-ram);
+			throw e;
+		}
+		future.whenComplete((results, failure) -> addPendingRam(-ram));
+		if (codec == null)
+			return (future);
+		return (cancelling(future, future.thenApply(this::decodeAll)));
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid, RemoteException {
+		remote.setAdmissionPolicy(capacity, overflowPolicy);
+	}
+
+	/**
+     * Returns the number of invocations waiting for RAM in the remote Invoker when the state was last refreshed.
+     */
+	@Override
+	public int getQueueDepth() {
+		return (snapshot.getQueueDepth());
+	}
+
+	/**
+     * Stops refreshing the state and shuts down the remote Invoker.
+     */
+	@Override
+	public void shutdownInvoker() throws RemoteException {
+		if (refreshTask != null)
+			refreshTask.cancel(false);
+		remote.shutdownInvoker();
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void setPolicyManager(PolicyManager policyManager) throws RemoteException {
+		remote.setPolicyManager(policyManager);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void setDistributionPolicyManager(int size, long ram) throws NoInvokerAvailable, RemoteException {
+		remote.setDistributionPolicyManager(size, ram);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void registerInvoker(InvokerInterface invoker) throws OperationNotValid, RemoteException {
+		remote.registerInvoker(invoker);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void deleteInvoker(InvokerInterface invoker) throws OperationNotValid, RemoteException {
+		remote.deleteInvoker(invoker);
+	}
+
+}
@@ -1,13 +1,21 @@
 package rmi;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import core.application.Controller;
+import core.codec.Codec;
+import core.invoker.CompositeInvoker;
+import core.invoker.Invoker;
 import core.invoker.InvokerInterface;
 
 /**
@@ -18,120 +26,256 @@ public class ServerHandler {
 
 	public static int portStart = 1099;
 
-	private static int createInvokerServers(InvokerInterface composite, InvocationSet parentInvocator, Integer currentPort)
+	/**
+	 * Milliseconds between refreshes of the state of the invokers registered to the Controller. When it is
+	 * greater than 0 they are registered wrapped in a {@link RemoteInvoker}, so the PolicyManager selects them
+	 * without remote calls. When it is 0 the stubs are registered directly.
+	 */
+	public static long refreshInterval = 0;
+
+	/**
+	 * Codec of the arguments and results sent to the invokers registered to the Controller, or null to use the
+	 * Java serialization. The codec is applied by the {@link RemoteInvoker} wrapping the stubs, so it requires
+	 * {@link #refreshInterval} to be greater than 0 and the servers are not started otherwise.
+	 */
+	public static Codec codec = null;
+
+	/**
+	 * Transport used to reach the invokers started. With {@link Transport#NIO} every invoker is hosted by a
+	 * {@link NioInvokerServer} and reached through a single connection instead of an RMI registry.
+	 */
+	public static Transport transport = Transport.RMI;
+
+	/** Threads of every invoker started. */
+	private static final int THREADS = 4;
+
+	/**
+	 * Processes where the invokers are started. With {@link Isolation#NONE} they share the JVM of the Controller,
+	 * otherwise they are started by an {@link InvokerProcess} with the options in {@link InvokerProcess#jvmOptions}.
+	 */
+	public static Isolation isolation = Isolation.NONE;
+
+	/**
+	 * Threads starting the servers of a topology concurrently. With 1 the servers are started one after another.
+	 */
+	public static int startupThreads = 16;
+
+	private static InvokerInterface wrapStub(InvokerInterface stub) throws RemoteException
+	{
+		if (refreshInterval > 0)
+			return (new RemoteInvoker(stub, refreshInterval, codec));
+		return (stub);
+	}
+
+	/**
+	 * Creates the Invoker hosted by a server. Invokers are numbered as they are created, so they are created
+	 * in the order of the InvocationSet before their servers are started concurrently.
+	 */
+	private static Invoker createInvoker(Long ram, boolean isComposite)
+	{
+		if (isComposite)
+			return (CompositeInvoker.createInvoker(ram, THREADS));
+		return (Invoker.createInvoker(ram, THREADS));
+	}
+
+	/**
+	 * Retrieves the stub, or proxy, of the server started on a port of this host with the configured transport.
+	 *
+	 * @param port The port of the server.
+	 * @return The stub, or proxy, of the Invoker hosted.
+	 * @throws Exception If the server cannot be reached.
+	 */
+	static InvokerInterface connect(int port) throws Exception
 	{
 		Registry registry;
-		InvokerInterface stub;
-		String[] argsInvoker = new String[3];
 
-		//first create servers with invokers and then add them to the controller
-		for (Long ram : parentInvocator.getInvokers()) {
-			argsInvoker[0] = ((Integer)currentPort).toString();
-			argsInvoker[1] = ram.toString();
-			argsInvoker[2] = "0";
-			ServerInvoker.main(argsInvoker);
+		if (transport == Transport.NIO)
+			return (NioInvokerClient.connect("localhost", port));
+		registry = LocateRegistry.getRegistry("localhost", port);
+		return ((InvokerInterface) registry.lookup("Invoker"));
+	}
+
+	/**
+	 * Starts a server hosting an Invoker with the configured transport.
+	 *
+	 * @param port    The port of the server.
+	 * @param invoker The Invoker, or CompositeInvoker, to host.
+	 * @return The stub, or proxy, of the Invoker started.
+	 * @throws Exception If the server cannot be started or reached.
+	 */
+	private static InvokerInterface startServer(int port, Invoker invoker) throws Exception
+	{
+		if (transport == Transport.NIO)
+			NioInvokerServer.start(port, invoker);
+		else
+			ServerInvoker.bind(port, invoker);
+		return (connect(port));
+	}
 
+	/**
+	 * Runs the start of a server on one of the startup threads. A server that cannot be started is reported and
+	 * completes the future with null, so the rest of the topology is still brought up.
+	 */
+	private static CompletableFuture<InvokerInterface> supplyStub(Callable<InvokerInterface> start, Executor executor)
+	{
+		return (CompletableFuture.supplyAsync(() -> {
 			try {
-				registry = LocateRegistry.getRegistry("localhost", currentPort);
-				stub = (InvokerInterface) registry.lookup("Invoker");
-				composite.registerInvoker(stub);
+				return (start.call());
 			}
 			catch (Exception e) {
 				System.err.println("Excepción del cliente: " + e.toString());
 				e.printStackTrace();
+				return (null);
 			}
-			currentPort++;
-		}
+		}, executor));
+	}
 
-		if (parentInvocator.getComposites() == null)
-			return (currentPort);
+	/**
+	 * Starts a process hosting the servers of the invokers and composites of an InvocationSet. Their ids are
+	 * reserved here, before the process is started, so they follow the order of the topology.
+	 */
+	private static CompletableFuture<InvokerInterface> startProcessAsync(InvocationSet hosted, int port, Executor executor)
+	{
+		long firstId = Invoker.reserveIds(hosted.countServers());
 
-		for (InvocationSet currentComposite : parentInvocator.getComposites())
-		{
-			argsInvoker[0] = ((Integer)currentPort).toString();
-			argsInvoker[1] =  currentComposite.getRam().toString();
-			argsInvoker[2] = "1";
-			ServerInvoker.main(argsInvoker);
+		return (supplyStub(() -> InvokerProcess.start(hosted, port, firstId), executor));
+	}
+
+	/**
+	 * Starts a server in this process, or in a process of its own when the invokers are isolated.
+	 */
+	private static CompletableFuture<InvokerInterface> startServerAsync(int port, Long ram, boolean isComposite, Executor executor)
+	{
+		Invoker invoker;
+
+		if (isolation != Isolation.NONE) {
+			if (isComposite)
+				return (startProcessAsync(new InvocationSet(null, Arrays.asList(new InvocationSet(null, null, ram)), null), port, executor));
+			return (startProcessAsync(new InvocationSet(Arrays.asList(ram), null, null), port, executor));
+		}
+		invoker = createInvoker(ram, isComposite);
+		return (supplyStub(() -> startServer(port, invoker), executor));
+	}
+
+	/**
+	 * Registers the children started into their composite, in the order of the InvocationSet.
+	 */
+	private static InvokerInterface registerChildren(InvokerInterface composite, List<CompletableFuture<InvokerInterface>> children)
+	{
+		if (composite == null)
+			return (null);
+		for (CompletableFuture<InvokerInterface> child : children) {
+			InvokerInterface stub = child.join();
 
+			if (stub == null)
+				continue ;
 			try {
-				//I create the server of InvokerComposite and add it to the controller
-				registry = LocateRegistry.getRegistry("localhost", currentPort);
-				stub = (InvokerInterface) registry.lookup("Invoker");
 				composite.registerInvoker(stub);
-				currentPort++;
-				currentPort = createInvokerServers(stub, currentComposite, currentPort);
 			}
 			catch (Exception e) {
 				System.err.println("Excepción del cliente: " + e.toString());
 				e.printStackTrace();
 			}
 		}
-
-		return (currentPort);
+		return (composite);
 	}
 
-	public static void main(String[] args) {
+	/**
+	 * Starts the servers of the invokers and composites of an InvocationSet, and of every InvocationSet under
+	 * it, without waiting for any of them. The ports are given in the same order as if the servers were started
+	 * one after another. The future of each composite completes once its children are started and registered
+	 * into it, so the whole subtree is up when it completes.
+	 *
+	 * @param parentInvocator The InvocationSet to start.
+	 * @param nextPort        The port of the next server started, incremented for each one.
+	 * @param executor        The executor starting the servers.
+	 * @return The futures of the invokers and composites of the InvocationSet, in its order.
+	 */
+	private static List<CompletableFuture<InvokerInterface>> createInvokerServers(InvocationSet parentInvocator, int[] nextPort, Executor executor)
+	{
+		List<CompletableFuture<InvokerInterface>> stubs = new ArrayList<CompletableFuture<InvokerInterface>>();
 
-		System.out.println("ServerHandler working.");
-		//here we get the serialized InvocationSet in ServerMasterInvoker and deserialize it
-		InvocationSet controllerSet = null;
+		if (parentInvocator.getInvokers() != null) {
+			for (Long ram : parentInvocator.getInvokers())
+				stubs.add(startServerAsync(nextPort[0]++, ram, false, executor));
+		}
+
+		if (parentInvocator.getComposites() == null)
+			return (stubs);
 
-		try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(args[0]))))
+		for (InvocationSet currentComposite : parentInvocator.getComposites())
 		{
-			controllerSet = (InvocationSet) inputStream.readObject();
-			System.out.println("Object deserialized successfully.");
+			if (isolation == Isolation.GROUP) {
+				//the whole tree of the composite is started and wired in the same process
+				stubs.add(startProcessAsync(new InvocationSet(null, Arrays.asList(currentComposite), null), nextPort[0], executor));
+				nextPort[0] += 1 + currentComposite.countServers();
+				continue ;
+			}
+
+			CompletableFuture<InvokerInterface> composite = startServerAsync(nextPort[0]++, currentComposite.getRam(), true, executor);
+			List<CompletableFuture<InvokerInterface>> children = createInvokerServers(currentComposite, nextPort, executor);
+			List<CompletableFuture<InvokerInterface>> pending = new ArrayList<CompletableFuture<InvokerInterface>>(children);
+
+			pending.add(composite);
+			stubs.add(CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+				.thenApply(ignored -> registerChildren(composite.join(), children)));
 		}
-		catch (IOException | ClassNotFoundException e) {
-			e.printStackTrace();
+
+		return (stubs);
+	}
+
+	/**
+	 * Starts the servers of the invokers and composites of an InvocationSet, and of every InvocationSet under it.
+	 * The servers are started concurrently by {@link #startupThreads} threads, and the method returns once every
+	 * server is started and every composite is wired.
+	 *
+	 * @param invocationSet The InvocationSet to start.
+	 * @param port          The port of the first server, the next ones are given the following ports.
+	 * @return The stubs of the invokers and composites of the InvocationSet, in its order, with null for the
+	 *         ones that could not be started.
+	 */
+	static List<InvokerInterface> startServers(InvocationSet invocationSet, int port)
+	{
+		List<InvokerInterface>	stubs = new ArrayList<InvokerInterface>();
+		ExecutorService			executor = Executors.newFixedThreadPool(startupThreads);
+
+		try {
+			for (CompletableFuture<InvokerInterface> future : createInvokerServers(invocationSet, new int[] { port }, executor))
+				stubs.add(future.join());
+		}
+		finally {
+			executor.shutdown();
 		}
+		return (stubs);
+	}
+
+	/**
+	 * Starts the servers described by a serialized InvocationSet and registers them to the Controller. The
+	 * servers are started concurrently by {@link #startupThreads} threads, in the processes given by
+	 * {@link #isolation}, and the method returns once every server is started and registered.
+	 *
+	 * @param args The InvocationSet of the Controller serialized with {@link InvocationSet#serializeToString(Object)}.
+	 */
+	public static void main(String[] args) {
+
+		System.out.println("ServerHandler working.");
+		if (codec != null && refreshInterval <= 0)
+			throw new IllegalStateException("A codec requires a refresh interval greater than 0.");
+		//here we get the serialized InvocationSet in ServerMasterInvoker and deserialize it
+		InvocationSet controllerSet = InvocationSet.deserializeFromString(args[0]);
 
 		if (controllerSet == null)
 			return ;
-		
-		int currentPort = portStart;
-		String[] argsInvoker = new String[3];
-		Registry registry;
-		InvokerInterface stub;
-		Controller controller = Controller.instantiate();
-		
-		//here I add all invokers to controller
-		if (controllerSet.getInvokers() != null) {
-			for (Long ram : controllerSet.getInvokers()) {
-				argsInvoker[0] = ((Integer)currentPort).toString();
-				argsInvoker[1] = ram.toString();
-				argsInvoker[2] = "0";
-				ServerInvoker.main(argsInvoker);
-	
-				try {
-					registry = LocateRegistry.getRegistry("localhost", currentPort);
-					stub = (InvokerInterface) registry.lookup("Invoker");
-					controller.registerInvoker(stub);
-				}
-				catch (Exception e) {
-					System.err.println("Excepción del cliente: " + e.toString());
-					e.printStackTrace();
-				}
-				currentPort++;
-			}
-		}
+		System.out.println("Object deserialized successfully.");
 
-		//and here for each composite I create all the servers needed.
-		if (controllerSet.getComposites() == null)
-			return ;
-		for (InvocationSet currentComposite : controllerSet.getComposites())
-		{
-			argsInvoker[0] = ((Integer)currentPort).toString();
-			argsInvoker[1] =  currentComposite.getRam().toString();
-			argsInvoker[2] = "1";
-			ServerInvoker.main(argsInvoker);
+		Controller controller = Controller.instantiate();
 
+		//all the servers are started here, and every composite is wired once its children are up
+		for (InvokerInterface stub : startServers(controllerSet, portStart)) {
+			if (stub == null)
+				continue ;
 			try {
-				//I create the server of InvokerComposite and add it to the controller
-				registry = LocateRegistry.getRegistry("localhost", currentPort);
-				stub = (InvokerInterface) registry.lookup("Invoker");
-				controller.registerInvoker(stub);
-				currentPort++;
-				currentPort = createInvokerServers(stub, currentComposite, currentPort);
+				controller.registerInvoker(wrapStub(stub));
 			}
 			catch (Exception e) {
 				System.err.println("Excepción del cliente: " + e.toString());
@@ -139,6 +283,6 @@ public class ServerHandler {
 			}
 		}
 
-		//here in theory all invokers are registered
+		//here all invokers are registered
 	}
 }
@@ -4,7 +4,14 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
-import java.util.concurrent.Future;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
 import core.application.Invokable;
 import core.exceptions.NoInvokerAvailable;
@@ -13,6 +20,8 @@ import core.exceptions.OperationNotValid;
 import core.invoker.CompositeInvoker;
 import core.invoker.Invoker;
 import core.invoker.InvokerInterface;
+import core.invoker.InvokerSnapshot;
+import core.invoker.OverflowPolicy;
 import policymanager.PolicyManager;
 
 /**
@@ -20,11 +29,49 @@ import policymanager.PolicyManager;
  * executing functions and managing available resources.
  * <p>
  * This class extends the {@link UnicastRemoteObject} and implements the {@link core.invoker.InvokerInterface} for RMI communication.
+ * <p>
+ * The futures of the asynchronous invocations are sent to the caller as correlation ids. The caller subscribes
+ * to each result with its {@link InvocationCallback}, and the result is sent to it when the invocation finishes,
+ * so the caller only waits for the invocation to be accepted.
+ *
+ * @see CompletionSource
  */
-public class ServerInvoker extends UnicastRemoteObject implements InvokerInterface {
+public class ServerInvoker extends UnicastRemoteObject implements InvokerInterface, CompletionSource {
+
+	/** Threads sending the results of the asynchronous invocations to the callbacks of the callers. */
+	private static final ExecutorService notifier = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "server-invoker-callback");
+		thread.setDaemon(true);
+		return (thread);
+	});
 
 	private	Invoker	invoker;
 
+	/** Milliseconds a result waits for its caller to subscribe to it before it is cancelled. */
+	static final long SUBSCRIPTION_TIMEOUT = 60_000;
+
+	/** The result of an asynchronous invocation waiting for its caller to subscribe to it. */
+	private static final class Parked {
+		private final CompletableFuture<?>	result;
+		private final long					parkedAt;
+
+		private Parked(CompletableFuture<?> result, long parkedAt) {
+			this.result = result;
+			this.parkedAt = parkedAt;
+		}
+	}
+
+	/** The results of the asynchronous invocations sent to callers that did not subscribe to them yet. */
+	private final Map<Long, Parked> unsubscribed = new ConcurrentHashMap<Long, Parked>();
+
+	/** The time of the next sweep of the results nobody subscribed to, in milliseconds. */
+	private final AtomicLong nextSweep = new AtomicLong(0);
+
+	/** The results of the asynchronous invocations subscribed to that did not finish yet, so they can be cancelled. */
+	private final Map<Long, CompletableFuture<?>> subscribed = new ConcurrentHashMap<Long, CompletableFuture<?>>();
+
+	private final AtomicLong correlationIds = new AtomicLong(0);
+
 	/**
      * Constructs a ServerInvoker instance based on the specified parameters.
      * 
@@ -40,6 +87,34 @@ public class ServerInvoker extends UnicastRemoteObject implements InvokerInterfa
 			invoker = Invoker.createInvoker(ram, threads);
 	}
 
+	/**
+     * Constructs a ServerInvoker hosting an Invoker already created.
+     * 
+     * @param invoker The Invoker, or CompositeInvoker, to host.
+     * @throws RemoteException If a communication-related exception occurs.
+     */
+	protected ServerInvoker(Invoker invoker) throws RemoteException {
+		super();
+		this.invoker = invoker;
+	}
+
+	/**
+     * Hosts an Invoker already created in a new ServerInvoker and binds it to a new RMI registry.
+     * 
+     * @param port    The port of the registry.
+     * @param invoker The Invoker, or CompositeInvoker, to host.
+     * @return The ServerInvoker bound.
+     * @throws RemoteException If the ServerInvoker cannot be exported or bound.
+     */
+	public static ServerInvoker bind(int port, Invoker invoker) throws RemoteException {
+		ServerInvoker server = new ServerInvoker(invoker);
+		Registry registry = LocateRegistry.createRegistry(port);
+
+		registry.rebind("Invoker", server);
+		System.out.println("Invoker with id " + server.getId() + " created and ready.");
+		return (server);
+	}
+
 	/**
      * Main method to create and bind a ServerInvoker instance to an RMI registry.
      * 
@@ -105,6 +180,14 @@ public class ServerInvoker extends UnicastRemoteObject implements InvokerInterfa
 
 	/**
      * {@inheritDoc}
+     */
+	@Override
+	public void deployAction(String id, Invokable<?, ?> invokable) throws OperationNotValid, RemoteException {
+		invoker.deployAction(id, invokable);
+	}
+
+	/**
+     * {@inheritDoc}
      */
 	@Override
 	public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception {
@@ -115,16 +198,148 @@ public class ServerInvoker extends UnicastRemoteObject implements InvokerInterfa
      * {@inheritDoc}
      */
 	@Override
-	public <T, R> Future<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
-		return (invoker.invokeAsync(invokable, args, id));
+	public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
+		return (new RemoteFuture<R>(this, invoker.invokeAsync(invokable, args, id)));
+	}
+
+	/**
+	 * Keeps the result of an asynchronous invocation until the caller subscribes to it.
+	 *
+	 * @param result The future of the invocation in the hosted Invoker.
+	 * @return The correlation id of the invocation.
+	 */
+	long park(CompletableFuture<?> result) {
+		long correlationId = correlationIds.incrementAndGet();
+		long now = System.nanoTime() / 1_000_000;
+
+		sweep(now);
+		unsubscribed.put(correlationId, new Parked(result, now));
+		return (correlationId);
+	}
+
+	/*
+	 * A caller that dies, or cannot read the future, never subscribes to its result. Those results are cancelled
+	 * once they wait longer than the timeout, so they release their RAM instead of being kept forever. The sweep
+	 * is done by the next invocation parked, once per timeout at most.
+	 */
+	private void sweep(long now) {
+		long next = nextSweep.get();
+
+		if (now < next || !nextSweep.compareAndSet(next, now + SUBSCRIPTION_TIMEOUT))
+			return ;
+		for (Map.Entry<Long, Parked> entry : unsubscribed.entrySet()) {
+			if (now - entry.getValue().parkedAt > SUBSCRIPTION_TIMEOUT && unsubscribed.remove(entry.getKey(), entry.getValue()))
+				entry.getValue().result.cancel(false);
+		}
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void subscribe(long correlationId, InvocationCallback callback, long callbackId) throws RemoteException {
+		Parked parked = unsubscribed.get(correlationId);
+		CompletableFuture<?> result;
+
+		if (parked == null) throw new RemoteException("No invocation with correlation id " + correlationId + " waiting for a subscription.");
+		result = parked.result;
+		// it is known as subscribed before it stops being known as unsubscribed, so it is always pending
+		subscribed.put(correlationId, result);
+		if (!unsubscribed.remove(correlationId, parked)) {
+			subscribed.remove(correlationId);
+			throw new RemoteException("No invocation with correlation id " + correlationId + " waiting for a subscription.");
+		}
+		result.whenCompleteAsync((value, failure) -> {
+			try {
+				callback.complete(callbackId, value, failure);
+			}
+			catch (RemoteException e) {
+				Logger.getLogger(ServerInvoker.class.getName()).warning("RemoteException: Result couldn't be sent to " + callback.toString());
+			}
+			// it stops being pending once the callback received the result, or it could not be sent
+			subscribed.remove(correlationId);
+		}, notifier);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void cancel(long correlationId) throws RemoteException {
+		CompletableFuture<?> result = subscribed.get(correlationId);
+		Parked parked;
+
+		if (result == null && (parked = unsubscribed.remove(correlationId)) != null)
+			result = parked.result;
+		if (result != null)
+			result.cancel(false);
 	}
 
 	/**
      * {@inheritDoc}
+     */
+	@Override
+	public boolean[] pending(long[] correlationIds) throws RemoteException {
+		boolean[] pending = new boolean[correlationIds.length];
+
+		for (int i = 0; i < correlationIds.length; i++)
+			// unsubscribed first, as a subscription adds the invocation to subscribed before removing it from there
+			pending[i] = unsubscribed.containsKey(correlationIds[i]) || subscribed.containsKey(correlationIds[i]);
+		return (pending);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public <T, R> List<R> invokeBatch(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		return (invoker.invokeBatch(invokable, args, id));
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		return (new RemoteFuture<List<R>>(this, invoker.invokeBatchAsync(invokable, args, id)));
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public void setAdmissionPolicy(int capacity, OverflowPolicy overflowPolicy) throws OperationNotValid, RemoteException {
+		invoker.setAdmissionPolicy(capacity, overflowPolicy);
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public int getQueueDepth() throws RemoteException {
+		return (invoker.getQueueDepth());
+	}
+
+	/**
+     * {@inheritDoc}
+     */
+	@Override
+	public InvokerSnapshot getSnapshot() throws RemoteException {
+		return (invoker.getSnapshot());
+	}
+
+	/**
+     * Selects the Invoker to execute a function. When the hosted Invoker selects itself, the ServerInvoker is
+     * returned instead, so the caller receives a remote reference and the function is executed in this server
+     * rather than in a serialized copy of the Invoker.
      */
 	@Override
 	public InvokerInterface selectInvoker(long ram) throws NoPolicyManagerRegistered, NoInvokerAvailable, RemoteException {
-		return (invoker.selectInvoker(ram));
+		InvokerInterface selected = invoker.selectInvoker(ram);
+
+		if (selected == invoker)
+			return (this);
+		return (selected);
 	}
 
 	/**
@@ -0,0 +1,16 @@
+package rmi;
+
+/**
+ * The transports used to reach the invokers started by the {@link ServerHandler}.
+ */
+public enum Transport {
+
+	/** Every invoker is a {@link ServerInvoker} exported with RMI and looked up in its own registry. */
+	RMI,
+
+	/**
+	 * Every invoker is hosted by a {@link NioInvokerServer} and reached through a single non-blocking connection
+	 * that carries many requests at the same time.
+	 */
+	NIO
+}
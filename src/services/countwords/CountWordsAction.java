@@ -2,34 +2,40 @@ package services.countwords;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 
 import core.application.Action;
 import core.dynamicproxy.DynamicProxy;
 
+@SuppressWarnings({"unchecked"})
 public class CountWordsAction implements Action<String, Object> {
 
 	//This returns a Long
 	@Override
 	public Object apply(String arg) {
 		try {
-			List<Long> result = new LinkedList<>();
-
 			CountWordsProxy countWordsProxy = (CountWordsProxy)DynamicProxy.getActionProxy("CountWordsService", false);
 
-			Object text = countWordsProxy.mapFile(arg);
-
-			List<String> finalText = ((Future<List<String>>)text).get();
-			List<Object> wordCount = new LinkedList<>();
-
-			for (String string : finalText) {
-				wordCount.add(countWordsProxy.countWords(string));
-			}
-			for (Object future : wordCount) {
-				result.add(((Future<Long>)future).get());
-			}
-			Object words = countWordsProxy.countWordsReduce(result);
-			return ((Future<Long>)words).get();
+			CompletableFuture<List<String>> text = (CompletableFuture<List<String>>)countWordsProxy.mapFile(arg);
+
+			//map every line and reduce when all of them are counted, without waiting between steps
+			CompletableFuture<Long> words = text.thenCompose(finalText -> {
+				List<CompletableFuture<Long>> wordCount = new LinkedList<>();
+
+				for (String string : finalText) {
+					wordCount.add((CompletableFuture<Long>)countWordsProxy.countWords(string));
+				}
+				return CompletableFuture.allOf(wordCount.toArray(new CompletableFuture<?>[0]))
+					.thenCompose(done -> {
+						List<Long> result = new LinkedList<>();
+
+						for (CompletableFuture<Long> future : wordCount) {
+							result.add(future.join());
+						}
+						return (CompletableFuture<Long>)countWordsProxy.countWordsReduce(result);
+					});
+			});
+			return words.get();
 		}
 		catch (Exception e) {
 			return null;
@@ -2,7 +2,7 @@ package services.countwords;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import core.application.Controller;
@@ -32,23 +32,28 @@ public class CountWordsMain {
 		catch (Exception e) {
 			e.printStackTrace();
 		}
-		List<Long> result = new LinkedList<>();
-
 		try {
 			CountWordsProxy countWordsProxy = (CountWordsProxy)DynamicProxy.getActionProxy("CountWordsService", false);
-			Object text = countWordsProxy.mapFile("src\\services\\countwords\\test.txt");
+			CompletableFuture<List<String>> text = (CompletableFuture<List<String>>)countWordsProxy.mapFile("src\\services\\countwords\\test.txt");
 
-			List<String> finalText = ((Future<List<String>>)text).get();
-			List<Object> wordCount = new LinkedList<>();
+			//each step is chained to the previous one, so no thread waits between the map and the reduce
+			CompletableFuture<Long> words = text.thenCompose(finalText -> {
+				List<CompletableFuture<Long>> wordCount = new LinkedList<>();
 
-			for (String string : finalText) {
-				wordCount.add(countWordsProxy.countWords(string));
-			}
-			for (Object future : wordCount) {
-				result.add(((Future<Long>)future).get());
-			}
-			Object words = countWordsProxy.countWordsReduce(result);
-			Long	finalResult = ((Future<Long>)words).get();
+				for (String string : finalText) {
+					wordCount.add((CompletableFuture<Long>)countWordsProxy.countWords(string));
+				}
+				return CompletableFuture.allOf(wordCount.toArray(new CompletableFuture<?>[0]))
+					.thenCompose(done -> {
+						List<Long> result = new LinkedList<>();
+
+						for (CompletableFuture<Long> future : wordCount) {
+							result.add(future.join());
+						}
+						return (CompletableFuture<Long>)countWordsProxy.countWordsReduce(result);
+					});
+			});
+			Long	finalResult = words.get();
 			System.out.println("Number of words is: " + finalResult);
 			controller.shutdownAllInvokers();
 		}
@@ -1,6 +1,8 @@
 package services.countwords;
 
-import java.util.concurrent.Future;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import core.application.Action;
@@ -43,16 +45,16 @@ public class UltimateCountWordsMain {
 		}
 
 		try {
-			Future<Long> result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
-			System.out.println(result.get());
-			result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
-			System.out.println(result.get());
-			result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
-			System.out.println(result.get());
-			result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
-			System.out.println(result.get());
-			result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
-			System.out.println(result.get());
+			//all the invocations are launched at once and printed as they complete
+			List<CompletableFuture<Long>> results = new LinkedList<>();
+			for (int i = 0; i < 5; i++) {
+				CompletableFuture<Long> result = controller.invoke_async("ultimateCountWords", "src\\services\\countwords\\test.txt");
+				results.add(result.thenApply(words -> {
+					System.out.println(words);
+					return words;
+				}));
+			}
+			CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
 			controller.shutdownAllInvokers();
 			System.out.println("Total   time: " + timerObserver.calculateAllTime("ultimateCountWords") + "ns.");
 			System.out.println("Minimum time: " + timerObserver.calculateMinTime("ultimateCountWords") + "ns.");
@@ -0,0 +1,72 @@
+package testing;
+
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import core.application.Invokable;
+import core.invoker.Invoker;
+
+/**
+ * An Invoker that can be made unreachable, failing its heartbeats and invocations with a ConnectException like
+ * a server that died. It counts the invocations it executes.
+ */
+public class FailingInvoker extends Invoker {
+
+	private volatile boolean		down;
+	private final AtomicInteger		invocations;
+
+	public FailingInvoker(long ram) {
+		super(ram, 1);
+		down = false;
+		invocations = new AtomicInteger(0);
+	}
+
+	public void setDown(boolean down) {
+		this.down = down;
+	}
+
+	public int getInvocations() {
+		return (invocations.get());
+	}
+
+	private void check() throws RemoteException {
+		if (down) throw new ConnectException("Invoker " + getId() + " is down.");
+	}
+
+	@Override
+	public void heartbeat() throws RemoteException {
+		check();
+	}
+
+	@Override
+	public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception {
+		check();
+		invocations.incrementAndGet();
+		return (super.invoke(invokable, args, id));
+	}
+
+	@Override
+	public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
+		check();
+		invocations.incrementAndGet();
+		return (super.invokeAsync(invokable, args, id));
+	}
+
+	@Override
+	public <T, R> List<R> invokeBatch(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		check();
+		invocations.addAndGet(args.size());
+		return (super.invokeBatch(invokable, args, id));
+	}
+
+	@Override
+	public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+		check();
+		invocations.addAndGet(args.size());
+		return (super.invokeBatchAsync(invokable, args, id));
+	}
+
+}
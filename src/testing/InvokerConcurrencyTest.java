@@ -0,0 +1,104 @@
+package testing;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import core.application.Invokable;
+import core.invoker.Invoker;
+
+/**
+ * Stress test of the RAM accounting of an Invoker. Many threads invoke functions synchronously and
+ * asynchronously while others keep reading the available RAM, and once everything finishes the
+ * counters must be back to zero.
+ */
+public class InvokerConcurrencyTest {
+
+	private static final int	THREADS = 8;
+	private static final int	INVOCATIONS = 500;
+	private static final long	MAX_RAM = 10;
+
+	@Test
+	public void	ramCountersReturnToZero() throws Exception
+	{
+		Invoker								invoker = Invoker.createInvoker(MAX_RAM, 4);
+		Function<Integer, Integer>			increment = x -> x + 1;
+		Invokable<Integer, Integer>			invokable = new Invokable<>(increment, 3);
+		ConcurrentLinkedQueue<CompletableFuture<Integer>>	futures = new ConcurrentLinkedQueue<>();
+		ConcurrentLinkedQueue<Throwable>	errors = new ConcurrentLinkedQueue<>();
+		AtomicBoolean						running = new AtomicBoolean(true);
+		CountDownLatch						start = new CountDownLatch(1);
+		CountDownLatch						done = new CountDownLatch(THREADS);
+		List<Thread>						threads = new ArrayList<>();
+
+		for (int i = 0; i < THREADS; i++) {
+			final boolean async = i % 2 == 0;
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < INVOCATIONS; j++) {
+						if (async)
+							futures.add(invoker.invokeAsync(invokable, j, "Increment"));
+						else
+							assertEquals(Integer.valueOf(j + 1), invoker.invoke(invokable, j, "Increment"));
+					}
+				}
+				catch (Throwable e) {
+					errors.add(e);
+				}
+				finally {
+					done.countDown();
+				}
+			}));
+		}
+		Thread reader = new Thread(() -> {
+			while (running.get()) {
+				long available = invoker.getAvailableRam();
+				if (available < 0 || available > MAX_RAM)
+					errors.add(new AssertionError("Available RAM out of range: " + available));
+			}
+		});
+
+		reader.start();
+		for (Thread thread : threads)
+			thread.start();
+		start.countDown();
+		assertTrue(done.await(60, TimeUnit.SECONDS));
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(60, TimeUnit.SECONDS);
+		running.set(false);
+		reader.join();
+
+		assertTrue(errors.isEmpty());
+		assertEquals(THREADS / 2 * INVOCATIONS, futures.size());
+		assertEquals(0, invoker.getUsedRam());
+		assertEquals(MAX_RAM, invoker.getAvailableRam());
+		assertEquals(0, invoker.getQueueDepth());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	reservationsAreExact()
+	{
+		Invoker	invoker = Invoker.createInvoker(MAX_RAM, 1);
+
+		invoker.reserveRam(MAX_RAM + 5);
+		assertEquals(0, invoker.getAvailableRam());
+		invoker.reserveRam(-5);
+		assertEquals(0, invoker.getAvailableRam());
+		invoker.reserveRam(-MAX_RAM);
+		assertEquals(MAX_RAM, invoker.getAvailableRam());
+		invoker.reserveRam(-1);
+		assertEquals(MAX_RAM, invoker.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+}
@@ -2,8 +2,15 @@ package testing;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
+import core.application.Invokable;
 import core.invoker.Invoker;
 
 public class InvokerTest {
@@ -31,5 +38,46 @@ public class InvokerTest {
 		inv = Invoker.createInvoker(-1, 4);
 		assertEquals(inv, null);
 	}
-	
+
+	@Test
+	public void	virtualInvokerCreatedCorrectly()
+	{
+		Invoker	inv;
+
+		inv = Invoker.createVirtualInvoker(42);
+		assertEquals(inv.getMaxRam(), 42);
+		assertEquals(inv.getUsedRam(), 0);
+		inv.shutdownInvoker();
+
+		inv = Invoker.createVirtualInvoker(0);
+		assertEquals(inv, null);
+
+		inv = Invoker.createVirtualInvoker(-1);
+		assertEquals(inv, null);
+	}
+
+	@Test
+	public void	virtualInvokerOverlapsBlockingInvocations() throws Exception
+	{
+		int							count = Runtime.getRuntime().availableProcessors() * 4 + 4;
+		CountDownLatch				arrived = new CountDownLatch(count);
+		List<CompletableFuture<Boolean>>	results = new ArrayList<CompletableFuture<Boolean>>();
+		Invoker						inv = Invoker.createVirtualInvoker(count);
+
+		// every invocation blocks until all of them are running, which needs more threads than cores
+		Invokable<Integer, Boolean> barrier = new Invokable<Integer, Boolean>(x -> {
+			arrived.countDown();
+			try {
+				return (arrived.await(5, TimeUnit.SECONDS));
+			} catch (InterruptedException e) {
+				return (false);
+			}
+		}, 1);
+		for (int i = 0; i < count; i++)
+			results.add(inv.invokeAsync(barrier, i, "virtualBarrier"));
+		for (CompletableFuture<Boolean> result : results)
+			assertTrue(result.get(10, TimeUnit.SECONDS));
+		inv.shutdownInvoker();
+	}
+
 }
@@ -0,0 +1,177 @@
+package testing;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Vector;
+
+import org.junit.Test;
+
+import core.exceptions.InvocationRejected;
+import core.invoker.OverflowPolicy;
+import core.invoker.RamSemaphore;
+
+public class RamSemaphoreTest {
+
+	@Test
+	public void	testQueuedTasksReleasedInBulk() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(4, false);
+		List<Integer> executed = new LinkedList<>();
+
+		semaphore.acquire(4, () -> executed.add(0));
+		for (int i = 1; i <= 4; i++) {
+			int task = i;
+			semaphore.acquire(1, () -> executed.add(task));
+		}
+		assertEquals(List.of(0), executed);
+		assertEquals(4, semaphore.getQueueLength());
+
+		semaphore.release(4);
+		assertEquals(List.of(0, 1, 2, 3, 4), executed);
+		assertEquals(0, semaphore.getQueueLength());
+		assertEquals(4, semaphore.getUsedRam());
+	}
+
+	@Test
+	public void	testNonFairAdmitsSmallTasks() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(3, false);
+		List<String> executed = new LinkedList<>();
+
+		semaphore.acquire(3, () -> executed.add("first"));
+		semaphore.acquire(3, () -> executed.add("big"));
+		semaphore.acquire(1, () -> executed.add("small"));
+		semaphore.release(1);
+		assertEquals(List.of("first", "small"), executed);
+		semaphore.release(2);
+		assertEquals(List.of("first", "small"), executed);
+		semaphore.release(1);
+		assertEquals(List.of("first", "small", "big"), executed);
+	}
+
+	@Test
+	public void	testReleaseSkipsQueueWhenNothingFits() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(10, false);
+		List<String> executed = new LinkedList<>();
+
+		semaphore.acquire(10, () -> executed.add("first"));
+		for (int i = 0; i < 5; i++)
+			semaphore.acquire(4, () -> executed.add("big"));
+		semaphore.acquire(1, () -> executed.add("small"));
+		semaphore.release(1);
+		assertEquals(List.of("first", "small"), executed);
+		semaphore.release(3);
+		assertEquals(List.of("first", "small"), executed);
+		semaphore.release(1);
+		assertEquals(List.of("first", "small", "big"), executed);
+		semaphore.release(8);
+		assertEquals(List.of("first", "small", "big", "big", "big"), executed);
+		assertEquals(2, semaphore.getQueueLength());
+	}
+
+	@Test
+	public void	testFairKeepsArrivalOrder() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(3, true);
+		List<String> executed = new LinkedList<>();
+
+		semaphore.acquire(3, () -> executed.add("first"));
+		semaphore.acquire(3, () -> executed.add("big"));
+		semaphore.acquire(1, () -> executed.add("small"));
+		semaphore.release(1);
+		assertEquals(List.of("first"), executed);
+		semaphore.release(2);
+		assertEquals(List.of("first", "big"), executed);
+		semaphore.release(3);
+		assertEquals(List.of("first", "big", "small"), executed);
+	}
+
+	@Test
+	public void	testRejectWhenQueueFull() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(1, false);
+		List<String> executed = new LinkedList<>();
+
+		semaphore.setAdmissionPolicy(1, OverflowPolicy.REJECT);
+		semaphore.acquire(1, () -> executed.add("first"));
+		semaphore.acquire(1, () -> executed.add("queued"));
+		try {
+			semaphore.acquire(1, () -> executed.add("rejected"));
+			fail("The queue is full, the task should be rejected.");
+		} catch (InvocationRejected e) {
+		}
+		assertEquals(1, semaphore.getQueueLength());
+		semaphore.release(1);
+		assertEquals(List.of("first", "queued"), executed);
+		assertEquals(0, semaphore.getQueueLength());
+	}
+
+	@Test
+	public void	testShedOldestWhenQueueFull() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(1, false);
+		List<String> executed = new LinkedList<>();
+		List<String> shed = new LinkedList<>();
+
+		semaphore.setAdmissionPolicy(2, OverflowPolicy.SHED_OLDEST);
+		semaphore.acquire(1, () -> executed.add("first"));
+		for (String task : List.of("a", "b", "c"))
+			semaphore.acquire(1, () -> executed.add(task), () -> shed.add(task));
+		assertEquals(List.of("a"), shed);
+		assertEquals(2, semaphore.getQueueLength());
+		semaphore.release(1);
+		semaphore.release(1);
+		assertEquals(List.of("first", "b", "c"), executed);
+	}
+
+	@Test
+	public void	testBlockUntilQueueHasRoom() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(1, false);
+		List<String> executed = new Vector<>();
+
+		semaphore.setAdmissionPolicy(1, OverflowPolicy.BLOCK);
+		semaphore.acquire(1, () -> executed.add("first"));
+		semaphore.acquire(1, () -> executed.add("queued"));
+		Thread blocked = new Thread(() -> {
+			try {
+				semaphore.acquire(1, () -> executed.add("blocked"));
+			} catch (Exception e) {
+			}
+		});
+		blocked.start();
+		Thread.sleep(200);
+		assertTrue(blocked.isAlive());
+		semaphore.release(1);
+		blocked.join(2000);
+		assertFalse(blocked.isAlive());
+		assertEquals(List.of("first", "queued"), executed);
+		semaphore.release(1);
+		assertEquals(List.of("first", "queued", "blocked"), executed);
+	}
+
+	@Test
+	public void	testCancelQueuedTask() throws Exception
+	{
+		RamSemaphore semaphore = new RamSemaphore(3, true);
+		List<String> executed = new LinkedList<>();
+		Runnable big = () -> executed.add("big");
+
+		semaphore.acquire(3, () -> executed.add("first"));
+		semaphore.acquire(3, big);
+		semaphore.acquire(1, () -> executed.add("small"));
+		semaphore.release(1);
+		assertEquals(List.of("first"), executed);
+
+		// the small task was only waiting behind the big one
+		assertTrue(semaphore.cancel(big));
+		assertFalse(semaphore.cancel(big));
+		assertEquals(List.of("first", "small"), executed);
+		assertEquals(0, semaphore.getQueueLength());
+		assertEquals(3, semaphore.getUsedRam());
+	}
+
+}
@@ -0,0 +1,144 @@
+package testing.codec;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import core.application.Invokable;
+import core.codec.Codec;
+import core.codec.CompactCodec;
+import core.codec.EncodedValue;
+import core.codec.JavaSerializationCodec;
+import core.invoker.Invoker;
+import rmi.RemoteInvoker;
+import rmi.SerializedFunction;
+
+/**
+ * Checks that the values encoded by the codecs are decoded back to equal values, and that the arguments
+ * and results of invocations sent through a RemoteInvoker with a codec reach the function unchanged.
+ */
+public class CompactCodecTest {
+
+	private static Object serializeAndRead(Object object) throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (input.readObject());
+		}
+	}
+
+	@Test
+	public void	testRoundTrip() throws Exception
+	{
+		Map<String, Long> words = new HashMap<String, Long>();
+		Map<Object, Object> mixed = new HashMap<Object, Object>();
+		Codec[] codecs = { new CompactCodec(), new JavaSerializationCodec() };
+
+		words.put("the", 12L);
+		words.put("áéí", -3L);
+		mixed.put(1, Arrays.asList("a", 2L));
+		mixed.put("x", null);
+		Object[] values = { null, true, false, 0, -1, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, 3.25, "",
+			"text", Arrays.asList(), Arrays.asList("a", "b"), Arrays.asList(1, "b", null), words, mixed,
+			new HashMap<String, Long>(), new TreeSet<Integer>(Arrays.asList(3, 1)) };
+
+		for (Codec codec : codecs)
+			for (Object value : values)
+				assertEquals(value, codec.decode(codec.encode(value)));
+	}
+
+	@Test
+	public void	testCollectionsKeepTheirClass() throws Exception
+	{
+		CompactCodec codec = new CompactCodec();
+		Map<String, Long> sorted = new TreeMap<String, Long>(Comparator.reverseOrder());
+		Map<String, Long> inserted = new LinkedHashMap<String, Long>();
+		List<String> linked = new LinkedList<String>(Arrays.asList("b", "a"));
+
+		for (long i = 0; i < 20; i++) {
+			sorted.put("word" + i, i);
+			inserted.put("word" + (19 - i), i);
+		}
+		for (Object value : new Object[] { sorted, inserted, linked, new ArrayList<String>(linked), new HashMap<String, Long>(sorted) }) {
+			Object decoded = codec.decode(codec.encode(value));
+			assertEquals(value.getClass(), decoded.getClass());
+			assertEquals(value, decoded);
+		}
+		assertEquals(new ArrayList<String>(sorted.keySet()), new ArrayList<Object>(((Map<?, ?>) codec.decode(codec.encode(sorted))).keySet()));
+		assertEquals(new ArrayList<String>(inserted.keySet()), new ArrayList<Object>(((Map<?, ?>) codec.decode(codec.encode(inserted))).keySet()));
+	}
+
+	@Test
+	public void	testCompactIsSmaller() throws Exception
+	{
+		Map<String, Long> words = new HashMap<String, Long>();
+
+		for (long i = 0; i < 100; i++)
+			words.put("word" + i, i);
+		assertTrue(new CompactCodec().encode(words).length < new JavaSerializationCodec().encode(words).length / 2);
+	}
+
+	@Test
+	public void	testMalformedBytes()
+	{
+		CompactCodec codec = new CompactCodec();
+		byte[][] malformed = { {}, { 99 }, { 6, 10, 'a' }, { 3, 1, 0 } };
+
+		for (byte[] bytes : malformed) {
+			try {
+				codec.decode(bytes);
+				fail();
+			}
+			catch (IOException e) {
+			}
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void	testEncodedValueSerialization() throws Exception
+	{
+		List<String> lines = Arrays.asList("one line", "another line");
+		EncodedValue read = (EncodedValue) serializeAndRead(new EncodedValue(new CompactCodec(), lines));
+
+		assertTrue(read.getCodec() instanceof CompactCodec);
+		assertEquals(lines, (List<String>) read.getValue());
+	}
+
+	@Test
+	public void	testInvocationsWithCodec() throws Exception
+	{
+		Invoker										invoker = Invoker.createInvoker(10, 1);
+		RemoteInvoker								remote = new RemoteInvoker(invoker, 0, new CompactCodec());
+		SerializedFunction<List<String>, Integer>	count = lines -> lines.size();
+		Invokable<List<String>, Integer>			invokable = new Invokable<>(count, 1);
+
+		assertEquals(Integer.valueOf(2), remote.invoke(invokable, Arrays.asList("a", "b"), "Count"));
+		assertEquals(Integer.valueOf(1), remote.invokeAsync(invokable, Arrays.asList("a"), "Count").get());
+		assertEquals(Arrays.asList(0, 3), remote.invokeBatch(invokable,
+			Arrays.asList(Arrays.asList(), Arrays.asList("a", "b", "c")), "Count"));
+		assertEquals(Arrays.asList(1), remote.invokeBatchAsync(invokable, Arrays.asList(Arrays.asList("a")), "Count").get());
+		invoker.shutdownInvoker();
+	}
+
+}
@@ -0,0 +1,140 @@
+package testing.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.exceptions.InvocationRejected;
+import core.invoker.InvokerInterface;
+import core.invoker.OverflowPolicy;
+import policymanager.RoundRobin;
+import testing.InvocationTester;
+
+/**
+ * The AdmissionTestController class checks the bounded admission queues of the invokers
+ * when more asynchronous invocations arrive than the invokers have RAM for.
+ */
+public class AdmissionTestController extends InvocationTester {
+
+	private Controller controller;
+
+	/*
+	 * This gets called before each Test. We register an action that sleeps
+	 * the milliseconds received and returns them, using all the RAM of the invoker.
+	 */
+	@Before
+	public void	controllerInitialization()
+	{
+		controller = Controller.instantiate();
+		Function<Integer, Integer> echo = s -> {
+			try {
+				Thread.sleep(s);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return s;
+		};
+		try {
+			controller.setPolicyManager(new RoundRobin());
+			controller.registerAction("Echo", echo, 1);
+		} catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+	@After
+	public void	controllerCleanup() throws Exception
+	{
+		controller.setAdmissionPolicy(0, OverflowPolicy.BLOCK);
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		controller.deleteAction("Echo");
+	}
+
+	/*
+	 * With one invocation executing and one waiting, a third one does not fit in the queue.
+	 */
+	@Test
+	public void	testRejectWhenQueueFull()
+	{
+		createAndAddInvokers(Arrays.asList(1L), controller);
+		try {
+			controller.setAdmissionPolicy(1, OverflowPolicy.REJECT);
+			CompletableFuture<Integer> first = controller.invoke_async("Echo", 300);
+			CompletableFuture<Integer> second = controller.invoke_async("Echo", 301);
+			assertEquals(1, controller.getQueueDepth());
+			try {
+				controller.invoke_async("Echo", 302);
+				fail("The third invocation should be rejected.");
+			} catch (InvocationRejected e) {
+			}
+			assertEquals(Integer.valueOf(300), first.get());
+			assertEquals(Integer.valueOf(301), second.get());
+			assertEquals(0, controller.getQueueDepth());
+		}
+		catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * The invocation that has waited the longest is dropped to make room for the newest one.
+	 */
+	@Test
+	public void	testShedOldestWhenQueueFull()
+	{
+		createAndAddInvokers(Arrays.asList(1L), controller);
+		try {
+			controller.setAdmissionPolicy(1, OverflowPolicy.SHED_OLDEST);
+			CompletableFuture<Integer> first = controller.invoke_async("Echo", 300);
+			CompletableFuture<Integer> oldest = controller.invoke_async("Echo", 301);
+			CompletableFuture<Integer> newest = controller.invoke_async("Echo", 302);
+			assertEquals(1, controller.getQueueDepth());
+			try {
+				oldest.get();
+				fail("The oldest invocation should be dropped.");
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof InvocationRejected);
+			}
+			assertEquals(Integer.valueOf(300), first.get());
+			assertEquals(Integer.valueOf(302), newest.get());
+		}
+		catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * A capacity of 0 makes the queue unbounded again, also for the invokers registered later.
+	 */
+	@Test
+	public void	testUnboundedAgain()
+	{
+		try {
+			controller.setAdmissionPolicy(1, OverflowPolicy.REJECT);
+			controller.setAdmissionPolicy(0, OverflowPolicy.REJECT);
+			createAndAddInvokers(Arrays.asList(1L), controller);
+			CompletableFuture<Integer> first = controller.invoke_async("Echo", 300);
+			CompletableFuture<Integer> second = controller.invoke_async("Echo", 301);
+			CompletableFuture<Integer> third = controller.invoke_async("Echo", 302);
+			assertEquals(2, controller.getQueueDepth());
+			assertEquals(Integer.valueOf(300), first.get());
+			assertEquals(Integer.valueOf(301), second.get());
+			assertEquals(Integer.valueOf(302), third.get());
+		}
+		catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package testing.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.application.Invokable;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import policymanager.UniformGroup;
+
+/**
+ * The BatchGroupTestController class checks that group invocations send the elements assigned
+ * consecutively to the same invoker in a single call, with the group size of the PolicyManager.
+ */
+public class BatchGroupTestController {
+
+	/*
+	 * Invoker that records the size of every chunk it receives.
+	 */
+	private static class BatchRecordingInvoker extends Invoker {
+		private final ConcurrentLinkedQueue<Integer> chunks = new ConcurrentLinkedQueue<Integer>();
+
+		private BatchRecordingInvoker(long ram) {
+			super(ram, 4);
+		}
+
+		@Override
+		public <T, R> List<R> invokeBatch(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+			chunks.add(args.size());
+			return (super.invokeBatch(invokable, args, id));
+		}
+
+		@Override
+		public <T, R> CompletableFuture<List<R>> invokeBatchAsync(Invokable<T, R> invokable, List<T> args, String id) throws Exception {
+			chunks.add(args.size());
+			return (super.invokeBatchAsync(invokable, args, id));
+		}
+	}
+
+	private Controller				controller;
+	private BatchRecordingInvoker	first;
+	private BatchRecordingInvoker	second;
+
+	@Before
+	public void	controllerInitialization() throws Exception
+	{
+		Function<Integer, Integer> increment = x -> x + 1;
+
+		controller = Controller.instantiate();
+		controller.registerAction("Increment", increment, 1);
+		first = new BatchRecordingInvoker(10);
+		second = new BatchRecordingInvoker(10);
+		controller.registerInvoker(first);
+		controller.registerInvoker(second);
+	}
+
+	@After
+	public void	controllerCleanup() throws Exception
+	{
+		for (InvokerInterface invoker : Arrays.asList(first, second)) {
+			controller.deleteInvoker(invoker);
+			invoker.shutdownInvoker();
+		}
+		controller.deleteAction("Increment");
+	}
+
+	/*
+	 * Six elements among two invokers are planned in groups of three, each one sent in a single call.
+	 */
+	@Test
+	public void	testGroupSentInChunks() throws Exception
+	{
+		controller.setPolicyManager(new UniformGroup());
+		List<Integer> result = controller.invoke("Increment", Arrays.asList(1, 2, 3, 4, 5, 6));
+
+		assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), result);
+		assertEquals(Arrays.asList(3), Arrays.asList(first.chunks.toArray()));
+		assertEquals(Arrays.asList(3), Arrays.asList(second.chunks.toArray()));
+	}
+
+	@Test
+	public void	testAsyncGroupSentInChunks() throws Exception
+	{
+		controller.setPolicyManager(new UniformGroup());
+		List<Integer> result = controller.<Integer, Integer>invoke_async_all("Increment", Arrays.asList(1, 2, 3, 4, 5, 6)).get();
+
+		assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7), result);
+		assertEquals(Arrays.asList(3), Arrays.asList(first.chunks.toArray()));
+		assertEquals(Arrays.asList(3), Arrays.asList(second.chunks.toArray()));
+	}
+
+	/*
+	 * A policy that does not plan groups invokes every element on its own, without chunks.
+	 */
+	@Test
+	public void	testRoundRobinSendsSingleElements() throws Exception
+	{
+		controller.setPolicyManager(new RoundRobin());
+		List<Integer> result = controller.invoke("Increment", Arrays.asList(1, 2, 3, 4));
+
+		assertEquals(Arrays.asList(2, 3, 4, 5), result);
+		assertTrue(first.chunks.isEmpty());
+		assertTrue(second.chunks.isEmpty());
+		assertTrue(first.getAvailableRam() == 10 && second.getAvailableRam() == 10);
+	}
+
+}
@@ -0,0 +1,150 @@
+package testing.controller;
+
+import static org.junit.Assert.*;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.exceptions.OperationNotValid;
+import core.health.HealthMonitor;
+import core.health.HealthState;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import rmi.SerializedFunction;
+import rmi.ServerInvoker;
+import testing.FailingInvoker;
+
+/**
+ * The HealthTestController class checks that the invokers that do not answer the heartbeats of the
+ * Controller stop receiving invocations, and receive them again once they answer.
+ */
+public class HealthTestController {
+
+	private Controller controller;
+
+	private static void waitForHealth(Controller controller, InvokerInterface invoker, HealthState state) throws InterruptedException
+	{
+		for (int i = 0; i < 100 && controller.getHealth(invoker) != state; i++)
+			Thread.sleep(20);
+		assertEquals(state, controller.getHealth(invoker));
+	}
+
+	@Before
+	public void	controllerInitialization() throws Exception
+	{
+		SerializedFunction<Integer, Integer> add = x -> x + 1;
+
+		controller = Controller.instantiate();
+		controller.setPolicyManager(new RoundRobin());
+		try {
+			controller.registerAction("Add", add, 1);
+		} catch (OperationNotValid e) {
+			// registered by a previous test
+		}
+	}
+
+	@After
+	public void	removeInvokers() throws Exception
+	{
+		controller.removeHealthMonitor();
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+	}
+
+	@Test
+	public void	testDeadInvokerIsEvictedAndRecovers() throws Exception
+	{
+		FailingInvoker	first = new FailingInvoker(10);
+		FailingInvoker	second = new FailingInvoker(10);
+
+		controller.registerInvoker(first);
+		controller.registerInvoker(second);
+		controller.setHealthMonitor(20, 100, 3);
+		assertEquals(HealthState.HEALTHY, controller.getHealth(first));
+
+		// a single heartbeat missed makes it suspect, and it is not selected any more
+		second.setDown(true);
+		waitForHealth(controller, second, HealthState.SUSPECT);
+		waitForHealth(controller, second, HealthState.DEAD);
+		for (int i = 0; i < 10; i++)
+			assertEquals(Integer.valueOf(i + 1), controller.invoke("Add", i));
+		assertEquals(10, first.getInvocations());
+		assertEquals(0, second.getInvocations());
+
+		// once it answers again it is selected again
+		second.setDown(false);
+		waitForHealth(controller, second, HealthState.HEALTHY);
+		for (int i = 0; i < 10; i++)
+			controller.invoke("Add", i);
+		assertTrue(second.getInvocations() > 0);
+
+		// without monitor every registered invoker is selected
+		second.setDown(true);
+		waitForHealth(controller, second, HealthState.DEAD);
+		controller.removeHealthMonitor();
+		assertEquals(HealthState.HEALTHY, controller.getHealth(second));
+		assertThrows(RemoteException.class, () -> {
+			for (int i = 0; i < 10; i++)
+				controller.invoke("Add", i);
+		});
+	}
+
+	@Test
+	public void	testRemoteInvokerHeartbeat() throws Exception
+	{
+		ServerInvoker		server = ServerInvoker.bind(25451, Invoker.createInvoker(10, 1));
+		InvokerInterface	stub = (InvokerInterface) LocateRegistry.getRegistry("localhost", 25451).lookup("Invoker");
+
+		controller.registerInvoker(stub);
+		controller.setHealthMonitor(20, 500, 1);
+		Thread.sleep(100);
+		assertEquals(HealthState.HEALTHY, controller.getHealth(stub));
+
+		UnicastRemoteObject.unexportObject(server, true);
+		waitForHealth(controller, stub, HealthState.DEAD);
+		assertNull(controller.getHealth(Invoker.createInvoker(10, 1)));
+	}
+
+	@Test
+	public void	testBlockedHeartbeatIsNotSentAgain() throws Exception
+	{
+		CountDownLatch	release = new CountDownLatch(1);
+		AtomicInteger	heartbeats = new AtomicInteger(0);
+		FailingInvoker	blocked = new FailingInvoker(10) {
+			@Override
+			public void heartbeat() throws RemoteException {
+				heartbeats.incrementAndGet();
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		HealthMonitor	monitor = new HealthMonitor(60_000, 20, 3, (invoker, state) -> {});
+
+		monitor.monitor(blocked);
+		// every round misses the heartbeat, but only the first one reaches the invoker while it is blocked
+		for (int i = 0; i < 3; i++)
+			monitor.beat();
+		assertEquals(HealthState.DEAD, monitor.getState(blocked));
+		assertEquals(1, heartbeats.get());
+
+		release.countDown();
+		for (int i = 0; i < 100 && monitor.getState(blocked) != HealthState.HEALTHY; i++)
+			monitor.beat();
+		assertEquals(HealthState.HEALTHY, monitor.getState(blocked));
+		monitor.close();
+	}
+
+}
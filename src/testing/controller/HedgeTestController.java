@@ -0,0 +1,187 @@
+package testing.controller;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.application.HedgePolicy;
+import core.application.Invokable;
+import core.exceptions.OperationNotValid;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import core.metrics.MetricCollection;
+import observer.TimerObserver;
+import policymanager.RoundRobin;
+import testing.FailingInvoker;
+
+/**
+ * The HedgeTestController class checks that the asynchronous invocations sent to an invoker that is taking too
+ * long are duplicated in another invoker, and that the duplicate that loses does not keep any RAM.
+ */
+public class HedgeTestController {
+
+	private static final AtomicInteger executions = new AtomicInteger(0);
+
+	private Controller		controller;
+	private Invoker			slow;
+	private Invoker			fast;
+	private CountDownLatch	blocked;
+
+	@Before
+	public void	controllerInitialization() throws Exception
+	{
+		controller = Controller.instantiate();
+		controller.setPolicyManager(new RoundRobin());
+		try {
+			MetricCollection.instantiate().addObserver(new TimerObserver());
+		} catch (OperationNotValid e) {
+			// registered by a previous test
+		}
+		try {
+			controller.registerAction("Hedge", (Integer x) -> {
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				executions.incrementAndGet();
+				return (x + 1);
+			}, 1);
+		} catch (OperationNotValid e) {
+			// registered by a previous test
+		}
+		slow = Invoker.createInvoker(10, 1);
+		fast = Invoker.createInvoker(10, 1);
+		controller.registerInvoker(slow);
+		controller.registerInvoker(fast);
+		for (int i = 0; i < 10; i++)
+			controller.invoke("Hedge", i);
+		executions.set(0);
+		blocked = new CountDownLatch(1);
+	}
+
+	@After
+	public void	removeInvokers() throws Exception
+	{
+		blocked.countDown();
+		controller.setHedgePolicy(HedgePolicy.NONE);
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		slow.shutdownInvoker();
+		fast.shutdownInvoker();
+	}
+
+	/**
+	 * Takes the only thread of the slow invoker until the latch is released.
+	 */
+	private void	blockSlowInvoker() throws Exception
+	{
+		Invokable<Integer, Integer> block = new Invokable<Integer, Integer>(x -> {
+			try {
+				blocked.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return (x);
+		}, 1);
+		slow.invokeAsync(block, 0, "Block");
+	}
+
+	@Test
+	public void	testSlowInvocationIsHedged() throws Exception
+	{
+		List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+
+		controller.setHedgePolicy(new HedgePolicy(100, 5, 1));
+		blockSlowInvoker();
+		for (int i = 0; i < 6; i++)
+			futures.add(controller.invoke_async("Hedge", i));
+		for (int i = 0; i < 6; i++)
+			assertEquals(Integer.valueOf(i + 1), futures.get(i).get(2, TimeUnit.SECONDS));
+
+		// the duplicates left in the slow invoker are cancelled and never executed
+		blocked.countDown();
+		for (int i = 0; i < 100 && slow.getUsedRam() > 0; i++)
+			Thread.sleep(20);
+		Thread.sleep(50);
+		assertEquals(0, slow.getUsedRam());
+		assertEquals(10, slow.getAvailableRam());
+		assertEquals(6, executions.get());
+	}
+
+	@Test
+	public void	testDuplicatesAreNotSentFromTheTimer() throws Exception
+	{
+		Set<String>							senders = ConcurrentHashMap.newKeySet();
+		FailingInvoker						recording = new FailingInvoker(10) {
+			@Override
+			public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
+				senders.add(Thread.currentThread().getName());
+				return (super.invokeAsync(invokable, args, id));
+			}
+		};
+		List<CompletableFuture<Integer>>	futures = new ArrayList<CompletableFuture<Integer>>();
+
+		controller.deleteInvoker(fast);
+		controller.registerInvoker(recording);
+		controller.setHedgePolicy(new HedgePolicy(100, 5, 1));
+		blockSlowInvoker();
+		try {
+			for (int i = 0; i < 6; i++)
+				futures.add(controller.invoke_async("Hedge", i));
+			for (int i = 0; i < 6; i++)
+				assertEquals(Integer.valueOf(i + 1), futures.get(i).get(2, TimeUnit.SECONDS));
+			// the duplicates of the invocations sent to the slow invoker were sent to the other one
+			assertTrue(senders.size() > 1);
+			assertFalse(senders.contains("controller-hedge"));
+		}
+		finally {
+			recording.shutdownInvoker();
+		}
+	}
+
+	@Test
+	public void	testWithoutHedgingSlowInvocationWaits() throws Exception
+	{
+		List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+
+		blockSlowInvoker();
+		for (int i = 0; i < 2; i++)
+			futures.add(controller.invoke_async("Hedge", i));
+		Thread.sleep(200);
+		assertFalse(futures.get(0).isDone() && futures.get(1).isDone());
+
+		blocked.countDown();
+		for (int i = 0; i < 2; i++)
+			assertEquals(Integer.valueOf(i + 1), futures.get(i).get(2, TimeUnit.SECONDS));
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	public void	testHedgePolicyDelay() throws Exception
+	{
+		assertThrows(OperationNotValid.class, () -> new HedgePolicy(0, 5, 1));
+		assertThrows(OperationNotValid.class, () -> new HedgePolicy(101, 5, 1));
+		assertThrows(OperationNotValid.class, () -> new HedgePolicy(50, 0, 1));
+		assertThrows(OperationNotValid.class, () -> new HedgePolicy(50, 5, 0));
+		assertThrows(OperationNotValid.class, () -> controller.setHedgePolicy(null));
+
+		assertEquals(-1, HedgePolicy.NONE.getDelay("Hedge"));
+		assertEquals(-1, new HedgePolicy(50, 1000, 1).getDelay("Hedge"));
+		assertEquals(-1, new HedgePolicy(50, 1, 1).getDelay("NotRegistered"));
+		assertTrue(new HedgePolicy(50, 5, 1).getDelay("Hedge") >= TimeUnit.MILLISECONDS.toNanos(5));
+	}
+
+}
@@ -0,0 +1,145 @@
+package testing.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import testing.InvocationTester;
+
+/**
+ * The ParallelGroupTestController class checks synchronous group invocations executed
+ * concurrently among the invokers selected by the PolicyManager.
+ */
+public class ParallelGroupTestController extends InvocationTester {
+
+	private Controller controller;
+
+	/** The elements executed by the EchoOrFail action. */
+	private final AtomicInteger executed = new AtomicInteger();
+
+	/*
+	 * This gets called before each Test. We register an action that sleeps
+	 * the milliseconds received and returns them.
+	 */
+	@Before
+	public void	controllerInitialization()
+	{
+		controller = Controller.instantiate();
+		Function<Integer, Integer> echo = s -> {
+			try {
+				Thread.sleep(s);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			return s;
+		};
+		Function<Integer, Integer> echoOrFail = s -> {
+			executed.incrementAndGet();
+			if (s < 0)
+				throw new IllegalArgumentException("Negative sleep.");
+			return echo.apply(s);
+		};
+		try {
+			controller.setPolicyManager(new RoundRobin());
+			controller.registerAction("Echo", echo, 1);
+			controller.registerAction("EchoOrFail", echoOrFail, 1);
+		} catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+	@After
+	public void	controllerCleanup() throws Exception
+	{
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		controller.deleteAction("Echo");
+		controller.deleteAction("EchoOrFail");
+	}
+
+	/*
+	 * Four elements of 500ms distributed among two invokers take 2000ms when executed
+	 * one after another, and 1000ms when every invoker executes its share concurrently.
+	 */
+	@Test
+	public void	testParallelGroupInvocation()
+	{
+		createAndAddInvokers(Arrays.asList(1L, 1L), controller);
+		controller.setParallelGroupInvocation(true);
+		try {
+			long currentTimeMillis = System.currentTimeMillis();
+			List<Integer> result = controller.invoke("Echo", Arrays.asList(500, 501, 502, 503));
+			long totalTime = System.currentTimeMillis() - currentTimeMillis;
+
+			assertEquals(Arrays.asList(500, 501, 502, 503), result);
+			assertTrue(totalTime < 1800);
+		}
+		catch (Exception e) {
+			assertTrue(false);
+		}
+		finally {
+			controller.setParallelGroupInvocation(false);
+		}
+	}
+
+	/*
+	 * The same group executed sequentially keeps the previous behaviour.
+	 */
+	@Test
+	public void	testSequentialGroupInvocation()
+	{
+		createAndAddInvokers(Arrays.asList(1L, 1L), controller);
+		try {
+			long currentTimeMillis = System.currentTimeMillis();
+			List<Integer> result = controller.invoke("Echo", Arrays.asList(500, 501, 502, 503));
+			long totalTime = System.currentTimeMillis() - currentTimeMillis;
+
+			assertEquals(Arrays.asList(500, 501, 502, 503), result);
+			assertTrue(totalTime >= 2000);
+		}
+		catch (Exception e) {
+			assertTrue(false);
+		}
+	}
+
+	/*
+	 * The first invoker fails its first element while the second one is executing its share. The second
+	 * invoker does not send its next elements, and the invocation fails once it stopped, so no element is
+	 * executed after the failure is thrown.
+	 */
+	@Test
+	public void	testParallelGroupInvocationFailure()
+	{
+		createAndAddInvokers(Arrays.asList(1L, 1L), controller);
+		controller.setParallelGroupInvocation(true);
+		try {
+			controller.invoke("EchoOrFail", Arrays.asList(-1, 300, 10, 300, 10, 300));
+			assertTrue(false);
+		}
+		catch (Exception e) {
+			int executedWhenFailed = executed.get();
+			try {
+				Thread.sleep(700);
+			} catch (InterruptedException interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			assertTrue(executedWhenFailed < 6);
+			assertEquals(executedWhenFailed, executed.get());
+		}
+		finally {
+			controller.setParallelGroupInvocation(false);
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package testing.controller;
+
+import static org.junit.Assert.*;
+
+import java.rmi.ConnectIOException;
+import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.application.Invokable;
+import core.application.RetryPolicy;
+import core.exceptions.OperationNotValid;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import rmi.SerializedFunction;
+import testing.FailingInvoker;
+
+/**
+ * The RetryTestController class checks that the invocations sent to an invoker that cannot be reached
+ * are sent again to the other invokers, as allowed by the RetryPolicy of the Controller.
+ */
+public class RetryTestController {
+
+	private Controller		controller;
+	private FailingInvoker	healthy;
+	private FailingInvoker	failing;
+
+	@Before
+	public void	controllerInitialization() throws Exception
+	{
+		SerializedFunction<Integer, Integer> add = x -> x + 1;
+
+		controller = Controller.instantiate();
+		controller.setPolicyManager(new RoundRobin());
+		try {
+			controller.registerAction("Add", add, 1);
+		} catch (OperationNotValid e) {
+			// registered by a previous test
+		}
+		healthy = new FailingInvoker(10);
+		failing = new FailingInvoker(10);
+		controller.registerInvoker(failing);
+		controller.registerInvoker(healthy);
+		failing.setDown(true);
+	}
+
+	@After
+	public void	removeInvokers() throws Exception
+	{
+		controller.setRetryPolicy(RetryPolicy.NONE);
+		controller.setParallelGroupInvocation(false);
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+	}
+
+	private static List<Integer> range(int size)
+	{
+		List<Integer> values = new ArrayList<Integer>();
+
+		for (int i = 0; i < size; i++)
+			values.add(i);
+		return (values);
+	}
+
+	@Test
+	public void	testWithoutRetryFailureReachesCaller() throws Exception
+	{
+		assertThrows(RemoteException.class, () -> {
+			for (int i = 0; i < 2; i++)
+				controller.invoke("Add", i);
+		});
+	}
+
+	@Test
+	public void	testSingleInvocationFailsOver() throws Exception
+	{
+		controller.setRetryPolicy(new RetryPolicy(2, 1, 2, 10));
+		for (int i = 0; i < 10; i++)
+			assertEquals(Integer.valueOf(i + 1), controller.invoke("Add", i));
+		for (int i = 0; i < 10; i++)
+			assertEquals(Integer.valueOf(i + 1), controller.<Integer, Integer>invoke_async("Add", i).get());
+		assertEquals(20, healthy.getInvocations());
+		assertEquals(0, failing.getInvocations());
+	}
+
+	@Test
+	public void	testGroupInvocationFailsOver() throws Exception
+	{
+		List<Integer> expected = new ArrayList<Integer>();
+
+		for (int i = 0; i < 20; i++)
+			expected.add(i + 1);
+		controller.setRetryPolicy(new RetryPolicy(3, 0, 1, 0));
+		assertEquals(expected, controller.invoke("Add", range(20)));
+		assertEquals(expected, controller.<Integer, Integer>invoke_async_all("Add", range(20)).get());
+		controller.setParallelGroupInvocation(true);
+		assertEquals(expected, controller.invoke("Add", range(20)));
+		assertEquals(0, failing.getInvocations());
+	}
+
+	@Test
+	public void	testLastAttemptFailureReachesCaller() throws Exception
+	{
+		controller.setRetryPolicy(new RetryPolicy(3, 0, 1, 0));
+		healthy.setDown(true);
+		assertThrows(RemoteException.class, () -> controller.invoke("Add", 1));
+		assertThrows(OperationNotValid.class, () -> new RetryPolicy(0, 0, 1, 0));
+		assertThrows(OperationNotValid.class, () -> controller.setRetryPolicy(null));
+
+		// once an invoker answers again the invocations reach it
+		healthy.setDown(false);
+		CompletableFuture<Integer> future = controller.invoke_async("Add", 1);
+		assertEquals(Integer.valueOf(2), future.get());
+	}
+
+	@Test
+	public void	testFailureAfterRunningIsNotRetried() throws Exception
+	{
+		AtomicInteger	ran = new AtomicInteger(0);
+		FailingInvoker	unmarshalling = new FailingInvoker(10) {
+			@Override
+			public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception {
+				ran.incrementAndGet();
+				throw new UnmarshalException("Result couldn't be read.");
+			}
+		};
+		int				failures = 0;
+
+		controller.deleteInvoker(failing);
+		controller.registerInvoker(unmarshalling);
+		controller.setRetryPolicy(new RetryPolicy(3, 0, 1, 0));
+		for (int i = 0; i < 10; i++) {
+			try {
+				controller.invoke("Add", i);
+			}
+			catch (UnmarshalException e) {
+				failures++;
+			}
+		}
+		// every invocation that ran is only run once
+		assertEquals(ran.get(), failures);
+		assertEquals(10 - failures, healthy.getInvocations());
+		assertTrue(failures > 0);
+	}
+
+	@Test
+	public void	testAsyncInvocationFailsOverWhenConnectionIsLost() throws Exception
+	{
+		FailingInvoker	lost = new FailingInvoker(10) {
+			@Override
+			public <T, R> CompletableFuture<R> invokeAsync(Invokable<T, R> invokable, T args, String id) throws Exception {
+				return (CompletableFuture.failedFuture(new ConnectIOException("Connection lost.")));
+			}
+		};
+		List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+
+		controller.deleteInvoker(failing);
+		controller.registerInvoker(lost);
+		controller.setRetryPolicy(new RetryPolicy(2, 0, 1, 0));
+		for (int i = 0; i < 10; i++)
+			futures.add(controller.invoke_async("Add", i));
+		for (int i = 0; i < 10; i++)
+			assertEquals(Integer.valueOf(i + 1), futures.get(i).get());
+		assertEquals(10, healthy.getInvocations());
+	}
+
+}
@@ -0,0 +1,476 @@
+package testing.decorator;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import core.exceptions.NoResultAvailable;
+import core.exceptions.OperationNotValid;
+import decorator.Cache;
+import decorator.CacheDecorator;
+import decorator.CacheStats;
+import decorator.EvictionPolicy;
+import decorator.KeyExtractor;
+
+/**
+ * Checks that the results of every action in the Cache are bounded by its capacity, that the results evicted
+ * are the ones chosen by its EvictionPolicy, and that it can be used from many threads at the same time.
+ */
+public class CacheTest {
+
+	private final Cache cache = Cache.instantiate();
+
+	private boolean	isCached(String id, Object args)
+	{
+		try {
+			cache.getCacheResult(id, args);
+			return (true);
+		} catch (NoResultAvailable e) {
+			return (false);
+		}
+	}
+
+	@Test
+	public void	testLruEvictsLeastRecentlyUsed() throws Exception
+	{
+		cache.setCapacity("CacheTestLru", 3, EvictionPolicy.LRU);
+		for (int i = 0; i < 3; i++)
+			cache.cacheResult("CacheTestLru", i, i * 10);
+		assertEquals(Integer.valueOf(0), cache.getCacheResult("CacheTestLru", 0));
+		cache.cacheResult("CacheTestLru", 3, 30);
+
+		assertTrue(isCached("CacheTestLru", 0));
+		assertFalse(isCached("CacheTestLru", 1));
+		assertTrue(isCached("CacheTestLru", 2));
+		assertTrue(isCached("CacheTestLru", 3));
+		CacheStats stats = cache.getStats("CacheTestLru");
+		assertEquals(3, stats.getSize());
+		assertEquals(1, stats.getEvictions());
+		assertEquals(4, stats.getHits());
+		assertEquals(1, stats.getMisses());
+	}
+
+	@Test
+	public void	testLfuEvictsLeastFrequentlyUsed() throws Exception
+	{
+		cache.setCapacity("CacheTestLfu", 3, EvictionPolicy.LFU);
+		for (int i = 0; i < 3; i++)
+			cache.cacheResult("CacheTestLfu", i, i * 10);
+		for (int i = 0; i < 3; i++)
+			cache.getCacheResult("CacheTestLfu", 0);
+		cache.getCacheResult("CacheTestLfu", 1);
+		cache.getCacheResult("CacheTestLfu", 2);
+		cache.getCacheResult("CacheTestLfu", 1);
+		cache.cacheResult("CacheTestLfu", 3, 30);
+
+		assertTrue(isCached("CacheTestLfu", 0));
+		assertTrue(isCached("CacheTestLfu", 1));
+		assertFalse(isCached("CacheTestLfu", 2));
+		assertTrue(isCached("CacheTestLfu", 3));
+	}
+
+	/**
+	 * Caches 50 popular results used five times each, then scans 1000 arguments used once.
+	 *
+	 * @return The number of popular results still cached after the scan.
+	 */
+	private int	popularAfterScan(String id, EvictionPolicy policy) throws Exception
+	{
+		int popular = 0;
+
+		cache.setCapacity(id, 100, policy);
+		for (int i = 0; i < 50; i++)
+			cache.cacheResult(id, i, i);
+		for (int round = 0; round < 5; round++)
+			for (int i = 0; i < 50; i++)
+				cache.getCacheResult(id, i);
+		for (int i = 1000; i < 2000; i++) {
+			isCached(id, i);
+			cache.cacheResult(id, i, i);
+		}
+		for (int i = 0; i < 50; i++)
+			if (isCached(id, i))
+				popular++;
+		assertTrue(cache.getStats(id).getSize() <= 100);
+		return (popular);
+	}
+
+	@Test
+	public void	testTinyLfuKeepsPopularResultsDuringScan() throws Exception
+	{
+		// arguments requested once push every popular result out of an LRU, but hardly any out of TinyLFU
+		assertEquals(0, popularAfterScan("CacheTestScanLru", EvictionPolicy.LRU));
+		assertTrue(popularAfterScan("CacheTestScanTinyLfu", EvictionPolicy.TINY_LFU) >= 45);
+	}
+
+	@Test
+	public void	testWeightBound() throws Exception
+	{
+		cache.setCapacity("CacheTestWeight", 10, EvictionPolicy.LRU, (args, result) -> ((String) result).length());
+		cache.cacheResult("CacheTestWeight", 1, "aaaa");
+		cache.cacheResult("CacheTestWeight", 2, "bbbb");
+		cache.cacheResult("CacheTestWeight", 3, "cccc");
+		assertFalse(isCached("CacheTestWeight", 1));
+		assertEquals(8, cache.getStats("CacheTestWeight").getWeight());
+
+		// a result heavier than the capacity is not cached
+		cache.cacheResult("CacheTestWeight", 4, "ddddddddddddddd");
+		assertFalse(isCached("CacheTestWeight", 4));
+		assertTrue(isCached("CacheTestWeight", 3));
+
+		assertThrows(OperationNotValid.class, () -> cache.setCapacity("CacheTestWeight", 0, EvictionPolicy.LRU));
+		assertThrows(OperationNotValid.class, () -> cache.setCapacity("CacheTestWeight", 10, null));
+		assertThrows(OperationNotValid.class, () -> cache.setCapacity(null, 10, EvictionPolicy.LRU));
+	}
+
+	@Test
+	public void	testWeightBoundIsShared() throws Exception
+	{
+		String[] policies = { "Lru", "Lfu", "TinyLfu" };
+		EvictionPolicy[] evictionPolicies = { EvictionPolicy.LRU, EvictionPolicy.LFU, EvictionPolicy.TINY_LFU };
+
+		for (int p = 0; p < policies.length; p++) {
+			String id = "CacheTestSharedWeight" + policies[p];
+
+			// the weight of a result can be far larger than a sixteenth of the capacity
+			cache.setCapacity(id, 1_000_000, evictionPolicies[p], (args, result) -> ((byte[]) result).length);
+			cache.cacheResult(id, -1, new byte[100_000]);
+			assertTrue(isCached(id, -1));
+			cache.invalidate(id);
+			for (int i = 0; i < 20; i++)
+				cache.cacheResult(id, i, new byte[40_000]);
+			for (int i = 0; i < 20; i++)
+				assertTrue(isCached(id, i));
+			assertEquals(800_000, cache.getStats(id).getWeight());
+		}
+	}
+
+	@Test
+	public void	testConcurrentAccessKeepsCapacity() throws Exception
+	{
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (EvictionPolicy policy : EvictionPolicy.values()) {
+			String id = "CacheTestConcurrent" + policy;
+			cache.setCapacity(id, 1000, policy);
+			for (int t = 0; t < 8; t++) {
+				int seed = t;
+				Thread thread = new Thread(() -> {
+					for (int i = 0; i < 20_000; i++) {
+						int key = (i * 31 + seed) % 5000;
+						if (!isCached(id, key))
+							cache.cacheResult(id, key, key);
+					}
+				});
+				threads.add(thread);
+				thread.start();
+			}
+		}
+		for (Thread thread : threads)
+			thread.join();
+		for (EvictionPolicy policy : EvictionPolicy.values()) {
+			CacheStats stats = cache.getStats("CacheTestConcurrent" + policy);
+			assertTrue(stats.getSize() <= 1000);
+			assertEquals(stats.getSize(), stats.getWeight());
+			assertEquals(8 * 20_000, stats.getHits() + stats.getMisses());
+		}
+	}
+
+	/**
+	 * Applies the function from 8 threads started at the same time, collecting what each one got.
+	 */
+	private List<Object>	applyConcurrently(Function<Integer, Integer> function) throws Exception
+	{
+		ConcurrentLinkedQueue<Object> outcomes = new ConcurrentLinkedQueue<Object>();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<Thread>();
+
+		for (int t = 0; t < 8; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+					outcomes.add(function.apply(7));
+				} catch (Exception e) {
+					outcomes.add(e);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		return (new ArrayList<Object>(outcomes));
+	}
+
+	@Test
+	public void	testConcurrentMissesCallFunctionOnce() throws Exception
+	{
+		AtomicInteger calls = new AtomicInteger(0);
+		Function<Integer, Integer> slow = new CacheDecorator<Integer, Integer>(x -> {
+			calls.incrementAndGet();
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return (x * 6);
+		}, "CacheTestSingleFlight");
+
+		List<Object> outcomes = applyConcurrently(slow);
+		assertEquals(8, outcomes.size());
+		for (Object outcome : outcomes)
+			assertEquals(Integer.valueOf(42), outcome);
+		assertEquals(1, calls.get());
+		CacheStats stats = cache.getStats("CacheTestSingleFlight");
+		assertEquals(1, stats.getSize());
+		assertEquals(7, stats.getCoalesced());
+		assertEquals(Integer.valueOf(42), slow.apply(7));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	public void	testConcurrentMissesShareFailure() throws Exception
+	{
+		AtomicInteger calls = new AtomicInteger(0);
+		Function<Integer, Integer> failing = new CacheDecorator<Integer, Integer>(x -> {
+			calls.incrementAndGet();
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IllegalStateException("failed " + x);
+		}, "CacheTestSingleFlightFailure");
+
+		List<Object> outcomes = applyConcurrently(failing);
+		assertEquals(8, outcomes.size());
+		for (Object outcome : outcomes)
+			assertTrue(outcome instanceof IllegalStateException);
+		assertEquals(1, calls.get());
+
+		// the failure is not cached, so the next invocation calls the function again
+		assertThrows(IllegalStateException.class, () -> failing.apply(7));
+		assertEquals(2, calls.get());
+		assertFalse(isCached("CacheTestSingleFlightFailure", 7));
+	}
+
+	/** Arguments that are all written the same way, but are only equal to themselves. */
+	private static final class Opaque {
+		@Override
+		public String toString() {
+			return ("opaque");
+		}
+	}
+
+	@Test
+	public void	testKeysCompareArgumentsWithEquals() throws Exception
+	{
+		Opaque first = new Opaque();
+		Opaque second = new Opaque();
+
+		cache.cacheResult("CacheTestKeysEquals", first, 1);
+		assertEquals(Integer.valueOf(1), cache.getCacheResult("CacheTestKeysEquals", first));
+		assertFalse(isCached("CacheTestKeysEquals", second));
+
+		// equal arguments share the result even if they are different instances
+		List<Map<String, Long>> words = new ArrayList<Map<String, Long>>();
+		List<Map<String, Long>> copy = new ArrayList<Map<String, Long>>();
+		for (int i = 0; i < 100; i++) {
+			Map<String, Long> counts = new HashMap<String, Long>();
+			counts.put("word" + i, (long) i);
+			words.add(counts);
+			copy.add(new HashMap<String, Long>(counts));
+		}
+		cache.cacheResult("CacheTestKeysEquals", words, 2);
+		assertEquals(Integer.valueOf(2), cache.getCacheResult("CacheTestKeysEquals", copy));
+
+		// comparing the text makes arguments written the same way share the result
+		cache.setKeyExtractor("CacheTestKeysText", KeyExtractor.TO_STRING);
+		cache.cacheResult("CacheTestKeysText", first, 1);
+		assertEquals(Integer.valueOf(1), cache.getCacheResult("CacheTestKeysText", second));
+	}
+
+	@Test
+	public void	testKeyExtractorIsKeptWithCapacity() throws Exception
+	{
+		cache.setKeyExtractor("CacheTestKeysFingerprint", KeyExtractor.fingerprint(args -> ((Integer) args) % 10));
+		cache.setCapacity("CacheTestKeysFingerprint", 5, EvictionPolicy.LRU);
+		cache.cacheResult("CacheTestKeysFingerprint", 3, "three");
+
+		// arguments with the same fingerprint share the result
+		assertEquals("three", cache.getCacheResult("CacheTestKeysFingerprint", 13));
+		assertFalse(isCached("CacheTestKeysFingerprint", 4));
+		assertThrows(OperationNotValid.class, () -> cache.setKeyExtractor("CacheTestKeysFingerprint", null));
+		assertThrows(OperationNotValid.class, () -> cache.setKeyExtractor(null, KeyExtractor.EQUALS));
+	}
+
+	@Test
+	public void	testTimeToLiveExpiresResults() throws Exception
+	{
+		cache.setTimeToLive("CacheTestTtl", 200);
+		cache.cacheResult("CacheTestTtl", 1, "one");
+		assertTrue(isCached("CacheTestTtl", 1));
+		Thread.sleep(300);
+		assertFalse(isCached("CacheTestTtl", 1));
+		assertEquals(0, cache.getStats("CacheTestTtl").getSize());
+
+		assertThrows(OperationNotValid.class, () -> cache.setTimeToLive("CacheTestTtl", 0));
+		assertThrows(OperationNotValid.class, () -> cache.setRefreshAhead("CacheTestTtl", 1));
+		assertThrows(OperationNotValid.class, () -> cache.setRefreshAhead("CacheTestTtl", 0.5, null));
+	}
+
+	@Test
+	public void	testInvalidateRemovesResults() throws Exception
+	{
+		for (int i = 0; i < 3; i++)
+			cache.cacheResult("CacheTestInvalidate", i, i);
+		cache.invalidate("CacheTestInvalidate", 1);
+		assertTrue(isCached("CacheTestInvalidate", 0));
+		assertFalse(isCached("CacheTestInvalidate", 1));
+		assertTrue(isCached("CacheTestInvalidate", 2));
+		cache.invalidate("CacheTestInvalidate");
+		assertEquals(0, cache.getStats("CacheTestInvalidate").getSize());
+
+		// a result calculated while its arguments are invalidated is returned, but not cached
+		CountDownLatch running = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Function<Integer, Integer> blocked = new CacheDecorator<Integer, Integer>(x -> {
+			running.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return (x);
+		}, "CacheTestInvalidate");
+		List<Object> outcomes = new ArrayList<Object>();
+		Thread thread = new Thread(() -> outcomes.add(blocked.apply(5)));
+		thread.start();
+		running.await();
+		cache.invalidate("CacheTestInvalidate", 5);
+		release.countDown();
+		thread.join();
+		assertEquals(List.of(5), outcomes);
+		assertFalse(isCached("CacheTestInvalidate", 5));
+	}
+
+	@Test
+	public void	testRefreshAheadReplacesHotResults() throws Exception
+	{
+		AtomicInteger calls = new AtomicInteger(0);
+		AtomicInteger refreshes = new AtomicInteger(0);
+		Executor refresher = runnable -> {
+			refreshes.incrementAndGet();
+			new Thread(runnable).start();
+		};
+		Function<Integer, Integer> counted = new CacheDecorator<Integer, Integer>(x -> calls.incrementAndGet(),
+			"CacheTestRefresh");
+
+		cache.setTimeToLive("CacheTestRefresh", 1000);
+		cache.setRefreshAhead("CacheTestRefresh", 0.5, refresher);
+		long start = System.currentTimeMillis();
+		assertEquals(Integer.valueOf(1), counted.apply(0));
+		assertEquals(Integer.valueOf(1), counted.apply(0));
+		assertEquals(0, refreshes.get());
+
+		// requested after half its time to live, the result is returned and calculated again in the background
+		Thread.sleep(600);
+		assertEquals(Integer.valueOf(1), counted.apply(0));
+		for (int i = 0; i < 100 && calls.get() < 2; i++)
+			Thread.sleep(10);
+		assertEquals(2, calls.get());
+		assertEquals(1, refreshes.get());
+
+		// after the first result would have expired, the refreshed one is still cached
+		Thread.sleep(Math.max(0, 1100 - (System.currentTimeMillis() - start)));
+		assertEquals(Integer.valueOf(2), counted.apply(0));
+		assertEquals(2, calls.get());
+		assertEquals(1, cache.getStats("CacheTestRefresh").getMisses());
+	}
+
+	@Test
+	public void	testOffHeapTierKeepsEvictedResults() throws Exception
+	{
+		cache.setCapacity("CacheTestOffHeap", 2, EvictionPolicy.LRU);
+		cache.setOffHeapTier("CacheTestOffHeap", 1 << 20);
+		for (long i = 0; i < 5; i++)
+			cache.cacheResult("CacheTestOffHeap", i, Map.of("word" + i, i));
+		CacheStats stats = cache.getStats("CacheTestOffHeap");
+		assertEquals(2, stats.getSize());
+		assertEquals(3, stats.getOffHeapSize());
+		assertTrue(stats.getOffHeapBytes() > 0);
+		assertEquals(0, stats.getEvictions());
+
+		// read once it stays off the heap, read again it is hot and moved back, pushing another result out
+		assertEquals(Map.of("word0", 0L), cache.getCacheResult("CacheTestOffHeap", 0L));
+		assertEquals(3, cache.getStats("CacheTestOffHeap").getOffHeapSize());
+		assertEquals(Map.of("word0", 0L), cache.getCacheResult("CacheTestOffHeap", 0L));
+		stats = cache.getStats("CacheTestOffHeap");
+		assertEquals(2, stats.getSize());
+		assertEquals(3, stats.getOffHeapSize());
+		for (long i = 0; i < 5; i++)
+			assertTrue(isCached("CacheTestOffHeap", i));
+
+		assertThrows(OperationNotValid.class, () -> cache.setOffHeapTier("CacheTestOffHeap", 0));
+		assertThrows(OperationNotValid.class, () -> cache.setOffHeapTier("CacheTestOffHeap", 1L << 40));
+	}
+
+	@Test
+	public void	testOffHeapTierDiscardsOldestWhenFull() throws Exception
+	{
+		// every result takes 22 bytes serialized, so the buffer holds two of them
+		cache.setCapacity("CacheTestOffHeapFull", 1, EvictionPolicy.LRU);
+		cache.setOffHeapTier("CacheTestOffHeapFull", 64);
+		for (int i = 1; i <= 6; i++)
+			cache.cacheResult("CacheTestOffHeapFull", i, "result number " + i + "-----");
+		CacheStats stats = cache.getStats("CacheTestOffHeapFull");
+		assertEquals(1, stats.getSize());
+		assertEquals(2, stats.getOffHeapSize());
+		assertEquals(44, stats.getOffHeapBytes());
+		assertEquals(3, stats.getEvictions());
+		for (int i = 1; i <= 3; i++)
+			assertFalse(isCached("CacheTestOffHeapFull", i));
+		for (int i = 4; i <= 6; i++)
+			assertTrue(isCached("CacheTestOffHeapFull", i));
+	}
+
+	@Test
+	public void	testMappedOffHeapTierInvalidation() throws Exception
+	{
+		Path file = Files.createTempFile("cache-test", ".tier");
+
+		try {
+			cache.setCapacity("CacheTestOffHeapMapped", 1, EvictionPolicy.LRU);
+			cache.setOffHeapTier("CacheTestOffHeapMapped", 1 << 16, file);
+			cache.cacheResult("CacheTestOffHeapMapped", 1, List.of("a", "b"));
+			cache.cacheResult("CacheTestOffHeapMapped", 2, List.of("c"));
+			assertEquals(1, cache.getStats("CacheTestOffHeapMapped").getOffHeapSize());
+			assertEquals(List.of("a", "b"), cache.getCacheResult("CacheTestOffHeapMapped", 1));
+
+			cache.invalidate("CacheTestOffHeapMapped", 1);
+			assertFalse(isCached("CacheTestOffHeapMapped", 1));
+			assertEquals(0, cache.getStats("CacheTestOffHeapMapped").getOffHeapSize());
+
+			// the results evicted from the heap are discarded again without the tier
+			cache.removeOffHeapTier("CacheTestOffHeapMapped");
+			cache.cacheResult("CacheTestOffHeapMapped", 3, List.of("d"));
+			assertFalse(isCached("CacheTestOffHeapMapped", 2));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+package testing.policymanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import policymanager.BigGroup;
+import policymanager.GreedyGroup;
+import policymanager.PolicyManager;
+import policymanager.RoundRobin;
+import policymanager.UniformGroup;
+
+/**
+ * Checks the policy managers when many threads select invokers at the same time. Every thread
+ * selects invokers directly from the policy manager, and the number of times each invoker is
+ * selected must be the same as if the selections were done one after another.
+ */
+public class TestConcurrentPolicyManagers {
+
+	private static final int THREADS = 8;
+	private static final int SELECTIONS = 1000;
+
+	private List<InvokerInterface> createInvokers(int num, long ram)
+	{
+		List<InvokerInterface> invokers = new CopyOnWriteArrayList<InvokerInterface>();
+
+		for (int i = 0; i < num; i++)
+			invokers.add(Invoker.createInvoker(ram, 1));
+		return (invokers);
+	}
+
+	/*
+	 * Every thread selects SELECTIONS invokers, optionally reserving the RAM of the invocation in the
+	 * invoker selected, and the number of selections of each invoker is returned.
+	 */
+	private Map<InvokerInterface, AtomicInteger> selectConcurrently(PolicyManager policyManager,
+		List<InvokerInterface> invokers, long ram, boolean reserve) throws Exception
+	{
+		Map<InvokerInterface, AtomicInteger> selections = new ConcurrentHashMap<>();
+		ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+
+		for (InvokerInterface invoker : invokers)
+			selections.put(invoker, new AtomicInteger(0));
+		for (int i = 0; i < THREADS; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+					for (int j = 0; j < SELECTIONS; j++) {
+						InvokerInterface invoker = policyManager.getInvoker(invokers, ram);
+						if (reserve)
+							invoker.reserveRam(ram);
+						selections.get(invoker).incrementAndGet();
+					}
+				}
+				catch (Throwable e) {
+					errors.add(e);
+				}
+			}));
+		}
+		for (Thread thread : threads)
+			thread.start();
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+		assertTrue(errors.isEmpty());
+		return (selections);
+	}
+
+	private void assertEachSelected(Map<InvokerInterface, AtomicInteger> selections, int times)
+	{
+		for (AtomicInteger count : selections.values())
+			assertEquals(times, count.get());
+	}
+
+	@Test
+	public void	testRoundRobinFairUnderContention() throws Exception
+	{
+		List<InvokerInterface> invokers = createInvokers(4, 10);
+
+		assertEachSelected(selectConcurrently(new RoundRobin(), invokers, 1, false), THREADS * SELECTIONS / 4);
+	}
+
+	@Test
+	public void	testGreedyGroupFairWhenFullUnderContention() throws Exception
+	{
+		List<InvokerInterface> invokers = createInvokers(4, 1);
+
+		// all invokers are full, so they are selected in a circular order
+		for (InvokerInterface invoker : invokers)
+			invoker.reserveRam(1);
+		assertEachSelected(selectConcurrently(new GreedyGroup(), invokers, 1, false), THREADS * SELECTIONS / 4);
+	}
+
+	@Test
+	public void	testUniformGroupFairUnderContention() throws Exception
+	{
+		List<InvokerInterface> invokers = createInvokers(4, THREADS * SELECTIONS);
+		PolicyManager policyManager = new UniformGroup();
+
+		policyManager.prepareDistribution(invokers, THREADS * SELECTIONS, 1);
+		assertEachSelected(selectConcurrently(policyManager, invokers, 1, false), THREADS * SELECTIONS / 4);
+	}
+
+	@Test
+	public void	testBigGroupFairUnderContention() throws Exception
+	{
+		List<InvokerInterface> invokers = createInvokers(4, THREADS * SELECTIONS / 4);
+		PolicyManager policyManager = new BigGroup();
+
+		// each invoker has RAM for exactly one group, that is filled before moving to the next one
+		policyManager.prepareDistribution(invokers, THREADS * SELECTIONS, 1);
+		assertEachSelected(selectConcurrently(policyManager, invokers, 1, true), THREADS * SELECTIONS / 4);
+	}
+
+	@Test
+	public void	testSelectionWhileDeletingInvokers() throws Exception
+	{
+		PolicyManager[] policyManagers = { new RoundRobin(), new GreedyGroup(), new UniformGroup(), new BigGroup() };
+
+		for (PolicyManager policyManager : policyManagers) {
+			List<InvokerInterface> invokers = createInvokers(8, 10);
+			ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+			List<Thread> threads = new ArrayList<>();
+
+			policyManager.prepareDistribution(invokers, 2, 1);
+			for (int i = 0; i < THREADS; i++) {
+				threads.add(new Thread(() -> {
+					try {
+						for (int j = 0; j < SELECTIONS; j++)
+							assertNotNull(policyManager.getInvoker(invokers, 1));
+					}
+					catch (Throwable e) {
+						errors.add(e);
+					}
+				}));
+			}
+			for (Thread thread : threads)
+				thread.start();
+			// the policy manager may be pointing past the end of the list after each deletion
+			while (invokers.size() > 1)
+				invokers.remove(invokers.size() - 1);
+			for (Thread thread : threads)
+				thread.join();
+			assertTrue(errors.isEmpty());
+		}
+	}
+
+}
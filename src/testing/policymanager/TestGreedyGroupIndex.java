@@ -0,0 +1,119 @@
+package testing.policymanager;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import policymanager.GreedyGroup;
+
+/**
+ * Checks that the GreedyGroup selects the invoker with the least available RAM that fits when the
+ * RAM of the invokers or the list of invokers change between selections.
+ */
+public class TestGreedyGroupIndex {
+
+	@Test
+	public void	testSelectionFollowsReservations() throws Exception
+	{
+		Invoker					small = Invoker.createInvoker(4, 1);
+		Invoker					medium = Invoker.createInvoker(8, 1);
+		Invoker					big = Invoker.createInvoker(16, 1);
+		List<InvokerInterface>	invokers = new CopyOnWriteArrayList<>(Arrays.asList(big, medium, small));
+		GreedyGroup				greedyGroup = new GreedyGroup();
+
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		assertSame(medium, greedyGroup.getInvoker(invokers, 5));
+
+		// the small invoker has no room for the invocation anymore
+		small.reserveRam(3);
+		assertSame(medium, greedyGroup.getInvoker(invokers, 2));
+
+		// the big invoker becomes the best fit
+		big.reserveRam(11);
+		assertSame(big, greedyGroup.getInvoker(invokers, 2));
+
+		// released RAM is seen again
+		small.reserveRam(-3);
+		big.reserveRam(-11);
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+	}
+
+	@Test
+	public void	testSelectionFollowsListChanges() throws Exception
+	{
+		Invoker					small = Invoker.createInvoker(4, 1);
+		Invoker					big = Invoker.createInvoker(16, 1);
+		Invoker					medium = Invoker.createInvoker(8, 1);
+		List<InvokerInterface>	invokers = new CopyOnWriteArrayList<>(Arrays.asList(big, small));
+		GreedyGroup				greedyGroup = new GreedyGroup();
+
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		invokers.remove(small);
+		assertSame(big, greedyGroup.getInvoker(invokers, 2));
+
+		// same size, different invokers
+		invokers.add(medium);
+		invokers.remove(big);
+		invokers.add(small);
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		assertSame(medium, greedyGroup.getInvoker(invokers, 6));
+	}
+
+	@Test
+	public void	testSelectionFromPartOfTheList() throws Exception
+	{
+		Invoker					small = Invoker.createInvoker(4, 1);
+		Invoker					medium = Invoker.createInvoker(8, 1);
+		Invoker					big = Invoker.createInvoker(16, 1);
+		List<InvokerInterface>	invokers = new CopyOnWriteArrayList<>(Arrays.asList(big, medium, small));
+		GreedyGroup				greedyGroup = new GreedyGroup();
+
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		// a list without the invokers that failed is selected from the same index
+		assertSame(medium, greedyGroup.getInvoker(new ArrayList<>(Arrays.asList(big, medium)), 2));
+		assertSame(big, greedyGroup.getInvoker(new ArrayList<>(Arrays.asList(big)), 2));
+		medium.reserveRam(7);
+		assertSame(big, greedyGroup.getInvoker(new ArrayList<>(Arrays.asList(big, medium)), 2));
+		medium.reserveRam(-7);
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+
+		// the list the index was built for is indexed again when an invoker is deleted
+		invokers.remove(small);
+		assertSame(medium, greedyGroup.getInvoker(invokers, 2));
+	}
+
+	@Test
+	public void	testSelectionFromSnapshots() throws Exception
+	{
+		Invoker					small = Invoker.createInvoker(4, 1);
+		Invoker					medium = Invoker.createInvoker(8, 1);
+		Invoker					big = Invoker.createInvoker(16, 1);
+		List<InvokerInterface>	invokers = List.of(big, medium, small);
+		GreedyGroup				greedyGroup = new GreedyGroup();
+
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		small.reserveRam(3);
+		assertSame(medium, greedyGroup.getInvoker(invokers, 2));
+		small.reserveRam(-3);
+
+		// the snapshot that replaces the indexed one when an invoker is deleted is indexed again
+		invokers = List.of(big, medium);
+		assertSame(medium, greedyGroup.getInvoker(invokers, 2));
+		medium.reserveRam(7);
+		assertSame(big, greedyGroup.getInvoker(invokers, 2));
+		medium.reserveRam(-7);
+
+		// and so is the one that replaces it when an invoker is registered
+		invokers = List.of(big, medium, small);
+		assertSame(small, greedyGroup.getInvoker(invokers, 2));
+		assertSame(medium, greedyGroup.getInvoker(new ArrayList<>(Arrays.asList(big, medium)), 2));
+	}
+
+}
@@ -0,0 +1,130 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import core.application.Controller;
+import core.application.Invokable;
+import core.exceptions.ActionNotDeployed;
+import core.invoker.Invoker;
+import policymanager.RoundRobin;
+import rmi.RemoteInvoker;
+import rmi.SerializedFunction;
+
+/**
+ * Checks that actions are deployed once in remote invokers, which then receive only references to them.
+ * The remote invoker is a local one wrapped in a {@link RemoteInvoker}, so the Controller treats it as remote.
+ */
+public class ActionDeploymentTest {
+
+	/*
+	 * Invoker that counts the deployments and the invocations that received the whole function.
+	 */
+	private static class DeploymentRecordingInvoker extends Invoker {
+		private final AtomicInteger deployments = new AtomicInteger(0);
+		private final AtomicInteger functionsReceived = new AtomicInteger(0);
+
+		private DeploymentRecordingInvoker(long ram) {
+			super(ram, 1);
+		}
+
+		@Override
+		public void deployAction(String id, Invokable<?, ?> invokable) throws core.exceptions.OperationNotValid {
+			deployments.incrementAndGet();
+			super.deployAction(id, invokable);
+		}
+
+		@Override
+		public <T, R> R invoke(Invokable<T, R> invokable, T args, String id) throws Exception {
+			if (!invokable.isReference())
+				functionsReceived.incrementAndGet();
+			return (super.invoke(invokable, args, id));
+		}
+	}
+
+	private static int serializedSize(Object object) throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+			output.writeObject(object);
+		}
+		return (bytes.size());
+	}
+
+	@Test
+	public void	testReferenceNeedsDeployment() throws Exception
+	{
+		Invoker								invoker = Invoker.createInvoker(10, 1);
+		SerializedFunction<Integer, Integer>	increment = x -> x + 1;
+		SerializedFunction<Integer, Integer>	decrement = x -> x - 1;
+		Invokable<Integer, Integer>			invokable = new Invokable<>(increment, 1);
+		Invokable<Integer, Integer>			changed = new Invokable<>(decrement, 1);
+
+		assertNotNull(invokable.getHash());
+		assertNotEquals(invokable.getHash(), changed.getHash());
+		try {
+			invoker.invoke(invokable.reference(), 1, "Action");
+			fail();
+		}
+		catch (ActionNotDeployed e) {
+		}
+		invoker.deployAction("Action", invokable);
+		assertEquals(Integer.valueOf(2), invoker.invoke(invokable.reference(), 1, "Action"));
+		assertEquals(Arrays.asList(2, 3), invoker.invokeBatch(invokable.reference(), Arrays.asList(1, 2), "Action"));
+
+		// an action registered again with another function must be deployed again
+		try {
+			invoker.invokeAsync(changed.reference(), 1, "Action");
+			fail();
+		}
+		catch (ActionNotDeployed e) {
+		}
+		assertEquals(10, invoker.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testReferenceIsSmaller() throws Exception
+	{
+		int[]								captured = new int[1024];
+		SerializedFunction<Integer, Integer>	sum = x -> x + captured.length;
+		Invokable<Integer, Integer>			invokable = new Invokable<>(sum, 1);
+
+		assertTrue(serializedSize(invokable.reference()) < serializedSize(invokable) / 10);
+		// functions that cannot be serialized are never deployed
+		assertNull(new Invokable<Integer, Integer>(x -> x, 1).getHash());
+	}
+
+	@Test
+	public void	testControllerDeploysOnce() throws Exception
+	{
+		Controller							controller = Controller.instantiate();
+		DeploymentRecordingInvoker			invoker = new DeploymentRecordingInvoker(10);
+		RemoteInvoker						remote = new RemoteInvoker(invoker, 0);
+		SerializedFunction<Integer, Integer>	increment = x -> x + 1;
+
+		controller.setPolicyManager(new RoundRobin());
+		controller.registerInvoker(remote);
+		controller.registerAction("Increment", increment, 1);
+		try {
+			assertEquals(Integer.valueOf(2), controller.invoke("Increment", 1));
+			assertEquals(Integer.valueOf(3), controller.invoke("Increment", 2));
+			assertEquals(0, invoker.functionsReceived.get());
+			assertEquals(Arrays.asList(4, 5), controller.invoke("Increment", Arrays.asList(3, 4)));
+			assertEquals(1, invoker.deployments.get());
+		}
+		finally {
+			controller.deleteAction("Increment");
+			controller.deleteInvoker(remote);
+			invoker.shutdownInvoker();
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.rmi.registry.LocateRegistry;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import core.application.Controller;
+import core.application.Invokable;
+import core.invoker.InvokerInterface;
+import rmi.InvocationSet;
+import rmi.InvokerProcess;
+import rmi.Isolation;
+import rmi.SerializedFunction;
+import rmi.ServerHandler;
+
+/**
+ * Checks the invokers started in processes of their own. Every invoker reports the pid of the process where
+ * it executes an action, so what is checked is which invokers share a process.
+ */
+public class InvokerProcessTest {
+
+	private static final SerializedFunction<Integer, Long>	pid = x -> ProcessHandle.current().pid();
+	private static final Invokable<Integer, Long>			invokable = new Invokable<>(pid, 1);
+
+	private static long pidOf(InvokerInterface invoker) throws Exception
+	{
+		return (invoker.invoke(invokable, 0, "Pid"));
+	}
+
+	private static InvokerInterface lookup(int port) throws Exception
+	{
+		return ((InvokerInterface) LocateRegistry.getRegistry("localhost", port).lookup("Invoker"));
+	}
+
+	private static List<InvokerInterface> startTopology(Isolation isolation, int port) throws Exception
+	{
+		InvocationSet	composite = new InvocationSet(Arrays.asList(2L, 2L), null, 2L);
+		InvocationSet	controllerSet = new InvocationSet(Arrays.asList(2L), Arrays.asList(composite), null);
+
+		InvokerProcess.classPath = System.getProperty("java.class.path") + File.pathSeparator
+			+ new File(InvokerProcessTest.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+		ServerHandler.isolation = isolation;
+		ServerHandler.portStart = port;
+		ServerHandler.main(new String[] { InvocationSet.serializeToString(controllerSet) });
+		return (Controller.instantiate().getRegisteredInvokers());
+	}
+
+	@After
+	public void	destroyProcesses() throws Exception
+	{
+		Controller controller = Controller.instantiate();
+
+		for (InvokerInterface invoker : controller.getRegisteredInvokers())
+			controller.deleteInvoker(invoker);
+		InvokerProcess.destroyAll();
+		ServerHandler.isolation = Isolation.NONE;
+	}
+
+	@Test
+	public void	testEveryInvokerInItsOwnProcess() throws Exception
+	{
+		List<InvokerInterface>	invokers = startTopology(Isolation.INVOKER, 25431);
+		long					self = ProcessHandle.current().pid();
+
+		assertEquals(2, invokers.size());
+		long invoker = pidOf(invokers.get(0));
+		long composite = pidOf(invokers.get(1));
+		long first = pidOf(lookup(25433));
+		long second = pidOf(lookup(25434));
+		assertEquals(5, Arrays.asList(self, invoker, composite, first, second).stream().distinct().count());
+
+		// the ids are the same as if the invokers were started in this process
+		long firstId = Long.parseLong(invokers.get(0).getId());
+		assertEquals(Long.toString(firstId + 1), invokers.get(1).getId());
+		assertEquals(Long.toString(firstId + 3), lookup(25434).getId());
+	}
+
+	@Test
+	public void	testCompositeTreeInOneProcess() throws Exception
+	{
+		List<InvokerInterface>	invokers = startTopology(Isolation.GROUP, 25441);
+		long					self = ProcessHandle.current().pid();
+
+		assertEquals(2, invokers.size());
+		long invoker = pidOf(invokers.get(0));
+		long composite = pidOf(invokers.get(1));
+		assertNotEquals(self, invoker);
+		assertNotEquals(self, composite);
+		assertNotEquals(invoker, composite);
+		assertEquals(composite, pidOf(lookup(25443)));
+		assertEquals(composite, pidOf(lookup(25444)));
+		assertEquals(Long.toString(Long.parseLong(invokers.get(0).getId()) + 3), lookup(25444).getId());
+	}
+
+}
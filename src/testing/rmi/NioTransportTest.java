@@ -0,0 +1,134 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import core.application.Invokable;
+import core.exceptions.ActionNotDeployed;
+import core.invoker.InvokerInterface;
+import policymanager.RoundRobin;
+import rmi.NioInvokerClient;
+import rmi.NioInvokerServer;
+import rmi.SerializedFunction;
+
+/**
+ * Checks the invokers reached through the NIO transport. Each test starts its servers on its own ports and
+ * connects to them through the loopback interface.
+ */
+public class NioTransportTest {
+
+	@Test
+	public void	testInvocations() throws Exception
+	{
+		NioInvokerServer						server = NioInvokerServer.start(25401, 10, 2, false);
+		InvokerInterface						invoker = NioInvokerClient.connect("localhost", 25401);
+		SerializedFunction<Integer, Integer>	increment = x -> x + 1;
+		Invokable<Integer, Integer>				invokable = new Invokable<>(increment, 3);
+
+		try {
+			assertEquals(server.getInvoker().getId(), invoker.getId());
+			assertEquals(10, invoker.getMaxRam());
+			assertSame(invoker, NioInvokerClient.connect("localhost", 25401));
+			// the invoker selecting itself is the same proxy, not a copy of the remote invoker
+			assertEquals(invoker, invoker.selectInvoker(3));
+			assertEquals(Integer.valueOf(2), invoker.invoke(invokable, 1, "Increment"));
+			assertEquals(Integer.valueOf(3), invoker.invokeAsync(invokable, 2, "Increment").get());
+			assertEquals(Arrays.asList(4, 5), invoker.invokeBatch(invokable, Arrays.asList(3, 4), "Increment"));
+			assertEquals(Arrays.asList(6, 7), invoker.invokeBatchAsync(invokable, Arrays.asList(5, 6), "Increment").get());
+			assertEquals(10, invoker.getAvailableRam());
+		}
+		finally {
+			NioInvokerClient.disconnect("localhost", 25401);
+			server.getInvoker().shutdownInvoker();
+			server.close();
+		}
+	}
+
+	@Test
+	public void	testExceptionsArePropagated() throws Exception
+	{
+		NioInvokerServer						server = NioInvokerServer.start(25402, 10, 2, false);
+		InvokerInterface						invoker = NioInvokerClient.connect("localhost", 25402);
+		SerializedFunction<Integer, Integer>	increment = x -> x + 1;
+		Invokable<Integer, Integer>				invokable = new Invokable<>(increment, 3);
+
+		try {
+			// asynchronous methods throw when they are called, as they do through RMI
+			try {
+				invoker.invokeAsync(invokable.reference(), 1, "Increment");
+				fail();
+			}
+			catch (ActionNotDeployed e) {
+			}
+			invoker.deployAction("Increment", invokable);
+			assertEquals(Integer.valueOf(2), invoker.invoke(invokable.reference(), 1, "Increment"));
+		}
+		finally {
+			NioInvokerClient.disconnect("localhost", 25402);
+			server.getInvoker().shutdownInvoker();
+			server.close();
+		}
+	}
+
+	@Test
+	public void	testPipelinedInvocations() throws Exception
+	{
+		NioInvokerServer						server = NioInvokerServer.start(25403, 100, 4, false);
+		InvokerInterface						invoker = NioInvokerClient.connect("localhost", 25403);
+		SerializedFunction<Integer, Integer>	slowIncrement = x -> {
+			try {
+				Thread.sleep(x % 2 == 0 ? 50 : 1);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return (x + 1);
+		};
+		Invokable<Integer, Integer>				invokable = new Invokable<>(slowIncrement, 1);
+		List<CompletableFuture<Integer>>		futures = new ArrayList<CompletableFuture<Integer>>();
+
+		try {
+			// the responses arrive in the order the invocations finish and are matched to their calls
+			for (int i = 0; i < 20; i++)
+				futures.add(invoker.invokeAsync(invokable, i, "SlowIncrement"));
+			for (int i = 0; i < 20; i++)
+				assertEquals(Integer.valueOf(i + 1), futures.get(i).get());
+		}
+		finally {
+			NioInvokerClient.disconnect("localhost", 25403);
+			server.getInvoker().shutdownInvoker();
+			server.close();
+		}
+	}
+
+	@Test
+	public void	testCompositeSelectsRemoteChild() throws Exception
+	{
+		NioInvokerServer	compositeServer = NioInvokerServer.start(25404, 1, 1, true);
+		NioInvokerServer	childServer = NioInvokerServer.start(25405, 5, 1, false);
+		InvokerInterface	composite = NioInvokerClient.connect("localhost", 25404);
+		InvokerInterface	child = NioInvokerClient.connect("localhost", 25405);
+
+		try {
+			composite.setPolicyManager(new RoundRobin());
+			// the composite receives the address of the child and connects to it
+			composite.registerInvoker(child);
+			assertEquals(child, composite.selectInvoker(3));
+		}
+		finally {
+			NioInvokerClient.disconnect("localhost", 25404);
+			NioInvokerClient.disconnect("localhost", 25405);
+			compositeServer.getInvoker().shutdownInvoker();
+			childServer.getInvoker().shutdownInvoker();
+			compositeServer.close();
+			childServer.close();
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import core.application.Invokable;
+import core.invoker.Invoker;
+import core.invoker.InvokerInterface;
+import rmi.SerializedFunction;
+import rmi.ServerInvoker;
+
+/**
+ * Checks the asynchronous invocations of invokers reached through RMI. The results are sent back by the server
+ * when each invocation finishes, so the caller only waits for them to be accepted.
+ */
+public class RemoteAsyncTest {
+
+	/** Released to finish the invocations of a server that was lost. */
+	private static final CountDownLatch release = new CountDownLatch(1);
+
+	private static InvokerInterface startServer(int port, long ram) throws Exception
+	{
+		ServerInvoker.main(new String[] { Integer.toString(port), Long.toString(ram), "0" });
+		return ((InvokerInterface) LocateRegistry.getRegistry("localhost", port).lookup("Invoker"));
+	}
+
+	private static Integer sleepAndIncrement(Integer x, long millis)
+	{
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return (x + 1);
+	}
+
+	@Test
+	public void	testCallerDoesNotWaitForResult() throws Exception
+	{
+		InvokerInterface						invoker = startServer(25411, 10);
+		SerializedFunction<Integer, Integer>	slowIncrement = x -> sleepAndIncrement(x, 500);
+		Invokable<Integer, Integer>				invokable = new Invokable<>(slowIncrement, 1);
+		long									start = System.nanoTime();
+		CompletableFuture<Integer>				future = invoker.invokeAsync(invokable, 1, "SlowIncrement");
+
+		assertTrue((System.nanoTime() - start) / 1_000_000 < 400);
+		assertFalse(future.isDone());
+		assertEquals(Integer.valueOf(2), future.get());
+		assertEquals(Arrays.asList(3, 4), invoker.invokeBatchAsync(invokable, Arrays.asList(2, 3), "SlowIncrement").get());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testManyInvocationsInFlight() throws Exception
+	{
+		InvokerInterface						invoker = startServer(25412, 1000);
+		SerializedFunction<Integer, Integer>	slowIncrement = x -> sleepAndIncrement(x, 5);
+		Invokable<Integer, Integer>				invokable = new Invokable<>(slowIncrement, 1);
+		List<CompletableFuture<Integer>>		futures = new ArrayList<CompletableFuture<Integer>>();
+
+		for (int i = 0; i < 500; i++)
+			futures.add(invoker.invokeAsync(invokable, i, "SlowIncrement"));
+		for (int i = 0; i < 500; i++)
+			assertEquals(Integer.valueOf(i + 1), futures.get(i).get());
+		assertEquals(1000, invoker.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testFailureIsSentBack() throws Exception
+	{
+		InvokerInterface						invoker = startServer(25413, 10);
+		SerializedFunction<Integer, Integer>	failing = x -> { throw new IllegalStateException("Failed " + x); };
+		Invokable<Integer, Integer>				invokable = new Invokable<>(failing, 1);
+
+		try {
+			invoker.invokeAsync(invokable, 1, "Failing").get();
+			fail();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			while (!(cause instanceof IllegalStateException) && cause.getCause() != null)
+				cause = cause.getCause();
+			assertEquals("Failed 1", cause.getMessage());
+		}
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testCancelReleasesRamInServer() throws Exception
+	{
+		InvokerInterface						invoker = startServer(25414, 1);
+		SerializedFunction<Integer, Integer>	slowIncrement = x -> sleepAndIncrement(x, 1000);
+		Invokable<Integer, Integer>				invokable = new Invokable<>(slowIncrement, 1);
+		CompletableFuture<Integer>				running = invoker.invokeAsync(invokable, 1, "SlowIncrement");
+		CompletableFuture<Integer>				queued = invoker.invokeAsync(invokable, 2, "SlowIncrement");
+
+		assertEquals(1, invoker.getQueueDepth());
+		assertTrue(queued.cancel(false));
+		// it leaves the queue of the server while the first invocation is still running
+		for (int i = 0; i < 50 && invoker.getQueueDepth() > 0; i++)
+			Thread.sleep(10);
+		assertEquals(0, invoker.getQueueDepth());
+		assertFalse(running.isDone());
+		assertEquals(Integer.valueOf(2), running.get());
+		Thread.sleep(100);
+		assertEquals(0, invoker.getUsedRam());
+		assertEquals(1, invoker.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testLostServerFailsFuture() throws Exception
+	{
+		ServerInvoker							server = ServerInvoker.bind(25415, Invoker.createInvoker(10, 1));
+		InvokerInterface						invoker = (InvokerInterface) LocateRegistry.getRegistry("localhost", 25415).lookup("Invoker");
+		SerializedFunction<Integer, Integer>	blocked = x -> {
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return (x + 1);
+		};
+		CompletableFuture<Integer>				future = invoker.invokeAsync(new Invokable<>(blocked, 1), 1, "Blocked");
+
+		// the server stops answering while the invocation is running, so its result is never sent
+		UnicastRemoteObject.unexportObject(server, true);
+		try {
+			future.get(10, TimeUnit.SECONDS);
+			fail();
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RemoteException);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+}
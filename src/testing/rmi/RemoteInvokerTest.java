@@ -0,0 +1,79 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import core.application.Invokable;
+import core.invoker.CompositeInvoker;
+import core.invoker.Invoker;
+import policymanager.RoundRobin;
+import rmi.RemoteInvoker;
+
+/**
+ * Checks the state cached by a RemoteInvoker. The wrapped invokers are local, what is checked is
+ * when the RemoteInvoker reads the state of the invoker it wraps.
+ */
+public class RemoteInvokerTest {
+
+	@Test
+	public void	testStateIsReadFromSnapshot() throws Exception
+	{
+		Invoker			invoker = Invoker.createInvoker(10, 1);
+		RemoteInvoker	remote = new RemoteInvoker(invoker, 0);
+
+		assertEquals(invoker.getId(), remote.getId());
+		assertEquals(10, remote.getMaxRam());
+		assertEquals(10, remote.getAvailableRam());
+
+		// changes not made through the RemoteInvoker are only seen after a refresh
+		invoker.reserveRam(4);
+		assertEquals(10, remote.getAvailableRam());
+		remote.refresh();
+		assertEquals(6, remote.getAvailableRam());
+
+		// reservations made through the RemoteInvoker are seen immediately and not counted twice
+		remote.reserveRam(2);
+		assertEquals(4, remote.getAvailableRam());
+		remote.refresh();
+		assertEquals(4, remote.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testInvocationsThroughRemoteInvoker() throws Exception
+	{
+		Invoker						invoker = Invoker.createInvoker(10, 1);
+		RemoteInvoker				remote = new RemoteInvoker(invoker, 0);
+		Function<Integer, Integer>	increment = x -> x + 1;
+		Invokable<Integer, Integer>	invokable = new Invokable<>(increment, 3);
+
+		assertSame(remote, remote.selectInvoker(3));
+		assertEquals(Integer.valueOf(2), remote.invoke(invokable, 1, "Increment"));
+		assertEquals(Integer.valueOf(3), remote.invokeAsync(invokable, 2, "Increment").get());
+		assertEquals(10, remote.getAvailableRam());
+		remote.refresh();
+		assertEquals(0, remote.getSnapshot().getInFlight());
+		assertEquals(10, remote.getAvailableRam());
+		invoker.shutdownInvoker();
+	}
+
+	@Test
+	public void	testCompositeSelectsRemotely() throws Exception
+	{
+		CompositeInvoker	composite = CompositeInvoker.createInvoker(1, 1);
+		Invoker				child = Invoker.createInvoker(5, 1);
+
+		composite.setPolicyManager(new RoundRobin());
+		composite.registerInvoker(child);
+		RemoteInvoker remote = new RemoteInvoker(composite, 0);
+
+		assertTrue(remote.getSnapshot().isComposite());
+		assertSame(child, remote.selectInvoker(3));
+		composite.shutdownInvoker();
+		child.shutdownInvoker();
+	}
+
+}
@@ -0,0 +1,60 @@
+package testing.rmi;
+
+import static org.junit.Assert.*;
+
+import java.rmi.registry.LocateRegistry;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import core.application.Controller;
+import core.exceptions.OperationNotValid;
+import core.invoker.InvokerInterface;
+import rmi.InvocationSet;
+import rmi.ServerHandler;
+
+/**
+ * Checks the topologies brought up by the ServerHandler. The servers are started concurrently, so what is
+ * checked is that the result is the same as if they were started one after another.
+ */
+public class ServerHandlerTest {
+
+	private static InvokerInterface lookup(int port) throws Exception
+	{
+		return ((InvokerInterface) LocateRegistry.getRegistry("localhost", port).lookup("Invoker"));
+	}
+
+	@Test
+	public void	testTopologyIsWiredInOrder() throws Exception
+	{
+		Controller		controller = Controller.instantiate();
+		InvocationSet	composite = new InvocationSet(Arrays.asList(2L, 3L), null, 5L);
+		InvocationSet	controllerSet = new InvocationSet(Arrays.asList(1L), Arrays.asList(composite), null);
+
+		ServerHandler.portStart = 25421;
+		ServerHandler.main(new String[] { InvocationSet.serializeToString(controllerSet) });
+
+		// the invokers and composites of the Controller are registered in the order of the InvocationSet
+		List<InvokerInterface> invokers = controller.getRegisteredInvokers();
+		assertEquals(2, invokers.size());
+		assertEquals(1, invokers.get(0).getMaxRam());
+		assertEquals(5, invokers.get(1).getMaxRam());
+
+		// the ports and the ids of the invokers follow the order of the InvocationSet
+		long compositeId = Long.parseLong(invokers.get(1).getId());
+		assertEquals(Long.parseLong(invokers.get(0).getId()) + 1, compositeId);
+		assertEquals(Long.toString(compositeId + 1), lookup(25423).getId());
+		assertEquals(Long.toString(compositeId + 2), lookup(25424).getId());
+		assertEquals(3, lookup(25424).getMaxRam());
+
+		// the children of the composite are already registered into it
+		assertThrows(OperationNotValid.class, () -> invokers.get(1).registerInvoker(lookup(25423)));
+		assertThrows(OperationNotValid.class, () -> invokers.get(1).registerInvoker(lookup(25424)));
+
+		controller.shutdownAllInvokers();
+		for (InvokerInterface invoker : invokers)
+			controller.deleteInvoker(invoker);
+	}
+
+}